@@ -2,14 +2,17 @@ package RestaurantApi.restaurantapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.context.ConfigurableApplicationContext;
 
-@EnableWebMvc
 @SpringBootApplication
 public class RestaurantApiApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(RestaurantApiApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(RestaurantApiApplication.class, args);
+		//The training run of the appcds build profile exits once started, dumping the classes it loaded to the CDS archive.
+		if (context.getEnvironment().getProperty("restaurant.startup.training-run", Boolean.class, false)) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
@@ -0,0 +1,24 @@
+package RestaurantApi.restaurantapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * This class holds the settings of the catalog events bus (restaurant.catalog-events.* properties).
+ */
+@Data
+@ConfigurationProperties(prefix = "restaurant.catalog-events")
+public class CatalogEventsProperties {
+
+    private boolean enabled = true;
+
+    private long collectionSizeBytes = 1024 * 1024; //The size of the capped collection.
+
+    private long maxEvents = 10000;
+
+    private Duration pollInterval = Duration.ofSeconds(5); //How often the events are polled while the tail is down.
+
+    private Duration resumeMargin = Duration.ofSeconds(5); //How far back a resumed tail reads, to cover clock skew between instances.
+}
@@ -0,0 +1,22 @@
+package RestaurantApi.restaurantapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * This class holds the settings of the stock of the products (restaurant.inventory.* properties).
+ */
+@Data
+@ConfigurationProperties(prefix = "restaurant.inventory")
+public class InventoryProperties {
+
+    private int leaseSize = 20; //The units an instance takes from the stock of a product at once while another lease is left, and sells from memory.
+
+    private int stripes = 4; //The counters the units of a product are spread over, so concurrent orders rarely contend.
+
+    private Duration flushInterval = Duration.ofSeconds(1); //How often the sold units are saved and the leases renewed.
+
+    private Duration leaseExpiry = Duration.ofMinutes(1); //The units of a lease that wasn't renewed for this long go back to the stock.
+}
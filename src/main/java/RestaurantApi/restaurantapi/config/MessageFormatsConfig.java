@@ -0,0 +1,45 @@
+package RestaurantApi.restaurantapi.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.List;
+
+/**
+ * This class adds the binary formats CBOR (application/cbor) and Smile (application/x-jackson-smile) next to JSON,
+ * for the integrations that send many orders or pull the whole catalog. A client picks them with the Accept and Content-Type headers.
+ * They are written with the Jackson settings of the JSON (spring.jackson.*), so the three formats carry the same fields and values,
+ * and the requests in them are validated the same.
+ */
+@Configuration
+public class MessageFormatsConfig {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    public static final List<MediaType> BINARY_TYPES = List.of(MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+
+    /**
+     * The CBOR converter of the requests and the responses.
+     * @param builder - the builder of the JSON object mapper, with the spring.jackson.* settings.
+     * @return MappingJackson2CborHttpMessageConverter.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * The Smile converter of the requests and the responses.
+     * @param builder - the builder of the JSON object mapper, with the spring.jackson.* settings.
+     * @return MappingJackson2SmileHttpMessageConverter.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,70 @@
+package RestaurantApi.restaurantapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds the settings of the Mongo client (restaurant.mongodb.* properties).
+ * The connection string stays in spring.data.mongodb.uri.
+ */
+@Data
+@ConfigurationProperties(prefix = "restaurant.mongodb")
+public class MongoClientProperties {
+
+    private Pool pool = new Pool();
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    private Duration socketTimeout = Duration.ofSeconds(2); //How long a database call may wait for an answer.
+
+    private Duration serverSelectionTimeout = Duration.ofSeconds(2);
+
+    private List<String> compressors = new ArrayList<>(List.of("zlib")); //zlib, snappy or zstd (snappy and zstd need their libraries).
+
+    private WriteConcerns writeConcern = new WriteConcerns();
+
+    private ReadPreferences readPreference = new ReadPreferences();
+
+    /**
+     * This class defines the connection pool.
+     */
+    @Data
+    public static class Pool {
+
+        private int maxSize = 100;
+
+        private int minSize = 0;
+
+        private Duration maxWaitTime = Duration.ofSeconds(2); //How long a call may wait for a free connection.
+
+        private Duration maxConnectionIdleTime = Duration.ofMinutes(5);
+    }
+
+    /**
+     * This class defines the write concern of every type of write, e.g. majority or w1.
+     */
+    @Data
+    public static class WriteConcerns {
+
+        private String orders = "majority";
+
+        private String products = "majority";
+
+        private String bulk = "w1"; //Writes of many documents at once, e.g. imports.
+    }
+
+    /**
+     * This class defines the read preference of every type of read, e.g. primary or secondaryPreferred.
+     */
+    @Data
+    public static class ReadPreferences {
+
+        private String defaults = "primary";
+
+        private String listings = "secondaryPreferred"; //Listings and analytics, which may be a little stale.
+    }
+}
@@ -0,0 +1,174 @@
+package RestaurantApi.restaurantapi.config;
+
+import RestaurantApi.restaurantapi.repositories.OrderConverters;
+import RestaurantApi.restaurantapi.repositories.OrderShards;
+import RestaurantApi.restaurantapi.repositories.ProductConverters;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoActionOperation;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.WriteConcernResolver;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Configuration
+@EnableConfigurationProperties({MongoClientProperties.class, ResilienceProperties.class, CatalogEventsProperties.class,
+        OrderArchiveProperties.class, OrderStorageProperties.class, OrderShardsProperties.class, OrderFeedProperties.class,
+        InventoryProperties.class})
+public class MongoConfig {
+
+    public static final String LISTING_MONGO_TEMPLATE = "listingMongoTemplate";
+
+    /**
+     * Applies the pool, the timeouts and the compression of restaurant.mongodb.* to the Mongo client.
+     * The timeouts bound every database call, so request threads don't pile up when the cluster degrades.
+     * @param properties - the Mongo client settings.
+     * @return MongoClientSettingsBuilderCustomizer.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoClientCustomizer(MongoClientProperties properties) {
+        MongoClientProperties.Pool pool = properties.getPool();
+        return settings -> settings
+                .applyToConnectionPoolSettings(poolSettings -> poolSettings
+                        .maxSize(pool.getMaxSize())
+                        .minSize(pool.getMinSize())
+                        .maxWaitTime(pool.getMaxWaitTime().toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(pool.getMaxConnectionIdleTime().toMillis(), TimeUnit.MILLISECONDS))
+                .applyToSocketSettings(socket -> socket
+                        .connectTimeout((int) properties.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                        .readTimeout((int) properties.getSocketTimeout().toMillis(), TimeUnit.MILLISECONDS))
+                .applyToClusterSettings(cluster -> cluster
+                        .serverSelectionTimeout(properties.getServerSelectionTimeout().toMillis(), TimeUnit.MILLISECONDS))
+                .compressorList(compressorsOf(properties.getCompressors()));
+    }
+
+    /**
+     * The hand written converters of the orders and the products, which the mapping converter uses instead of reflection.
+     * @return MongoCustomConversions.
+     */
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(new OrderConverters.Write(), new OrderConverters.Read(),
+                new ProductConverters.Write(), new ProductConverters.Read()));
+    }
+
+    /**
+     * The template of the repositories, writing every type of write with its own write concern.
+     * @return MongoTemplate.
+     */
+    @Bean
+    @Primary
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter,
+                                       MongoClientProperties properties) {
+        return newMongoTemplate(mongoDatabaseFactory, mongoConverter, properties);
+    }
+
+    /**
+     * The template of the listings and the analytics, which read with the listings read preference.
+     * @return MongoTemplate.
+     */
+    @Bean
+    @Qualifier(LISTING_MONGO_TEMPLATE)
+    public MongoTemplate listingMongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter,
+                                              MongoClientProperties properties) {
+        return newListingMongoTemplate(mongoDatabaseFactory, mongoConverter, properties);
+    }
+
+    /**
+     * The shards of the orders: the databases of restaurant.order-shards.uris, or the main database when there are none.
+     * Every shard has its own client, with the pool, the timeouts and the compression of the main client,
+     * and its own templates, with the write concerns and the read preferences of the main templates.
+     * @return OrderShards.
+     */
+    @Bean
+    public OrderShards orderShards(OrderShardsProperties shardsProperties, MongoClientProperties properties, MongoConverter mongoConverter,
+                                   MongoTemplate mongoTemplate, @Qualifier(LISTING_MONGO_TEMPLATE) MongoTemplate listingMongoTemplate) {
+        if (shardsProperties.getUris().isEmpty()) {
+            return OrderShards.single(mongoTemplate, listingMongoTemplate);
+        }
+        MongoClientSettingsBuilderCustomizer customizer = mongoClientCustomizer(properties);
+        List<OrderShards.Shard> shards = new ArrayList<>();
+        List<MongoClient> clients = new ArrayList<>();
+        for (String uri : shardsProperties.getUris()) {
+            ConnectionString connectionString = new ConnectionString(uri);
+            if (connectionString.getDatabase() == null) {
+                throw new IllegalArgumentException("Every order shard must name its database, e.g. mongodb://host:27017/orders_0");
+            }
+            MongoClientSettings.Builder settings = MongoClientSettings.builder().applyConnectionString(connectionString);
+            customizer.customize(settings);
+            MongoClient client = MongoClients.create(settings.build());
+            clients.add(client);
+            MongoDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(client, connectionString.getDatabase());
+            shards.add(new OrderShards.Shard(newMongoTemplate(factory, mongoConverter, properties),
+                    newListingMongoTemplate(factory, mongoConverter, properties)));
+        }
+        return new OrderShards(shards, shardsProperties.getKey(), shardsProperties.getFanOutThreads(), clients);
+    }
+
+    private static MongoTemplate newMongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter,
+                                                  MongoClientProperties properties) {
+        MongoTemplate mongoTemplate = new MongoTemplate(mongoDatabaseFactory, mongoConverter);
+        mongoTemplate.setWriteConcernResolver(writeConcernResolver(properties.getWriteConcern()));
+        mongoTemplate.setReadPreference(ReadPreference.valueOf(properties.getReadPreference().getDefaults()));
+        return mongoTemplate;
+    }
+
+    private static MongoTemplate newListingMongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter,
+                                                         MongoClientProperties properties) {
+        MongoTemplate mongoTemplate = new MongoTemplate(mongoDatabaseFactory, mongoConverter);
+        mongoTemplate.setReadPreference(ReadPreference.valueOf(properties.getReadPreference().getListings()));
+        return mongoTemplate;
+    }
+
+    /**
+     * This function resolves the write concern of a write by its type: bulk inserts, orders or products.
+     * @param writeConcerns - the write concerns of the types of writes.
+     * @return WriteConcernResolver.
+     */
+    static WriteConcernResolver writeConcernResolver(MongoClientProperties.WriteConcerns writeConcerns) {
+        WriteConcern bulk = WriteConcern.valueOf(writeConcerns.getBulk());
+        WriteConcern orders = WriteConcern.valueOf(writeConcerns.getOrders());
+        WriteConcern products = WriteConcern.valueOf(writeConcerns.getProducts());
+        return action -> {
+            if (action.getMongoActionOperation() == MongoActionOperation.INSERT_LIST) {
+                return bulk;
+            }
+            if ("orders".equals(action.getCollectionName()) || "order_buckets".equals(action.getCollectionName())) {
+                return orders;
+            }
+            if ("products".equals(action.getCollectionName())) {
+                return products;
+            }
+            return action.getDefaultWriteConcern();
+        };
+    }
+
+    private static List<MongoCompressor> compressorsOf(List<String> names) {
+        return names.stream().map(name -> {
+            switch (name.toLowerCase()) {
+                case "zlib": return MongoCompressor.createZlibCompressor();
+                case "snappy": return MongoCompressor.createSnappyCompressor();
+                case "zstd": return MongoCompressor.createZstdCompressor();
+                default: throw new IllegalArgumentException("Unknown Mongo compressor " + name);
+            }
+        }).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,24 @@
+package RestaurantApi.restaurantapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * This class holds the settings of the order archive (restaurant.order-archive.* properties).
+ */
+@Data
+@ConfigurationProperties(prefix = "restaurant.order-archive")
+public class OrderArchiveProperties {
+
+    private boolean enabled = true;
+
+    private Duration maxAge = Duration.ofDays(30); //Orders older than this are moved to the archive. At least a day.
+
+    private int batchSize = 500;
+
+    private Duration batchPause = Duration.ofMillis(100); //The pause between batches, so the archiver doesn't compete with the requests.
+
+    private Duration interval = Duration.ofHours(1);
+}
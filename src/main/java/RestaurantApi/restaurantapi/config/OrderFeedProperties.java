@@ -0,0 +1,34 @@
+package RestaurantApi.restaurantapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * This class holds the settings of the orders feed of the kitchen displays (restaurant.order-feed.* properties).
+ */
+@Data
+@ConfigurationProperties(prefix = "restaurant.order-feed")
+public class OrderFeedProperties {
+
+    private boolean shared = true; //Whether the orders of the other instances are pushed too, through a capped collection.
+
+    private int bufferSize = 256; //The orders a display may fall behind by before it is disconnected.
+
+    private int replaySize = 1000; //The latest orders of every location that a reconnecting display may resume from.
+
+    private int senderThreads = 8;
+
+    private Duration heartbeatInterval = Duration.ofSeconds(15); //Keeps the idle streams open through proxies and finds the dead ones.
+
+    private Duration timeout = Duration.ofMinutes(30); //The lifetime of a stream, after which the display reconnects.
+
+    private long collectionSizeBytes = 16 * 1024 * 1024; //The size of the capped collection.
+
+    private long maxEvents = 20000;
+
+    private Duration retryInterval = Duration.ofSeconds(5); //How long to wait before tailing again when the tail dropped.
+
+    private Duration resumeMargin = Duration.ofSeconds(5); //How far back a resumed tail or feed reads, to cover clock skew between instances.
+}
@@ -0,0 +1,30 @@
+package RestaurantApi.restaurantapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds how the orders are spread over several Mongo databases (restaurant.order-shards.* properties).
+ */
+@Data
+@ConfigurationProperties(prefix = "restaurant.order-shards")
+public class OrderShardsProperties {
+
+    /**
+     * ORDER spreads the orders of every location over all the shards, so a busy location writes to all of them.
+     * TENANT keeps all the orders of a location in one shard, so its reads ask a single shard.
+     */
+    public enum Key {
+        ORDER,
+        TENANT
+    }
+
+    private List<String> uris = new ArrayList<>(); //The connection strings of the shards, each with its database. None keeps the orders in the main database.
+
+    private Key key = Key.ORDER;
+
+    private int fanOutThreads = 16; //The threads that ask the shards in parallel.
+}
@@ -0,0 +1,25 @@
+package RestaurantApi.restaurantapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * This class holds how the orders are stored (restaurant.order-storage.* properties).
+ */
+@Data
+@ConfigurationProperties(prefix = "restaurant.order-storage")
+public class OrderStorageProperties {
+
+    /**
+     * DOCUMENTS stores every order in its own document.
+     * BUCKETS groups the orders of every hour into one document with pre-computed totals, for the busiest locations.
+     */
+    public enum Mode {
+        DOCUMENTS,
+        BUCKETS
+    }
+
+    private Mode mode = Mode.DOCUMENTS;
+
+    private int maxBucketOrders = 1000; //A full bucket is followed by another bucket of the same hour, keeping the documents small.
+}
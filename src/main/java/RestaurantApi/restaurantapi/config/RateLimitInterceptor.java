@@ -0,0 +1,75 @@
+package RestaurantApi.restaurantapi.config;
+
+import RestaurantApi.restaurantapi.exceptions.RateLimitExceptions;
+import RestaurantApi.restaurantapi.exceptions.RequestExceptions;
+import RestaurantApi.restaurantapi.services.RateLimitService;
+import RestaurantApi.restaurantapi.services.RateLimitService.RateLimitedEndpoint;
+import RestaurantApi.restaurantapi.utils.Tenants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class rejects write requests of clients that are over their rate limit, with a RateLimitExceptions.
+ * It runs before the request body is read, so rejected requests cost no validation or database work.
+ */
+@Slf4j
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final RateLimitService rateLimitService;
+
+    @Autowired
+    public RateLimitInterceptor(RateLimitService rateLimitService) {
+        this.rateLimitService = rateLimitService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!rateLimitService.isEnabled() || !WRITE_METHODS.contains(request.getMethod())) {
+            return true;
+        }
+        RateLimitedEndpoint endpoint = request.getServletPath().startsWith("/orders")
+                ? RateLimitedEndpoint.ORDERS : RateLimitedEndpoint.PRODUCTS;
+        long waitNanos = rateLimitService.tryAcquire(endpoint, clientIdOf(request), tenantIdOf(request), System.nanoTime());
+        if (waitNanos == 0) {
+            return true;
+        }
+        log.info("The client is over the rate limit of " + endpoint + ", rejecting the request.");
+        //Answered by RestExceptionHandler, like the other errors.
+        throw new RateLimitExceptions(RateLimitExceptions.TooManyRequestsException(), TimeUnit.NANOSECONDS.toMillis(waitNanos));
+    }
+
+    /**
+     * This function identifies the client of the request by its API key, or by its IP address if it has no key.
+     * @param request - the request.
+     * @return the client identifier.
+     */
+    private String clientIdOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(rateLimitService.getClientHeader());
+        return apiKey != null ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * This function returns the location of the request. Every location has its own buckets, so the clients of a busy location
+     * don't use up the limit of a client that orders for several locations, e.g. a delivery platform.
+     * A tenant id that isn't valid is rejected by the controller, so it is limited as the default location and never names a bucket.
+     * @param request - the request.
+     * @return the tenant id, null for the default location.
+     */
+    private static String tenantIdOf(HttpServletRequest request) {
+        try {
+            return Tenants.validate(request.getHeader(Tenants.HEADER));
+        } catch (RequestExceptions e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package RestaurantApi.restaurantapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * This class holds the rate limits of the write endpoints (restaurant.rate-limit.* properties).
+ */
+@Data
+@ConfigurationProperties(prefix = "restaurant.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    private String clientHeader = "X-API-Key"; //Requests without this header are limited by their IP address.
+
+    private int maxClients = 10000; //The maximum number of clients that are tracked at the same time.
+
+    private int clientLocations = 5; //The limit of a client in all the locations together is this many times its limit in one location.
+
+    private Limit orders = new Limit(20, 40);
+
+    private Limit products = new Limit(5, 10);
+
+    /**
+     * This class defines the rate limit of one endpoint.
+     */
+    @Data
+    public static class Limit {
+
+        private double requestsPerSecond;
+
+        private int burst;
+
+        public Limit() {
+        }
+
+        public Limit(double requestsPerSecond, int burst) {
+            this.requestsPerSecond = requestsPerSecond;
+            this.burst = burst;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package RestaurantApi.restaurantapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * This class holds the timeouts and circuit breaker thresholds of the dependencies (restaurant.resilience.* properties).
+ */
+@Data
+@ConfigurationProperties(prefix = "restaurant.resilience")
+public class ResilienceProperties {
+
+    private Dependency mongo = new Dependency(null, Duration.ofMillis(500)); //The database timeouts are in restaurant.mongodb.*.
+
+    private Dependency image = new Dependency(Duration.ofSeconds(3), Duration.ofSeconds(2)); //Of every image host.
+
+    private int maxImageHosts = 100; //The image hosts that keep a circuit breaker, the least recently used ones are dropped.
+
+    private ConcurrencyLimit mongoConcurrency = new ConcurrencyLimit();
+
+    /**
+     * This class defines the timeout and the circuit breaker of one dependency.
+     */
+    @Data
+    public static class Dependency {
+
+        private Duration timeout; //Calls that take longer fail.
+
+        private Duration slowCallThreshold; //Calls that take longer count as failures of the circuit breaker.
+
+        private int failureRateThreshold = 50; //Percent of failed or slow calls in the window that opens the circuit.
+
+        private int windowSize = 20; //The number of latest calls the failure rate is calculated on.
+
+        private int minimumCalls = 10; //The circuit doesn't open before this number of calls.
+
+        private Duration openDuration = Duration.ofSeconds(10); //How long the circuit rejects calls before probing.
+
+        private int halfOpenProbes = 3; //Successful probes needed to close the circuit again.
+
+        public Dependency() {
+        }
+
+        public Dependency(Duration timeout, Duration slowCallThreshold) {
+            this.timeout = timeout;
+            this.slowCallThreshold = slowCallThreshold;
+        }
+    }
+
+    /**
+     * This class defines the adaptive concurrency limit of a dependency.
+     */
+    @Data
+    public static class ConcurrencyLimit {
+
+        private int initialLimit = 20;
+
+        private int minLimit = 4;
+
+        private int maxLimit = 200;
+
+        private double tolerance = 1.5; //How much the recent latency may exceed the long term latency before the limit shrinks.
+
+        private int maxQueueSize = 50; //Calls over the limit that may wait, the rest are shed.
+
+        private Duration maxQueueWait = Duration.ofMillis(200); //How long a call may wait before it is shed.
+    }
+}
@@ -11,6 +11,8 @@ public class ValidationConfig {
     /**
      * The following functions are for the use of well-known annotations to ensure the validity of our fields,
      * e.g. @NotNull (required field) or @Size.
+     * The listener checks the Default group when a model is saved. The request constraints are in the
+     * RequestValidation group, checked at the controllers, so they aren't checked a second time here.
      * @return ValidatingMongoEventListener.
      */
     @Bean
@@ -0,0 +1,47 @@
+package RestaurantApi.restaurantapi.controllers;
+
+import RestaurantApi.restaurantapi.models.CircuitBreakerStatus;
+import RestaurantApi.restaurantapi.models.ConcurrencyLimitStatus;
+import RestaurantApi.restaurantapi.services.DependencyService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+public class DependencyController {
+
+    private final DependencyService dependencyService;
+
+    @Autowired
+    public DependencyController(DependencyService dependencyService) {
+        this.dependencyService = dependencyService;
+    }
+
+    /**
+     * This method returns the state and the metrics of the circuit breakers of the dependencies.
+     * @return ResponseEntity.
+     */
+    @GetMapping("/dependencies")
+    public ResponseEntity<?> getDependencies() {
+        log.trace("Entered getDependencies function in DependencyController class.");
+        List<CircuitBreakerStatus> statuses = dependencyService.getStatuses();
+        return new ResponseEntity<>(statuses, HttpStatus.OK);
+    }
+
+    /**
+     * This method returns the current adaptive concurrency limits of the dependencies.
+     * @return ResponseEntity.
+     */
+    @GetMapping("/dependencies/concurrency-limits")
+    public ResponseEntity<?> getConcurrencyLimits() {
+        log.trace("Entered getConcurrencyLimits function in DependencyController class.");
+        List<ConcurrencyLimitStatus> statuses = dependencyService.getConcurrencyLimitStatuses();
+        return new ResponseEntity<>(statuses, HttpStatus.OK);
+    }
+}
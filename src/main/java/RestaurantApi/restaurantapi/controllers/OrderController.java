@@ -3,73 +3,207 @@ package RestaurantApi.restaurantapi.controllers;
 import RestaurantApi.restaurantapi.exceptions.OrderExceptions;
 import RestaurantApi.restaurantapi.exceptions.ProductExceptions;
 import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.OrderQuote;
+import RestaurantApi.restaurantapi.models.OrderStatusChange;
+import RestaurantApi.restaurantapi.models.OrderSummary;
+import RestaurantApi.restaurantapi.models.ProductSales;
+import RestaurantApi.restaurantapi.models.RequestValidation;
+import RestaurantApi.restaurantapi.services.OrderFeedService;
 import RestaurantApi.restaurantapi.services.OrderService;
+import RestaurantApi.restaurantapi.utils.Tenants;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import javax.validation.ConstraintViolationException;
+import java.time.Instant;
+import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * This class serves the orders of a location, named by the X-Tenant-Id header (the default location without it).
+ * The orders are read and written in JSON, CBOR or Smile, by the Content-Type and Accept headers, see MessageFormatsConfig.
+ */
 @Slf4j
 @RestController
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderFeedService orderFeed;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderFeedService orderFeed) {
         this.orderService = orderService;
+        this.orderFeed = orderFeed;
     }
 
     /**
      * This method creates a new order.
+     * A request that is retried with the same Idempotency-Key header gets the original order back.
+     * The request constraints of the order, e.g. the amounts of the products, are checked before any database work.
+     * @param tenantId - optional location of the order.
      * @param order - the new order to create.
+     * @param idempotencyKey - optional key that identifies retries of the same request.
      * @return ResponseEntity.
      */
     @PostMapping("/orders")
-    public ResponseEntity<?> createOrder(@RequestBody OrderDTO order) {
+    public ResponseEntity<?> createOrder(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId,
+                                         @Validated(RequestValidation.class) @RequestBody OrderDTO order,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey)
+            throws OrderExceptions, ProductExceptions {
         log.trace("Entered createOrder function in OrderController class.");
-        try {
-            log.info("Going to create an order.");
-            orderService.createOrder(order);
-            return new ResponseEntity<OrderDTO>(order, HttpStatus.OK);
-        } catch (ConstraintViolationException e) {
-            log.error("ConstraintViolationException happened - The server was unable to process the contained instructions.", e);
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
-        } catch (OrderExceptions e) {
-            log.error("OrderExceptions - The user ordered under the minimum price or he didn't ordered anything.", e);
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
-        } catch (ProductExceptions e) {
-            log.error("ProductExceptions happened - The user ordered a product that doesn't exist in the database.", e);
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
-        }
+        log.info("Going to create an order.");
+        OrderDTO createdOrder = orderService.createOrder(Tenants.validate(tenantId), order, idempotencyKey);
+        return new ResponseEntity<OrderDTO>(createdOrder, HttpStatus.OK);
     }
 
     /**
-     * This method returns information about all the orders in the database.
+     * This method prices a basket without ordering it: the price of every line, the total and whether it meets the minimum.
+     * @param tenantId - optional location of the basket.
+     * @param basket - the products and their amounts, like the body of a new order.
+     * @return ResponseEntity.
+     */
+    @PostMapping("/orders/quote")
+    public ResponseEntity<?> quoteOrder(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId,
+                                        @Validated(RequestValidation.class) @RequestBody OrderDTO basket) throws ProductExceptions {
+        log.trace("Entered quoteOrder function in OrderController class.");
+        OrderQuote quote = orderService.quoteOrder(Tenants.validate(tenantId), basket);
+        return new ResponseEntity<>(quote, HttpStatus.OK);
+    }
+
+    /**
+     * This method returns information about all the orders in the database, or about the orders of a date range.
+     * @param tenantId - optional location of the orders.
+     * @param fields - optional comma separated fields to return, e.g. fields=id,price.
+     * @param from - optional start of the range, inclusive, e.g. from=2022-09-01T00:00:00Z.
+     * @param to - optional end of the range, exclusive, e.g. to=2022-10-01T00:00:00Z.
      * @return ResponseEntity.
      */
     @GetMapping("/orders")
-    public ResponseEntity<?> getAllOrders(){
+    public ResponseEntity<?> getAllOrders(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId,
+                                          @RequestParam(value = "fields", required = false) Set<String> fields,
+                                          @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                          @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to){
         log.trace("Entered getAllOrders function in OrderController class.");
-        List<OrderDTO> orders = orderService.getAllOrders();
+        String tenant = Tenants.validate(tenantId);
+        List<?> orders;
+        if (fields != null && !fields.isEmpty()) {
+            orders = orderService.getOrders(tenant, fields, toDate(from), toDate(to));
+        } else if (from != null || to != null) {
+            orders = orderService.getOrders(tenant, toDate(from), toDate(to));
+        } else {
+            orders = orderService.getAllOrders(tenant);
+        }
         return new ResponseEntity<>(orders, orders.size() > 0 ? HttpStatus.OK : HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * This method returns the count, the revenue and the average ticket of the orders of a date range.
+     * @param tenantId - optional location of the orders.
+     * @param from - optional start of the range, inclusive.
+     * @param to - optional end of the range, exclusive, now by default.
+     * @return ResponseEntity.
+     */
+    @GetMapping("/orders/summary")
+    public ResponseEntity<?> getOrdersSummary(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId,
+                                              @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                              @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to){
+        log.trace("Entered getOrdersSummary function in OrderController class.");
+        OrderSummary summary = orderService.getOrdersSummary(Tenants.validate(tenantId), toDate(from), toDate(to));
+        return new ResponseEntity<>(summary, HttpStatus.OK);
+    }
+
+    /**
+     * This method returns the quantity and the revenue of every product sold in a date range, best selling first.
+     * @param tenantId - optional location of the orders.
+     * @param from - optional start of the range, inclusive.
+     * @param to - optional end of the range, exclusive, now by default.
+     * @return ResponseEntity.
+     */
+    @GetMapping("/orders/summary/products")
+    public ResponseEntity<?> getProductsSales(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId,
+                                              @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                              @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to){
+        log.trace("Entered getProductsSales function in OrderController class.");
+        List<ProductSales> sales = orderService.getProductsSales(Tenants.validate(tenantId), toDate(from), toDate(to));
+        return new ResponseEntity<>(sales, HttpStatus.OK);
+    }
+
     /**
      * This method returns information about all the orders that were ordered from the last day.
+     * @param tenantId - optional location of the orders.
      * @return ResponseEntity.
      */
     @GetMapping("/orders-from-last-day")
-    public ResponseEntity<?> getAllOrdersFromTheLastDay(){
+    public ResponseEntity<?> getAllOrdersFromTheLastDay(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId){
         log.trace("Entered getAllOrdersFromTheLastDay function in OrderController class.");
-        List<OrderDTO> orders = orderService.getAllOrdersFromTheLastDay();
+        List<OrderDTO> orders = orderService.getAllOrdersFromTheLastDay(Tenants.validate(tenantId));
         return new ResponseEntity<>(orders, orders.size() > 0 ? HttpStatus.OK : HttpStatus.NOT_FOUND);
     }
+
+    /**
+     * This method returns the orders the kitchen still has to make (NEW and IN_PROGRESS), oldest first.
+     * @param tenantId - optional location of the orders.
+     * @return ResponseEntity.
+     */
+    @GetMapping("/orders/open")
+    public ResponseEntity<?> getOpenOrders(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId){
+        log.trace("Entered getOpenOrders function in OrderController class.");
+        List<OrderDTO> orders = orderService.getOpenOrders(Tenants.validate(tenantId));
+        return new ResponseEntity<>(orders, HttpStatus.OK);
+    }
+
+    /**
+     * This method moves an order to another status: IN_PROGRESS when the kitchen starts it, DONE when it is ready,
+     * or CANCELLED. An order that already moved past the statuses before the new one gets a conflict.
+     * @param tenantId - optional location of the order.
+     * @param orderId - the order id.
+     * @param change - the new status.
+     * @return ResponseEntity.
+     */
+    @PutMapping("/orders/{id}/status")
+    public ResponseEntity<?> changeOrderStatus(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId,
+                                               @PathVariable("id") String orderId,
+                                               @Validated(RequestValidation.class) @RequestBody OrderStatusChange change) throws OrderExceptions {
+        log.trace("Entered changeOrderStatus function in OrderController class.");
+        OrderDTO order = orderService.changeOrderStatus(Tenants.validate(tenantId), orderId, change.getStatus());
+        return new ResponseEntity<>(order, HttpStatus.OK);
+    }
+
+    /**
+     * This method streams the orders of a location as they are accepted, for the kitchen displays (Server-Sent Events).
+     * Every order, and every order whose status changed, is an "order" event whose id a reconnecting display sends back in the Last-Event-ID header to get the orders it missed.
+     * A "reset" event tells the display it missed too many orders and should reload them with GET /orders.
+     * @param tenantId - optional location of the orders.
+     * @param lastEventId - optional id of the last event the display got.
+     * @return SseEmitter.
+     */
+    @GetMapping(value = "/orders/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getOrdersFeed(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId){
+        log.trace("Entered getOrdersFeed function in OrderController class.");
+        return orderFeed.subscribe(Tenants.validate(tenantId), lastEventId);
+    }
+
+    /**
+     * This function converts a request parameter to the type of the order date.
+     * @param instant - the request parameter, may be null.
+     * @return Date, or null.
+     */
+    private static Date toDate(Instant instant) {
+        return instant != null ? Date.from(instant) : null;
+    }
 }
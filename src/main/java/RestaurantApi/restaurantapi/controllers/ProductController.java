@@ -2,83 +2,154 @@ package RestaurantApi.restaurantapi.controllers;
 
 import RestaurantApi.restaurantapi.exceptions.ProductExceptions;
 import RestaurantApi.restaurantapi.models.ProductDTO;
+import RestaurantApi.restaurantapi.models.RequestValidation;
+import RestaurantApi.restaurantapi.models.StockChange;
+import RestaurantApi.restaurantapi.models.StockLevel;
+import RestaurantApi.restaurantapi.services.InventoryService;
 import RestaurantApi.restaurantapi.services.ProductService;
+import RestaurantApi.restaurantapi.utils.Tenants;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import javax.validation.ConstraintViolationException;
 import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * This class serves the products of a location, named by the X-Tenant-Id header (the default location without it).
+ * The products are read and written in JSON, CBOR or Smile, by the Content-Type and Accept headers, see MessageFormatsConfig.
+ */
 @Slf4j
 @RestController
 public class ProductController {
     private final ProductService productService;
+    private final InventoryService inventoryService;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, InventoryService inventoryService) {
         this.productService = productService;
+        this.inventoryService = inventoryService;
     }
 
     /**
      * This method is responsible for creating a new product.
+     * The request constraints of the product are checked before any database work.
+     * @param tenantId - optional location of the product.
      * @param newProduct - the new product to create.
      * @return ResponseEntity.
      */
     @PostMapping("/products")
-    public ResponseEntity<?> createProduct(@RequestBody ProductDTO newProduct) {
+    public ResponseEntity<?> createProduct(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId,
+                                           @Validated(RequestValidation.class) @RequestBody ProductDTO newProduct) throws ProductExceptions {
         log.trace("Entered createProduct function in ProductController class.");
+        log.info("Going to create a product.");
         try {
-            log.info("Going to create a product.");
-            productService.createProduct(newProduct);
-            return new ResponseEntity<ProductDTO>(newProduct, HttpStatus.OK);
-        } catch (ConstraintViolationException e) {
-            log.error("ConstraintViolationException happened - The server was unable to process the contained instructions.", e);
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
-        } catch (ProductExceptions e) {
-            if(e.getMessage().equals("Problem with reading the product image URL")){
-                log.error("ProductExceptions happened - Problem with reading the product image url.", e);
-                return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
-            } else {
-                log.error("ProductExceptions happened - The product already exists in the database or problem with image url.", e);
-                return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
-            }
+            productService.createProduct(Tenants.validate(tenantId), newProduct);
         } catch (IOException e) {
-            log.error("IOException happened - Problem with reading the product image URL.", e);
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+            log.info("IOException happened - Problem with reading the product image URL: " + e.getMessage());
+            throw ProductExceptions.IMAGE_URL_NOT_WORK;
         }
+        return new ResponseEntity<ProductDTO>(newProduct, HttpStatus.OK);
     }
 
     /**
      * This function returns information about all the products found in the database.
+     * @param tenantId - optional location of the products.
+     * @param fields - optional comma separated fields to return, e.g. fields=name,price.
      * @return ResponseEntity.
      */
     @GetMapping("/products")
-    public ResponseEntity<?> getAllProducts(){
+    public ResponseEntity<?> getAllProducts(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId,
+                                            @RequestParam(value = "fields", required = false) Set<String> fields){
         log.trace("Entered getAllProducts function in ProductController class.");
-        List<ProductDTO> products = productService.getAllProducts();
+        String tenant = Tenants.validate(tenantId);
+        List<?> products = fields == null || fields.isEmpty() ? productService.getAllProducts(tenant) : productService.getAllProducts(tenant, fields);
         return new ResponseEntity<>(products, products.size() > 0 ? HttpStatus.OK : HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * This function searches for products as the user types their name, e.g. /products/search?q=marg.
+     * @param tenantId - optional location of the products.
+     * @param query - what the user typed so far.
+     * @param limit - the maximal number of products to return.
+     * @return ResponseEntity.
+     */
+    @GetMapping("/products/search")
+    public ResponseEntity<?> searchProducts(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId,
+                                            @RequestParam("q") String query,
+                                            @RequestParam(value = "limit", defaultValue = "10") int limit){
+        log.trace("Entered searchProducts function in ProductController class.");
+        List<ProductDTO> products = productService.searchProducts(Tenants.validate(tenantId), query, limit);
+        return new ResponseEntity<>(products, HttpStatus.OK);
+    }
+
+    /**
+     * This function searches for products by the words of their description, e.g. /products/search/description?q=truffle.
+     * @param tenantId - optional location of the products.
+     * @param query - the words to search for.
+     * @param page - the number of the page, from 0.
+     * @param size - the number of products in a page.
+     * @return ResponseEntity.
+     */
+    @GetMapping("/products/search/description")
+    public ResponseEntity<?> searchProductsByDescription(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId,
+                                                         @RequestParam("q") String query,
+                                                         @RequestParam(value = "page", defaultValue = "0") int page,
+                                                         @RequestParam(value = "size", defaultValue = "10") int size){
+        log.trace("Entered searchProductsByDescription function in ProductController class.");
+        Page<ProductDTO> products = productService.searchProductsByDescription(Tenants.validate(tenantId), query, page, size);
+        return new ResponseEntity<>(products, HttpStatus.OK);
+    }
+
     /**
      * This function search for a product by its name.
+     * @param tenantId - optional location of the product.
      * @param name - the product's name.
      * @return ResponseEntity.
      */
     @GetMapping("/products/{name}")
-    public ResponseEntity<?> getProductByName(@PathVariable("name") String name){
+    public ResponseEntity<?> getProductByName(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId,
+                                              @PathVariable("name") String name) throws ProductExceptions {
         log.trace("Entered getProductByName function in ProductController class.");
-        try {
-            ProductDTO product = productService.getProductByName(name);
-            log.info("Going to search for the product by its name.");
-            return new ResponseEntity<>(product, HttpStatus.OK);
-        } catch (ProductExceptions e) {
-            log.error("ProductExceptions happened - The product doesn't exist in the database.", e);
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
-        }
+        log.info("Going to search for the product by its name.");
+        ProductDTO product = productService.getProductByName(Tenants.validate(tenantId), name);
+        return new ResponseEntity<>(product, HttpStatus.OK);
     }
-}
 
+    /**
+     * This function returns how many units of a product are left, null when its stock isn't tracked.
+     * @param tenantId - optional location of the product.
+     * @param name - the product's name.
+     * @return ResponseEntity.
+     */
+    @GetMapping("/products/{name}/stock")
+    public ResponseEntity<?> getStock(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId,
+                                      @PathVariable("name") String name) throws ProductExceptions {
+        log.trace("Entered getStock function in ProductController class.");
+        StockLevel stock = inventoryService.getStock(Tenants.validate(tenantId), name);
+        return new ResponseEntity<>(stock, HttpStatus.OK);
+    }
+
+    /**
+     * This function adds units to the stock of a product, e.g. after a delivery. The first units start tracking its stock,
+     * from then on the orders of the product are rejected once its units run out.
+     * @param tenantId - optional location of the product.
+     * @param name - the product's name.
+     * @param change - the units to add.
+     * @return ResponseEntity.
+     */
+    @PostMapping("/products/{name}/stock")
+    public ResponseEntity<?> addStock(@RequestHeader(value = Tenants.HEADER, required = false) String tenantId,
+                                      @PathVariable("name") String name,
+                                      @Validated(RequestValidation.class) @RequestBody StockChange change) throws ProductExceptions {
+        log.trace("Entered addStock function in ProductController class.");
+        log.info("Going to add units to the stock of the product.");
+        StockLevel stock = inventoryService.addStock(Tenants.validate(tenantId), name, change.getQuantity());
+        return new ResponseEntity<>(stock, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,163 @@
+package RestaurantApi.restaurantapi.controllers;
+
+import RestaurantApi.restaurantapi.config.MessageFormatsConfig;
+import RestaurantApi.restaurantapi.exceptions.DependencyExceptions;
+import RestaurantApi.restaurantapi.exceptions.DomainExceptions;
+import RestaurantApi.restaurantapi.exceptions.ErrorCode;
+import RestaurantApi.restaurantapi.exceptions.RateLimitExceptions;
+import RestaurantApi.restaurantapi.exceptions.RequestExceptions;
+import RestaurantApi.restaurantapi.models.ErrorResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.validation.ConstraintViolationException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * This class maps the exceptions of all the controllers to their responses, so a status is decided in one place
+ * by the error code of the exception. The bodies are ErrorResponses in JSON, or in CBOR or Smile to the requests that prefer them,
+ * and in JSON also to the requests that accept only another type, e.g. the event stream of the orders feed.
+ */
+@Slf4j
+@RestControllerAdvice
+public class RestExceptionHandler {
+
+    /**
+     * This method answers requests that failed on an expected error of the domain, e.g. a product that doesn't exist.
+     * These are routine, so they are logged in one line without a stack trace.
+     * @param e - the exception.
+     * @return ResponseEntity with the status of the error code.
+     */
+    @ExceptionHandler(DomainExceptions.class)
+    public ResponseEntity<ErrorResponse> handleDomainExceptions(DomainExceptions e) {
+        log.info(e.getClass().getSimpleName() + " happened - " + e.getCode() + ": " + e.getMessage());
+        return respond(e.getCode(), e.getMessage());
+    }
+
+    /**
+     * This method answers requests whose model doesn't pass the constraints checked when it is saved.
+     * @param e - the exception.
+     * @return ResponseEntity with status 422.
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorResponse> handleConstraintViolationException(ConstraintViolationException e) {
+        log.info("ConstraintViolationException happened - " + e.getMessage());
+        return respond(ErrorCode.CONSTRAINT_VIOLATION, e.getMessage());
+    }
+
+    /**
+     * This method answers requests whose body doesn't pass the request constraints, before any database work.
+     * @param e - the exception.
+     * @return ResponseEntity with status 422.
+     */
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ErrorResponse> handleMethodArgumentNotValidException(MethodArgumentNotValidException e) {
+        String message = e.getBindingResult().getAllErrors().stream()
+                .map(error -> error instanceof FieldError ? ((FieldError) error).getField() + ": " + error.getDefaultMessage() : error.getDefaultMessage())
+                .collect(Collectors.joining(", "));
+        log.info("MethodArgumentNotValidException happened - " + message);
+        return respond(ErrorCode.CONSTRAINT_VIOLATION, message);
+    }
+
+    /**
+     * This method answers requests that failed fast because a dependency is unavailable.
+     * @param e - the exception.
+     * @return ResponseEntity with status 503.
+     */
+    @ExceptionHandler(DependencyExceptions.class)
+    public ResponseEntity<ErrorResponse> handleDependencyExceptions(DependencyExceptions e) {
+        log.warn("DependencyExceptions happened - " + e.getMessage());
+        return respond(e.getCode(), e.getMessage(), e.getRetryAfterMillis());
+    }
+
+    /**
+     * This method answers the write requests of clients that are over their rate limit, see RateLimitInterceptor.
+     * @param e - the exception.
+     * @return ResponseEntity with status 429.
+     */
+    @ExceptionHandler(RateLimitExceptions.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceptions(RateLimitExceptions e) {
+        log.info("RateLimitExceptions happened - " + e.getMessage());
+        return respond(e.getCode(), e.getMessage(), e.getRetryAfterMillis());
+    }
+
+    /**
+     * This method answers requests whose database call timed out or couldn't reach the database.
+     * @param e - the exception.
+     * @return ResponseEntity with status 503.
+     */
+    @ExceptionHandler(DataAccessResourceFailureException.class)
+    public ResponseEntity<ErrorResponse> handleDataAccessResourceFailureException(DataAccessResourceFailureException e) {
+        log.error("DataAccessResourceFailureException happened - The database didn't answer in time.", e);
+        return respond(ErrorCode.DEPENDENCY_UNAVAILABLE, DependencyExceptions.CircuitOpenException("database"));
+    }
+
+    /**
+     * This method answers requests with invalid parameters.
+     * @param e - the exception.
+     * @return ResponseEntity with status 400.
+     */
+    @ExceptionHandler(RequestExceptions.class)
+    public ResponseEntity<ErrorResponse> handleRequestExceptions(RequestExceptions e) {
+        log.info("RequestExceptions happened - " + e.getMessage());
+        return respond(e.getCode(), e.getMessage());
+    }
+
+    private static ResponseEntity<ErrorResponse> respond(ErrorCode code, String message) {
+        return ResponseEntity.status(code.getStatus()).contentType(errorContentType()).body(new ErrorResponse(code, message));
+    }
+
+    private static ResponseEntity<ErrorResponse> respond(ErrorCode code, String message, long retryAfterMillis) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(errorContentType());
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfterMillis + 999) / 1000)));
+        return new ResponseEntity<>(new ErrorResponse(code, message), headers, code.getStatus());
+    }
+
+    private static MediaType errorContentType() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes) {
+            return errorContentType(((ServletRequestAttributes) RequestContextHolder.getRequestAttributes()).getRequest().getHeader(HttpHeaders.ACCEPT));
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * This function picks the type of an error body by the Accept header of the request:
+     * the binary type the request prefers to JSON, and JSON otherwise.
+     * @param accept - the Accept header, may be null.
+     * @return the type of the error body.
+     */
+    static MediaType errorContentType(String accept) {
+        if (accept == null) {
+            return MediaType.APPLICATION_JSON;
+        }
+        try {
+            List<MediaType> acceptedTypes = MediaType.parseMediaTypes(accept);
+            MediaType.sortBySpecificityAndQuality(acceptedTypes);
+            for (MediaType acceptedType : acceptedTypes) {
+                if (acceptedType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                    return MediaType.APPLICATION_JSON;
+                }
+                for (MediaType binaryType : MessageFormatsConfig.BINARY_TYPES) {
+                    if (acceptedType.isCompatibleWith(binaryType)) {
+                        return binaryType;
+                    }
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            log.info("The Accept header isn't valid, answering the error in JSON.");
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
@@ -0,0 +1,29 @@
+package RestaurantApi.restaurantapi.exceptions;
+
+public class DependencyExceptions extends RuntimeException{
+
+    private final ErrorCode code;
+    private final long retryAfterMillis;
+
+    public DependencyExceptions(ErrorCode code, String message, long retryAfterMillis) {
+        super(message, null, false, false);
+        this.code = code;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public ErrorCode getCode() {
+        return code;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    public static String CircuitOpenException(String dependency) {
+        return "The " + dependency + " service is unavailable! please try again later.";
+    }
+
+    public static String OverloadedException(String dependency) {
+        return "The " + dependency + " service is overloaded! please try again later.";
+    }
+}
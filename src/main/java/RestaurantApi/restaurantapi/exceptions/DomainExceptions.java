@@ -0,0 +1,20 @@
+package RestaurantApi.restaurantapi.exceptions;
+
+/**
+ * This class is the base of the expected errors of the domain, e.g. a product that doesn't exist.
+ * They are routine, so they don't fill in a stack trace: bots asking for missing products
+ * cost neither the CPU of walking the stack nor log lines full of frames.
+ */
+public abstract class DomainExceptions extends Exception {
+
+    private final ErrorCode code;
+
+    protected DomainExceptions(ErrorCode code, String message) {
+        super(message, null, false, false);
+        this.code = code;
+    }
+
+    public ErrorCode getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,34 @@
+package RestaurantApi.restaurantapi.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * This enum lists the errors the API answers with, each with its HTTP status.
+ */
+public enum ErrorCode {
+
+    PRODUCT_NOT_FOUND(HttpStatus.NOT_FOUND),
+    PRODUCT_ALREADY_EXISTS(HttpStatus.CONFLICT),
+    INVALID_IMAGE_URL(HttpStatus.BAD_REQUEST),
+    ORDERED_PRODUCT_NOT_FOUND(HttpStatus.CONFLICT),
+    EMPTY_ORDER(HttpStatus.CONFLICT),
+    MINIMUM_ORDER_AMOUNT(HttpStatus.CONFLICT),
+    ORDER_NOT_FOUND(HttpStatus.NOT_FOUND),
+    ORDER_STATUS_CONFLICT(HttpStatus.CONFLICT),
+    OUT_OF_STOCK(HttpStatus.CONFLICT),
+    INVALID_REQUEST(HttpStatus.BAD_REQUEST),
+    RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS),
+    CONSTRAINT_VIOLATION(HttpStatus.UNPROCESSABLE_ENTITY),
+    DEPENDENCY_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE),
+    DEPENDENCY_OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE);
+
+    private final HttpStatus status;
+
+    ErrorCode(HttpStatus status) {
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
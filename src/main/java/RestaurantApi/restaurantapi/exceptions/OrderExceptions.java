@@ -1,15 +1,34 @@
 package RestaurantApi.restaurantapi.exceptions;
 
-public class OrderExceptions extends Exception{
+import RestaurantApi.restaurantapi.models.OrderStatus;
 
-    public OrderExceptions(String message) {
-        super(message);
+public class OrderExceptions extends DomainExceptions{
+
+    public static final OrderExceptions EMPTY_ORDER = new OrderExceptions(ErrorCode.EMPTY_ORDER, EmptyOrderException());
+
+    public OrderExceptions(ErrorCode code, String message) {
+        super(code, message);
     }
 
     public static String MinimumOrderAmountException(String minimumOrderAmount) {
         return "The minimum order amount is " + minimumOrderAmount + "! please add a few more items to your order.";
     }
 
+    public static String OrderNotFoundException(String orderId) {
+        return "The order " + orderId + " doesn't exist!";
+    }
+
+    public static String OrderStatusConflictException(OrderStatus status, OrderStatus newStatus) {
+        if (status == null) {
+            return "The order is from before the statuses, it can't become " + newStatus + "!";
+        }
+        return "The order is " + status + ", it can't become " + newStatus + "!";
+    }
+
+    public static String OutOfStockException(String productName) {
+        return "There isn't enough " + productName + " left! please order less of it or another product.";
+    }
+
     public static String EmptyOrderException() {
         return "The order is empty! please add a few products.";
     }
@@ -1,9 +1,11 @@
 package RestaurantApi.restaurantapi.exceptions;
 
-public class ProductExceptions extends Exception{
+public class ProductExceptions extends DomainExceptions{
 
-    public ProductExceptions(String message) {
-        super(message);
+    public static final ProductExceptions IMAGE_URL_NOT_WORK = new ProductExceptions(ErrorCode.INVALID_IMAGE_URL, ImageUrlNotWorkException());
+
+    public ProductExceptions(ErrorCode code, String message) {
+        super(code, message);
     }
 
     public static String NotFoundException(String name) {
@@ -18,4 +20,3 @@ public class ProductExceptions extends Exception{
         return "Product" + name + "already exists";
     }
 }
-
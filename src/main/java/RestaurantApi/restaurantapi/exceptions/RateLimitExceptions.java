@@ -0,0 +1,23 @@
+package RestaurantApi.restaurantapi.exceptions;
+
+public class RateLimitExceptions extends RuntimeException{
+
+    private final long retryAfterMillis;
+
+    public RateLimitExceptions(String message, long retryAfterMillis) {
+        super(message, null, false, false);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public ErrorCode getCode() {
+        return ErrorCode.RATE_LIMITED;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    public static String TooManyRequestsException() {
+        return "Too many requests! please try again later.";
+    }
+}
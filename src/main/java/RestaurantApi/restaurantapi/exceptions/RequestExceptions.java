@@ -0,0 +1,28 @@
+package RestaurantApi.restaurantapi.exceptions;
+
+public class RequestExceptions extends RuntimeException{
+
+    public RequestExceptions(String message) {
+        super(message, null, false, false);
+    }
+
+    public ErrorCode getCode() {
+        return ErrorCode.INVALID_REQUEST;
+    }
+
+    public static String UnknownFieldException(String field) {
+        return "Unknown field " + field + "! please choose from the fields of the model.";
+    }
+
+    public static String InvalidDateRangeException() {
+        return "The start of the date range must be before its end!";
+    }
+
+    public static String InvalidPageException() {
+        return "The page must be at least 0 and the size of a page at least 1!";
+    }
+
+    public static String InvalidTenantException() {
+        return "The tenant id must be 1 to 64 letters, digits, dashes or underscores!";
+    }
+}
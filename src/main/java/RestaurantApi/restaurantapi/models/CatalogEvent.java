@@ -0,0 +1,39 @@
+package RestaurantApi.restaurantapi.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * This class defines a change of the catalog, published to all the instances of the service.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "catalog_events")
+public class CatalogEvent {
+
+    public enum Type { PRODUCT_CHANGED, CATALOG_CHANGED, NODE_STARTED }
+
+    @Id
+    private ObjectId id;
+
+    private Type type;
+
+    private String tenantId; //The location of the changed product, null for the default location.
+
+    private String productName; //The changed product, null if the event isn't about one product.
+
+    private String nodeId; //The instance of the service that published the event.
+
+    private Date date;
+
+    public static CatalogEvent productChanged(String tenantId, String productName, String nodeId) {
+        return new CatalogEvent(null, Type.PRODUCT_CHANGED, tenantId, productName, nodeId, new Date());
+    }
+}
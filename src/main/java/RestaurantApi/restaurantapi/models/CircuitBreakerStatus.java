@@ -0,0 +1,28 @@
+package RestaurantApi.restaurantapi.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class defines the state and the metrics of a circuit breaker.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CircuitBreakerStatus {
+
+    private String name;
+
+    private String state;
+
+    private int failureRate; //Percent of failed or slow calls in the current window.
+
+    private long calls;
+
+    private long failedCalls;
+
+    private long slowCalls;
+
+    private long rejectedCalls;
+}
@@ -0,0 +1,30 @@
+package RestaurantApi.restaurantapi.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class defines the state and the metrics of an adaptive concurrency limit.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConcurrencyLimitStatus {
+
+    private String name;
+
+    private int limit;
+
+    private int inFlight;
+
+    private int queued;
+
+    private long shortLatencyMicros; //Recent average latency.
+
+    private long longLatencyMicros; //Long term average latency, the baseline of the gradient.
+
+    private long completedCalls;
+
+    private long shedCalls;
+}
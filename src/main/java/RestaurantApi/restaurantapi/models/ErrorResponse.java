@@ -0,0 +1,19 @@
+package RestaurantApi.restaurantapi.models;
+
+import RestaurantApi.restaurantapi.exceptions.ErrorCode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class defines the body of the error responses.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorResponse {
+
+    private ErrorCode code;
+
+    private String message;
+}
@@ -0,0 +1,107 @@
+package RestaurantApi.restaurantapi.models;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * This class is an immutable version of the menu of a location, the products by name.
+ * A change creates a new snapshot, so a reader sees one consistent menu without locks.
+ * The version is derived from the names and the prices of the products, not counted by the instance, so every instance,
+ * before and after a restart, gives a menu the same version and a menu with other prices another version.
+ * The snapshot keeps its own copies of the products and hands out copies, so changing a ProductDTO doesn't change it.
+ */
+public final class MenuSnapshot {
+
+    public static final MenuSnapshot EMPTY = new MenuSnapshot(Map.of());
+
+    private final long version; //The hash of the prices of the menu, 0 for an empty menu, e.g. until it is loaded.
+    private final Map<String, ProductDTO> productsByName;
+
+    private MenuSnapshot(Map<String, ProductDTO> productsByName) {
+        this.version = versionOf(productsByName);
+        this.productsByName = productsByName;
+    }
+
+    /**
+     * This function derives the version of a menu from the names and the prices of its products, in the order of their names.
+     * It is the first 8 bytes of their SHA-256 hash, so different menus have the same version only by a negligible chance.
+     * @param productsByName - the products of the menu by name.
+     * @return the version, 0 for an empty menu.
+     */
+    static long versionOf(Map<String, ProductDTO> productsByName) {
+        if (productsByName.isEmpty()) {
+            return 0;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (ProductDTO product : new TreeMap<>(productsByName).values()) {
+                digest.update(product.getName().getBytes(StandardCharsets.UTF_8));
+                digest.update(ByteBuffer.allocate(5).put((byte) 0).putInt(product.getPrice()).array());
+            }
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); //Every Java platform has SHA-256.
+        }
+    }
+
+    /**
+     * This function creates a snapshot with all the products of the menu.
+     * @param products - all the products.
+     * @return the new snapshot.
+     */
+    public MenuSnapshot withProducts(Collection<ProductDTO> products) {
+        Map<String, ProductDTO> copies = new HashMap<>();
+        for (ProductDTO product : products) {
+            copies.put(product.getName(), new ProductDTO(product));
+        }
+        return new MenuSnapshot(Collections.unmodifiableMap(copies));
+    }
+
+    /**
+     * This function creates a snapshot with a product added or replaced.
+     * @param product - the product.
+     * @return the new snapshot.
+     */
+    public MenuSnapshot withProduct(ProductDTO product) {
+        Map<String, ProductDTO> copies = new HashMap<>(productsByName);
+        copies.put(product.getName(), new ProductDTO(product));
+        return new MenuSnapshot(Collections.unmodifiableMap(copies));
+    }
+
+    /**
+     * This function creates a snapshot without a product.
+     * @param name - the product's name.
+     * @return the new snapshot.
+     */
+    public MenuSnapshot withoutProduct(String name) {
+        Map<String, ProductDTO> copies = new HashMap<>(productsByName);
+        copies.remove(name);
+        return new MenuSnapshot(Collections.unmodifiableMap(copies));
+    }
+
+    /**
+     * This function searches for a product of the snapshot by its name.
+     * @param name - the product's name.
+     * @return a copy of the product, if it is on the menu.
+     */
+    public Optional<ProductDTO> findProductByName(String name) {
+        ProductDTO product = productsByName.get(name);
+        return product != null ? Optional.of(new ProductDTO(product)) : Optional.empty();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return productsByName.size();
+    }
+}
@@ -4,11 +4,17 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import java.util.Date;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -18,18 +24,42 @@ import java.util.Map;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "orders")
+@CompoundIndex(name = "tenant_date", def = "{'tenantId': 1, 'date': 1}")
+@CompoundIndex(name = "tenant_idempotency_key", def = "{'tenantId': 1, 'idempotencyKey': 1}", unique = true,
+        partialFilter = "{'idempotencyKey': {'$exists': true}}")
+@CompoundIndex(name = "tenant_status_date", def = "{'tenantId': 1, 'status': 1, 'date': 1}")
 public class OrderDTO {
 
+    public static final int MAX_PRODUCTS = 50;
+    public static final int MAX_AMOUNT = 99;
+
     @Id
     private String id;
 
-    private Map<String,Integer> productsOrdered = new Hashtable<>(); //String - product name, Integer - amount of the product in the key.
+    private String tenantId; //The location of the order, set by the server from the X-Tenant-Id header, see Tenants.
+
+    @NotNull(message="Products ordered cannot be null", groups = RequestValidation.class)
+    @Size(max=MAX_PRODUCTS, groups = RequestValidation.class)
+    private Map<@NotNull(groups = RequestValidation.class) @Size(min=ProductDTO.MIN_NAME_LENGTH, max=ProductDTO.MAX_NAME_LENGTH, groups = RequestValidation.class) String,
+            @NotNull(groups = RequestValidation.class) @Min(value = 1, groups = RequestValidation.class) @Max(value = MAX_AMOUNT, groups = RequestValidation.class) Integer>
+            productsOrdered = new Hashtable<>(); //String - product name, Integer - amount of the product in the key.
 
-    private Date date;
+    @Indexed
+    private Date date; //Indexed alone for the archiver, which moves the old orders of all the locations.
 
     @Min(60)
     private int price;
 
+    private long menuVersion; //The version of the menu the order was priced with, see MenuSnapshot.
+
+    private List<OrderLine> lines; //The products with their prices when the order was priced, set by the server.
+
+    private String idempotencyKey; //The Idempotency-Key header the order was created with, if any.
+
+    private OrderStatus status; //Set by the server, NEW when the order is created. The orders from before the statuses have none.
+
+    private Date statusDate; //When the order moved to its status.
+
 
     public OrderDTO(String id, Map<String, Integer> productsOrdered) {
         this.id = id;
@@ -46,9 +76,15 @@ public class OrderDTO {
     public String toString() {
         return "Order{" +
                 "id=" + id +
+                ", tenantId=" + tenantId +
                 ", productsOrdered=" + productsOrdered +
                 ", date=" + date +
                 ", price=" + price +
+                ", menuVersion=" + menuVersion +
+                ", lines=" + lines +
+                ", idempotencyKey=" + idempotencyKey +
+                ", status=" + status +
+                ", statusDate=" + statusDate +
                 '}';
     }
 }
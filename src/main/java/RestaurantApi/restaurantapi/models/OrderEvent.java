@@ -0,0 +1,35 @@
+package RestaurantApi.restaurantapi.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * This class defines an accepted order as it is pushed to the kitchen displays of its location by every instance of the service.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "order_events")
+public class OrderEvent {
+
+    @Id
+    private ObjectId id; //Also the id of the event in the feed, which a reconnecting display sends back as Last-Event-ID.
+
+    private String tenantId; //The location of the order, null for the default location.
+
+    private String nodeId; //The instance of the service that accepted the order.
+
+    private Date date;
+
+    private OrderDTO order;
+
+    public static OrderEvent of(OrderDTO order, String nodeId) {
+        return new OrderEvent(new ObjectId(), order.getTenantId(), nodeId, new Date(), order);
+    }
+}
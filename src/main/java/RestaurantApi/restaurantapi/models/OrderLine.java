@@ -0,0 +1,22 @@
+package RestaurantApi.restaurantapi.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class defines a line of an order: a product, its amount and its price when the order was priced.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLine {
+
+    private String productName;
+
+    private int quantity;
+
+    private int unitPrice;
+
+    private int total;
+}
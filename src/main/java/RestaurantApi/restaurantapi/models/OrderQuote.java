@@ -0,0 +1,26 @@
+package RestaurantApi.restaurantapi.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * This class defines the price of a basket that wasn't ordered yet.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderQuote {
+
+    private List<OrderLine> lines;
+
+    private int total;
+
+    private int minimumOrderAmount;
+
+    private boolean meetsMinimum; //Whether the basket can be ordered, i.e. the total is at least the minimum order amount.
+
+    private long menuVersion;
+}
@@ -0,0 +1,30 @@
+package RestaurantApi.restaurantapi.models;
+
+import java.util.Set;
+
+/**
+ * This enum defines the statuses of an order in the kitchen: NEW until it is started, IN_PROGRESS until it is DONE,
+ * and CANCELLED instead of either. An order moves only from the statuses before its next status.
+ */
+public enum OrderStatus {
+
+    NEW,
+    IN_PROGRESS,
+    DONE,
+    CANCELLED;
+
+    public static final Set<OrderStatus> OPEN = Set.of(NEW, IN_PROGRESS); //The orders the kitchen still has to make.
+
+    /**
+     * This method returns the statuses an order may move to this status from.
+     * @return the previous statuses, none for NEW.
+     */
+    public Set<OrderStatus> previous() {
+        switch (this) {
+            case IN_PROGRESS: return Set.of(NEW);
+            case DONE: return Set.of(IN_PROGRESS);
+            case CANCELLED: return OPEN;
+            default: return Set.of();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package RestaurantApi.restaurantapi.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * This class defines the body of a request that moves an order to another status.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusChange {
+
+    @NotNull(message = "Status cannot be null", groups = RequestValidation.class)
+    private OrderStatus status;
+}
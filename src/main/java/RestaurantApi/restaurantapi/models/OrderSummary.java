@@ -0,0 +1,26 @@
+package RestaurantApi.restaurantapi.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * This class defines the summary of the orders of a date range.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+
+    private Date from;
+
+    private Date to;
+
+    private long count;
+
+    private long revenue;
+
+    private double averageTicket;
+}
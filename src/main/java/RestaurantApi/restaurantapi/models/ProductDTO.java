@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import javax.validation.constraints.Min;
@@ -17,22 +18,30 @@ import javax.validation.constraints.Size;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "products")
+@CompoundIndex(name = "tenant_name", def = "{'tenantId': 1, 'name': 1}")
 public class ProductDTO {
 
+    public static final int MIN_NAME_LENGTH = 2;
+    public static final int MAX_NAME_LENGTH = 30;
+
     @Id
     private String id;
 
-    @Size(min=2, max=30)
-    @NotNull(message="Name cannot be null")
+    private String tenantId; //The location of the product, set by the server from the X-Tenant-Id header, see Tenants.
+
+    @Size(min=MIN_NAME_LENGTH, max=MAX_NAME_LENGTH, groups = RequestValidation.class)
+    @NotNull(message="Name cannot be null", groups = RequestValidation.class)
     private String name;
 
-    @NotNull(message="Description cannot be null")
+    @Size(max=1000, groups = RequestValidation.class)
+    @NotNull(message="Description cannot be null", groups = RequestValidation.class)
     private String description;
 
-    @NotNull(message="Image cannot be null")
+    @Size(max=2048, groups = RequestValidation.class)
+    @NotNull(message="Image cannot be null", groups = RequestValidation.class)
     private String image;
 
-    @Min(8)
+    @Min(value = 8, groups = RequestValidation.class)
     private int price;
 
 
@@ -45,6 +54,7 @@ public class ProductDTO {
 
     public ProductDTO(ProductDTO newProduct) {
         this.id = newProduct.getId();
+        this.tenantId = newProduct.getTenantId();
         this.name = newProduct.getName();
         this.description = newProduct.getDescription();
         this.image = newProduct.getImage();
@@ -55,6 +65,7 @@ public class ProductDTO {
     public String toString() {
         return "Product{" +
                 "id=" + id +
+                ", tenantId=" + tenantId +
                 ", name='" + name + '\'' +
                 ", description='" + description + '\'' +
                 ", image='" + image + '\'' +
@@ -0,0 +1,20 @@
+package RestaurantApi.restaurantapi.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class defines how much of a product was sold in a date range, at the prices of the orders.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSales {
+
+    private String productName;
+
+    private long quantity;
+
+    private long revenue;
+}
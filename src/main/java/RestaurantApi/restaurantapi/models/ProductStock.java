@@ -0,0 +1,68 @@
+package RestaurantApi.restaurantapi.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * This class defines the stock of a product of a location.
+ * The units that the instances of the service took to sell from memory are in their leases, the rest is in the stock.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "inventory")
+@CompoundIndexes({
+        @CompoundIndex(name = "tenant_product", def = "{'tenantId': 1, 'productName': 1}", unique = true),
+        @CompoundIndex(name = "leases_date", def = "{'leases.date': 1}")
+})
+public class ProductStock {
+
+    @Id
+    private String id;
+
+    private String tenantId; //The location of the product, null for the default location.
+
+    private String productName;
+
+    private long stock; //The units that no instance took yet.
+
+    private List<Lease> leases = new ArrayList<>();
+
+    /**
+     * The units an instance of the service took from the stock, and how many of them it sold.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Lease {
+
+        private String id; //The instance and a generation, see InventoryService.
+
+        private long claimed;
+
+        private long sold;
+
+        private Date date; //The last renewal, by the flush of the instance.
+    }
+
+    /**
+     * This function returns the units of the product that weren't sold, in the stock and in the leases.
+     * @return the available units.
+     */
+    public long available() {
+        long available = stock;
+        for (Lease lease : leases) {
+            available += lease.getClaimed() - lease.getSold();
+        }
+        return available;
+    }
+}
@@ -0,0 +1,10 @@
+package RestaurantApi.restaurantapi.models;
+
+/**
+ * This interface is the validation group of the constraints on what the client sends.
+ * They are checked once, on the request body at the controller, before any database work.
+ * The constraints of the Default group are on what the server computes, e.g. the order price,
+ * and are checked when the model is saved.
+ */
+public interface RequestValidation {
+}
@@ -0,0 +1,19 @@
+package RestaurantApi.restaurantapi.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Min;
+
+/**
+ * This class defines the body of a request that adds units to the stock of a product, e.g. after a delivery.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockChange {
+
+    @Min(value = 1, groups = RequestValidation.class)
+    private int quantity;
+}
@@ -0,0 +1,18 @@
+package RestaurantApi.restaurantapi.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class defines how many units of a product a location can still sell.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLevel {
+
+    private String productName;
+
+    private Long available; //null when the stock of the product isn't tracked.
+}
@@ -0,0 +1,54 @@
+package RestaurantApi.restaurantapi.repositories;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+/**
+ * This class holds what the converters of the models share, the way the mapping converter stores the ids and the numbers.
+ */
+final class Documents {
+
+    private Documents() {
+    }
+
+    /**
+     * This function stores an id like the mapping converter: an id that is an ObjectId as an ObjectId, and no id at all when it is null,
+     * so Mongo generates it.
+     */
+    static void putId(Document document, String id) {
+        if (id != null) {
+            document.put("_id", ObjectId.isValid(id) ? new ObjectId(id) : id);
+        }
+    }
+
+    static String getId(Document document) {
+        Object id = document.get("_id");
+        if (id instanceof ObjectId) {
+            return ((ObjectId) id).toHexString();
+        }
+        return id != null ? id.toString() : null;
+    }
+
+    static void putIfNotNull(Document document, String key, Object value) {
+        if (value != null) {
+            document.put(key, value);
+        }
+    }
+
+    /**
+     * This function reads a number of any BSON type, e.g. a double written by the shell, 0 when it is missing.
+     */
+    static int getInt(Document document, String key) {
+        Object value = document.get(key);
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+
+    static long getLong(Document document, String key) {
+        Object value = document.get(key);
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+
+    static Integer toInteger(Object value) {
+        return value != null ? ((Number) value).intValue() : null;
+    }
+}
@@ -0,0 +1,96 @@
+package RestaurantApi.restaurantapi.repositories;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class holds the bucket pattern of the orders: the orders of every hour of a location are pushed to one document,
+ * {tenantId, hour, count, revenue, orders: [...]}, whose count and revenue are incremented with every order.
+ * A range read fetches one document per hour instead of one per order,
+ * and a summary of whole hours is computed from the totals without reading the orders at all.
+ */
+final class OrderBuckets {
+
+    static final long HOUR = 60 * 60 * 1000;
+
+    private OrderBuckets() {
+    }
+
+    /**
+     * This function creates the update that appends an order to its bucket.
+     * @param order - the order document.
+     * @param price - the price of the order.
+     * @return Update.
+     */
+    static Update append(Document order, int price) {
+        return new Update().push("orders", order).inc("count", 1).inc("revenue", price);
+    }
+
+    /**
+     * This function creates the query of the buckets of a location that may hold orders of a date range.
+     * @param tenantId - the tenant id.
+     * @param from - the start of the range, inclusive, or null for no start.
+     * @param to - the end of the range, exclusive, or null for no end.
+     * @return Query, of the oldest bucket first.
+     */
+    static Query query(String tenantId, Date from, Date to) {
+        return new Query(OrderRepositoryCustomImpl.range(tenantId, "hour", from == null ? null : floorHour(from), to))
+                .with(Sort.by(Sort.Direction.ASC, "hour"));
+    }
+
+    /**
+     * This function takes the orders of a date range out of their buckets.
+     * @param buckets - the bucket documents.
+     * @param from - the start of the range, inclusive, or null for no start.
+     * @param to - the end of the range, exclusive, or null for no end.
+     * @return the order documents.
+     */
+    static List<Document> unpack(List<Document> buckets, Date from, Date to) {
+        List<Document> orders = new ArrayList<>();
+        for (Document bucket : buckets) {
+            for (Document order : bucket.getList("orders", Document.class, List.of())) {
+                Date date = order.getDate("date");
+                if ((from == null || !date.before(from)) && (to == null || date.before(to))) {
+                    orders.add(order);
+                }
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * This function returns the hours a date range covers only partly.
+     * The orders of these hours are counted one by one, and the totals of the other hours are used as they are.
+     * @param from - the start of the range, or null for no start.
+     * @param to - the end of the range, or null for no end.
+     * @return the starts of the partly covered hours.
+     */
+    static Set<Date> partialHours(Date from, Date to) {
+        Set<Date> hours = new LinkedHashSet<>();
+        if (from != null && from.getTime() % HOUR != 0) {
+            hours.add(floorHour(from));
+        }
+        if (to != null && to.getTime() % HOUR != 0) {
+            hours.add(floorHour(to));
+        }
+        return hours;
+    }
+
+    static Date floorHour(Date date) {
+        return new Date(date.getTime() - Math.floorMod(date.getTime(), HOUR));
+    }
+
+    static Date ceilHour(Date date) {
+        Date floor = floorHour(date);
+        return floor.equals(date) ? floor : new Date(floor.getTime() + HOUR);
+    }
+}
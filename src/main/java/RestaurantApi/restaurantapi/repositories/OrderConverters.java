@@ -0,0 +1,110 @@
+package RestaurantApi.restaurantapi.repositories;
+
+import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.OrderLine;
+import RestaurantApi.restaurantapi.models.OrderStatus;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mapping.MappingException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class converts the orders to their documents and back by hand, instead of the reflection of the mapping converter,
+ * which showed in the profiles of the order listings. The documents are the ones the mapping converter writes, without _class:
+ * a String id that is an ObjectId is stored as an ObjectId, null fields are left out and the statuses are stored by name.
+ * They are registered in MongoConfig, so they convert the orders of the collections, of the buckets and of the events.
+ * A new field of OrderDTO must be added here too, OrderConvertersTest fails until it is.
+ */
+public final class OrderConverters {
+
+    private OrderConverters() {
+    }
+
+    @WritingConverter
+    public static class Write implements Converter<OrderDTO, Document> {
+
+        @Override
+        public Document convert(OrderDTO order) {
+            Document document = new Document();
+            Documents.putId(document, order.getId());
+            Documents.putIfNotNull(document, "tenantId", order.getTenantId());
+            if (order.getProductsOrdered() != null) {
+                Document productsOrdered = new Document();
+                for (Map.Entry<String, Integer> product : order.getProductsOrdered().entrySet()) {
+                    if (product.getKey().contains(".")) {
+                        throw new MappingException("Map key " + product.getKey() + " contains dots but no replacement was configured!");
+                    }
+                    productsOrdered.put(product.getKey(), product.getValue());
+                }
+                document.put("productsOrdered", productsOrdered);
+            }
+            Documents.putIfNotNull(document, "date", order.getDate());
+            document.put("price", order.getPrice());
+            document.put("menuVersion", order.getMenuVersion());
+            if (order.getLines() != null) {
+                List<Document> lines = new ArrayList<>(order.getLines().size());
+                for (OrderLine line : order.getLines()) {
+                    Document lineDocument = new Document();
+                    Documents.putIfNotNull(lineDocument, "productName", line.getProductName());
+                    lineDocument.put("quantity", line.getQuantity());
+                    lineDocument.put("unitPrice", line.getUnitPrice());
+                    lineDocument.put("total", line.getTotal());
+                    lines.add(lineDocument);
+                }
+                document.put("lines", lines);
+            }
+            Documents.putIfNotNull(document, "idempotencyKey", order.getIdempotencyKey());
+            if (order.getStatus() != null) {
+                document.put("status", order.getStatus().name());
+            }
+            Documents.putIfNotNull(document, "statusDate", order.getStatusDate());
+            return document;
+        }
+    }
+
+    @ReadingConverter
+    public static class Read implements Converter<Document, OrderDTO> {
+
+        @Override
+        public OrderDTO convert(Document document) {
+            OrderDTO order = new OrderDTO();
+            order.setId(Documents.getId(document));
+            order.setTenantId(document.getString("tenantId"));
+            Document productsOrdered = (Document) document.get("productsOrdered");
+            if (productsOrdered != null) {
+                Map<String, Integer> products = new LinkedHashMap<>();
+                for (Map.Entry<String, Object> product : productsOrdered.entrySet()) {
+                    products.put(product.getKey(), Documents.toInteger(product.getValue()));
+                }
+                order.setProductsOrdered(products);
+            }
+            order.setDate((Date) document.get("date"));
+            order.setPrice(Documents.getInt(document, "price"));
+            order.setMenuVersion(Documents.getLong(document, "menuVersion"));
+            List<?> lines = (List<?>) document.get("lines");
+            if (lines != null) {
+                List<OrderLine> orderLines = new ArrayList<>(lines.size());
+                for (Object line : lines) {
+                    Document lineDocument = (Document) line;
+                    orderLines.add(new OrderLine(lineDocument.getString("productName"), Documents.getInt(lineDocument, "quantity"),
+                            Documents.getInt(lineDocument, "unitPrice"), Documents.getInt(lineDocument, "total")));
+                }
+                order.setLines(orderLines);
+            }
+            order.setIdempotencyKey(document.getString("idempotencyKey"));
+            String status = document.getString("status");
+            if (status != null) {
+                order.setStatus(OrderStatus.valueOf(status));
+            }
+            order.setStatusDate((Date) document.get("statusDate"));
+            return order;
+        }
+    }
+}
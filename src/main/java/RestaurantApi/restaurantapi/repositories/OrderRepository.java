@@ -8,7 +8,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface OrderRepository extends MongoRepository<OrderDTO, String> {
+public interface OrderRepository extends MongoRepository<OrderDTO, String>, OrderRepositoryCustom {
 
     @NonNull
     List<OrderDTO> findAll();
@@ -0,0 +1,147 @@
+package RestaurantApi.restaurantapi.repositories;
+
+import RestaurantApi.restaurantapi.exceptions.RequestExceptions;
+import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.OrderStatus;
+import RestaurantApi.restaurantapi.models.OrderSummary;
+import RestaurantApi.restaurantapi.models.ProductSales;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * This interface defines the order queries that need their own Mongo settings.
+ * The listings and the summaries are read with the listings read preference (e.g. from a secondary).
+ * Old orders are moved to an archive collection, which is read only when the requested range reaches it.
+ * The orders are stored either one per document or in hourly buckets, by restaurant.order-storage.mode.
+ * Every read is of one location (tenant id, null for the default location) and starts with the tenant id,
+ * which is the first field of the indexes, so a location reads only its own orders however many locations there are.
+ * The orders may be spread over several databases (restaurant.order-shards.*), so only these methods see all of them,
+ * not the methods OrderRepository inherits from MongoRepository.
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * This method saves a new order in the storage mode of the orders, in the buckets of its location.
+     * @param order - the new order, with its tenant id.
+     * @return the saved order.
+     */
+    OrderDTO insertOrder(OrderDTO order);
+
+    /**
+     * This method searches for the order of a location that was created with an idempotency key.
+     * @param tenantId - the tenant id.
+     * @param idempotencyKey - the Idempotency-Key header of the request.
+     * @return the order, if there is one.
+     */
+    Optional<OrderDTO> findOrderByIdempotencyKey(String tenantId, String idempotencyKey);
+
+    /**
+     * This method returns the recent orders of a location from the primary, e.g. the orders of the last day.
+     * @param tenantId - the tenant id.
+     * @param from - the start of the range, inclusive.
+     * @return List of the orders since the date.
+     */
+    List<OrderDTO> findOrdersSince(String tenantId, Date from);
+
+    /**
+     * This method returns all the orders of a location.
+     * @param tenantId - the tenant id.
+     * @return List of all orders of the location.
+     */
+    List<OrderDTO> findAllForListing(String tenantId);
+
+    /**
+     * This method returns the orders of a location in a date range.
+     * @param tenantId - the tenant id.
+     * @param from - the start of the range, inclusive, or null for no start.
+     * @param to - the end of the range, exclusive, or null for no end.
+     * @return List of the orders of the range.
+     */
+    List<OrderDTO> findAllForListing(String tenantId, Date from, Date to);
+
+    /**
+     * This method returns only the requested fields of the orders of a location in a date range.
+     * @param tenantId - the tenant id.
+     * @param fields - the requested fields.
+     * @param from - the start of the range, inclusive, or null for no start.
+     * @param to - the end of the range, exclusive, or null for no end.
+     * @return List of the requested fields of the orders of the range.
+     */
+    List<Map<String, Object>> findAllForListing(String tenantId, Collection<String> fields, Date from, Date to);
+
+    /**
+     * This function checks the requested fields of findAllForListing, before the query is guarded as a database call.
+     * @param fields - the requested fields.
+     * @throws RequestExceptions - A requested field isn't a field of the order.
+     */
+    static void validateFields(Collection<String> fields) {
+        Projections.validate(fields, OrderRepositoryCustomImpl.ORDER_FIELDS);
+    }
+
+    /**
+     * This method counts the orders of a location in a date range and sums their prices in Mongo.
+     * @param tenantId - the tenant id.
+     * @param from - the start of the range, inclusive.
+     * @param to - the end of the range, exclusive.
+     * @return the summary of the orders of the range.
+     */
+    OrderSummary summarize(String tenantId, Date from, Date to);
+
+    /**
+     * This method sums the quantity and the revenue of every product in the lines of the orders of a location
+     * in a date range, in Mongo. The orders that were created before the lines were stored have no lines and aren't counted.
+     * @param tenantId - the tenant id.
+     * @param from - the start of the range, inclusive.
+     * @param to - the end of the range, exclusive.
+     * @return the sales of the products, the highest revenue first.
+     */
+    List<ProductSales> summarizeProducts(String tenantId, Date from, Date to);
+
+    /**
+     * This method returns the open orders of a location (NEW and IN_PROGRESS), oldest first,
+     * from the index on the tenant id, the status and the date, so it reads only the open orders however many orders there are.
+     * @param tenantId - the tenant id.
+     * @return List of the open orders.
+     */
+    List<OrderDTO> findOpenOrders(String tenantId);
+
+    /**
+     * This method searches for an order of a location by its id, in the orders and in the archive.
+     * @param tenantId - the tenant id.
+     * @param orderId - the order id.
+     * @return the order, if there is one.
+     */
+    Optional<OrderDTO> findOrder(String tenantId, String orderId);
+
+    /**
+     * This method moves an order to a status atomically with findAndModify, only if it is still in one of the expected statuses,
+     * so two kitchen displays that move the same order at once can't both succeed.
+     * @param tenantId - the tenant id.
+     * @param orderId - the order id.
+     * @param expected - the statuses the order may move from.
+     * @param status - the new status.
+     * @param date - the date of the change.
+     * @return the changed order, or empty if the location has no such order in an expected status.
+     */
+    Optional<OrderDTO> changeStatus(String tenantId, String orderId, Set<OrderStatus> expected, OrderStatus status, Date date);
+
+    /**
+     * This method moves a batch of the orders of all the locations that are older than a date to the archive collection.
+     * Running it again after a failure is safe: the archived orders are upserted before they are removed.
+     * The open orders stay, so the kitchen can still finish them.
+     * @param before - the date before which the orders are archived.
+     * @param batchSize - the maximal number of orders to move.
+     * @return the number of orders that were moved.
+     */
+    int archiveOrders(Date before, int batchSize);
+
+    /**
+     * This method creates the indexes of the collections that aren't mapped to a model: the archive and the buckets.
+     */
+    void createIndexes();
+}
@@ -0,0 +1,569 @@
+package RestaurantApi.restaurantapi.repositories;
+
+import RestaurantApi.restaurantapi.config.OrderArchiveProperties;
+import RestaurantApi.restaurantapi.config.OrderStorageProperties;
+import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.OrderStatus;
+import RestaurantApi.restaurantapi.models.OrderSummary;
+import RestaurantApi.restaurantapi.models.ProductSales;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * This class stores the orders in their shards (OrderShards): a new order and the lookups of an idempotency key go to one shard,
+ * and the listings and the summaries ask the shards that may hold orders of the location in parallel and merge their results.
+ */
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    static final String ORDERS = "orders";
+    static final String ORDERS_ARCHIVE = "orders_archive";
+    static final String ORDER_BUCKETS = "order_buckets";
+    static final String ORDER_BUCKETS_ARCHIVE = "order_buckets_archive";
+    static final String ARCHIVED_AT = "archivedAt"; //Set on the hot documents that were copied to the archive.
+    static final String ORDER_IDEMPOTENCY = "order_idempotency";
+    static final Set<String> ORDER_FIELDS = Set.of("id", "productsOrdered", "date", "price", "menuVersion", "lines", "status", "statusDate");
+    static final List<String> OPEN_STATUSES = names(OrderStatus.OPEN);
+    private static final Sort BY_DATE = Sort.by(Sort.Direction.ASC, "date"); //Served by the index on the tenant id and the date.
+
+    private final OrderShards shards;
+    private final OrderArchiveProperties archiveProperties;
+    private final OrderStorageProperties storageProperties;
+
+    @Autowired
+    public OrderRepositoryCustomImpl(OrderShards shards, OrderArchiveProperties archiveProperties,
+                                     OrderStorageProperties storageProperties) {
+        this.shards = shards;
+        this.archiveProperties = archiveProperties;
+        this.storageProperties = storageProperties;
+    }
+
+    @Override
+    public OrderDTO insertOrder(OrderDTO order) {
+        MongoTemplate mongoTemplate = shards.shardOf(order).getMongoTemplate();
+        if (!buckets()) {
+            return mongoTemplate.insert(order, ORDERS);
+        }
+        Document document = new Document();
+        mongoTemplate.getConverter().write(order, document);
+        document.remove("_class");
+        Query bucket = new Query(Criteria.where("tenantId").is(order.getTenantId())
+                .and("hour").is(OrderBuckets.floorHour(order.getDate()))
+                .and("count").lt(storageProperties.getMaxBucketOrders()));
+        if (order.getIdempotencyKey() == null) {
+            mongoTemplate.upsert(bucket, OrderBuckets.append(document, order.getPrice()), ORDER_BUCKETS);
+            return order;
+        }
+        //A bucket holds many orders, so the keys of its orders can't have a unique index: the key is claimed first,
+        //with a copy of the order for the replays that arrive before the order is in its bucket.
+        Query claim = idempotencyClaim(order.getTenantId(), order.getIdempotencyKey());
+        mongoTemplate.insert(new Document("tenantId", order.getTenantId()).append("key", order.getIdempotencyKey())
+                .append("order", document), ORDER_IDEMPOTENCY);
+        try {
+            mongoTemplate.upsert(bucket, OrderBuckets.append(document, order.getPrice()), ORDER_BUCKETS);
+        } catch (RuntimeException e) {
+            try {
+                mongoTemplate.remove(claim, ORDER_IDEMPOTENCY);
+            } catch (RuntimeException removeFailure) {
+                e.addSuppressed(removeFailure);
+            }
+            throw e;
+        }
+        return order;
+    }
+
+    @Override
+    public Optional<OrderDTO> findOrderByIdempotencyKey(String tenantId, String idempotencyKey) {
+        MongoTemplate mongoTemplate = shards.shardOfIdempotencyKey(tenantId, idempotencyKey).getMongoTemplate();
+        if (!buckets()) {
+            return Optional.ofNullable(mongoTemplate.findOne(new Query(Criteria.where("tenantId").is(tenantId)
+                            .and("idempotencyKey").is(idempotencyKey)), OrderDTO.class, ORDERS));
+        }
+        Query query = new Query(Criteria.where("tenantId").is(tenantId).and("orders.idempotencyKey").is(idempotencyKey));
+        query.fields().elemMatch("orders", Criteria.where("idempotencyKey").is(idempotencyKey));
+        Optional<OrderDTO> order = unpackOne(mongoTemplate, mongoTemplate.findOne(query, Document.class, ORDER_BUCKETS));
+        if (order.isPresent()) {
+            return order;
+        }
+        //The order may not be in its bucket yet, while the request that claimed its key is saving it.
+        return Optional.ofNullable(mongoTemplate.findOne(idempotencyClaim(tenantId, idempotencyKey), Document.class, ORDER_IDEMPOTENCY))
+                .map(claim -> mongoTemplate.getConverter().read(OrderDTO.class, claim.get("order", Document.class)));
+    }
+
+    private static Query idempotencyClaim(String tenantId, String idempotencyKey) {
+        return new Query(Criteria.where("tenantId").is(tenantId).and("key").is(idempotencyKey));
+    }
+
+    @Override
+    public List<OrderDTO> findOrdersSince(String tenantId, Date from) {
+        return mergeByDate(shards.query(shards.shardsOf(tenantId), shard -> find(shard.getMongoTemplate(), tenantId, from, null, false)),
+                OrderDTO::getDate);
+    }
+
+    @Override
+    public List<OrderDTO> findAllForListing(String tenantId) {
+        return findAllForListing(tenantId, null, null);
+    }
+
+    @Override
+    public List<OrderDTO> findAllForListing(String tenantId, Date from, Date to) {
+        boolean includeArchive = readsArchive(from);
+        return mergeByDate(shards.query(shards.shardsOf(tenantId),
+                shard -> find(shard.getListingMongoTemplate(), tenantId, from, to, includeArchive)), OrderDTO::getDate);
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllForListing(String tenantId, Collection<String> fields, Date from, Date to) {
+        boolean includeArchive = readsArchive(from);
+        List<List<Map<String, Object>>> results = shards.query(shards.shardsOf(tenantId),
+                shard -> findProjected(shard.getListingMongoTemplate(), tenantId, fields, from, to, includeArchive));
+        if (results.size() > 1 && !fields.contains("date")) {
+            return results.stream().flatMap(List::stream).collect(Collectors.toList());
+        }
+        return mergeByDate(results, order -> (Date) order.get("date"));
+    }
+
+    @Override
+    public OrderSummary summarize(String tenantId, Date from, Date to) {
+        boolean includeArchive = readsArchive(from);
+        List<long[]> shardTotals = shards.query(shards.shardsOf(tenantId), shard -> {
+            long[] totals = new long[2]; //The count and the revenue.
+            MongoTemplate template = shard.getListingMongoTemplate();
+            Set<Object> readIds = new HashSet<>();
+            for (String collection : collections(includeArchive)) {
+                if (buckets()) {
+                    addBucketTotals(template, collection, tenantId, from, to, totals, includeArchive, readIds);
+                } else {
+                    addTotals(template, collection, dateRange(tenantId, from, to),
+                            Aggregation.group().count().as("count").sum("price").as("revenue"), totals, includeArchive);
+                }
+            }
+            return totals;
+        });
+        long count = shardTotals.stream().mapToLong(totals -> totals[0]).sum();
+        long revenue = shardTotals.stream().mapToLong(totals -> totals[1]).sum();
+        return new OrderSummary(from, to, count, revenue, count > 0 ? (double) revenue / count : 0);
+    }
+
+    @Override
+    public List<ProductSales> summarizeProducts(String tenantId, Date from, Date to) {
+        boolean includeArchive = readsArchive(from);
+        Map<String, Aggregation> aggregations = new HashMap<>();
+        for (String collection : collections(includeArchive)) {
+            List<AggregationOperation> operations = new ArrayList<>();
+            if (buckets()) {
+                operations.add(Aggregation.match(range(tenantId, "hour", from == null ? null : OrderBuckets.floorHour(from), to)));
+                operations.addAll(notArchived(collection, includeArchive));
+                operations.add(Aggregation.unwind("orders"));
+                operations.add(Aggregation.replaceRoot("orders"));
+                operations.add(Aggregation.match(dateRange(tenantId, from, to)));
+            } else {
+                operations.add(Aggregation.match(dateRange(tenantId, from, to)));
+                operations.addAll(notArchived(collection, includeArchive));
+            }
+            operations.add(Aggregation.unwind("lines"));
+            operations.add(Aggregation.group("lines.productName").sum("lines.quantity").as("quantity").sum("lines.total").as("revenue"));
+            aggregations.put(collection, Aggregation.newAggregation(operations));
+        }
+        List<List<Document>> shardResults = shards.query(shards.shardsOf(tenantId), shard -> {
+            List<Document> results = new ArrayList<>();
+            for (String collection : collections(includeArchive)) {
+                results.addAll(shard.getListingMongoTemplate().aggregate(aggregations.get(collection), collection, Document.class).getMappedResults());
+            }
+            return results;
+        });
+        Map<String, ProductSales> salesByProduct = new HashMap<>();
+        for (List<Document> results : shardResults) {
+            for (Document result : results) {
+                ProductSales sales = salesByProduct.computeIfAbsent(result.getString("_id"), name -> new ProductSales(name, 0, 0));
+                sales.setQuantity(sales.getQuantity() + ((Number) result.get("quantity")).longValue());
+                sales.setRevenue(sales.getRevenue() + ((Number) result.get("revenue")).longValue());
+            }
+        }
+        List<ProductSales> sales = new ArrayList<>(salesByProduct.values());
+        sales.sort(Comparator.comparingLong(ProductSales::getRevenue).reversed());
+        return sales;
+    }
+
+    @Override
+    public List<OrderDTO> findOpenOrders(String tenantId) {
+        return mergeByDate(shards.query(shards.shardsOf(tenantId), shard -> {
+            MongoTemplate template = shard.getMongoTemplate();
+            if (!buckets()) {
+                Query open = new Query(Criteria.where("tenantId").is(tenantId).and("status").in(OPEN_STATUSES))
+                        .with(Sort.by(Sort.Direction.ASC, "date"));
+                return template.find(open, OrderDTO.class, ORDERS);
+            }
+            Query open = new Query(Criteria.where("tenantId").is(tenantId).and("orders.status").in(OPEN_STATUSES))
+                    .with(Sort.by(Sort.Direction.ASC, "hour"));
+            List<OrderDTO> orders = new ArrayList<>();
+            for (Document order : OrderBuckets.unpack(template.find(open, Document.class, ORDER_BUCKETS), null, null)) {
+                if (OPEN_STATUSES.contains(order.getString("status"))) {
+                    orders.add(template.getConverter().read(OrderDTO.class, order));
+                }
+            }
+            return orders;
+        }), OrderDTO::getDate);
+    }
+
+    @Override
+    public Optional<OrderDTO> findOrder(String tenantId, String orderId) {
+        return first(shards.query(shards.shardsOf(tenantId), shard -> {
+            MongoTemplate template = shard.getMongoTemplate();
+            for (String collection : collections(true)) {
+                Optional<OrderDTO> order;
+                if (buckets()) {
+                    Query query = new Query(Criteria.where("tenantId").is(tenantId).and("orders._id").is(idOf(orderId)));
+                    query.fields().elemMatch("orders", Criteria.where("_id").is(idOf(orderId)));
+                    order = unpackOne(template, template.findOne(query, Document.class, collection));
+                } else {
+                    order = Optional.ofNullable(template.findOne(new Query(Criteria.where("id").is(orderId).and("tenantId").is(tenantId)),
+                            OrderDTO.class, collection));
+                }
+                if (order.isPresent()) {
+                    return order;
+                }
+            }
+            return Optional.empty();
+        }));
+    }
+
+    @Override
+    public Optional<OrderDTO> changeStatus(String tenantId, String orderId, Set<OrderStatus> expected, OrderStatus status, Date date) {
+        FindAndModifyOptions returnNew = FindAndModifyOptions.options().returnNew(true);
+        return first(shards.query(shards.shardsOf(tenantId), shard -> {
+            MongoTemplate template = shard.getMongoTemplate();
+            if (!buckets()) {
+                Query query = new Query(Criteria.where("id").is(orderId).and("tenantId").is(tenantId).and("status").in(names(expected)));
+                Update update = new Update().set("status", status.name()).set("statusDate", date);
+                return Optional.ofNullable(template.findAndModify(query, update, returnNew, OrderDTO.class, ORDERS));
+            }
+            //The positional operator updates the order the $elemMatch matched, within its bucket.
+            Query query = new Query(Criteria.where("tenantId").is(tenantId)
+                    .and("orders").elemMatch(Criteria.where("_id").is(idOf(orderId)).and("status").in(names(expected))));
+            query.fields().elemMatch("orders", Criteria.where("_id").is(idOf(orderId)));
+            Update update = new Update().set("orders.$.status", status.name()).set("orders.$.statusDate", date);
+            return unpackOne(template, template.findAndModify(query, update, returnNew, Document.class, ORDER_BUCKETS));
+        }));
+    }
+
+    @Override
+    public int archiveOrders(Date before, int batchSize) {
+        int moved = 0;
+        for (OrderShards.Shard shard : shards.all()) {
+            moved += archiveOrders(shard.getMongoTemplate(), before, batchSize - moved);
+            if (moved == batchSize) {
+                break;
+            }
+        }
+        return moved;
+    }
+
+    @Override
+    public void createIndexes() {
+        for (OrderShards.Shard shard : shards.all()) {
+            MongoTemplate mongoTemplate = shard.getMongoTemplate();
+            if (shards.hasOwnDatabases()) {
+                //The indexes declared on the orders are created by Spring in the main database only.
+                IndexOperations indexOperations = mongoTemplate.indexOps(ORDERS);
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                        .resolveIndexFor(OrderDTO.class).forEach(indexOperations::ensureIndex);
+            }
+            mongoTemplate.indexOps(ORDERS_ARCHIVE).ensureIndex(new Index("tenantId", Sort.Direction.ASC).on("date", Sort.Direction.ASC));
+            if (buckets()) {
+                //The archiver moves the old buckets of all the locations, by their hour alone.
+                mongoTemplate.indexOps(ORDER_BUCKETS).ensureIndex(new Index("hour", Sort.Direction.ASC));
+                mongoTemplate.indexOps(ORDER_BUCKETS).ensureIndex(new Index("tenantId", Sort.Direction.ASC).on("hour", Sort.Direction.ASC));
+                mongoTemplate.indexOps(ORDER_BUCKETS).ensureIndex(new Index("tenantId", Sort.Direction.ASC)
+                        .on("orders.status", Sort.Direction.ASC).on("hour", Sort.Direction.ASC));
+                mongoTemplate.indexOps(ORDER_BUCKETS).ensureIndex(new Index("tenantId", Sort.Direction.ASC)
+                        .on("orders.idempotencyKey", Sort.Direction.ASC)
+                        .partial(PartialIndexFilter.of(Criteria.where("orders.idempotencyKey").exists(true))));
+                mongoTemplate.indexOps(ORDER_IDEMPOTENCY).ensureIndex(new Index("tenantId", Sort.Direction.ASC)
+                        .on("key", Sort.Direction.ASC).unique());
+                mongoTemplate.indexOps(ORDER_BUCKETS_ARCHIVE).ensureIndex(new Index("tenantId", Sort.Direction.ASC).on("hour", Sort.Direction.ASC));
+            }
+        }
+    }
+
+    /**
+     * This function moves a batch of the oldest orders of a shard to its archive.
+     * The batch is copied to the archive, then marked as archived in the hot collection and then removed from it,
+     * so until the remove (or for good, if the remove fails) its documents are in both collections.
+     * The reads of both collections skip the marked hot documents, so they count such a batch once,
+     * but for the short time between the copy and the mark. A batch that is moved between the reads
+     * of the archive and of the hot collection is missed by that read.
+     * @return the number of orders moved.
+     */
+    private int archiveOrders(MongoTemplate mongoTemplate, Date before, int batchSize) {
+        String hot = collections(false).get(0);
+        String archive = archiveCollection();
+        //A bucket holds the orders of the hour after its start, so it is archived once that whole hour is old enough.
+        Criteria old = buckets() ? Criteria.where("hour").lt(new Date(before.getTime() - OrderBuckets.HOUR)).and("orders.status").nin(OPEN_STATUSES)
+                : Criteria.where("date").lt(before).and("status").nin(OPEN_STATUSES);
+        Query oldest = new Query(old).with(Sort.by(Sort.Direction.ASC, buckets() ? "hour" : "date")).limit(batchSize);
+        List<Document> batch = mongoTemplate.find(oldest, Document.class, hot);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, archive);
+        for (Document document : batch) {
+            document.remove(ARCHIVED_AT); //Of a batch whose remove failed before.
+            bulk.replaceOne(new Query(Criteria.where("_id").is(document.get("_id"))), document, FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+        List<Object> ids = batch.stream().map(document -> document.get("_id")).collect(Collectors.toList());
+        mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids)), new Update().set(ARCHIVED_AT, new Date()), hot);
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), hot);
+        return batch.size();
+    }
+
+    /**
+     * This function checks if a range starting at a date may contain archived orders.
+     * The archive only holds orders that were older than the maximal age when they were moved,
+     * so a range that starts after now minus the maximal age is served by the hot collection alone.
+     * @param from - the start of the range, or null for no start.
+     * @return boolean.
+     */
+    boolean readsArchive(Date from) {
+        return from == null || from.getTime() < System.currentTimeMillis() - archiveProperties.getMaxAge().toMillis();
+    }
+
+    private boolean buckets() {
+        return storageProperties.getMode() == OrderStorageProperties.Mode.BUCKETS;
+    }
+
+    /**
+     * This function returns the collections to read, oldest first.
+     * @param includeArchive - whether the archive is read too.
+     * @return the names of the collections.
+     */
+    private List<String> collections(boolean includeArchive) {
+        if (buckets()) {
+            return includeArchive ? List.of(ORDER_BUCKETS_ARCHIVE, ORDER_BUCKETS) : List.of(ORDER_BUCKETS);
+        }
+        return includeArchive ? List.of(ORDERS_ARCHIVE, ORDERS) : List.of(ORDERS);
+    }
+
+    private String archiveCollection() {
+        return buckets() ? ORDER_BUCKETS_ARCHIVE : ORDERS_ARCHIVE;
+    }
+
+    /**
+     * This function returns the aggregation stages that skip the documents of the hot collection
+     * that were marked as copied to the archive, which are counted from the archive (see archiveOrders).
+     * Mongo merges the stage with the match before it, so it costs no more than a field of the match.
+     * @param collection - the collection that is aggregated.
+     * @param includeArchive - whether the archive is read too.
+     * @return the stages, none when the archive is not read or the collection is the archive.
+     */
+    private List<AggregationOperation> notArchived(String collection, boolean includeArchive) {
+        if (!includeArchive || !collection.equals(collections(false).get(0))) {
+            return List.of();
+        }
+        return List.of(Aggregation.match(Criteria.where(ARCHIVED_AT).exists(false)));
+    }
+
+    /**
+     * This function drops the documents whose id was read already and remembers the ids of the others.
+     * The archive is read before the hot collection, so a document that is in both is read once (see archiveOrders).
+     * @param documents - the documents of a collection.
+     * @param idOf - the id of a document.
+     * @param readIds - the ids read so far, or null when a single collection is read and there is nothing to skip.
+     * @return the documents that were not read yet.
+     */
+    static <T> List<T> unread(List<T> documents, Function<T, Object> idOf, Set<Object> readIds) {
+        if (readIds == null) {
+            return documents;
+        }
+        return documents.stream()
+                .filter(document -> readIds.add(idOf.apply(document)))
+                .collect(Collectors.toList());
+    }
+
+    private List<OrderDTO> find(MongoTemplate template, String tenantId, Date from, Date to, boolean includeArchive) {
+        List<OrderDTO> orders = new ArrayList<>();
+        Set<Object> readIds = includeArchive ? new HashSet<>() : null;
+        for (String collection : collections(includeArchive)) {
+            if (buckets()) {
+                List<Document> buckets = unread(template.find(OrderBuckets.query(tenantId, from, to), Document.class, collection),
+                        bucket -> bucket.get("_id"), readIds);
+                for (Document order : OrderBuckets.unpack(buckets, from, to)) {
+                    orders.add(template.getConverter().read(OrderDTO.class, order));
+                }
+            } else {
+                orders.addAll(unread(template.find(new Query(dateRange(tenantId, from, to)).with(BY_DATE), OrderDTO.class, collection),
+                        OrderDTO::getId, readIds));
+            }
+        }
+        return orders;
+    }
+
+    private List<Map<String, Object>> findProjected(MongoTemplate template, String tenantId, Collection<String> fields,
+                                                    Date from, Date to, boolean includeArchive) {
+        Query projection = Projections.query(fields, ORDER_FIELDS);
+        //The ids are read too when the archive is, to skip the orders that are in both collections.
+        boolean readsIds = includeArchive && !buckets() && !fields.contains("id");
+        List<String> readFields = new ArrayList<>(fields);
+        if (readsIds) {
+            readFields.add("id");
+        }
+        List<Document> documents = new ArrayList<>();
+        Set<Object> readIds = includeArchive ? new HashSet<>() : null;
+        for (String collection : collections(includeArchive)) {
+            if (buckets()) {
+                List<Document> buckets = unread(template.find(OrderBuckets.query(tenantId, from, to), Document.class, collection),
+                        bucket -> bucket.get("_id"), readIds);
+                for (Document order : OrderBuckets.unpack(buckets, from, to)) {
+                    documents.add(Projections.select(order, projection));
+                }
+            } else {
+                Query query = Projections.query(readFields, ORDER_FIELDS).addCriteria(dateRange(tenantId, from, to)).with(BY_DATE);
+                documents.addAll(unread(template.find(query, Document.class, collection), document -> document.get("_id"), readIds));
+            }
+        }
+        if (readsIds) {
+            documents.forEach(document -> document.remove("_id"));
+        }
+        return documents.stream()
+                .map(Projections::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * This function reads the order of a bucket that was projected to that order alone.
+     */
+    private static Optional<OrderDTO> unpackOne(MongoTemplate template, Document bucket) {
+        return Optional.ofNullable(bucket)
+                .flatMap(found -> OrderBuckets.unpack(List.of(found), null, null).stream().findFirst())
+                .map(order -> template.getConverter().read(OrderDTO.class, order));
+    }
+
+    private static Optional<OrderDTO> first(List<Optional<OrderDTO>> results) {
+        return results.stream().flatMap(Optional::stream).findFirst();
+    }
+
+    /**
+     * This function returns the id of an order as it is stored: an ObjectId, unless it was created with another id.
+     */
+    private static Object idOf(String orderId) {
+        return ObjectId.isValid(orderId) ? new ObjectId(orderId) : orderId;
+    }
+
+    private static List<String> names(Set<OrderStatus> statuses) {
+        return statuses.stream().map(OrderStatus::name).sorted().collect(Collectors.toList());
+    }
+
+    /**
+     * This function merges the orders of the shards by their date.
+     * Every shard reads every collection oldest first, but an order that stayed open is in the hot collection
+     * after newer archived orders, and the orders of a bucket are in the order they were saved, not by date,
+     * so the orders of a single shard are sorted too.
+     * @param results - the orders of every shard.
+     * @param dateOf - the date of an order.
+     * @return the orders, oldest first.
+     */
+    static <T> List<T> mergeByDate(List<List<T>> results, Function<T, Date> dateOf) {
+        List<T> orders = new ArrayList<>();
+        results.forEach(orders::addAll);
+        //The reads are runs of orders that are (almost) sorted already, which the sort merges in about linear time.
+        orders.sort(Comparator.comparing(dateOf, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return orders;
+    }
+
+    /**
+     * This function adds the totals of the buckets of a range: the whole hours from their pre-computed totals,
+     * and the hours the range covers only partly from their orders.
+     * @param readIds - the ids of the buckets of partial hours read from the other collections of the shard.
+     */
+    private void addBucketTotals(MongoTemplate template, String collection, String tenantId, Date from, Date to, long[] totals,
+                                 boolean includeArchive, Set<Object> readIds) {
+        Date wholeFrom = from == null ? null : OrderBuckets.ceilHour(from);
+        Date wholeTo = to == null ? null : OrderBuckets.floorHour(to);
+        if (wholeFrom == null || wholeTo == null || wholeFrom.before(wholeTo)) {
+            addTotals(template, collection, range(tenantId, "hour", wholeFrom, wholeTo),
+                    Aggregation.group().sum("count").as("count").sum("revenue").as("revenue"), totals, includeArchive);
+        }
+        Set<Date> partialHours = OrderBuckets.partialHours(from, to);
+        if (!partialHours.isEmpty()) {
+            Query partial = new Query(Criteria.where("tenantId").is(tenantId).and("hour").in(partialHours));
+            List<Document> buckets = unread(template.find(partial, Document.class, collection), bucket -> bucket.get("_id"), readIds);
+            for (Document order : OrderBuckets.unpack(buckets, from, to)) {
+                totals[0]++;
+                totals[1] += ((Number) order.get("price")).longValue();
+            }
+        }
+    }
+
+    /**
+     * This function adds the count and the revenue of the matching documents, computed by Mongo.
+     */
+    private void addTotals(MongoTemplate template, String collection, Criteria criteria, GroupOperation totalsGroup, long[] totals,
+                           boolean includeArchive) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(criteria));
+        operations.addAll(notArchived(collection, includeArchive));
+        operations.add(totalsGroup);
+        Aggregation aggregation = Aggregation.newAggregation(operations);
+        Document result = template.aggregate(aggregation, collection, Document.class).getUniqueMappedResult();
+        if (result != null) {
+            totals[0] += ((Number) result.get("count")).longValue();
+            totals[1] += ((Number) result.get("revenue")).longValue();
+        }
+    }
+
+    /**
+     * This function creates the criteria of the orders of a location in a date range,
+     * which the index on the tenant id and the date serves.
+     * @param tenantId - the tenant id.
+     * @param from - the start of the range, inclusive, or null for no start.
+     * @param to - the end of the range, exclusive, or null for no end.
+     * @return Criteria.
+     */
+    static Criteria dateRange(String tenantId, Date from, Date to) {
+        return range(tenantId, "date", from, to);
+    }
+
+    static Criteria range(String tenantId, String field, Date from, Date to) {
+        Criteria criteria = Criteria.where("tenantId").is(tenantId);
+        if (from == null && to == null) {
+            return criteria;
+        }
+        criteria = criteria.and(field);
+        if (from != null) {
+            criteria = criteria.gte(from);
+        }
+        if (to != null) {
+            criteria = criteria.lt(to);
+        }
+        return criteria;
+    }
+}
@@ -0,0 +1,190 @@
+package RestaurantApi.restaurantapi.repositories;
+
+import RestaurantApi.restaurantapi.config.OrderShardsProperties;
+import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.utils.Tenants;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * This class spreads the orders over several Mongo databases (shards), so their writes aren't bound by one cluster.
+ * An order is stored in the shard of a hash of its idempotency key or its id, or of its location (restaurant.order-shards.key).
+ * The reads that may find orders in several shards ask all of them in parallel, and their results are merged by the caller.
+ * The number of shards must not change once orders are stored, since it moves most orders to another shard.
+ */
+@Slf4j
+public class OrderShards {
+
+    /**
+     * A shard: its template of the writes and the lookups, and its template of the listings and the analytics.
+     */
+    public static class Shard {
+        private final MongoTemplate mongoTemplate;
+        private final MongoTemplate listingMongoTemplate;
+
+        public Shard(MongoTemplate mongoTemplate, MongoTemplate listingMongoTemplate) {
+            this.mongoTemplate = mongoTemplate;
+            this.listingMongoTemplate = listingMongoTemplate;
+        }
+
+        public MongoTemplate getMongoTemplate() {
+            return mongoTemplate;
+        }
+
+        public MongoTemplate getListingMongoTemplate() {
+            return listingMongoTemplate;
+        }
+    }
+
+    private final List<Shard> shards;
+    private final OrderShardsProperties.Key key;
+    private final ExecutorService executor; //Null with a single shard.
+    private final List<? extends Closeable> clients;
+
+    /**
+     * @param shards - the shards, in the configured order.
+     * @param key - what the shard of an order is chosen by.
+     * @param fanOutThreads - the threads that ask the shards in parallel.
+     * @param clients - the clients of the shards, closed with this class.
+     */
+    public OrderShards(List<Shard> shards, OrderShardsProperties.Key key, int fanOutThreads, List<? extends Closeable> clients) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("The orders need at least one shard.");
+        }
+        this.shards = List.copyOf(shards);
+        this.key = key;
+        this.clients = clients;
+        this.executor = shards.size() == 1 ? null : Executors.newFixedThreadPool(Math.max(1, fanOutThreads), runnable -> {
+            Thread thread = new Thread(runnable, "order-shards");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * This method creates the shards of a single database, e.g. when no shards are configured.
+     * @param mongoTemplate - the template of the writes and the lookups.
+     * @param listingMongoTemplate - the template of the listings and the analytics.
+     * @return OrderShards.
+     */
+    public static OrderShards single(MongoTemplate mongoTemplate, MongoTemplate listingMongoTemplate) {
+        return new OrderShards(List.of(new Shard(mongoTemplate, listingMongoTemplate)), OrderShardsProperties.Key.ORDER, 0, List.of());
+    }
+
+    public List<Shard> all() {
+        return shards;
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    /**
+     * This method checks if the shards are databases of their own, rather than the main database of the application,
+     * so the indexes declared on the models have to be created in them too.
+     * @return boolean.
+     */
+    public boolean hasOwnDatabases() {
+        return !clients.isEmpty();
+    }
+
+    /**
+     * This method returns the shard of a new order, giving it an id first when it has none.
+     * An order with an idempotency key is stored in the shard of its key, so its retries find it without asking every shard.
+     * @param order - the order.
+     * @return the shard to store it in.
+     */
+    public Shard shardOf(OrderDTO order) {
+        if (order.getId() == null) {
+            order.setId(new ObjectId().toHexString());
+        }
+        if (key == OrderShardsProperties.Key.TENANT || order.getIdempotencyKey() != null) {
+            return shardOfIdempotencyKey(order.getTenantId(), order.getIdempotencyKey());
+        }
+        return shardOf(order.getId());
+    }
+
+    /**
+     * This method returns the shard of the order of an idempotency key.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param idempotencyKey - the idempotency key.
+     * @return Shard.
+     */
+    public Shard shardOfIdempotencyKey(String tenantId, String idempotencyKey) {
+        return key == OrderShardsProperties.Key.TENANT ? shardOf(Tenants.key(tenantId)) : shardOf(Tenants.key(tenantId, idempotencyKey));
+    }
+
+    /**
+     * This method returns the shards that may hold orders of a location: its own shard when the orders are sharded by location,
+     * and all of them otherwise.
+     * @param tenantId - the tenant id, null for the default location.
+     * @return the shards.
+     */
+    public List<Shard> shardsOf(String tenantId) {
+        return key == OrderShardsProperties.Key.TENANT ? List.of(shardOf(Tenants.key(tenantId))) : shards;
+    }
+
+    /**
+     * This method reads from some shards in parallel and waits for all of them.
+     * The first shard is read on the calling thread, so a read of a single shard costs no thread switch.
+     * @param shards - the shards to read.
+     * @param read - the read of a shard.
+     * @param <T> - the result type.
+     * @return the results, in the order of the shards.
+     */
+    public <T> List<T> query(List<Shard> shards, Function<Shard, T> read) {
+        if (shards.size() == 1 || executor == null) {
+            List<T> results = new ArrayList<>(shards.size());
+            for (Shard shard : shards) {
+                results.add(read.apply(shard));
+            }
+            return results;
+        }
+        List<CompletableFuture<T>> others = new ArrayList<>(shards.size() - 1);
+        for (Shard shard : shards.subList(1, shards.size())) {
+            others.add(CompletableFuture.supplyAsync(() -> read.apply(shard), executor));
+        }
+        List<T> results = new ArrayList<>(shards.size());
+        results.add(read.apply(shards.get(0)));
+        try {
+            for (CompletableFuture<T> other : others) {
+                results.add(other.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        for (Closeable client : clients) {
+            try {
+                client.close();
+            } catch (Exception e) {
+                log.error("Closing the client of an order shard failed.", e);
+            }
+        }
+    }
+
+    private Shard shardOf(String value) {
+        return shards.get(Math.floorMod(value.hashCode(), shards.size()));
+    }
+}
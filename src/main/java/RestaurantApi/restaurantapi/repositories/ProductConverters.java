@@ -0,0 +1,49 @@
+package RestaurantApi.restaurantapi.repositories;
+
+import RestaurantApi.restaurantapi.models.ProductDTO;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+/**
+ * This class converts the products to their documents and back by hand, like OrderConverters.
+ * A new field of ProductDTO must be added here too, ProductConvertersTest fails until it is.
+ */
+public final class ProductConverters {
+
+    private ProductConverters() {
+    }
+
+    @WritingConverter
+    public static class Write implements Converter<ProductDTO, Document> {
+
+        @Override
+        public Document convert(ProductDTO product) {
+            Document document = new Document();
+            Documents.putId(document, product.getId());
+            Documents.putIfNotNull(document, "tenantId", product.getTenantId());
+            Documents.putIfNotNull(document, "name", product.getName());
+            Documents.putIfNotNull(document, "description", product.getDescription());
+            Documents.putIfNotNull(document, "image", product.getImage());
+            document.put("price", product.getPrice());
+            return document;
+        }
+    }
+
+    @ReadingConverter
+    public static class Read implements Converter<Document, ProductDTO> {
+
+        @Override
+        public ProductDTO convert(Document document) {
+            ProductDTO product = new ProductDTO();
+            product.setId(Documents.getId(document));
+            product.setTenantId(document.getString("tenantId"));
+            product.setName(document.getString("name"));
+            product.setDescription(document.getString("description"));
+            product.setImage(document.getString("image"));
+            product.setPrice(Documents.getInt(document, "price"));
+            return product;
+        }
+    }
+}
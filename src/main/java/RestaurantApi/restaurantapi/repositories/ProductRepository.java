@@ -9,10 +9,25 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends MongoRepository<ProductDTO, String> {
+public interface ProductRepository extends MongoRepository<ProductDTO, String>, ProductRepositoryCustom {
 
     Optional<ProductDTO> findProductByName(String name);
 
+    /**
+     * This method searches for a product of a location by its name, with the index on the tenant id and the name.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param name - the product's name.
+     * @return the product, if it exists.
+     */
+    Optional<ProductDTO> findProductByTenantIdAndName(String tenantId, String name);
+
+    /**
+     * This method returns all the products of a location.
+     * @param tenantId - the tenant id, null for the default location.
+     * @return List of the products of the location.
+     */
+    List<ProductDTO> findAllByTenantId(String tenantId);
+
     @NonNull
     List<ProductDTO> findAll();
 
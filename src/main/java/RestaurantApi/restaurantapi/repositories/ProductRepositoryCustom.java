@@ -0,0 +1,31 @@
+package RestaurantApi.restaurantapi.repositories;
+
+import RestaurantApi.restaurantapi.exceptions.RequestExceptions;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This interface defines the product queries that are not derived from the method names.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * This method returns only the requested fields of all the products of a location.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param fields - the requested fields.
+     * @return List of the requested fields of all products of the location.
+     */
+    List<Map<String, Object>> findAllProjected(String tenantId, Collection<String> fields);
+
+    /**
+     * This function checks the requested fields of findAllProjected, before the query is guarded as a database call:
+     * a field a client mistyped is an answer to the client, not a failure of the database.
+     * @param fields - the requested fields.
+     * @throws RequestExceptions - A requested field isn't a field of the product.
+     */
+    static void validateFields(Collection<String> fields) {
+        Projections.validate(fields, ProductRepositoryCustomImpl.PRODUCT_FIELDS);
+    }
+}
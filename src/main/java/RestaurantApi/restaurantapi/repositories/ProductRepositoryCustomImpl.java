@@ -0,0 +1,33 @@
+package RestaurantApi.restaurantapi.repositories;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    static final Set<String> PRODUCT_FIELDS = Set.of("id", "name", "description", "image", "price");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public ProductRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllProjected(String tenantId, Collection<String> fields) {
+        Query query = Projections.query(fields, PRODUCT_FIELDS).addCriteria(Criteria.where("tenantId").is(tenantId));
+        return mongoTemplate.find(query, Document.class, "products").stream()
+                .map(Projections::toResponse)
+                .collect(Collectors.toList());
+    }
+}
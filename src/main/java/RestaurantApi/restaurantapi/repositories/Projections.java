@@ -0,0 +1,88 @@
+package RestaurantApi.restaurantapi.repositories;
+
+import RestaurantApi.restaurantapi.exceptions.RequestExceptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class turns the fields a client asked for into a Mongo projection,
+ * so only those fields are read from Mongo and sent to the client.
+ */
+final class Projections {
+
+    private Projections() {
+    }
+
+    /**
+     * This function creates a query that reads only the requested fields.
+     * @param fields - the requested fields.
+     * @param allowedFields - the fields of the model that may be requested.
+     * @return Query.
+     * @throws RequestExceptions - A requested field isn't one of the allowed fields.
+     */
+    static Query query(Collection<String> fields, Set<String> allowedFields) {
+        validate(fields, allowedFields);
+        Query query = new Query();
+        for (String field : fields) {
+            query.fields().include("id".equals(field) ? "_id" : field);
+        }
+        if (!fields.contains("id")) {
+            query.fields().exclude("_id");
+        }
+        return query;
+    }
+
+    /**
+     * This function checks that every requested field may be requested.
+     * @param fields - the requested fields.
+     * @param allowedFields - the fields of the model that may be requested.
+     * @throws RequestExceptions - A requested field isn't one of the allowed fields.
+     */
+    static void validate(Collection<String> fields, Set<String> allowedFields) {
+        for (String field : fields) {
+            if (!allowedFields.contains(field)) {
+                throw new RequestExceptions(RequestExceptions.UnknownFieldException(field));
+            }
+        }
+    }
+
+    /**
+     * This function converts a projected document to the response of the client, naming the _id field id.
+     * @param document - the projected document.
+     * @return the fields of the document.
+     */
+    static Map<String, Object> toResponse(Document document) {
+        Map<String, Object> response = new LinkedHashMap<>(document.size());
+        for (Map.Entry<String, Object> field : document.entrySet()) {
+            if ("_id".equals(field.getKey())) {
+                Object id = field.getValue();
+                response.put("id", id instanceof ObjectId ? ((ObjectId) id).toHexString() : id);
+            } else {
+                response.put(field.getKey(), field.getValue());
+            }
+        }
+        return response;
+    }
+
+    /**
+     * This function applies a projection to a document that was already read, e.g. an order taken out of its bucket.
+     * @param document - the document.
+     * @param projection - the query that was created by the query function.
+     * @return the projected document.
+     */
+    static Document select(Document document, Query projection) {
+        Document selected = new Document();
+        for (Map.Entry<String, Object> field : projection.getFieldsObject().entrySet()) {
+            if (Integer.valueOf(1).equals(field.getValue()) && document.containsKey(field.getKey())) {
+                selected.put(field.getKey(), document.get(field.getKey()));
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,270 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.CatalogEventsProperties;
+import RestaurantApi.restaurantapi.models.CatalogEvent;
+import com.mongodb.CursorType;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * This class publishes the catalog changes to all the instances of the service.
+ * The events are written to a capped collection that every instance tails with a tailable cursor.
+ * When the tail is down, the instance polls the collection instead, and if events were lost meanwhile
+ * (the capped collection rolled over) it tells its listeners that the whole catalog changed.
+ * Publishing is best effort, since the change is already saved: an event that can't be written is replaced by a later
+ * event that the whole catalog changed, so the other instances reload it instead of missing the change.
+ */
+@Slf4j
+@Service
+public class CatalogEventBus {
+
+    static final String COLLECTION = "catalog_events";
+
+    private final MongoTemplate mongoTemplate;
+    private final CatalogEventsProperties properties;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<CatalogEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService executor;
+    private volatile boolean running;
+    private volatile boolean tailing;
+    private Date lastSeen = new Date(); //The date of the latest event that was delivered.
+    private volatile boolean unpublished; //An event couldn't be written, the other instances don't know of its change yet.
+
+    @Autowired
+    public CatalogEventBus(MongoTemplate mongoTemplate, CatalogEventsProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * This method registers a listener of the catalog events.
+     * @param listener - the listener.
+     */
+    public void addListener(Consumer<CatalogEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * This method publishes a catalog change: the listeners of this instance get it right away,
+     * and the listeners of the other instances get it from the capped collection.
+     * @param tenantId - the location of the changed product.
+     * @param productName - the name of the changed product.
+     */
+    public void publishProductChanged(String tenantId, String productName) {
+        log.trace("Entered publishProductChanged function in CatalogEventBus class.");
+        CatalogEvent event = CatalogEvent.productChanged(tenantId, productName, nodeId);
+        deliver(event);
+        if (properties.isEnabled()) {
+            try {
+                mongoTemplate.insert(event, COLLECTION);
+            } catch (RuntimeException e) {
+                log.error("Publishing the change of the product " + productName + " failed, the whole catalog change is published later.", e);
+                unpublished = true;
+            }
+        }
+    }
+
+    /**
+     * This method tells the other instances that the whole catalog changed, after a product change couldn't be published.
+     * It runs with the polls, and until the event is written.
+     */
+    void publishUnpublished() {
+        if (!unpublished) {
+            return;
+        }
+        unpublished = false;
+        try {
+            mongoTemplate.insert(new CatalogEvent(null, CatalogEvent.Type.CATALOG_CHANGED, null, null, nodeId, new Date()), COLLECTION);
+            log.info("The whole catalog change was published instead of the changes that failed.");
+        } catch (RuntimeException e) {
+            unpublished = true;
+            log.error("Publishing the whole catalog change failed, retrying on the next poll.", e);
+        }
+    }
+
+    /**
+     * This method starts tailing the events of the other instances, once the application is ready.
+     * The collection is prepared on the tailing thread, so the start doesn't wait for the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        log.info("Going to start the catalog events bus.");
+        running = true;
+        executor = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::tail);
+        long pollMillis = properties.getPollInterval().toMillis();
+        executor.scheduleWithFixedDelay(() -> {
+            publishUnpublished();
+            if (!tailing) {
+                poll();
+            }
+        }, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * This function tails the capped collection until the bus stops, reopening the cursor when it drops.
+     */
+    private void tail() {
+        boolean prepared = false;
+        while (running) {
+            if (!prepared) {
+                try {
+                    prepare();
+                    prepared = true;
+                } catch (Exception e) {
+                    log.error("Preparing the catalog events collection failed, retrying.", e);
+                    if (!pause()) {
+                        return;
+                    }
+                    continue;
+                }
+            }
+            try (MongoCursor<Document> cursor = mongoTemplate.getCollection(COLLECTION)
+                    .find(Filters.gte("_id", resumeId()))
+                    .cursorType(CursorType.TailableAwait)
+                    .maxAwaitTime(1, TimeUnit.SECONDS)
+                    .noCursorTimeout(true)
+                    .iterator()) {
+                tailing = true;
+                log.info("Tailing the catalog events.");
+                while (running) {
+                    Document document = cursor.tryNext();
+                    if (document != null) {
+                        onEvent(mongoTemplate.getConverter().read(CatalogEvent.class, document));
+                    }
+                }
+            } catch (Exception e) {
+                tailing = false;
+                if (!running) {
+                    return;
+                }
+                log.error("The tail of the catalog events dropped, polling until it is back.", e);
+                if (!pause()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * This function creates the capped collection if it doesn't exist and announces this instance in it.
+     */
+    private void prepare() {
+        if (!mongoTemplate.collectionExists(COLLECTION)) {
+            mongoTemplate.createCollection(COLLECTION, CollectionOptions.empty()
+                    .capped().size(properties.getCollectionSizeBytes()).maxDocuments(properties.getMaxEvents()));
+        }
+        //A tailable cursor on an empty capped collection dies right away, so there is always at least this event.
+        mongoTemplate.insert(new CatalogEvent(null, CatalogEvent.Type.NODE_STARTED, null, null, nodeId, new Date()), COLLECTION);
+    }
+
+    /**
+     * This function waits a poll interval before retrying.
+     * @return false if the bus was stopped meanwhile.
+     */
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getPollInterval().toMillis());
+            return true;
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * This method reads the events that were published since the latest delivered event.
+     * If the oldest event in the collection is newer than that, events were lost and the whole catalog is invalidated.
+     */
+    void poll() {
+        log.trace("Entered poll function in CatalogEventBus class.");
+        try {
+            ObjectId resumeId = resumeId();
+            Query oldest = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(1);
+            CatalogEvent oldestEvent = mongoTemplate.findOne(oldest, CatalogEvent.class, COLLECTION);
+            if (oldestEvent != null && oldestEvent.getId().compareTo(resumeId) > 0) {
+                log.info("Catalog events were lost while the tail was down, invalidating the whole catalog.");
+                onEvent(new CatalogEvent(oldestEvent.getId(), CatalogEvent.Type.CATALOG_CHANGED, null, null, null, oldestEvent.getDate()));
+            }
+            Query newer = new Query(Criteria.where("_id").gte(resumeId)).with(Sort.by(Sort.Direction.ASC, "_id"));
+            for (CatalogEvent event : mongoTemplate.find(newer, CatalogEvent.class, COLLECTION)) {
+                onEvent(event);
+            }
+        } catch (Exception e) {
+            log.error("Polling the catalog events failed.", e);
+        }
+    }
+
+    /**
+     * This function delivers an event of the capped collection, unless this instance published it.
+     * Events may be delivered more than once around a resume, which is fine since invalidations are idempotent.
+     * @param event - the event.
+     */
+    void onEvent(CatalogEvent event) {
+        synchronized (this) {
+            if (event.getDate() != null && event.getDate().after(lastSeen)) {
+                lastSeen = event.getDate();
+            }
+        }
+        if (nodeId.equals(event.getNodeId()) || event.getType() == CatalogEvent.Type.NODE_STARTED) {
+            return;
+        }
+        deliver(event);
+    }
+
+    private void deliver(CatalogEvent event) {
+        for (Consumer<CatalogEvent> listener : listeners) {
+            listener.accept(event);
+        }
+    }
+
+    private synchronized ObjectId resumeId() {
+        return new ObjectId(new Date(lastSeen.getTime() - properties.getResumeMargin().toMillis()));
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isTailing() {
+        return tailing;
+    }
+}
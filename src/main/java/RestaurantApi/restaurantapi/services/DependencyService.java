@@ -0,0 +1,100 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.ResilienceProperties;
+import RestaurantApi.restaurantapi.exceptions.DependencyExceptions;
+import RestaurantApi.restaurantapi.exceptions.DomainExceptions;
+import RestaurantApi.restaurantapi.exceptions.RequestExceptions;
+import RestaurantApi.restaurantapi.models.CircuitBreakerStatus;
+import RestaurantApi.restaurantapi.models.ConcurrencyLimitStatus;
+import RestaurantApi.restaurantapi.utils.AdaptiveConcurrencyLimiter;
+import RestaurantApi.restaurantapi.utils.BoundedCache;
+import RestaurantApi.restaurantapi.utils.CallGuard;
+import RestaurantApi.restaurantapi.utils.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class DependencyService {
+
+    private final ResilienceProperties properties;
+    private final CircuitBreaker mongo;
+    private final AdaptiveConcurrencyLimiter mongoConcurrency;
+    private final CallGuard database;
+    private final BoundedCache<String, CircuitBreaker> imageHosts; //Host of the image URL -> its circuit breaker.
+
+    @Autowired
+    public DependencyService(ResilienceProperties properties) {
+        this.properties = properties;
+        //Duplicate keys and other constraint violations are answers of a healthy database, shed calls never reached it,
+        //and the errors of the request or of the domain are answers to the client.
+        this.mongo = new CircuitBreaker("database", properties.getMongo(),
+                e -> !(e instanceof DataIntegrityViolationException) && !(e instanceof DependencyExceptions)
+                        && !(e instanceof RequestExceptions) && !(e instanceof DomainExceptions), System::nanoTime);
+        this.mongoConcurrency = new AdaptiveConcurrencyLimiter("database", properties.getMongoConcurrency(),
+                e -> e instanceof DataAccessResourceFailureException, System::nanoTime);
+        //The circuit breaker times the database call alone, not the wait for the concurrency limit,
+        //so a queue that builds up under load doesn't count as slow calls of a healthy database.
+        this.database = mongoConcurrency.andThen(mongo);
+        this.imageHosts = new BoundedCache<>(properties.getMaxImageHosts());
+    }
+
+    /**
+     * This method returns the guard of the database calls: the adaptive concurrency limit and then the circuit breaker.
+     * @return CallGuard.
+     */
+    public CallGuard database() {
+        return database;
+    }
+
+    public CircuitBreaker databaseCircuitBreaker() {
+        return mongo;
+    }
+
+    public AdaptiveConcurrencyLimiter databaseConcurrencyLimiter() {
+        return mongoConcurrency;
+    }
+
+    /**
+     * This method returns the circuit breaker of an image host, so a host that is down doesn't fail the images of the other hosts.
+     * Only timeouts and connection failures count as failures: a missing image or a URL that isn't an image is an answer
+     * of a healthy host to the URL a client chose.
+     * @param host - the host of the image URL.
+     * @return CircuitBreaker.
+     */
+    public CircuitBreaker imageHost(String host) {
+        return imageHosts.computeIfAbsent(host, key -> new CircuitBreaker("image host " + key, properties.getImage(),
+                e -> e instanceof SocketTimeoutException || e instanceof ConnectException || e instanceof UnknownHostException,
+                System::nanoTime));
+    }
+
+    public int imageTimeoutMillis() {
+        return (int) properties.getImage().getTimeout().toMillis();
+    }
+
+    /**
+     * This method returns the state and the metrics of all the circuit breakers.
+     * @return List of the circuit breakers statuses.
+     */
+    public List<CircuitBreakerStatus> getStatuses() {
+        List<CircuitBreakerStatus> statuses = new ArrayList<>();
+        statuses.add(mongo.getStatus());
+        imageHosts.values().forEach(imageHost -> statuses.add(imageHost.getStatus()));
+        return statuses;
+    }
+
+    /**
+     * This method returns the state and the metrics of the concurrency limits.
+     * @return List of the concurrency limits statuses.
+     */
+    public List<ConcurrencyLimitStatus> getConcurrencyLimitStatuses() {
+        return List.of(mongoConcurrency.getStatus());
+    }
+}
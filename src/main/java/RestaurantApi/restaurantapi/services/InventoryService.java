@@ -0,0 +1,612 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.InventoryProperties;
+import RestaurantApi.restaurantapi.exceptions.ErrorCode;
+import RestaurantApi.restaurantapi.exceptions.OrderExceptions;
+import RestaurantApi.restaurantapi.exceptions.ProductExceptions;
+import RestaurantApi.restaurantapi.models.CatalogEvent;
+import RestaurantApi.restaurantapi.models.OrderLine;
+import RestaurantApi.restaurantapi.models.ProductStock;
+import RestaurantApi.restaurantapi.models.StockLevel;
+import RestaurantApi.restaurantapi.utils.Tenants;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * This class keeps the stock of the products, so an order is accepted only while there are enough units of its products.
+ * An order doesn't write the stock: every instance takes a lease of units from the stock of a product at once,
+ * and sells them from counters in memory that are spread over stripes, so concurrent orders of a popular product rarely contend.
+ * The sold units are saved in batches by a periodic flush, which also renews the leases.
+ * A lease is taken in full only while it leaves a lease for the other instances, below that an order claims just its own units,
+ * and the units a lease held through a whole flush interval without selling go back to the stock on that flush,
+ * so the last units of a product are never kept by an instance that doesn't sell them while another one rejects orders.
+ * The unsold units of a lease go back to the stock when the instance stops, or once the lease expires when the instance died,
+ * so a restart never loses units. An instance that can't renew its leases stops selling from them before they expire.
+ * The units of a cancelled order go back to the stock in the database, whichever instance sold them.
+ * Only the products that were given a stock are tracked, the others are always available.
+ */
+@Slf4j
+@Service
+public class InventoryService {
+
+    private final MongoTemplate mongoTemplate;
+    private final InventoryProperties properties;
+    private final ProductCacheService productCache;
+    private final CatalogEventBus catalogEventBus;
+    private final DependencyService dependencies;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong leaseGenerations = new AtomicLong();
+    private final Map<String, Stock> stocks = new ConcurrentHashMap<>(); //Tenants.key of the location and the product -> its stock on this instance.
+
+    private volatile boolean loaded;
+    private ScheduledExecutorService executor;
+
+    @Autowired
+    public InventoryService(MongoTemplate mongoTemplate, InventoryProperties properties, ProductCacheService productCache,
+                            CatalogEventBus catalogEventBus, DependencyService dependencies) {
+        if (properties.getLeaseExpiry().compareTo(properties.getFlushInterval().multipliedBy(4)) < 0) {
+            throw new IllegalArgumentException("restaurant.inventory.lease-expiry must be at least 4 flush intervals.");
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.productCache = productCache;
+        this.catalogEventBus = catalogEventBus;
+        this.dependencies = dependencies;
+        catalogEventBus.addListener(this::onCatalogEvent);
+    }
+
+    /**
+     * This method schedules the flush of the sold units and the reconciliation of the expired leases, once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Going to start the inventory.");
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long flushMillis = properties.getFlushInterval().toMillis();
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("Saving the sold units failed, retrying on the next flush.", e);
+            }
+        }, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                load();
+                reconcile();
+            } catch (Exception e) {
+                log.error("Reconciling the stock failed, retrying on the next run.", e);
+            }
+        }, 0, properties.getLeaseExpiry().toMillis() / 2, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * This method saves the sold units and gives the unsold units of the leases of this instance back to the stock.
+     */
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        try {
+            flush();
+            for (Stock stock : stocks.values()) {
+                stock.giveBack();
+            }
+        } catch (Exception e) {
+            log.error("Giving the leases back failed, their units go back to the stock once they expire.", e);
+        }
+    }
+
+    /**
+     * This method takes the units of the lines of an order from the stock of their products, all of them or none.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param lines - the priced lines of the order.
+     * @throws OrderExceptions - There aren't enough units of a product.
+     */
+    public void reserve(String tenantId, List<OrderLine> lines) throws OrderExceptions {
+        log.trace("Entered reserve function in InventoryService class.");
+        load();
+        int reserved = 0;
+        try {
+            for (; reserved < lines.size(); reserved++) {
+                OrderLine line = lines.get(reserved);
+                Stock stock = stocks.get(Tenants.key(tenantId, line.getProductName()));
+                if (stock != null && !stock.take(line.getQuantity())) {
+                    log.info("The product " + line.getProductName() + " is out of stock.");
+                    throw new OrderExceptions(ErrorCode.OUT_OF_STOCK, OrderExceptions.OutOfStockException(line.getProductName()));
+                }
+            }
+        } catch (OrderExceptions | RuntimeException e) {
+            release(tenantId, lines.subList(0, reserved));
+            throw e;
+        }
+    }
+
+    /**
+     * This method puts the units of the lines of an order back, when the reserved order wasn't saved after all.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param lines - the lines that were reserved.
+     */
+    public void release(String tenantId, List<OrderLine> lines) {
+        log.trace("Entered release function in InventoryService class.");
+        for (OrderLine line : lines) {
+            Stock stock = stocks.get(Tenants.key(tenantId, line.getProductName()));
+            if (stock != null) {
+                stock.put(line.getQuantity());
+            }
+        }
+    }
+
+    /**
+     * This method puts the units of the lines of a cancelled order back to the stock in the database,
+     * where every instance can sell them again.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param lines - the lines of the cancelled order.
+     */
+    public void restock(String tenantId, List<OrderLine> lines) {
+        log.trace("Entered restock function in InventoryService class.");
+        load();
+        for (OrderLine line : lines) {
+            if (stocks.containsKey(Tenants.key(tenantId, line.getProductName()))) {
+                dependencies.database().execute(() -> mongoTemplate.updateFirst(stockQuery(tenantId, line.getProductName()),
+                        new Update().inc("stock", line.getQuantity()), ProductStock.class));
+            }
+        }
+    }
+
+    /**
+     * This method adds units to the stock of a product, e.g. after a delivery. The first units start tracking the product.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param productName - the product's name.
+     * @param quantity - the units to add.
+     * @return the stock of the product.
+     * @throws ProductExceptions - The product doesn't exist in the location.
+     */
+    public StockLevel addStock(String tenantId, String productName, int quantity) throws ProductExceptions {
+        log.trace("Entered addStock function in InventoryService class.");
+        checkProductExists(tenantId, productName);
+        //The added stock is read in the same call, so nothing that fails after the units were added makes a retry add them twice.
+        ProductStock productStock = dependencies.database().execute(() -> mongoTemplate.findAndModify(stockQuery(tenantId, productName),
+                new Update().inc("stock", quantity), FindAndModifyOptions.options().upsert(true).returnNew(true), ProductStock.class));
+        log.info("The stock of the product " + productName + " was added " + quantity + " units.");
+        track(tenantId, productName);
+        catalogEventBus.publishProductChanged(tenantId, productName);
+        Stock stock = stocks.get(Tenants.key(tenantId, productName));
+        return new StockLevel(productName, productStock.available() - (stock != null ? stock.unsaved() : 0));
+    }
+
+    /**
+     * This method returns how many units of a product are left, in the stock and in the leases of all the instances.
+     * The units the instances sold since their last flush aren't counted yet, except those of this instance.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param productName - the product's name.
+     * @return the stock of the product, whose available units are null when the product isn't tracked.
+     * @throws ProductExceptions - The product doesn't exist in the location.
+     */
+    public StockLevel getStock(String tenantId, String productName) throws ProductExceptions {
+        log.trace("Entered getStock function in InventoryService class.");
+        checkProductExists(tenantId, productName);
+        ProductStock productStock = dependencies.database().execute(() -> mongoTemplate.findOne(stockQuery(tenantId, productName), ProductStock.class));
+        if (productStock == null) {
+            return new StockLevel(productName, null);
+        }
+        Stock stock = stocks.get(Tenants.key(tenantId, productName));
+        return new StockLevel(productName, productStock.available() - (stock != null ? stock.unsaved() : 0));
+    }
+
+    /**
+     * This method saves the units sold since the last flush in one bulk write and renews the leases of this instance.
+     * A lease that is renewed regularly anyway is written only when it sold units, or to give back the units it didn't sell.
+     * When the bulk write fails its units are saved by the next flush, so they may be counted twice but never lost,
+     * which errs on selling less.
+     */
+    void flush() {
+        long now = System.currentTimeMillis();
+        Date date = new Date(now);
+        BulkOperations bulk = null;
+        List<Flush> flushes = new ArrayList<>();
+        for (Stock stock : stocks.values()) {
+            Flush flush = stock.flush(now);
+            if (flush == null) {
+                continue;
+            }
+            if (bulk == null) {
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, ProductStock.class);
+            }
+            flush.write(bulk, date);
+            flushes.add(flush);
+        }
+        if (bulk == null) {
+            return;
+        }
+        BulkOperations writes = bulk;
+        try {
+            dependencies.database().execute(writes::execute);
+        } catch (RuntimeException e) {
+            flushes.forEach(Flush::undo);
+            throw e;
+        }
+        flushes.forEach(flush -> flush.done(now));
+    }
+
+    /**
+     * This method gives the unsold units of the expired leases back to the stock, e.g. of an instance that crashed.
+     * Every lease is reclaimed atomically and only if it wasn't renewed since it was read, so a lease is never reclaimed twice.
+     * @return the number of reclaimed leases.
+     */
+    int reconcile() {
+        Date cutoff = new Date(System.currentTimeMillis() - properties.getLeaseExpiry().toMillis());
+        List<ProductStock> expired = dependencies.database().execute(() -> mongoTemplate.find(new Query(where("leases.date").lt(cutoff)), ProductStock.class));
+        Set<String> ownLeases = new HashSet<>();
+        for (Stock stock : stocks.values()) {
+            ownLeases.add(stock.leaseId);
+        }
+        int reclaimed = 0;
+        for (ProductStock productStock : expired) {
+            for (ProductStock.Lease lease : productStock.getLeases()) {
+                if (!lease.getDate().before(cutoff) || ownLeases.contains(lease.getId())) {
+                    continue;
+                }
+                Query query = new Query(where("_id").is(productStock.getId())
+                        .and("leases").elemMatch(where("id").is(lease.getId()).and("date").is(lease.getDate())));
+                Update update = new Update().inc("stock", lease.getClaimed() - lease.getSold()).pull("leases", new Document("id", lease.getId()));
+                if (dependencies.database().execute(() -> mongoTemplate.updateFirst(query, update, ProductStock.class)).getModifiedCount() > 0) {
+                    reclaimed++;
+                }
+            }
+        }
+        if (reclaimed > 0) {
+            log.info(reclaimed + " expired leases were given back to the stock.");
+        }
+        return reclaimed;
+    }
+
+    /**
+     * This function reads which products are tracked, once, and again after the catalog events were missed.
+     */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            Query query = new Query();
+            query.fields().include("tenantId").include("productName");
+            List<ProductStock> tracked = dependencies.database().execute(() -> mongoTemplate.find(query, ProductStock.class));
+            for (ProductStock productStock : tracked) {
+                track(productStock.getTenantId(), productStock.getProductName());
+            }
+            loaded = true;
+            log.info("The stock of " + tracked.size() + " products is tracked.");
+        }
+    }
+
+    private void track(String tenantId, String productName) {
+        stocks.computeIfAbsent(Tenants.key(tenantId, productName), key -> new Stock(tenantId, productName));
+    }
+
+    /**
+     * This method starts tracking the products that were given a stock on other instances.
+     * @param event - the catalog event.
+     */
+    void onCatalogEvent(CatalogEvent event) {
+        try {
+            if (event.getType() == CatalogEvent.Type.CATALOG_CHANGED) {
+                loaded = false;
+                load();
+            } else if (event.getType() == CatalogEvent.Type.PRODUCT_CHANGED && loaded
+                    && !stocks.containsKey(Tenants.key(event.getTenantId(), event.getProductName()))
+                    && mongoTemplate.exists(stockQuery(event.getTenantId(), event.getProductName()), ProductStock.class)) {
+                track(event.getTenantId(), event.getProductName());
+            }
+        } catch (Exception e) {
+            log.error("Reading the stock of the product " + event.getProductName() + " failed.", e);
+        }
+    }
+
+    private void checkProductExists(String tenantId, String productName) throws ProductExceptions {
+        if (productCache.findProductByName(tenantId, productName).isEmpty()) {
+            log.info("The product doesn't exist in the database.");
+            throw new ProductExceptions(ErrorCode.PRODUCT_NOT_FOUND, ProductExceptions.NotFoundException(productName));
+        }
+    }
+
+    private static Query stockQuery(String tenantId, String productName) {
+        return new Query(where("tenantId").is(tenantId).and("productName").is(productName));
+    }
+
+    private String newLeaseId() {
+        return nodeId + ":" + leaseGenerations.incrementAndGet();
+    }
+
+    /**
+     * The units of a product that this instance holds, spread over stripes, and its lease in the database.
+     */
+    class Stock {
+        private final String tenantId;
+        private final String productName;
+        private final AtomicLong[] stripes;
+        private final LongAdder unsaved = new LongAdder(); //The units sold since the last flush.
+        private final Map<String, Long> dropped = new ConcurrentHashMap<>(); //Lease id -> the unsaved units of a lease that was dropped.
+        private volatile String leaseId = newLeaseId();
+        private volatile long renewed; //When the lease was last written, 0 while there is no lease.
+
+        Stock(String tenantId, String productName) {
+            this.tenantId = tenantId;
+            this.productName = productName;
+            this.stripes = new AtomicLong[Math.max(1, properties.getStripes())];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new AtomicLong();
+            }
+        }
+
+        /**
+         * This method takes units from the stripes, and from a new lease when the stripes don't hold enough of them.
+         * @param quantity - the units to take.
+         * @return true if the units were taken, and false if there aren't enough of them.
+         */
+        boolean take(int quantity) {
+            if (isStale()) {
+                drop();
+            }
+            if (takeFromStripes(quantity)) {
+                return true;
+            }
+            synchronized (this) {
+                long held = drain();
+                long claimed;
+                try {
+                    claimed = held < quantity ? claim(quantity - held) : 0;
+                } catch (RuntimeException e) {
+                    spread(held);
+                    throw e;
+                }
+                held += claimed;
+                if (held < quantity) {
+                    spread(held);
+                    return false;
+                }
+                unsaved.add(quantity);
+                spread(held - quantity);
+                return true;
+            }
+        }
+
+        void put(int quantity) {
+            stripes[stripe()].addAndGet(quantity);
+            unsaved.add(-quantity);
+        }
+
+        long unsaved() {
+            long units = unsaved.sum();
+            for (long droppedUnits : dropped.values()) {
+                units += droppedUnits;
+            }
+            return units;
+        }
+
+        private boolean takeFromStripes(int quantity) {
+            int first = stripe();
+            for (int i = 0; i < stripes.length; i++) {
+                AtomicLong stripe = stripes[(first + i) % stripes.length];
+                for (long units = stripe.get(); units >= quantity; units = stripe.get()) {
+                    if (stripe.compareAndSet(units, units - quantity)) {
+                        unsaved.add(quantity);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private int stripe() {
+            return (int) (Thread.currentThread().getId() % stripes.length);
+        }
+
+        private long drain() {
+            long units = 0;
+            for (AtomicLong stripe : stripes) {
+                units += stripe.getAndSet(0);
+            }
+            return units;
+        }
+
+        private void spread(long units) {
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i].addAndGet(units / stripes.length + (i < units % stripes.length ? 1 : 0));
+            }
+        }
+
+        /**
+         * This function takes units from the stock in the database: a full lease while it leaves another lease in the stock,
+         * and otherwise only the missing units, so the last units stay in the stock for whichever instance gets the orders.
+         * Called while holding the stock.
+         * @param needed - the units that are missing for the order.
+         * @return the units that were taken, 0 if there are fewer than needed.
+         */
+        private long claim(long needed) {
+            long fullLease = Math.max(properties.getLeaseSize(), needed);
+            long wanted = fullLease;
+            boolean leased = renewed != 0;
+            for (int attempt = 0; attempt < 3; attempt++) {
+                Date date = new Date();
+                long minimum = wanted > needed ? wanted + properties.getLeaseSize() : wanted;
+                Query query = stockQuery(tenantId, productName).addCriteria(where("stock").gte(minimum));
+                Update update = new Update().inc("stock", -wanted);
+                if (leased) {
+                    query.addCriteria(where("leases.id").is(leaseId));
+                    update.inc("leases.$.claimed", wanted).set("leases.$.date", date);
+                } else {
+                    query.addCriteria(where("leases.id").ne(leaseId));
+                    update.push("leases", new ProductStock.Lease(leaseId, wanted, 0, date));
+                }
+                if (dependencies.database().execute(() -> mongoTemplate.updateFirst(query, update, ProductStock.class)).getModifiedCount() > 0) {
+                    renewed = date.getTime();
+                    return wanted;
+                }
+                ProductStock productStock = dependencies.database().execute(() -> mongoTemplate.findOne(stockQuery(tenantId, productName), ProductStock.class));
+                if (productStock == null || productStock.getStock() < needed) {
+                    return 0;
+                }
+                wanted = productStock.getStock() >= fullLease + properties.getLeaseSize() ? fullLease : needed;
+                leased = productStock.getLeases().stream().anyMatch(lease -> lease.getId().equals(leaseId));
+            }
+            return 0;
+        }
+
+        /**
+         * This function tells whether the lease wasn't renewed for half its expiry, e.g. while the database is unreachable.
+         * Its units may soon go back to the stock, so they must not be sold anymore.
+         */
+        private boolean isStale() {
+            long lastRenewal = renewed;
+            return lastRenewal != 0 && System.currentTimeMillis() - lastRenewal > properties.getLeaseExpiry().toMillis() / 2;
+        }
+
+        /**
+         * This function leaves the units of a stale lease to the reconciliation and starts a new lease.
+         * The units that the lease sold are saved to it later, so they are accounted for even after it was reclaimed.
+         */
+        private synchronized void drop() {
+            if (!isStale()) {
+                return;
+            }
+            log.warn("The lease of the product " + productName + " wasn't renewed for a while, its units are left to the reconciliation.");
+            long sold = unsaved.sumThenReset();
+            if (sold != 0) {
+                dropped.merge(leaseId, sold, Long::sum);
+            }
+            drain();
+            leaseId = newLeaseId();
+            renewed = 0;
+        }
+
+        /**
+         * This function takes the units to save by the next flush, and the units to give back when the lease sold nothing
+         * since the last flush.
+         * @param now - the time of the flush.
+         * @return the units to save, or null if there is nothing to write.
+         */
+        private synchronized Flush flush(long now) {
+            String lease = leaseId;
+            long lastRenewal = renewed;
+            long sold = lastRenewal != 0 ? unsaved.sumThenReset() : 0; //Without a lease they are saved to the next one.
+            long returned = lastRenewal != 0 && sold == 0 ? drain() : 0;
+            Map<String, Long> droppedSold = new HashMap<>();
+            for (String id : dropped.keySet()) {
+                Long units = dropped.remove(id);
+                if (units != null) {
+                    droppedSold.put(id, units);
+                }
+            }
+            boolean renew = lastRenewal != 0 && now - lastRenewal > properties.getLeaseExpiry().toMillis() / 4;
+            if (sold == 0 && returned == 0 && droppedSold.isEmpty() && !renew) {
+                return null;
+            }
+            return new Flush(this, lastRenewal != 0 ? lease : null, sold, returned, droppedSold);
+        }
+
+        /**
+         * This function gives the unsold units of the lease back to the stock, when the instance stops.
+         */
+        private synchronized void giveBack() {
+            if (renewed == 0) {
+                return;
+            }
+            long units = drain();
+            if (units > 0) {
+                Query query = stockQuery(tenantId, productName).addCriteria(where("leases.id").is(leaseId));
+                Update update = new Update().inc("stock", units).inc("leases.$.claimed", -units);
+                dependencies.database().execute(() -> mongoTemplate.updateFirst(query, update, ProductStock.class));
+            }
+        }
+    }
+
+    /**
+     * The units of a product that a flush saves, which it puts back when the flush fails.
+     */
+    private static class Flush {
+        private final Stock stock;
+        private final String leaseId; //null when the product has no lease.
+        private final long sold;
+        private final long returned; //The unsold units given back to the stock.
+        private final Map<String, Long> dropped;
+
+        Flush(Stock stock, String leaseId, long sold, long returned, Map<String, Long> dropped) {
+            this.stock = stock;
+            this.leaseId = leaseId;
+            this.sold = sold;
+            this.returned = returned;
+            this.dropped = dropped;
+        }
+
+        /**
+         * This function adds the writes of the product to the bulk write.
+         * The units of a dropped lease are added to it if it wasn't reclaimed yet, and otherwise to a new expired lease
+         * with nothing claimed, which takes them from the stock on the next reconciliation.
+         */
+        void write(BulkOperations bulk, Date date) {
+            if (leaseId != null) {
+                Update update = new Update().inc("leases.$.sold", sold).set("leases.$.date", date);
+                if (returned > 0) {
+                    update.inc("stock", returned).inc("leases.$.claimed", -returned);
+                }
+                bulk.updateOne(stockQuery(stock.tenantId, stock.productName).addCriteria(where("leases.id").is(leaseId)), update);
+            }
+            for (Map.Entry<String, Long> lease : dropped.entrySet()) {
+                bulk.updateOne(stockQuery(stock.tenantId, stock.productName).addCriteria(where("leases.id").is(lease.getKey())),
+                        new Update().inc("leases.$.sold", lease.getValue()).set("leases.$.date", date));
+                bulk.updateOne(stockQuery(stock.tenantId, stock.productName).addCriteria(where("leases.id").ne(lease.getKey())),
+                        new Update().push("leases", new ProductStock.Lease(lease.getKey(), 0, lease.getValue(), date)));
+            }
+        }
+
+        void undo() {
+            if (leaseId != null) {
+                stock.unsaved.add(sold);
+                stock.spread(returned);
+            }
+            dropped.forEach((lease, units) -> stock.dropped.merge(lease, units, Long::sum));
+        }
+
+        void done(long now) {
+            if (leaseId != null && leaseId.equals(stock.leaseId)) {
+                stock.renewed = Math.max(stock.renewed, now);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.models.CatalogEvent;
+import RestaurantApi.restaurantapi.models.MenuSnapshot;
+import RestaurantApi.restaurantapi.models.ProductDTO;
+import RestaurantApi.restaurantapi.repositories.ProductRepository;
+import RestaurantApi.restaurantapi.utils.Tenants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class publishes the menus of the locations that the orders are priced with, as immutable versioned snapshots.
+ * Readers get the current snapshot of their location without locks. The writers, the load of all the menus and
+ * the catalog events, are serialized and replace the snapshot of a location with a changed copy,
+ * so no change is lost to a concurrent one and a change copies only the menu of its location.
+ */
+@Slf4j
+@Service
+public class MenuService {
+
+    private final ProductRepository productRepository;
+    private final DependencyService dependencies;
+    private final Map<String, MenuSnapshot> menus = new ConcurrentHashMap<>(); //Tenants.key -> the current menu of the location.
+
+    @Autowired
+    public MenuService(ProductRepository productRepository, DependencyService dependencies, CatalogEventBus catalogEventBus) {
+        this.productRepository = productRepository;
+        this.dependencies = dependencies;
+        catalogEventBus.addListener(this::onCatalogEvent);
+    }
+
+    /**
+     * This method returns the current menu of a location. It doesn't change while it is used, e.g. while an order is priced.
+     * @param tenantId - the tenant id, null for the default location.
+     * @return the current snapshot, empty until the menu is loaded.
+     */
+    public MenuSnapshot snapshot(String tenantId) {
+        return menus.getOrDefault(Tenants.key(tenantId), MenuSnapshot.EMPTY);
+    }
+
+    /**
+     * This method loads the menus of all the locations from the database in one query,
+     * by the warmup of the application and whenever the whole catalog changed.
+     * If the database fails, the menus are emptied so the orders are priced with the product cache instead of a stale menu.
+     */
+    public synchronized void reload() {
+        log.info("Going to load the menus.");
+        List<ProductDTO> products;
+        try {
+            products = dependencies.database().execute(productRepository::findAll);
+        } catch (Exception e) {
+            menus.replaceAll((tenant, menu) -> menu.withProducts(List.of()));
+            throw e;
+        }
+        Map<String, List<ProductDTO>> productsByTenant = new HashMap<>();
+        for (ProductDTO product : products) {
+            productsByTenant.computeIfAbsent(Tenants.key(product.getTenantId()), tenant -> new ArrayList<>()).add(product);
+        }
+        for (String tenant : menus.keySet()) {
+            productsByTenant.putIfAbsent(tenant, List.of()); //A location whose products were all removed.
+        }
+        productsByTenant.forEach((tenant, tenantProducts) ->
+                menus.put(tenant, menus.getOrDefault(tenant, MenuSnapshot.EMPTY).withProducts(tenantProducts)));
+        log.info("The menus of " + productsByTenant.size() + " locations have " + products.size() + " products.");
+    }
+
+    /**
+     * This method reads a changed product from the database and publishes the menu of its location with it.
+     * If the database fails, the product is removed so it is priced with the product cache instead of its old version.
+     * @param tenantId - the tenant id of the product.
+     * @param name - the product's name.
+     */
+    synchronized void refresh(String tenantId, String name) {
+        String tenant = Tenants.key(tenantId);
+        MenuSnapshot menu = snapshot(tenantId);
+        Optional<ProductDTO> product;
+        try {
+            product = dependencies.database().execute(() -> productRepository.findProductByTenantIdAndName(tenantId, name));
+        } catch (Exception e) {
+            menus.put(tenant, menu.withoutProduct(name));
+            throw e;
+        }
+        MenuSnapshot snapshot = product.map(menu::withProduct).orElseGet(() -> menu.withoutProduct(name));
+        menus.put(tenant, snapshot);
+        log.info("The product " + name + " changed, the menu version is " + snapshot.getVersion() + ".");
+    }
+
+    /**
+     * This method applies the changes of the catalog, of this instance and of the others.
+     * @param event - the catalog event.
+     */
+    void onCatalogEvent(CatalogEvent event) {
+        try {
+            if (event.getType() == CatalogEvent.Type.CATALOG_CHANGED) {
+                reload();
+            } else if (event.getType() == CatalogEvent.Type.PRODUCT_CHANGED) {
+                refresh(event.getTenantId(), event.getProductName());
+            }
+        } catch (Exception e) {
+            log.error("Updating the menu failed, the changed products are priced with the product cache.", e);
+        }
+    }
+}
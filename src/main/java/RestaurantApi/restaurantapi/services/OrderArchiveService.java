@@ -0,0 +1,98 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.OrderArchiveProperties;
+import RestaurantApi.restaurantapi.repositories.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class moves the old orders from the orders collection to the archive collection in the background.
+ * Nearly all the requests touch recent orders, so keeping only them in the orders collection
+ * keeps the collection and its indexes small enough to stay in memory.
+ */
+@Slf4j
+@Service
+public class OrderArchiveService {
+
+    private static final Duration MIN_AGE = Duration.ofDays(1); //The orders of the last day are read only from the orders collection.
+
+    private final OrderRepository orderRepository;
+    private final OrderArchiveProperties properties;
+    private final DependencyService dependencies;
+
+    private ScheduledExecutorService executor;
+
+    @Autowired
+    public OrderArchiveService(OrderRepository orderRepository, OrderArchiveProperties properties, DependencyService dependencies) {
+        if (properties.getMaxAge().compareTo(MIN_AGE) < 0) {
+            throw new IllegalArgumentException("restaurant.order-archive.max-age must be at least " + MIN_AGE + ".");
+        }
+        this.orderRepository = orderRepository;
+        this.properties = properties;
+        this.dependencies = dependencies;
+    }
+
+    /**
+     * This method schedules the archiver, once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        log.info("Going to start the order archiver.");
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getInterval().toMillis();
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                archive();
+            } catch (Exception e) {
+                log.error("Archiving the old orders failed, retrying on the next run.", e);
+            }
+        }, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * This method moves all the orders that are older than the maximal age to the archive, batch after batch.
+     * The batches go through the database guards, so the archiver backs off when the database is struggling.
+     * @return the number of orders that were moved.
+     * @throws InterruptedException - The archiver was stopped between batches.
+     */
+    public long archive() throws InterruptedException {
+        log.trace("Entered archive function in OrderArchiveService class.");
+        Date before = new Date(System.currentTimeMillis() - properties.getMaxAge().toMillis());
+        int batchSize = properties.getBatchSize();
+        long archived = 0;
+        int moved;
+        do {
+            moved = dependencies.database().execute(() -> orderRepository.archiveOrders(before, batchSize));
+            archived += moved;
+            if (moved == batchSize) {
+                Thread.sleep(properties.getBatchPause().toMillis());
+            }
+        } while (moved == batchSize);
+        log.info("{} orders older than {} were archived.", archived, before);
+        return archived;
+    }
+}
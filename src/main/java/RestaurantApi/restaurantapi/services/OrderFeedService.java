@@ -0,0 +1,390 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.OrderFeedProperties;
+import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.OrderEvent;
+import RestaurantApi.restaurantapi.utils.Tenants;
+import com.mongodb.CursorType;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class pushes the accepted orders of a location to its kitchen displays as Server-Sent Events, instead of them polling the orders.
+ * An order is pushed again whenever its status changes.
+ * Every display has a bounded buffer of its own, so a slow display never holds back the orders or the other displays:
+ * when its buffer is full it is disconnected, and it resumes from the Last-Event-ID it got when it reconnects.
+ * The latest orders of every location are kept for those resumes; a display that fell behind further is told to reset,
+ * i.e. to reload the orders once with GET /orders.
+ * The orders accepted by the other instances of the service arrive through a capped collection that every instance tails.
+ * An order may be sent twice around a resume, never skipped, so the displays key the orders by their id.
+ */
+@Slf4j
+@Service
+public class OrderFeedService {
+
+    static final String COLLECTION = "order_events";
+    static final String ORDER_EVENT = "order";
+    static final String RESET_EVENT = "reset";
+
+    private final MongoTemplate mongoTemplate;
+    private final OrderFeedProperties properties;
+    private final Executor sender;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Feed> feeds = new ConcurrentHashMap<>(); //Tenants.key -> the feed of the location.
+
+    private ExecutorService publisher; //Shares the orders of this instance, one at a time so they keep their order.
+    private ScheduledExecutorService heartbeats;
+    private volatile boolean running;
+    private volatile Date lastSeen = new Date(); //The date of the latest event of another instance.
+
+    @Autowired
+    public OrderFeedService(MongoTemplate mongoTemplate, OrderFeedProperties properties) {
+        this(mongoTemplate, properties, Executors.newFixedThreadPool(properties.getSenderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "order-feed-sender");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    OrderFeedService(MongoTemplate mongoTemplate, OrderFeedProperties properties, Executor sender) {
+        this.mongoTemplate = mongoTemplate;
+        this.properties = properties;
+        this.sender = sender;
+    }
+
+    /**
+     * This method pushes an accepted or changed order to the displays of its location on this instance right away,
+     * and to the displays on the other instances through the capped collection, without holding up the order.
+     * @param order - the accepted or changed order.
+     */
+    public void publish(OrderDTO order) {
+        log.trace("Entered publish function in OrderFeedService class.");
+        OrderEvent event = OrderEvent.of(order, nodeId);
+        deliver(event);
+        if (properties.isShared() && publisher != null) {
+            publisher.execute(() -> {
+                try {
+                    mongoTemplate.insert(event, COLLECTION);
+                } catch (Exception e) {
+                    log.error("Sharing the order " + order.getId() + " with the other instances failed.", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * This method opens the feed of a location for a display.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param lastEventId - the Last-Event-ID header of a reconnecting display, may be null.
+     * @return the stream of the orders.
+     */
+    public SseEmitter subscribe(String tenantId, String lastEventId) {
+        log.trace("Entered subscribe function in OrderFeedService class.");
+        Feed feed = feeds.computeIfAbsent(Tenants.key(tenantId), tenant -> new Feed());
+        Subscriber subscriber = new Subscriber(feed, newEmitter());
+        subscriber.emitter.onCompletion(subscriber::remove);
+        subscriber.emitter.onTimeout(subscriber::remove);
+        subscriber.emitter.onError(error -> subscriber.remove());
+        feed.subscribe(subscriber, lastEventId);
+        return subscriber.emitter;
+    }
+
+    /**
+     * This method returns the number of the displays of a location that are connected to this instance.
+     * @param tenantId - the tenant id, null for the default location.
+     * @return int.
+     */
+    public int subscribers(String tenantId) {
+        Feed feed = feeds.get(Tenants.key(tenantId));
+        return feed == null ? 0 : feed.subscribers.size();
+    }
+
+    /**
+     * This method starts the heartbeats of the streams and the tail of the orders of the other instances, once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-feed-heartbeats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long heartbeatMillis = properties.getHeartbeatInterval().toMillis();
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        if (properties.isShared()) {
+            log.info("Going to start the orders feed.");
+            publisher = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "order-feed");
+                thread.setDaemon(true);
+                return thread;
+            });
+            Thread thread = new Thread(this::tail, "order-feed-tail");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+        }
+        if (publisher != null) {
+            publisher.shutdown();
+        }
+        if (sender instanceof ExecutorService) {
+            ((ExecutorService) sender).shutdownNow();
+        }
+        feeds.values().forEach(Feed::completeAll);
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(properties.getTimeout().toMillis());
+    }
+
+    /**
+     * This function tails the capped collection until the service stops, reopening the cursor when it drops.
+     */
+    private void tail() {
+        boolean prepared = false;
+        while (running) {
+            try {
+                if (!prepared) {
+                    prepare();
+                    prepared = true;
+                }
+                ObjectId resumeId = new ObjectId(new Date(lastSeen.getTime() - properties.getResumeMargin().toMillis()));
+                try (MongoCursor<Document> cursor = mongoTemplate.getCollection(COLLECTION)
+                        .find(Filters.gte("_id", resumeId))
+                        .cursorType(CursorType.TailableAwait)
+                        .maxAwaitTime(1, TimeUnit.SECONDS)
+                        .noCursorTimeout(true)
+                        .iterator()) {
+                    log.info("Tailing the orders of the other instances.");
+                    while (running) {
+                        Document document = cursor.tryNext();
+                        if (document != null) {
+                            onEvent(mongoTemplate.getConverter().read(OrderEvent.class, document));
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.error("The tail of the orders of the other instances dropped, retrying.", e);
+                try {
+                    Thread.sleep(properties.getRetryInterval().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * This function creates the capped collection if it doesn't exist.
+     * A tailable cursor on an empty capped collection dies right away, so this instance announces itself with an event without an order.
+     */
+    private void prepare() {
+        if (!mongoTemplate.collectionExists(COLLECTION)) {
+            mongoTemplate.createCollection(COLLECTION, CollectionOptions.empty()
+                    .capped().size(properties.getCollectionSizeBytes()).maxDocuments(properties.getMaxEvents()));
+        }
+        mongoTemplate.insert(new OrderEvent(new ObjectId(), null, nodeId, new Date(), null), COLLECTION);
+    }
+
+    /**
+     * This function pushes an order of the capped collection, unless this instance accepted it.
+     * @param event - the event.
+     */
+    void onEvent(OrderEvent event) {
+        if (event.getDate() != null && event.getDate().after(lastSeen)) {
+            lastSeen = event.getDate();
+        }
+        if (nodeId.equals(event.getNodeId()) || event.getOrder() == null) {
+            return;
+        }
+        deliver(event);
+    }
+
+    private void deliver(OrderEvent event) {
+        feeds.computeIfAbsent(Tenants.key(event.getTenantId()), tenant -> new Feed()).publish(event);
+    }
+
+    private void heartbeat() {
+        for (Feed feed : feeds.values()) {
+            for (Subscriber subscriber : feed.subscribers) {
+                subscriber.heartbeat();
+            }
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * The latest orders of a location and its displays.
+     * Publishing and subscribing hold the lock of the feed, so a subscriber gets every order once, either replayed or pushed.
+     */
+    private class Feed {
+        private final Deque<OrderEvent> recent = new ArrayDeque<>();
+        private final Set<ObjectId> recentIds = new HashSet<>(); //Drops the orders a resumed tail reads again.
+        private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+
+        synchronized void publish(OrderEvent event) {
+            if (!recentIds.add(event.getId())) {
+                return;
+            }
+            recent.addLast(event);
+            if (recent.size() > properties.getReplaySize()) {
+                recentIds.remove(recent.removeFirst().getId());
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event);
+            }
+        }
+
+        synchronized void subscribe(Subscriber subscriber, String lastEventId) {
+            subscribers.add(subscriber);
+            if (lastEventId == null) {
+                return;
+            }
+            List<OrderEvent> missed = missedSince(lastEventId);
+            if (missed == null || missed.size() > properties.getBufferSize()) {
+                subscriber.reset();
+                return;
+            }
+            missed.forEach(subscriber::offer);
+        }
+
+        /**
+         * This function returns the orders after the last event a display got, or null if that event isn't kept anymore.
+         * The events of the other instances may arrive in another order on every instance,
+         * so the orders of the resume margin before the last event are sent again too, rather than maybe missed.
+         */
+        private List<OrderEvent> missedSince(String lastEventId) {
+            if (!ObjectId.isValid(lastEventId) || !recentIds.contains(new ObjectId(lastEventId))) {
+                return null;
+            }
+            ObjectId lastId = new ObjectId(lastEventId);
+            OrderEvent last = recent.stream().filter(event -> event.getId().equals(lastId)).findFirst().orElseThrow();
+            long marginStart = last.getDate().getTime() - properties.getResumeMargin().toMillis();
+            List<OrderEvent> missed = new ArrayList<>();
+            boolean after = false;
+            for (OrderEvent event : recent) {
+                if (event == last) {
+                    after = true;
+                } else if (after || event.getDate().getTime() >= marginStart) {
+                    missed.add(event);
+                }
+            }
+            return missed;
+        }
+
+        void completeAll() {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    /**
+     * A display: its stream and its buffer, which one sender thread at a time drains to the stream.
+     */
+    private class Subscriber {
+        private final Feed feed;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> buffer = new ArrayBlockingQueue<>(properties.getBufferSize() + 1);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(Feed feed, SseEmitter emitter) {
+            this.feed = feed;
+            this.emitter = emitter;
+        }
+
+        void offer(OrderEvent event) {
+            if (buffer.size() >= properties.getBufferSize()) {
+                log.info("A display fell " + properties.getBufferSize() + " orders behind, disconnecting it so it resumes.");
+                remove();
+                emitter.complete();
+                return;
+            }
+            enqueue(SseEmitter.event().id(event.getId().toHexString()).name(ORDER_EVENT).data(event.getOrder()));
+        }
+
+        void reset() {
+            enqueue(SseEmitter.event().name(RESET_EVENT).data(RESET_EVENT));
+        }
+
+        void heartbeat() {
+            if (buffer.isEmpty()) {
+                enqueue(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            buffer.offer(event);
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while ((event = buffer.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (Exception e) {
+                        log.debug("A display disconnected.", e);
+                        remove();
+                        buffer.clear();
+                        draining.set(false);
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!buffer.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        void remove() {
+            feed.subscribers.remove(this);
+        }
+    }
+}
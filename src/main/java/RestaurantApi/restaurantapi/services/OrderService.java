@@ -1,14 +1,25 @@
 package RestaurantApi.restaurantapi.services;
 
 
+import RestaurantApi.restaurantapi.exceptions.ErrorCode;
 import RestaurantApi.restaurantapi.exceptions.OrderExceptions;
 import RestaurantApi.restaurantapi.exceptions.ProductExceptions;
+import RestaurantApi.restaurantapi.exceptions.RequestExceptions;
+import RestaurantApi.restaurantapi.models.MenuSnapshot;
 import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.OrderLine;
+import RestaurantApi.restaurantapi.models.OrderQuote;
+import RestaurantApi.restaurantapi.models.OrderStatus;
+import RestaurantApi.restaurantapi.models.OrderSummary;
 import RestaurantApi.restaurantapi.models.ProductDTO;
+import RestaurantApi.restaurantapi.models.ProductSales;
 import RestaurantApi.restaurantapi.repositories.OrderRepository;
-import RestaurantApi.restaurantapi.repositories.ProductRepository;
+import RestaurantApi.restaurantapi.repositories.OrderRepositoryCustom;
+import RestaurantApi.restaurantapi.utils.BoundedCache;
+import RestaurantApi.restaurantapi.utils.Tenants;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import javax.validation.constraints.NotNull;
@@ -19,49 +30,128 @@ import java.util.*;
 public class OrderService {
 
     private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
+    private final ProductCacheService productCache;
+    private final MenuService menuService;
+    private final DependencyService dependencies;
+    private final OrderFeedService orderFeed;
+    private final InventoryService inventory;
     static final long DAY = 24 * 60 * 60 * 1000;
+    static final int IDEMPOTENCY_CACHE_SIZE = 10000;
     private int minimumOrderAmount = 60;
+    private final BoundedCache<String, OrderDTO> ordersByIdempotencyKey = new BoundedCache<>(IDEMPOTENCY_CACHE_SIZE); //By Tenants.key of the location and the key.
 
     @Autowired
-    public OrderService(OrderRepository orderRepository, ProductRepository productRepository) {
+    public OrderService(OrderRepository orderRepository, ProductCacheService productCache, MenuService menuService,
+                        DependencyService dependencies, OrderFeedService orderFeed, InventoryService inventory) {
         this.orderRepository = orderRepository;
-        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.menuService = menuService;
+        this.dependencies = dependencies;
+        this.orderFeed = orderFeed;
+        this.inventory = inventory;
     }
 
     /**
-     * This method creates a new order.
+     * This method creates the indexes of the order collections that aren't mapped to a model, by the warmup of the application.
+     */
+    public void createIndexes() {
+        try {
+            orderRepository.createIndexes();
+        } catch (Exception e) {
+            log.error("Creating the indexes of the orders failed.", e);
+        }
+    }
+
+    /**
+     * This method creates a new order of a location.
+     * @param tenantId - the tenant id, null for the default location.
      * @param newOrder - the new order to create.
-     * @throws OrderExceptions - The user ordered under the minimum price.
-     * @throws ProductExceptions - The user ordered a product that doesn't exist.
+     * @return the created order.
+     * @throws OrderExceptions - The user ordered under the minimum price or more than the stock of a product.
+     * @throws ProductExceptions - The user ordered a product that doesn't exist in the location.
+     */
+    public OrderDTO createOrder(String tenantId, OrderDTO newOrder) throws OrderExceptions, ProductExceptions {
+        return createOrder(tenantId, newOrder, null);
+    }
+
+    /**
+     * This method creates a new order of a location once per idempotency key.
+     * A replay of a key that was already used returns the original order without pricing or saving it again.
+     * A unique index on the location and the key keeps this correct when the replay reaches another instance of the service:
+     * of the orders, or of the claims of the keys when the orders are stored in buckets.
+     * The units of the order are taken from the stock of its products, and put back if the order isn't saved.
+     * The accepted order is pushed to the kitchen displays of the location.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param newOrder - the new order to create.
+     * @param idempotencyKey - the Idempotency-Key header of the request, may be null.
+     * @return the created order, or the original order if the key was already used.
+     * @throws OrderExceptions - The user ordered under the minimum price or more than the stock of a product.
+     * @throws ProductExceptions - The user ordered a product that doesn't exist in the location.
      */
-    public void createOrder(OrderDTO newOrder) throws OrderExceptions, ProductExceptions {
+    public OrderDTO createOrder(String tenantId, OrderDTO newOrder, String idempotencyKey) throws OrderExceptions, ProductExceptions {
         log.trace("Entered createOrder function in OrderService class.");
+        if(idempotencyKey != null) {
+            Optional<OrderDTO> originalOrder = getOrderByIdempotencyKey(tenantId, idempotencyKey);
+            if(originalOrder.isPresent()) {
+                log.info("The idempotency key was already used, returning the original order.");
+                return originalOrder.get();
+            }
+        }
         if(newOrder.getProductsOrdered().isEmpty()){
-            throw new OrderExceptions(OrderExceptions.EmptyOrderException());
+            throw OrderExceptions.EMPTY_ORDER;
         }
-        newOrder.setPrice(getOrderPrice(newOrder));
+        newOrder.setId(null); //The id is given by the database, not by the client.
+        newOrder.setTenantId(tenantId);
+        MenuSnapshot menu = menuService.snapshot(tenantId);
+        newOrder.setLines(getOrderLines(newOrder, menu));
+        newOrder.setPrice(total(newOrder.getLines()));
+        newOrder.setMenuVersion(menu.getVersion());
         log.info("newOrder price was set.");
         if(newOrder.getPrice() < minimumOrderAmount) {
-            log.error("The user ordered under the minimum price.");
-            throw new OrderExceptions(OrderExceptions.MinimumOrderAmountException(String.valueOf(minimumOrderAmount)));
+            log.info("The user ordered under the minimum price.");
+            throw new OrderExceptions(ErrorCode.MINIMUM_ORDER_AMOUNT, OrderExceptions.MinimumOrderAmountException(String.valueOf(minimumOrderAmount)));
         }
         else {
+            inventory.reserve(tenantId, newOrder.getLines());
             newOrder.setDate(new Date(System.currentTimeMillis()));
+            newOrder.setStatus(OrderStatus.NEW);
+            newOrder.setStatusDate(newOrder.getDate());
             log.info("newOrder date was set.");
-            orderRepository.save(newOrder);
+            newOrder.setIdempotencyKey(idempotencyKey);
+            try {
+                dependencies.database().execute(() -> orderRepository.insertOrder(newOrder));
+            } catch (DuplicateKeyException e) {
+                inventory.release(tenantId, newOrder.getLines());
+                if(idempotencyKey == null) {
+                    throw e;
+                }
+                log.info("A concurrent request with the same idempotency key saved the order first.");
+                OrderDTO originalOrder = dependencies.database().execute(() -> orderRepository.findOrderByIdempotencyKey(tenantId, idempotencyKey))
+                        .orElseThrow(() -> e);
+                ordersByIdempotencyKey.put(Tenants.key(tenantId, idempotencyKey), originalOrder);
+                return originalOrder;
+            } catch (RuntimeException e) {
+                inventory.release(tenantId, newOrder.getLines());
+                throw e;
+            }
             log.info("newOrder was saved.");
+            if(idempotencyKey != null) {
+                ordersByIdempotencyKey.put(Tenants.key(tenantId, idempotencyKey), newOrder);
+            }
+            orderFeed.publish(newOrder);
+            return newOrder;
         }
 
     }
 
     /**
-     * This method returns information about all the orders in the database.
-     * @return List of all orders from the database.
+     * This method returns information about all the orders of a location in the database.
+     * @param tenantId - the tenant id, null for the default location.
+     * @return List of all orders of the location from the database.
      */
-    public List<OrderDTO> getAllOrders() {
+    public List<OrderDTO> getAllOrders(String tenantId) {
         log.trace("Entered getAllOrders function in OrderService class.");
-        List<OrderDTO> orders = orderRepository.findAll();
+        List<OrderDTO> orders = dependencies.database().execute(() -> orderRepository.findAllForListing(tenantId));
         log.info("The variable orders contain all orders from the database.");
         if (orders.size() > 0) {
             return orders;
@@ -72,50 +162,250 @@ public class OrderService {
     }
 
     /**
-     * This method returns information about all the orders that were ordered from the last day.
-     * @return List of all orders that were ordered from the last day.
+     * This method returns information about the orders of a location in a date range.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param from - the start of the range, inclusive, or null for no start.
+     * @param to - the end of the range, exclusive, or null for no end.
+     * @return List of the orders of the range.
+     */
+    public List<OrderDTO> getOrders(String tenantId, Date from, Date to) {
+        log.trace("Entered getOrders function in OrderService class.");
+        validateDateRange(from, to);
+        List<OrderDTO> orders = dependencies.database().execute(() -> orderRepository.findAllForListing(tenantId, from, to));
+        log.info("The variable orders contain the orders of the date range.");
+        return orders;
+    }
+
+    /**
+     * This method returns only the requested fields of the orders of a location in a date range.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param fields - the requested fields, e.g. id and price.
+     * @param from - the start of the range, inclusive, or null for no start.
+     * @param to - the end of the range, exclusive, or null for no end.
+     * @return List of the requested fields of the orders of the range.
+     */
+    public List<Map<String, Object>> getOrders(String tenantId, Set<String> fields, Date from, Date to) {
+        log.trace("Entered getOrders function with fields in OrderService class.");
+        validateDateRange(from, to);
+        OrderRepositoryCustom.validateFields(fields);
+        List<Map<String, Object>> orders = dependencies.database().execute(() -> orderRepository.findAllForListing(tenantId, fields, from, to));
+        log.info("The variable orders contain the requested fields of the orders of the date range.");
+        return orders;
+    }
+
+    /**
+     * This method returns the count, the revenue and the average ticket of the orders of a location in a date range.
+     * They are computed in Mongo, so the orders themselves are never transferred.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param from - the start of the range, inclusive, or null for no start.
+     * @param to - the end of the range, exclusive, or null for now.
+     * @return the summary of the orders of the range.
+     */
+    public OrderSummary getOrdersSummary(String tenantId, Date from, Date to) {
+        log.trace("Entered getOrdersSummary function in OrderService class.");
+        Date end = to != null ? to : new Date(System.currentTimeMillis());
+        validateDateRange(from, end);
+        return dependencies.database().execute(() -> orderRepository.summarize(tenantId, from, end));
+    }
+
+    /**
+     * This method returns the quantity and the revenue of every product a location sold in a date range, best selling first.
+     * They are computed in Mongo from the lines stored on the orders, at the prices the products were ordered with.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param from - the start of the range, inclusive, or null for no start.
+     * @param to - the end of the range, exclusive, or null for now.
+     * @return the sales of the products of the range.
      */
-    public List<OrderDTO> getAllOrdersFromTheLastDay() {
+    public List<ProductSales> getProductsSales(String tenantId, Date from, Date to) {
+        log.trace("Entered getProductsSales function in OrderService class.");
+        Date end = to != null ? to : new Date(System.currentTimeMillis());
+        validateDateRange(from, end);
+        return dependencies.database().execute(() -> orderRepository.summarizeProducts(tenantId, from, end));
+    }
+
+    /**
+     * This method returns information about all the orders of a location that were ordered from the last day.
+     * @param tenantId - the tenant id, null for the default location.
+     * @return List of all orders of the location that were ordered from the last day.
+     */
+    public List<OrderDTO> getAllOrdersFromTheLastDay(String tenantId) {
         log.trace("Entered getAllOrdersFromTheLastDay function in OrderService class.");
-        List<OrderDTO> orders = orderRepository.findAll();
-        log.info("The variable orders contain all orders from the database.");
-        if (orders.size() > 0) {
-            orders.removeIf(order -> !fromTheLastDay(order.getDate()));
-            log.info("The variable orders contain only the orders that were ordered from the last day.");
-            return orders;
-        } else {
-            log.info("There are no orders in the database.");
-            return new ArrayList<>();
+        Date dayAgo = new Date(System.currentTimeMillis() - DAY);
+        List<OrderDTO> orders = dependencies.database().execute(() -> orderRepository.findOrdersSince(tenantId, dayAgo));
+        log.info("The variable orders contain only the orders that were ordered from the last day.");
+        return orders;
+    }
+
+    /**
+     * This method returns the orders of a location that the kitchen still has to make (NEW and IN_PROGRESS), oldest first.
+     * @param tenantId - the tenant id, null for the default location.
+     * @return List of the open orders of the location.
+     */
+    public List<OrderDTO> getOpenOrders(String tenantId) {
+        log.trace("Entered getOpenOrders function in OrderService class.");
+        return dependencies.database().execute(() -> orderRepository.findOpenOrders(tenantId));
+    }
+
+    /**
+     * This method moves an order of a location to another status, e.g. when the kitchen starts it.
+     * The change is atomic and only from the statuses before the new status, so of two displays that change an order at once
+     * only one succeeds and the other gets the status conflict. The changed order is pushed to the kitchen displays.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param orderId - the order id.
+     * @param status - the new status.
+     * @return the changed order.
+     * @throws OrderExceptions - The order doesn't exist, or it can't move to the status from its status.
+     */
+    public OrderDTO changeOrderStatus(String tenantId, String orderId, OrderStatus status) throws OrderExceptions {
+        log.trace("Entered changeOrderStatus function in OrderService class.");
+        Optional<OrderDTO> changedOrder = status.previous().isEmpty() ? Optional.empty()
+                : dependencies.database().execute(() -> orderRepository.changeStatus(tenantId, orderId, status.previous(), status, new Date()));
+        if (changedOrder.isPresent()) {
+            log.info("The order moved to " + status + ".");
+            if (status == OrderStatus.CANCELLED) {
+                restock(tenantId, changedOrder.get());
+            }
+            orderFeed.publish(changedOrder.get());
+            return changedOrder.get();
         }
+        OrderDTO order = dependencies.database().execute(() -> orderRepository.findOrder(tenantId, orderId))
+                .orElseThrow(() -> new OrderExceptions(ErrorCode.ORDER_NOT_FOUND, OrderExceptions.OrderNotFoundException(orderId)));
+        log.info("The order is " + order.getStatus() + ", it can't move to " + status + ".");
+        throw new OrderExceptions(ErrorCode.ORDER_STATUS_CONFLICT,
+                OrderExceptions.OrderStatusConflictException(order.getStatus(), status));
     }
 
     /********Additional functions*********/
 
     /**
-     * This method calculates the price of the order.
+     * This method calculates the price of the order with the current menu of its location.
      * @param order - the order whose price needs to be calculated.
      * @return order's price.
      * @throws ProductExceptions - The user ordered a product that doesn't exist.
      */
     public int getOrderPrice(@NotNull OrderDTO order) throws ProductExceptions {
+        return getOrderPrice(order, menuService.snapshot(order.getTenantId()));
+    }
+
+    /**
+     * This method calculates the price of the order with one snapshot of the menu, so all its products are priced
+     * with the same version of the menu, without the database.
+     * @param order - the order whose price needs to be calculated.
+     * @param menu - the snapshot of the menu.
+     * @return order's price.
+     * @throws ProductExceptions - The user ordered a product that doesn't exist.
+     */
+    public int getOrderPrice(@NotNull OrderDTO order, MenuSnapshot menu) throws ProductExceptions {
         log.trace("Entered getOrderPrice function in OrderService class.");
-        int sum = 0;
+        int sum = total(getOrderLines(order, menu));
+        log.info("Completion of the calculation of the price of the order.");
 
-        log.info("Going to check that the desired products that the user tried to order exist in the database and calculate their sum.");
+        return sum;
+    }
+
+    /**
+     * This method prices every line of the order with one snapshot of the menu of its location.
+     * A product that isn't on the snapshot, e.g. one created on another instance whose event didn't arrive yet,
+     * is searched for in the product cache.
+     * @param order - the order whose lines need to be priced, with its tenant id.
+     * @param menu - the snapshot of the menu of the location of the order.
+     * @return the lines of the order, in the order of its products.
+     * @throws ProductExceptions - The user ordered a product that doesn't exist.
+     */
+    public List<OrderLine> getOrderLines(@NotNull OrderDTO order, MenuSnapshot menu) throws ProductExceptions {
+        log.trace("Entered getOrderLines function in OrderService class.");
+        List<OrderLine> lines = new ArrayList<>(order.getProductsOrdered().size());
+
+        log.info("Going to check that the desired products that the user tried to order exist in the menu and calculate their sum.");
         for (Map.Entry<String, Integer> entry : order.getProductsOrdered().entrySet()) {
-            Optional<ProductDTO> product = productRepository.findProductByName(entry.getKey());
+            Optional<ProductDTO> product = menu.findProductByName(entry.getKey());
+            if(product.isEmpty()) {
+                product = productCache.findProductByName(order.getTenantId(), entry.getKey());
+            }
             if(product.isPresent()){
-                sum += product.get().getPrice() * entry.getValue(); //Calculation of the order price.
+                int unitPrice = product.get().getPrice();
+                lines.add(new OrderLine(entry.getKey(), entry.getValue(), unitPrice, unitPrice * entry.getValue())); //Calculation of the line price.
             } else {
-                log.error("The user ordered a product that doesn't exist in the database.");
-                throw new ProductExceptions(ProductExceptions.NotFoundException(entry.getKey()));
+                log.info("The user ordered a product that doesn't exist in the database.");
+                throw new ProductExceptions(ErrorCode.ORDERED_PRODUCT_NOT_FOUND, ProductExceptions.NotFoundException(entry.getKey()));
             }
         }
-        log.info("Completion of the calculation of the price of the order.");
+        return lines;
+    }
 
+    /**
+     * This method prices a basket without ordering it, e.g. on every change of the basket in the ordering app.
+     * It uses the current menu of the location and writes nothing, so it doesn't reach the database for the products on the menu.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param basket - the products and their amounts.
+     * @return the lines, the total and whether the total meets the minimum order amount.
+     * @throws ProductExceptions - The basket has a product that doesn't exist in the location.
+     */
+    public OrderQuote quoteOrder(String tenantId, @NotNull OrderDTO basket) throws ProductExceptions {
+        log.trace("Entered quoteOrder function in OrderService class.");
+        basket.setTenantId(tenantId);
+        MenuSnapshot menu = menuService.snapshot(tenantId);
+        List<OrderLine> lines = getOrderLines(basket, menu);
+        int total = total(lines);
+        return new OrderQuote(lines, total, minimumOrderAmount, total >= minimumOrderAmount, menu.getVersion());
+    }
+
+    private static int total(List<OrderLine> lines) {
+        int sum = 0;
+        for (OrderLine line : lines) {
+            sum += line.getTotal();
+        }
         return sum;
     }
 
+    /**
+     * This method searches for an order of a location that was created with the idempotency key,
+     * first in the local cache and then in the database.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param idempotencyKey - the Idempotency-Key header of the request.
+     * @return the order that was created with the key, if there is one.
+     */
+    public Optional<OrderDTO> getOrderByIdempotencyKey(String tenantId, String idempotencyKey) {
+        log.trace("Entered getOrderByIdempotencyKey function in OrderService class.");
+        String key = Tenants.key(tenantId, idempotencyKey);
+        OrderDTO cachedOrder = ordersByIdempotencyKey.get(key);
+        if(cachedOrder != null) {
+            return Optional.of(cachedOrder);
+        }
+        Optional<OrderDTO> savedOrder = dependencies.database().execute(() -> orderRepository.findOrderByIdempotencyKey(tenantId, idempotencyKey));
+        savedOrder.ifPresent(order -> ordersByIdempotencyKey.put(key, order));
+        return savedOrder;
+    }
+
+    /**
+     * This function puts the units of a cancelled order back to the stock. The order was cancelled already,
+     * so when the stock can't be written its units are left out of it, which errs on selling less.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param order - the cancelled order.
+     */
+    private void restock(String tenantId, OrderDTO order) {
+        if (order.getLines() == null) {
+            return;
+        }
+        try {
+            inventory.restock(tenantId, order.getLines());
+        } catch (RuntimeException e) {
+            log.error("Putting the units of the cancelled order " + order.getId() + " back to the stock failed.", e);
+        }
+    }
+
+    /**
+     * This function checks that the start of a date range is before its end.
+     * @param from - the start of the range, may be null.
+     * @param to - the end of the range, may be null.
+     * @throws RequestExceptions - The start is after the end.
+     */
+    private void validateDateRange(Date from, Date to) {
+        if (from != null && to != null && from.after(to)) {
+            throw new RequestExceptions(RequestExceptions.InvalidDateRangeException());
+        }
+    }
+
     /**
      * This function checks if the date of order happened from the last day.
      * @param date - order's date of creation.
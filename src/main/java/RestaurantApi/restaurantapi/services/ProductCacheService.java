@@ -0,0 +1,89 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.models.CatalogEvent;
+import RestaurantApi.restaurantapi.models.ProductDTO;
+import RestaurantApi.restaurantapi.repositories.ProductRepository;
+import RestaurantApi.restaurantapi.utils.BoundedCache;
+import RestaurantApi.restaurantapi.utils.Tenants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class caches the products by location and name, including the names that don't exist.
+ * The entries are invalidated by the catalog events of all the instances of the service.
+ */
+@Slf4j
+@Service
+public class ProductCacheService {
+
+    static final int PRODUCT_CACHE_SIZE = 10000;
+
+    private final ProductRepository productRepository;
+    private final DependencyService dependencies;
+    private final BoundedCache<String, Optional<ProductDTO>> productsByName = new BoundedCache<>(PRODUCT_CACHE_SIZE);
+    private final AtomicLong generation = new AtomicLong(); //Incremented on every invalidation.
+
+    @Autowired
+    public ProductCacheService(ProductRepository productRepository, DependencyService dependencies, CatalogEventBus catalogEventBus) {
+        this.productRepository = productRepository;
+        this.dependencies = dependencies;
+        catalogEventBus.addListener(this::onCatalogEvent);
+    }
+
+    /**
+     * This method searches for a product of a location by its name, in the cache and then in the database.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param name - the product's name.
+     * @return the product, if it exists.
+     */
+    public Optional<ProductDTO> findProductByName(String tenantId, String name) {
+        log.trace("Entered findProductByName function in ProductCacheService class.");
+        String key = Tenants.key(tenantId, name);
+        Optional<ProductDTO> cachedProduct = productsByName.get(key);
+        if (cachedProduct != null) {
+            return cachedProduct;
+        }
+        long generationBeforeRead = generation.get();
+        Optional<ProductDTO> product = dependencies.database().execute(() -> productRepository.findProductByTenantIdAndName(tenantId, name));
+        //An invalidation during the read may mean the product we read is already stale.
+        if (generation.get() == generationBeforeRead) {
+            productsByName.put(key, product);
+        }
+        return product;
+    }
+
+    /**
+     * This method reads all the products of all the locations in one query and caches them,
+     * so the first orders don't wait for the database.
+     * @return all the products in the database.
+     */
+    public List<ProductDTO> prewarm() {
+        log.trace("Entered prewarm function in ProductCacheService class.");
+        long generationBeforeRead = generation.get();
+        List<ProductDTO> products = dependencies.database().execute(productRepository::findAll);
+        if (generation.get() == generationBeforeRead) {
+            products.stream().limit(PRODUCT_CACHE_SIZE).forEach(product -> productsByName.put(Tenants.key(product.getTenantId(), product.getName()), Optional.of(product)));
+        }
+        return products;
+    }
+
+    /**
+     * This method removes the changed products from the cache.
+     * @param event - the catalog event.
+     */
+    public void onCatalogEvent(CatalogEvent event) {
+        generation.incrementAndGet();
+        if (event.getType() == CatalogEvent.Type.PRODUCT_CHANGED) {
+            log.info("The product " + event.getProductName() + " changed, removing it from the cache.");
+            productsByName.remove(Tenants.key(event.getTenantId(), event.getProductName()));
+        } else {
+            log.info("The catalog changed, clearing the products cache.");
+            productsByName.clear();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.models.CatalogEvent;
+import RestaurantApi.restaurantapi.models.ProductDTO;
+import RestaurantApi.restaurantapi.repositories.ProductRepository;
+import RestaurantApi.restaurantapi.utils.Bm25Index;
+import RestaurantApi.restaurantapi.utils.FuzzyPrefixIndex;
+import RestaurantApi.restaurantapi.utils.Tenants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * This class searches the products in memory: their names as the user types, and their descriptions by ingredients.
+ * Every location has its own indexes, so a search ranks and scans only the products of its location.
+ * The indexes are built from the database by the warmup of the application and are updated as products are created,
+ * on this instance directly and on the other instances through the catalog events.
+ */
+@Slf4j
+@Service
+public class ProductSearchService {
+
+    private final ProductRepository productRepository;
+    private final ProductCacheService productCache;
+    private final DependencyService dependencies;
+    private final Map<String, TenantIndexes> indexesByTenant = new ConcurrentHashMap<>(); //Tenants.key -> the indexes of the location.
+
+    @Autowired
+    public ProductSearchService(ProductRepository productRepository, ProductCacheService productCache,
+                                CatalogEventBus catalogEventBus, DependencyService dependencies) {
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.dependencies = dependencies;
+        catalogEventBus.addListener(this::onCatalogEvent);
+    }
+
+    /**
+     * This method searches for the products of a location whose name has a word starting with the query, allowing a few typos.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param query - what the user typed so far.
+     * @param limit - the maximal number of products to return.
+     * @return the matching products, best first.
+     */
+    public List<ProductDTO> searchByName(String tenantId, String query, int limit) {
+        log.trace("Entered searchByName function in ProductSearchService class.");
+        TenantIndexes indexes = indexesByTenant.get(Tenants.key(tenantId));
+        if (indexes == null) {
+            return List.of();
+        }
+        return indexes.nameIndex.search(query, limit).stream()
+                .map(indexes.productsByName::get)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * This method searches for the products of a location whose description contains the words of the query, e.g. "truffle almonds".
+     * The products are ranked with BM25, so products with more of the rarer words come first.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param query - the words to search for.
+     * @param pageable - the page to return.
+     * @return the requested page of the matching products.
+     */
+    public Page<ProductDTO> searchByDescription(String tenantId, String query, Pageable pageable) {
+        log.trace("Entered searchByDescription function in ProductSearchService class.");
+        TenantIndexes indexes = indexesByTenant.get(Tenants.key(tenantId));
+        if (indexes == null) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        Bm25Index.Results<String> results = indexes.descriptionIndex.search(query, (int) pageable.getOffset(), pageable.getPageSize());
+        List<ProductDTO> products = results.getValues().stream()
+                .map(indexes.productsByName::get)
+                .collect(Collectors.toList());
+        return new PageImpl<>(products, pageable, results.getTotal());
+    }
+
+    /**
+     * This method adds a new product to the indexes of its location.
+     * @param product - the product.
+     */
+    public synchronized void add(ProductDTO product) {
+        TenantIndexes indexes = indexesByTenant.computeIfAbsent(Tenants.key(product.getTenantId()), tenant -> new TenantIndexes());
+        indexes.productsByName.put(product.getName(), product);
+        addToIndexes(product, indexes.nameIndex, indexes.descriptionIndex);
+    }
+
+    /**
+     * This method builds the indexes from all the products in the database, whenever the whole catalog changed.
+     * The products that were added meanwhile are kept.
+     */
+    public void rebuild() {
+        log.info("Going to build the products search index.");
+        List<ProductDTO> products;
+        try {
+            products = dependencies.database().execute(productRepository::findAll);
+        } catch (Exception e) {
+            log.error("Building the products search index failed, it has only the products that were added since the start.", e);
+            return;
+        }
+        rebuild(products);
+    }
+
+    /**
+     * This method builds the indexes of all the locations from products that were already read, e.g. by the warmup of the application.
+     * The products that were added meanwhile are kept.
+     * @param products - all the products in the database.
+     */
+    public void rebuild(List<ProductDTO> products) {
+        synchronized (this) {
+            for (ProductDTO product : products) {
+                indexesByTenant.computeIfAbsent(Tenants.key(product.getTenantId()), tenant -> new TenantIndexes())
+                        .productsByName.put(product.getName(), product);
+            }
+            for (TenantIndexes indexes : indexesByTenant.values()) {
+                FuzzyPrefixIndex<String> names = new FuzzyPrefixIndex<>();
+                Bm25Index<String> descriptions = new Bm25Index<>();
+                for (ProductDTO product : indexes.productsByName.values()) {
+                    addToIndexes(product, names, descriptions);
+                }
+                indexes.nameIndex = names;
+                indexes.descriptionIndex = descriptions;
+            }
+        }
+        log.info("The products search index has " + products.size() + " products of " + indexesByTenant.size() + " locations.");
+    }
+
+    /**
+     * This method adds the products that were created on other instances.
+     * @param event - the catalog event.
+     */
+    void onCatalogEvent(CatalogEvent event) {
+        if (event.getType() == CatalogEvent.Type.CATALOG_CHANGED) {
+            rebuild();
+        } else if (event.getType() == CatalogEvent.Type.PRODUCT_CHANGED && !contains(event.getTenantId(), event.getProductName())) {
+            try {
+                productCache.findProductByName(event.getTenantId(), event.getProductName()).ifPresent(this::add);
+            } catch (Exception e) {
+                log.error("Adding the product " + event.getProductName() + " to the search index failed.", e);
+            }
+        }
+    }
+
+    private boolean contains(String tenantId, String name) {
+        TenantIndexes indexes = indexesByTenant.get(Tenants.key(tenantId));
+        return indexes != null && indexes.productsByName.containsKey(name);
+    }
+
+    private static void addToIndexes(ProductDTO product, FuzzyPrefixIndex<String> names, Bm25Index<String> descriptions) {
+        names.add(product.getName(), product.getName());
+        if (product.getDescription() != null) {
+            descriptions.add(product.getDescription(), product.getName());
+        }
+    }
+
+    /**
+     * The products of a location and their indexes, which a rebuild replaces with new ones.
+     */
+    private static class TenantIndexes {
+        private final Map<String, ProductDTO> productsByName = new ConcurrentHashMap<>();
+        private volatile FuzzyPrefixIndex<String> nameIndex = new FuzzyPrefixIndex<>();
+        private volatile Bm25Index<String> descriptionIndex = new Bm25Index<>();
+    }
+}
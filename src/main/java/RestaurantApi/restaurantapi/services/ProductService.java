@@ -1,61 +1,87 @@
 package RestaurantApi.restaurantapi.services;
 
 
+import RestaurantApi.restaurantapi.exceptions.ErrorCode;
 import RestaurantApi.restaurantapi.exceptions.ProductExceptions;
+import RestaurantApi.restaurantapi.exceptions.RequestExceptions;
 import RestaurantApi.restaurantapi.models.ProductDTO;
 import RestaurantApi.restaurantapi.repositories.ProductRepository;
+import RestaurantApi.restaurantapi.repositories.ProductRepositoryCustom;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
 public class ProductService {
 
+    static final int MAX_SEARCH_RESULTS = 50;
+
     private final ProductRepository productRepository;
+    private final ProductCacheService productCache;
+    private final ProductSearchService productSearch;
+    private final CatalogEventBus catalogEventBus;
+    private final DependencyService dependencies;
 
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ProductCacheService productCache, ProductSearchService productSearch,
+                          CatalogEventBus catalogEventBus, DependencyService dependencies) {
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.productSearch = productSearch;
+        this.catalogEventBus = catalogEventBus;
+        this.dependencies = dependencies;
     }
 
     /**
-     * This method is responsible for creating a new product.
+     * This method is responsible for creating a new product of a location.
+     * @param tenantId - the tenant id, null for the default location.
      * @param newProduct - the new product to create.
-     * @throws ProductExceptions - The user ordered a product that doesn't exist.
+     * @throws ProductExceptions - The product already exists in the location or its image URL doesn't work.
+     * @throws IOException - Problem with reading the product image URL.
      */
-    public void createProduct(ProductDTO newProduct) throws ProductExceptions, IOException {
+    public void createProduct(String tenantId, ProductDTO newProduct) throws ProductExceptions, IOException {
         log.trace("Entered createProduct function in ProductService class.");
-        Optional<ProductDTO> productOptional = productRepository.findProductByName(newProduct.getName());
+        newProduct.setTenantId(tenantId);
+        Optional<ProductDTO> productOptional = dependencies.database().execute(() -> productRepository.findProductByTenantIdAndName(tenantId, newProduct.getName()));
         if(productOptional.isPresent()) {
-            log.error("The product already exists in the database.");
-            throw new ProductExceptions(ProductExceptions.ProductAlreadyExistsException(newProduct.getName()));
+            log.info("The product already exists in the database.");
+            throw new ProductExceptions(ErrorCode.PRODUCT_ALREADY_EXISTS, ProductExceptions.ProductAlreadyExistsException(newProduct.getName()));
         }
         else {
             if(!validationOfImage(newProduct.getImage())){
-                throw new ProductExceptions(ProductExceptions.ImageUrlNotWorkException());
+                throw ProductExceptions.IMAGE_URL_NOT_WORK;
             }
-            productRepository.save(newProduct);
+            dependencies.database().execute(() -> productRepository.save(newProduct));
             log.info("newProduct was saved.");
+            productSearch.add(newProduct);
+            catalogEventBus.publishProductChanged(tenantId, newProduct.getName());
         }
 
     }
 
     /**
-     * This function returns information about all the products found in the database.
-     * @return List of all ProductDTOs from the database.
+     * This function returns information about all the products of a location found in the database.
+     * @param tenantId - the tenant id, null for the default location.
+     * @return List of all ProductDTOs of the location from the database.
      */
-    public List<ProductDTO> getAllProducts() {
+    public List<ProductDTO> getAllProducts(String tenantId) {
         log.trace("Entered getAllProducts function in ProductService class.");
-        List<ProductDTO> products = productRepository.findAll();
+        List<ProductDTO> products = dependencies.database().execute(() -> productRepository.findAllByTenantId(tenantId));
         log.info("The variable products contain all products from the database.");
         if (products.size() > 0) {
             return products;
@@ -66,33 +92,94 @@ public class ProductService {
     }
 
     /**
-     * This function search for a product by its name.
+     * This function returns only the requested fields of all the products of a location found in the database.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param fields - the requested fields, e.g. name and price.
+     * @return List of the requested fields of all products of the location from the database.
+     */
+    public List<Map<String, Object>> getAllProducts(String tenantId, Set<String> fields) {
+        log.trace("Entered getAllProducts function with fields in ProductService class.");
+        ProductRepositoryCustom.validateFields(fields);
+        List<Map<String, Object>> products = dependencies.database().execute(() -> productRepository.findAllProjected(tenantId, fields));
+        log.info("The variable products contain the requested fields of all products from the database.");
+        return products;
+    }
+
+    /**
+     * This function search for a product of a location by its name.
+     * @param tenantId - the tenant id, null for the default location.
      * @param name - the product's name.
      * @return ProductDTO
-     * @throws ProductExceptions - The product doesn't exist in the database.
+     * @throws ProductExceptions - The product doesn't exist in the location.
      */
-    public ProductDTO getProductByName(String name) throws ProductExceptions{
+    public ProductDTO getProductByName(String tenantId, String name) throws ProductExceptions{
         log.trace("Entered getProductByName function in ProductService class.");
-        Optional<ProductDTO> productOptional = productRepository.findProductByName(name);
+        Optional<ProductDTO> productOptional = productCache.findProductByName(tenantId, name);
         if (productOptional.isEmpty()) {
-            log.error("The product doesn't exist in the database.");
-            throw new ProductExceptions(ProductExceptions.NotFoundException(name));
+            log.info("The product doesn't exist in the database.");
+            throw new ProductExceptions(ErrorCode.PRODUCT_NOT_FOUND, ProductExceptions.NotFoundException(name));
         }else {
             log.info("The product was found.");
             return productOptional.get();
         }
     }
 
+    /**
+     * This function searches for the products of a location whose name starts with the query, allowing a few typos.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param query - what the user typed so far.
+     * @param limit - the maximal number of products to return.
+     * @return List of the matching products, best first.
+     */
+    public List<ProductDTO> searchProducts(String tenantId, String query, int limit) {
+        log.trace("Entered searchProducts function in ProductService class.");
+        return productSearch.searchByName(tenantId, query, Math.min(limit, MAX_SEARCH_RESULTS));
+    }
+
+    /**
+     * This function searches for the products of a location whose description contains the words of the query, best match first.
+     * @param tenantId - the tenant id, null for the default location.
+     * @param query - the words to search for, e.g. ingredients.
+     * @param page - the number of the page, from 0.
+     * @param size - the number of products in a page.
+     * @return the requested page of the matching products.
+     * @throws RequestExceptions - The page is negative or the size isn't positive.
+     */
+    public Page<ProductDTO> searchProductsByDescription(String tenantId, String query, int page, int size) {
+        log.trace("Entered searchProductsByDescription function in ProductService class.");
+        if (page < 0 || size < 1) {
+            throw new RequestExceptions(RequestExceptions.InvalidPageException());
+        }
+        return productSearch.searchByDescription(tenantId, query, PageRequest.of(page, Math.min(size, MAX_SEARCH_RESULTS)));
+    }
+
     /**
      * This function check if the image URL is valid.
+     * The image host is called with a timeout and through the circuit breaker of that host.
      * @param url - Image URL.
      * @return True if the image is valid and false otherwise.
      * @throws IOException - Problem with reading the product image URL.
      */
     public boolean validationOfImage(String url) throws IOException {
         log.trace("Entered validationOfImage function in ProductService class.");
-        Image image = ImageIO.read(new URL(url));
+        URL imageUrl = new URL(url);
+        Image image = dependencies.imageHost(imageUrl.getHost()).execute(() -> readImage(imageUrl));
         return image != null;
     }
 
+    /**
+     * This function reads the image, giving up if the image host doesn't answer within the timeout.
+     * @param url - Image URL.
+     * @return the image, or null if the URL isn't an image.
+     * @throws IOException - Problem with reading the product image URL.
+     */
+    private Image readImage(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        connection.setConnectTimeout(dependencies.imageTimeoutMillis());
+        connection.setReadTimeout(dependencies.imageTimeoutMillis());
+        try (InputStream imageStream = connection.getInputStream()) {
+            return ImageIO.read(imageStream);
+        }
+    }
+
 }
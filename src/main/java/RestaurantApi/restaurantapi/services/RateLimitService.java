@@ -0,0 +1,117 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.RateLimitProperties;
+import RestaurantApi.restaurantapi.utils.Tenants;
+import RestaurantApi.restaurantapi.utils.TokenBucket;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+public class RateLimitService {
+
+    private final RateLimitProperties properties;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RateLimitService(RateLimitProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * This method takes a token from the bucket of the client for the endpoint.
+     * @param endpoint - the limited endpoint.
+     * @param clientId - the API key or the IP address of the client.
+     * @param nowNanos - the current time in nanoseconds.
+     * @return 0 if the request is allowed, otherwise the nanoseconds the client should wait before retrying.
+     */
+    public long tryAcquire(RateLimitedEndpoint endpoint, String clientId, long nowNanos) {
+        RateLimitProperties.Limit limit = endpoint.limitOf(properties);
+        return tryAcquire(endpoint.name() + ':' + clientId, limit.getRequestsPerSecond(), limit.getBurst(), nowNanos);
+    }
+
+    /**
+     * This method takes a token from the bucket of the client in all the locations, and then from its bucket in the location.
+     * A client that names a new location still pays from its own bucket, so it can't get a fresh bucket by changing the location.
+     * @param endpoint - the limited endpoint.
+     * @param clientId - the API key or the IP address of the client.
+     * @param tenantId - the valid tenant id of the request, null for the default location.
+     * @param nowNanos - the current time in nanoseconds.
+     * @return 0 if the request is allowed, otherwise the nanoseconds the client should wait before retrying.
+     */
+    public long tryAcquire(RateLimitedEndpoint endpoint, String clientId, String tenantId, long nowNanos) {
+        RateLimitProperties.Limit limit = endpoint.limitOf(properties);
+        int locations = properties.getClientLocations();
+        //Tenant ids have no asterisk, so the key of the client never collides with a key of a location.
+        long waitNanos = tryAcquire(endpoint.name() + ":*:" + clientId, limit.getRequestsPerSecond() * locations,
+                limit.getBurst() * locations, nowNanos);
+        if (waitNanos != 0) {
+            return waitNanos;
+        }
+        return tryAcquire(endpoint, Tenants.key(tenantId, clientId), nowNanos);
+    }
+
+    private long tryAcquire(String key, double requestsPerSecond, int burst, long nowNanos) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            evictIfFull(nowNanos);
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(requestsPerSecond, burst, nowNanos));
+        }
+        return bucket.tryAcquire(nowNanos);
+    }
+
+    /**
+     * This function keeps the number of tracked clients bounded.
+     * Idle buckets are evicted first, since a new bucket would behave the same way.
+     * @param nowNanos - the current time in nanoseconds.
+     */
+    private void evictIfFull(long nowNanos) {
+        if (buckets.size() < properties.getMaxClients()) {
+            return;
+        }
+        log.info("The rate limiter tracks too many clients, going to evict idle clients.");
+        buckets.values().removeIf(bucket -> bucket.isIdle(nowNanos));
+        Iterator<String> keys = buckets.keySet().iterator();
+        while (buckets.size() >= properties.getMaxClients() && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    public int trackedClients() {
+        return buckets.size();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public String getClientHeader() {
+        return properties.getClientHeader();
+    }
+
+    /**
+     * The endpoints that have a rate limit.
+     */
+    public enum RateLimitedEndpoint {
+        ORDERS {
+            @Override
+            RateLimitProperties.Limit limitOf(RateLimitProperties properties) {
+                return properties.getOrders();
+            }
+        },
+        PRODUCTS {
+            @Override
+            RateLimitProperties.Limit limitOf(RateLimitProperties properties) {
+                return properties.getProducts();
+            }
+        };
+
+        abstract RateLimitProperties.Limit limitOf(RateLimitProperties properties);
+    }
+}
@@ -0,0 +1,96 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.ProductDTO;
+import RestaurantApi.restaurantapi.models.ProductStock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * This class prepares a new instance in the background once it started, so it serves requests right away:
+ * it creates the indexes, fills the products cache and search index with one read of the catalog and loads the menu.
+ * When the indexes declared on the models aren't created at startup (spring.data.mongodb.auto-index-creation=false,
+ * like in the prod profile), they are created here.
+ */
+@Slf4j
+@Service
+public class WarmupService {
+
+    private static final List<Class<?>> INDEXED_MODELS = List.of(ProductDTO.class, OrderDTO.class, ProductStock.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final OrderService orderService;
+    private final ProductCacheService productCache;
+    private final ProductSearchService productSearch;
+    private final MenuService menuService;
+
+    @Autowired
+    public WarmupService(MongoTemplate mongoTemplate, MongoMappingContext mappingContext, OrderService orderService,
+                         ProductCacheService productCache, ProductSearchService productSearch, MenuService menuService) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.orderService = orderService;
+        this.productCache = productCache;
+        this.productSearch = productSearch;
+        this.menuService = menuService;
+    }
+
+    /**
+     * This method starts the warmup on a background thread, once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread thread = new Thread(this::warmUp, "warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * This method creates the indexes, warms the products cache and search index and loads the menu.
+     * A failure is logged and the instance keeps serving, reading the products from the database on demand.
+     */
+    void warmUp() {
+        log.info("Going to warm up the instance.");
+        long start = System.currentTimeMillis();
+        if (!mappingContext.isAutoIndexCreation()) {
+            try {
+                createModelIndexes();
+            } catch (Exception e) {
+                log.error("Creating the indexes of the models failed.", e);
+            }
+        }
+        orderService.createIndexes();
+        try {
+            productSearch.rebuild(productCache.prewarm());
+        } catch (Exception e) {
+            log.error("Warming up the products failed, they will be read from the database on demand.", e);
+        }
+        try {
+            menuService.reload();
+        } catch (Exception e) {
+            log.error("Loading the menu failed, the orders are priced with the product cache until the catalog changes.", e);
+        }
+        log.info("The warmup took " + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    /**
+     * This function creates the indexes declared on the models, e.g. the unique idempotency key of the orders.
+     */
+    private void createModelIndexes() {
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (Class<?> model : INDEXED_MODELS) {
+            IndexOperations indexOperations = mongoTemplate.indexOps(model);
+            resolver.resolveIndexFor(model).forEach(indexOperations::ensureIndex);
+        }
+    }
+}
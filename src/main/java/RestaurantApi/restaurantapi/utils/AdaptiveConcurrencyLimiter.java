@@ -0,0 +1,172 @@
+package RestaurantApi.restaurantapi.utils;
+
+import RestaurantApi.restaurantapi.config.ResilienceProperties;
+import RestaurantApi.restaurantapi.exceptions.DependencyExceptions;
+import RestaurantApi.restaurantapi.exceptions.ErrorCode;
+import RestaurantApi.restaurantapi.models.ConcurrencyLimitStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * This class limits the number of concurrent calls to a dependency, adapting the limit to the measured latency.
+ * The limit grows while the recent latency stays close to the long term latency and shrinks when it rises above it
+ * (the gradient), and backs off multiplicatively when calls fail. Calls over the limit wait in a bounded queue for a
+ * bounded time and are shed when the queue is full or the wait is over.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter implements CallGuard {
+
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+
+    private final String name;
+    private final ResilienceProperties.ConcurrencyLimit config;
+    private final Predicate<Throwable> isDrop;
+    private final LongSupplier clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private double shortLatency;
+    private double longLatency;
+    private long completedCalls;
+    private long shedCalls;
+
+    public AdaptiveConcurrencyLimiter(String name, ResilienceProperties.ConcurrencyLimit config, Predicate<Throwable> isDrop, LongSupplier clock) {
+        this.name = name;
+        this.config = config;
+        this.isDrop = isDrop;
+        this.clock = clock;
+        this.limit = config.getInitialLimit();
+    }
+
+    @Override
+    public <T, E extends Exception> T execute(CheckedSupplier<T, E> call) throws E {
+        acquire();
+        long start = clock.getAsLong();
+        try {
+            T result = call.get();
+            release(clock.getAsLong() - start, false, true);
+            return result;
+        } catch (DependencyExceptions e) {
+            release(0, false, false); //An inner guard rejected the call, e.g. an open circuit, so it says nothing of the latency.
+            throw e;
+        } catch (Exception e) {
+            release(clock.getAsLong() - start, isDrop.test(e), true);
+            throw e;
+        }
+    }
+
+    private void acquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return;
+            }
+            if (queued >= config.getMaxQueueSize()) {
+                throw shed();
+            }
+            queued++;
+            try {
+                long remainingNanos = config.getMaxQueueWait().toNanos();
+                while (inFlight >= (int) limit) {
+                    if (remainingNanos <= 0) {
+                        throw shed();
+                    }
+                    remainingNanos = available.awaitNanos(remainingNanos);
+                }
+                inFlight++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw shed();
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private DependencyExceptions shed() {
+        shedCalls++;
+        log.warn("The concurrency limit of " + name + " is reached, shedding the call.");
+        return new DependencyExceptions(ErrorCode.DEPENDENCY_OVERLOADED, DependencyExceptions.OverloadedException(name), config.getMaxQueueWait().toMillis());
+    }
+
+    private void release(long latencyNanos, boolean dropped, boolean sampled) {
+        lock.lock();
+        try {
+            int previousLimit = (int) limit;
+            if (sampled) {
+                onSample(latencyNanos, inFlight, dropped);
+            }
+            inFlight--;
+            completedCalls++;
+            if ((int) limit > previousLimit) {
+                available.signalAll();
+            } else {
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * This function updates the limit from the latency of a call (the gradient algorithm).
+     * @param latencyNanos - the latency of the call.
+     * @param callsInFlight - the number of calls in flight when the call ended, including it.
+     * @param dropped - True if the call failed because the dependency is overloaded.
+     */
+    private void onSample(long latencyNanos, int callsInFlight, boolean dropped) {
+        if (dropped) {
+            limit = Math.max(config.getMinLimit(), limit * BACKOFF);
+            return;
+        }
+        if (longLatency == 0) {
+            shortLatency = latencyNanos;
+            longLatency = latencyNanos;
+        }
+        shortLatency += (latencyNanos - shortLatency) / SHORT_WINDOW;
+        longLatency += (latencyNanos - longLatency) / LONG_WINDOW;
+        if (longLatency / shortLatency > 2) {
+            longLatency *= 0.95; //The load dropped, let the baseline follow it down.
+        }
+        if (callsInFlight < limit / 2) {
+            return; //The limit isn't what limits the calls, so the latency says nothing about it.
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, config.getTolerance() * longLatency / shortLatency));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), newLimit));
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ConcurrencyLimitStatus getStatus() {
+        lock.lock();
+        try {
+            return new ConcurrencyLimitStatus(name, (int) limit, inFlight, queued,
+                    (long) shortLatency / 1000, (long) longLatency / 1000, completedCalls, shedCalls);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package RestaurantApi.restaurantapi.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This class is a thread safe in-memory inverted index over texts, e.g. product descriptions, ranked with BM25.
+ * A term that appears in few texts weighs more than a common one, repetitions count less and less,
+ * and a match in a short text weighs more than the same match in a long one.
+ * @param <V> - the value type.
+ */
+public class Bm25Index<V> {
+
+    private static final double K1 = 1.2; //How fast repetitions of a term stop counting.
+    private static final double B = 0.75; //How much the length of a text matters.
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "in", "of", "on", "or", "the", "to", "with");
+
+    private final Map<String, Map<V, Integer>> postings = new HashMap<>(); //Term -> value -> occurrences of the term in its text.
+    private final Map<V, Integer> lengths = new HashMap<>();
+    private long totalLength;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * The matches of a page of the results, and the number of all the matches.
+     * @param <V> - the value type.
+     */
+    public static class Results<V> {
+        private final List<V> values;
+        private final int total;
+
+        Results(List<V> values, int total) {
+            this.values = values;
+            this.total = total;
+        }
+
+        public List<V> getValues() {
+            return values;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+
+    /**
+     * This method adds the text of a value to the index. Adding a value again does nothing.
+     * @param text - the text, e.g. the product description.
+     * @param value - the value.
+     */
+    public void add(String text, V value) {
+        List<String> terms = tokenize(text);
+        lock.writeLock().lock();
+        try {
+            if (lengths.putIfAbsent(value, terms.size()) != null) {
+                return;
+            }
+            totalLength += terms.size();
+            for (String term : terms) {
+                postings.computeIfAbsent(term, t -> new HashMap<>()).merge(value, 1, Integer::sum);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * This method searches for the values whose text contains any of the terms of the query, best match first.
+     * @param query - the query, e.g. "truffle almonds".
+     * @param offset - the number of the best matches to skip.
+     * @param limit - the maximal number of matches to return.
+     * @return the requested page of the matches.
+     */
+    public Results<V> search(String query, int offset, int limit) {
+        List<String> terms = tokenize(query);
+        lock.readLock().lock();
+        try {
+            Map<V, Double> scores = new HashMap<>();
+            double averageLength = lengths.isEmpty() ? 0 : (double) totalLength / lengths.size();
+            for (String term : Set.copyOf(terms)) {
+                Map<V, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (lengths.size() - posting.size() + 0.5) / (posting.size() + 0.5));
+                for (Map.Entry<V, Integer> occurrences : posting.entrySet()) {
+                    double frequency = occurrences.getValue();
+                    double lengthNorm = 1 - B + B * lengths.get(occurrences.getKey()) / averageLength;
+                    scores.merge(occurrences.getKey(), idf * frequency * (K1 + 1) / (frequency + K1 * lengthNorm), Double::sum);
+                }
+            }
+            return new Results<>(top(scores, offset, limit), scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return lengths.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * This function returns a page of the best scores, keeping only offset + limit scores in a heap instead of sorting all of them.
+     */
+    private static <V> List<V> top(Map<V, Double> scores, int offset, int limit) {
+        int keep = offset + limit;
+        if (limit <= 0 || offset >= scores.size()) {
+            return List.of();
+        }
+        PriorityQueue<Map.Entry<V, Double>> best = new PriorityQueue<>(keep, Map.Entry.comparingByValue());
+        for (Map.Entry<V, Double> score : scores.entrySet()) {
+            if (best.size() < keep) {
+                best.add(score);
+            } else if (score.getValue() > best.peek().getValue()) {
+                best.poll();
+                best.add(score);
+            }
+        }
+        List<Map.Entry<V, Double>> sorted = new ArrayList<>(best);
+        sorted.sort(Map.Entry.<V, Double>comparingByValue(Comparator.reverseOrder()));
+        List<V> page = new ArrayList<>(limit);
+        for (int i = offset; i < sorted.size(); i++) {
+            page.add(sorted.get(i).getKey());
+        }
+        return page;
+    }
+
+    /**
+     * This function splits a text into its terms: normalized words without the stop words, in their singular form.
+     * @param text - the text.
+     * @return the terms.
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        String normalized = FuzzyPrefixIndex.normalize(text);
+        if (normalized.isEmpty()) {
+            return terms;
+        }
+        for (String word : normalized.split(" ")) {
+            if (!STOP_WORDS.contains(word)) {
+                terms.add(singular(word));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * This function removes the plural s of a word, so "almonds" matches "almond".
+     */
+    private static String singular(String word) {
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+}
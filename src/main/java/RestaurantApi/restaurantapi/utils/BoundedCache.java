@@ -0,0 +1,82 @@
+package RestaurantApi.restaurantapi.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * This class is a small thread safe LRU cache.
+ * When the cache is full, the least recently used entry is evicted.
+ * @param <K> - the key type.
+ * @param <V> - the value type.
+ */
+public class BoundedCache<K, V> {
+
+    private final Map<K, V> entries;
+
+    public BoundedCache(int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * This method returns the cached value of the key.
+     * @param key - the key to search for.
+     * @return the cached value, or null if the key isn't cached.
+     */
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * This method caches a value, evicting the least recently used entry if needed.
+     * @param key - the key.
+     * @param value - the value to cache.
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * This method returns the cached value of the key, caching a new value first if the key isn't cached.
+     * @param key - the key.
+     * @param newValue - creates the value of a key that isn't cached.
+     * @return the cached value.
+     */
+    public synchronized V computeIfAbsent(K key, Function<K, V> newValue) {
+        return entries.computeIfAbsent(key, newValue);
+    }
+
+    /**
+     * This method returns a copy of the cached values, from the least recently used.
+     * @return List of the values.
+     */
+    public synchronized List<V> values() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * This method removes the key from the cache.
+     * @param key - the key to remove.
+     */
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * This method removes all the entries from the cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,30 @@
+package RestaurantApi.restaurantapi.utils;
+
+/**
+ * Something that protects the calls to a dependency, e.g. a circuit breaker or a concurrency limit.
+ */
+public interface CallGuard {
+
+    /**
+     * This method runs the call through the guard.
+     * @param call - the call to the dependency.
+     * @return the result of the call.
+     * @throws E - the exception of the call.
+     */
+    <T, E extends Exception> T execute(CheckedSupplier<T, E> call) throws E;
+
+    /**
+     * This method returns a guard that runs the calls through this guard and then through the inner guard.
+     * @param inner - the inner guard.
+     * @return CallGuard.
+     */
+    default CallGuard andThen(CallGuard inner) {
+        CallGuard outer = this;
+        return new CallGuard() {
+            @Override
+            public <T, E extends Exception> T execute(CheckedSupplier<T, E> call) throws E {
+                return outer.execute(() -> inner.execute(call));
+            }
+        };
+    }
+}
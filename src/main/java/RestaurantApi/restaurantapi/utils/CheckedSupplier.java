@@ -0,0 +1,12 @@
+package RestaurantApi.restaurantapi.utils;
+
+/**
+ * A supplier that may throw a checked exception.
+ * @param <T> - the result type.
+ * @param <E> - the exception type.
+ */
+@FunctionalInterface
+public interface CheckedSupplier<T, E extends Exception> {
+
+    T get() throws E;
+}
@@ -0,0 +1,148 @@
+package RestaurantApi.restaurantapi.utils;
+
+import RestaurantApi.restaurantapi.config.ResilienceProperties;
+import RestaurantApi.restaurantapi.exceptions.DependencyExceptions;
+import RestaurantApi.restaurantapi.exceptions.ErrorCode;
+import RestaurantApi.restaurantapi.models.CircuitBreakerStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * This class is a count based circuit breaker.
+ * It opens when too many of the latest calls failed or were slow, rejects calls while it is open,
+ * and after the open duration lets a few probe calls through to decide if it can close again.
+ */
+@Slf4j
+public class CircuitBreaker implements CallGuard {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final ResilienceProperties.Dependency config;
+    private final Predicate<Throwable> isFailure;
+    private final LongSupplier clock;
+
+    private final boolean[] window; //true - the call failed or was slow.
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openUntil;
+    private int probesInFlight;
+    private int successfulProbes;
+
+    private long calls;
+    private long failedCalls;
+    private long slowCalls;
+    private long rejectedCalls;
+
+    public CircuitBreaker(String name, ResilienceProperties.Dependency config, Predicate<Throwable> isFailure, LongSupplier clock) {
+        this.name = name;
+        this.config = config;
+        this.isFailure = isFailure;
+        this.clock = clock;
+        this.window = new boolean[config.getWindowSize()];
+    }
+
+    /**
+     * This method runs the call through the circuit breaker.
+     * @param call - the call to the dependency.
+     * @return the result of the call.
+     * @throws E - the exception of the call.
+     * @throws DependencyExceptions - the circuit is open.
+     */
+    @Override
+    public <T, E extends Exception> T execute(CheckedSupplier<T, E> call) throws E {
+        acquirePermission();
+        long start = clock.getAsLong();
+        try {
+            T result = call.get();
+            onResult(clock.getAsLong() - start, false);
+            return result;
+        } catch (Exception e) {
+            onResult(clock.getAsLong() - start, isFailure.test(e));
+            throw e;
+        }
+    }
+
+    private synchronized void acquirePermission() {
+        if (state == State.OPEN) {
+            long now = clock.getAsLong();
+            if (now < openUntil) {
+                rejectedCalls++;
+                throw new DependencyExceptions(ErrorCode.DEPENDENCY_UNAVAILABLE, DependencyExceptions.CircuitOpenException(name), (openUntil - now) / 1_000_000);
+            }
+            log.info("The circuit breaker of " + name + " is half open, going to probe the dependency.");
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            successfulProbes = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= config.getHalfOpenProbes()) {
+                rejectedCalls++;
+                throw new DependencyExceptions(ErrorCode.DEPENDENCY_UNAVAILABLE, DependencyExceptions.CircuitOpenException(name), config.getOpenDuration().toMillis());
+            }
+            probesInFlight++;
+        }
+        calls++;
+    }
+
+    private synchronized void onResult(long durationNanos, boolean failed) {
+        boolean slow = durationNanos > config.getSlowCallThreshold().toNanos();
+        if (failed) {
+            failedCalls++;
+        }
+        if (slow) {
+            slowCalls++;
+        }
+        boolean bad = failed || slow;
+        if (state == State.HALF_OPEN) {
+            probesInFlight--;
+            if (bad) {
+                open();
+            } else if (++successfulProbes >= config.getHalfOpenProbes()) {
+                log.info("The circuit breaker of " + name + " is closed.");
+                state = State.CLOSED;
+                windowIndex = 0;
+                windowCount = 0;
+                windowFailures = 0;
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        if (windowCount == window.length) {
+            windowFailures -= window[windowIndex] ? 1 : 0;
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = bad;
+        windowFailures += bad ? 1 : 0;
+        windowIndex = (windowIndex + 1) % window.length;
+        if (windowCount >= config.getMinimumCalls() && failureRate() >= config.getFailureRateThreshold()) {
+            open();
+        }
+    }
+
+    private void open() {
+        log.error("The circuit breaker of " + name + " is open.");
+        state = State.OPEN;
+        openUntil = clock.getAsLong() + config.getOpenDuration().toNanos();
+    }
+
+    private int failureRate() {
+        return windowCount == 0 ? 0 : windowFailures * 100 / windowCount;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized CircuitBreakerStatus getStatus() {
+        return new CircuitBreakerStatus(name, state.name(), failureRate(), calls, failedCalls, slowCalls, rejectedCalls);
+    }
+}
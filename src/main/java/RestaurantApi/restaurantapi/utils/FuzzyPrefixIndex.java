@@ -0,0 +1,233 @@
+package RestaurantApi.restaurantapi.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This class is a thread safe in-memory index for search-as-you-type over short keys, e.g. product names.
+ * A trie over every word start of the keys answers prefix queries ("pizz" finds "Margherita Pizza"),
+ * and a bigram index finds the candidates of queries with typos ("piza"),
+ * which are kept when their prefix edit distance to the query is small enough.
+ * Keys are compared without case and accents.
+ * @param <V> - the value type.
+ */
+public class FuzzyPrefixIndex<V> {
+
+    private static final int FUZZY_CANDIDATES_PER_RESULT = 5;
+
+    private final Node<V> root = new Node<>();
+    private final Map<String, Set<V>> valuesByGram = new HashMap<>();
+    private final Map<V, String> keys = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * This method adds a value to the index under a key. Adding a value again does nothing.
+     * @param key - the key, e.g. the product name.
+     * @param value - the value.
+     */
+    public void add(String key, V value) {
+        String normalizedKey = normalize(key);
+        lock.writeLock().lock();
+        try {
+            if (keys.putIfAbsent(value, normalizedKey) != null) {
+                return;
+            }
+            for (int start : wordStarts(normalizedKey)) {
+                Node<V> node = root;
+                for (int i = start; i < normalizedKey.length(); i++) {
+                    node = node.children.computeIfAbsent(normalizedKey.charAt(i), c -> new Node<>());
+                }
+                node.values.add(value);
+            }
+            for (String gram : grams(normalizedKey)) {
+                valuesByGram.computeIfAbsent(gram, g -> new LinkedHashSet<>()).add(value);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * This method searches for the values whose key has a word starting with the query, or almost starting with it.
+     * The exact prefix matches come first, the shortest keys first, followed by the matches with the fewest typos.
+     * @param query - the query, e.g. what the user typed so far.
+     * @param limit - the maximal number of values to return.
+     * @return the matching values, best first.
+     */
+    public List<V> search(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Set<V> results = new LinkedHashSet<>();
+            prefixSearch(normalizedQuery, limit, results);
+            if (results.size() < limit) {
+                fuzzySearch(normalizedQuery, limit, results);
+            }
+            return new ArrayList<>(results);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return keys.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * This function collects the values under the node of the query, level by level so shorter keys come first.
+     */
+    private void prefixSearch(String query, int limit, Set<V> results) {
+        Node<V> node = root;
+        for (int i = 0; i < query.length() && node != null; i++) {
+            node = node.children.get(query.charAt(i));
+        }
+        if (node == null) {
+            return;
+        }
+        Deque<Node<V>> level = new ArrayDeque<>();
+        level.add(node);
+        while (!level.isEmpty() && results.size() < limit) {
+            Node<V> next = level.poll();
+            for (V value : next.values) {
+                results.add(value);
+                if (results.size() == limit) {
+                    return;
+                }
+            }
+            level.addAll(next.children.values());
+        }
+    }
+
+    /**
+     * This function ranks the values that share bigrams with the query and keeps those within the allowed typos.
+     */
+    private void fuzzySearch(String query, int limit, Set<V> results) {
+        Map<V, Integer> sharedGrams = new HashMap<>();
+        for (String gram : grams(query)) {
+            for (V value : valuesByGram.getOrDefault(gram, Set.of())) {
+                sharedGrams.merge(value, 1, Integer::sum);
+            }
+        }
+        int maxEdits = maxEdits(query.length());
+        Map<V, Integer> distances = new LinkedHashMap<>();
+        sharedGrams.entrySet().stream()
+                .filter(candidate -> !results.contains(candidate.getKey()))
+                .sorted(Map.Entry.<V, Integer>comparingByValue().reversed())
+                .limit((long) limit * FUZZY_CANDIDATES_PER_RESULT)
+                .forEach(candidate -> {
+                    int distance = prefixDistance(query, keys.get(candidate.getKey()));
+                    if (distance <= maxEdits) {
+                        distances.put(candidate.getKey(), distance);
+                    }
+                });
+        distances.entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<V, Integer> match) -> match.getValue())
+                        .thenComparing(match -> keys.get(match.getKey()).length()))
+                .limit(limit - results.size())
+                .forEach(match -> results.add(match.getKey()));
+    }
+
+    /**
+     * This function returns the fewest edits (insertions, deletions, substitutions and transpositions)
+     * that turn the query into a prefix of one of the word starts of the key.
+     */
+    static int prefixDistance(String query, String key) {
+        int best = Integer.MAX_VALUE;
+        for (int start : wordStarts(key)) {
+            best = Math.min(best, prefixDistance(query, key, start));
+        }
+        return best;
+    }
+
+    private static int prefixDistance(String query, String key, int start) {
+        int columns = Math.min(key.length() - start, query.length() + maxEdits(query.length())) + 1;
+        int[][] distance = new int[query.length() + 1][columns];
+        for (int j = 0; j < columns; j++) {
+            distance[0][j] = j;
+        }
+        for (int i = 1; i <= query.length(); i++) {
+            distance[i][0] = i;
+            for (int j = 1; j < columns; j++) {
+                int substitution = query.charAt(i - 1) == key.charAt(start + j - 1) ? 0 : 1;
+                distance[i][j] = Math.min(Math.min(distance[i - 1][j] + 1, distance[i][j - 1] + 1),
+                        distance[i - 1][j - 1] + substitution);
+                if (i > 1 && j > 1 && query.charAt(i - 1) == key.charAt(start + j - 2)
+                        && query.charAt(i - 2) == key.charAt(start + j - 1)) {
+                    distance[i][j] = Math.min(distance[i][j], distance[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        int best = Integer.MAX_VALUE;
+        for (int j = 0; j < columns; j++) {
+            best = Math.min(best, distance[query.length()][j]);
+        }
+        return best;
+    }
+
+    /**
+     * This function returns how many typos a query of a length may have: none for one or two letters,
+     * one up to five letters and two for longer queries.
+     */
+    static int maxEdits(int length) {
+        return length <= 2 ? 0 : length <= 5 ? 1 : 2;
+    }
+
+    /**
+     * This function returns the bigrams of the words of a text, with the start of every word marked by a space,
+     * so the first letters of a query weigh like the first letters of the keys.
+     */
+    private static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String word : text.split(" ")) {
+            String marked = " " + word;
+            for (int i = 0; i + 2 <= marked.length(); i++) {
+                grams.add(marked.substring(i, i + 2));
+            }
+        }
+        return grams;
+    }
+
+    private static List<Integer> wordStarts(String text) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) != ' ' && (i == 0 || text.charAt(i - 1) == ' ')) {
+                starts.add(i);
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * This function lowercases a text, removes its accents and replaces everything but letters and digits with single spaces.
+     * @param text - the text.
+     * @return the normalized text.
+     */
+    public static String normalize(String text) {
+        String withoutAccents = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return withoutAccents.toLowerCase().replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static class Node<V> {
+        private final Map<Character, Node<V>> children = new HashMap<>();
+        private final Set<V> values = new LinkedHashSet<>(1);
+    }
+}
@@ -0,0 +1,54 @@
+package RestaurantApi.restaurantapi.utils;
+
+import RestaurantApi.restaurantapi.exceptions.RequestExceptions;
+
+import java.util.regex.Pattern;
+
+/**
+ * This class holds how the locations (tenants) of the deployment are identified.
+ * A request names its location with the X-Tenant-Id header. The requests without it belong to the default location,
+ * whose products and orders are stored without a tenant id, so the data from before the locations stays its data.
+ * In the code the default location is the tenant id null.
+ */
+public final class Tenants {
+
+    public static final String HEADER = "X-Tenant-Id";
+
+    private static final Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private Tenants() {
+    }
+
+    /**
+     * This function checks the tenant id of a request.
+     * @param tenantId - the X-Tenant-Id header, may be null for the default location.
+     * @return the tenant id, or null for the default location.
+     * @throws RequestExceptions - The tenant id isn't 1 to 64 letters, digits, dashes or underscores.
+     */
+    public static String validate(String tenantId) {
+        if (tenantId != null && !TENANT_ID.matcher(tenantId).matches()) {
+            throw new RequestExceptions(RequestExceptions.InvalidTenantException());
+        }
+        return tenantId;
+    }
+
+    /**
+     * This function creates the key of a location in the in-memory maps, which don't take null keys.
+     * @param tenantId - the tenant id, or null for the default location.
+     * @return the key of the location.
+     */
+    public static String key(String tenantId) {
+        return tenantId != null ? tenantId : "";
+    }
+
+    /**
+     * This function creates the key of a value of a location in the shared caches, e.g. a product name,
+     * so the same name in two locations is cached twice. Tenant ids have no colon, so the keys never collide.
+     * @param tenantId - the tenant id, or null for the default location.
+     * @param name - the key of the value within the location.
+     * @return the key of the value.
+     */
+    public static String key(String tenantId, String name) {
+        return key(tenantId) + ':' + name;
+    }
+}
@@ -0,0 +1,49 @@
+package RestaurantApi.restaurantapi.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is a lock-free token bucket.
+ * Instead of counting tokens it keeps the time at which the bucket will be full again,
+ * so taking a token is a single compare-and-set.
+ */
+public class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double tokensPerSecond, int burst, long nowNanos) {
+        this.nanosPerToken = (long) (1_000_000_000L / tokensPerSecond);
+        this.burstNanos = nanosPerToken * burst;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * This method tries to take a token from the bucket.
+     * @param nowNanos - the current time in nanoseconds.
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available.
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + nanosPerToken;
+            long waitNanos = next - nowNanos - burstNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * This method checks if the bucket is full, i.e. the client didn't use it lately.
+     * @param nowNanos - the current time in nanoseconds.
+     * @return True if the bucket is full and false otherwise.
+     */
+    public boolean isIdle(long nowNanos) {
+        return fullAt.get() <= nowNanos;
+    }
+}
@@ -0,0 +1,73 @@
+package RestaurantApi.restaurantapi.benchmarks;
+
+import RestaurantApi.restaurantapi.exceptions.ErrorCode;
+import RestaurantApi.restaurantapi.exceptions.ProductExceptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures a workload of product lookups that miss, e.g. bots asking for products that don't exist:
+ * the miss is thrown at the bottom of a call stack and answered at its top, like a request through the filters,
+ * the controller and the service. The stackless domain exception is compared with an exception that fills in its stack trace.
+ * Run with: mvn -Pbenchmark verify -Dbenchmark=Exception
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionBenchmark {
+
+    @Param({"10", "100"})
+    public int stackDepth;
+
+    @Benchmark
+    public String stacklessMiss() {
+        try {
+            return lookup(stackDepth, "Polenta", true);
+        } catch (ProductExceptions e) {
+            return e.getCode().name();
+        }
+    }
+
+    @Benchmark
+    public String stackTraceMiss() {
+        try {
+            return lookup(stackDepth, "Polenta", false);
+        } catch (ProductExceptions e) {
+            return e.getCode().name();
+        } catch (StackTraceException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String lookup(int depth, String name, boolean stackless) throws ProductExceptions {
+        if (depth > 0) {
+            return lookup(depth - 1, name, stackless);
+        }
+        if (stackless) {
+            throw new ProductExceptions(ErrorCode.PRODUCT_NOT_FOUND, ProductExceptions.NotFoundException(name));
+        }
+        throw new StackTraceException(ProductExceptions.NotFoundException(name));
+    }
+
+    /**
+     * The product exception as it was before: it fills in its stack trace.
+     */
+    private static class StackTraceException extends RuntimeException {
+        StackTraceException(String message) {
+            super(message);
+        }
+    }
+}
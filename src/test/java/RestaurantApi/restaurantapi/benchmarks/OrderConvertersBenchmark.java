@@ -0,0 +1,119 @@
+package RestaurantApi.restaurantapi.benchmarks;
+
+import RestaurantApi.restaurantapi.config.MongoConfig;
+import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.OrderLine;
+import RestaurantApi.restaurantapi.models.OrderStatus;
+import RestaurantApi.restaurantapi.models.ProductDTO;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark compares the mapping converter with reflection and with the hand written converters of MongoConfig,
+ * reading a listing of orders and a catalog of products from their documents, and writing the orders.
+ * It needs no Mongo server: mvn -Pbenchmark verify -Dbenchmark=OrderConverters
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderConvertersBenchmark {
+
+    private static final int ORDERS = 1000;
+    private static final int PRODUCTS = 100;
+
+    @Param({"REFLECTION", "CONVERTERS"})
+    public String converter;
+
+    private MappingMongoConverter mongoConverter;
+    private final List<OrderDTO> orders = new ArrayList<>();
+    private final List<Document> orderDocuments = new ArrayList<>();
+    private final List<Document> productDocuments = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        MongoCustomConversions conversions = "CONVERTERS".equals(converter) ? new MongoConfig().mongoCustomConversions()
+                : new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        mongoConverter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        mongoConverter.setCustomConversions(conversions);
+        mongoConverter.afterPropertiesSet();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < ORDERS; i++) {
+            Map<String, Integer> products = new Hashtable<>(Map.of("Polenta", 2, "Tiramisu", 1, "Salad " + i % 20, 1));
+            List<OrderLine> lines = List.of(new OrderLine("Polenta", 2, 60, 120), new OrderLine("Tiramisu", 1, 45, 45),
+                    new OrderLine("Salad " + i % 20, 1, 52, 52));
+            Date date = new Date(start - i * 60000L);
+            OrderDTO order = new OrderDTO(new ObjectId().toHexString(), "downtown", products, date, 217, 3, lines,
+                    "key-" + i, OrderStatus.DONE, date);
+            orders.add(order);
+            orderDocuments.add(write(order));
+        }
+        for (int i = 0; i < PRODUCTS; i++) {
+            ProductDTO product = new ProductDTO("Product " + i, "Roasted salmon on pumpkin cream, potato and almonds",
+                    "https://example.com/" + i + ".jpg", 60 + i);
+            product.setId(new ObjectId().toHexString());
+            product.setTenantId("downtown");
+            productDocuments.add(write(product));
+        }
+    }
+
+    private Document write(Object value) {
+        Document document = new Document();
+        mongoConverter.write(value, document);
+        return document;
+    }
+
+    @Benchmark
+    public List<OrderDTO> readOrders() {
+        List<OrderDTO> read = new ArrayList<>(orderDocuments.size());
+        for (Document document : orderDocuments) {
+            read.add(mongoConverter.read(OrderDTO.class, document));
+        }
+        return read;
+    }
+
+    @Benchmark
+    public List<Document> writeOrders() {
+        List<Document> written = new ArrayList<>(orders.size());
+        for (OrderDTO order : orders) {
+            written.add(write(order));
+        }
+        return written;
+    }
+
+    @Benchmark
+    public List<ProductDTO> readProducts() {
+        List<ProductDTO> read = new ArrayList<>(productDocuments.size());
+        for (Document document : productDocuments) {
+            read.add(mongoConverter.read(ProductDTO.class, document));
+        }
+        return read;
+    }
+}
@@ -0,0 +1,84 @@
+package RestaurantApi.restaurantapi.benchmarks;
+
+import RestaurantApi.restaurantapi.config.ResilienceProperties;
+import RestaurantApi.restaurantapi.exceptions.ProductExceptions;
+import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.OrderQuote;
+import RestaurantApi.restaurantapi.models.ProductDTO;
+import RestaurantApi.restaurantapi.repositories.OrderRepository;
+import RestaurantApi.restaurantapi.repositories.ProductRepository;
+import RestaurantApi.restaurantapi.services.CatalogEventBus;
+import RestaurantApi.restaurantapi.services.DependencyService;
+import RestaurantApi.restaurantapi.services.MenuService;
+import RestaurantApi.restaurantapi.services.InventoryService;
+import RestaurantApi.restaurantapi.services.OrderFeedService;
+import RestaurantApi.restaurantapi.services.OrderService;
+import RestaurantApi.restaurantapi.services.ProductCacheService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures quoting a basket, as the ordering app does on every change of the basket,
+ * with a menu of 500 products loaded in memory.
+ * Run with: mvn -Pbenchmark verify -Dbenchmark=OrderQuote
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderQuoteBenchmark {
+
+    private static final int MENU_SIZE = 500;
+
+    @Param({"3", "20"})
+    public int basketLines;
+
+    private OrderService orderService;
+    private OrderDTO basket;
+
+    @Setup
+    public void setUp() {
+        List<ProductDTO> products = new ArrayList<>();
+        for (int i = 0; i < MENU_SIZE; i++) {
+            products.add(new ProductDTO("Product " + i, "Description " + i, "https://example.com/" + i + ".jpg", 10 + i % 90));
+        }
+        ProductRepository productRepository = Mockito.mock(ProductRepository.class);
+        Mockito.when(productRepository.findAll()).thenReturn(products);
+        DependencyService dependencies = new DependencyService(new ResilienceProperties());
+        CatalogEventBus catalogEventBus = Mockito.mock(CatalogEventBus.class);
+        MenuService menuService = new MenuService(productRepository, dependencies, catalogEventBus);
+        menuService.reload();
+        orderService = new OrderService(Mockito.mock(OrderRepository.class),
+                new ProductCacheService(productRepository, dependencies, catalogEventBus), menuService, dependencies,
+                Mockito.mock(OrderFeedService.class), Mockito.mock(InventoryService.class));
+
+        Map<String, Integer> productsOrdered = new LinkedHashMap<>();
+        for (int i = 0; i < basketLines; i++) {
+            productsOrdered.put("Product " + (i * 7 % MENU_SIZE), 1 + i % 3);
+        }
+        basket = new OrderDTO(null, productsOrdered);
+    }
+
+    @Benchmark
+    public OrderQuote quote() throws ProductExceptions {
+        return orderService.quoteOrder(null, basket);
+    }
+}
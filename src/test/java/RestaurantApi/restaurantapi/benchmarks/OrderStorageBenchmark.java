@@ -0,0 +1,111 @@
+package RestaurantApi.restaurantapi.benchmarks;
+
+import RestaurantApi.restaurantapi.config.OrderArchiveProperties;
+import RestaurantApi.restaurantapi.config.OrderShardsProperties;
+import RestaurantApi.restaurantapi.config.OrderStorageProperties;
+import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.OrderSummary;
+import RestaurantApi.restaurantapi.repositories.OrderRepositoryCustomImpl;
+import RestaurantApi.restaurantapi.repositories.OrderShards;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark compares reading the orders of the last day when every order is a document
+ * and when the orders of every hour are a bucket, from one shard and fanned out over several shards.
+ * The shards are databases of the same server, so the fan-out shows its overhead rather than the gain of more clusters.
+ * It needs a Mongo server, by default on localhost: mvn -Pbenchmark verify -Dbenchmark=OrderStorage
+ * Another server is set with the BENCHMARK_MONGODB_URI environment variable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderStorageBenchmark {
+
+    private static final long HOUR = 60 * 60 * 1000;
+    private static final int HOURS = 48;
+
+    @Param({"DOCUMENTS", "BUCKETS"})
+    public OrderStorageProperties.Mode mode;
+
+    @Param({"100", "1000"})
+    public int ordersPerHour;
+
+    @Param({"1", "4"})
+    public int shardCount;
+
+    private MongoClient mongoClient;
+    private OrderShards shards;
+    private OrderRepositoryCustomImpl orderRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mongoClient = MongoClients.create(System.getenv().getOrDefault("BENCHMARK_MONGODB_URI", "mongodb://localhost:27017"));
+        List<OrderShards.Shard> shardList = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            MongoTemplate mongoTemplate = new MongoTemplate(mongoClient, "orders_benchmark_" + i);
+            mongoTemplate.getDb().drop();
+            mongoTemplate.indexOps("orders").ensureIndex(new Index("tenantId", Sort.Direction.ASC).on("date", Sort.Direction.ASC));
+            shardList.add(new OrderShards.Shard(mongoTemplate, mongoTemplate));
+        }
+        shards = new OrderShards(shardList, OrderShardsProperties.Key.ORDER, shardCount, List.of());
+        OrderStorageProperties storageProperties = new OrderStorageProperties();
+        storageProperties.setMode(mode);
+        orderRepository = new OrderRepositoryCustomImpl(shards, new OrderArchiveProperties(), storageProperties);
+        orderRepository.createIndexes();
+
+        long start = System.currentTimeMillis() - HOURS * HOUR;
+        for (int hour = 0; hour < HOURS; hour++) {
+            for (int i = 0; i < ordersPerHour; i++) {
+                OrderDTO order = new OrderDTO(null, Map.of("Margherita Pizza", 2, "Polenta", 1),
+                        new Date(start + hour * HOUR + i * (HOUR / ordersPerHour)));
+                order.setPrice(126);
+                orderRepository.insertOrder(order);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        shards.close();
+        for (int i = 0; i < shardCount; i++) {
+            mongoClient.getDatabase("orders_benchmark_" + i).drop();
+        }
+        mongoClient.close();
+    }
+
+    @Benchmark
+    public List<OrderDTO> ordersOfTheLastDay() {
+        return orderRepository.findOrdersSince(null, new Date(System.currentTimeMillis() - 24 * HOUR));
+    }
+
+    @Benchmark
+    public OrderSummary summaryOfTheLastDay() {
+        return orderRepository.summarize(null, new Date(System.currentTimeMillis() - 24 * HOUR), new Date());
+    }
+}
@@ -0,0 +1,110 @@
+package RestaurantApi.restaurantapi.benchmarks;
+
+import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.OrderLine;
+import RestaurantApi.restaurantapi.models.OrderStatus;
+import RestaurantApi.restaurantapi.models.ProductDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark compares JSON with the binary formats of MessageFormatsConfig, encoding and decoding a listing of orders
+ * and a catalog of products with the object mapper of the application. The sizes of the payloads are printed at setup.
+ * It needs no Mongo server: mvn -Pbenchmark verify -Dbenchmark=PayloadFormats
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadFormatsBenchmark {
+
+    private static final int ORDERS = 1000;
+    private static final int PRODUCTS = 100;
+    private static final TypeReference<List<OrderDTO>> ORDER_LIST = new TypeReference<>() {};
+    private static final TypeReference<List<ProductDTO>> PRODUCT_LIST = new TypeReference<>() {};
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private final List<OrderDTO> orders = new ArrayList<>();
+    private final List<ProductDTO> products = new ArrayList<>();
+    private byte[] ordersPayload;
+    private byte[] productsPayload;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "CBOR" -> new CBORFactory();
+            case "SMILE" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        objectMapper = new Jackson2ObjectMapperBuilder().factory(factory).build();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < ORDERS; i++) {
+            Map<String, Integer> productsOrdered = new Hashtable<>(Map.of("Polenta", 2, "Tiramisu", 1, "Salad " + i % 20, 1));
+            List<OrderLine> lines = List.of(new OrderLine("Polenta", 2, 60, 120), new OrderLine("Tiramisu", 1, 45, 45),
+                    new OrderLine("Salad " + i % 20, 1, 52, 52));
+            Date date = new Date(start - i * 60000L);
+            orders.add(new OrderDTO(new ObjectId().toHexString(), "downtown", productsOrdered, date, 217, 3, lines,
+                    "key-" + i, OrderStatus.DONE, date));
+        }
+        for (int i = 0; i < PRODUCTS; i++) {
+            ProductDTO product = new ProductDTO("Product " + i, "Roasted salmon on pumpkin cream, potato and almonds",
+                    "https://example.com/" + i + ".jpg", 60 + i);
+            product.setId(new ObjectId().toHexString());
+            product.setTenantId("downtown");
+            products.add(product);
+        }
+        ordersPayload = objectMapper.writeValueAsBytes(orders);
+        productsPayload = objectMapper.writeValueAsBytes(products);
+        System.out.printf("%n%s payloads: %d orders in %d bytes, %d products in %d bytes%n",
+                format, ORDERS, ordersPayload.length, PRODUCTS, productsPayload.length);
+    }
+
+    @Benchmark
+    public byte[] encodeOrders() throws IOException {
+        return objectMapper.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public List<OrderDTO> decodeOrders() throws IOException {
+        return objectMapper.readValue(ordersPayload, ORDER_LIST);
+    }
+
+    @Benchmark
+    public byte[] encodeProducts() throws IOException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public List<ProductDTO> decodeProducts() throws IOException {
+        return objectMapper.readValue(productsPayload, PRODUCT_LIST);
+    }
+}
@@ -0,0 +1,82 @@
+package RestaurantApi.restaurantapi.benchmarks;
+
+import RestaurantApi.restaurantapi.utils.Bm25Index;
+import RestaurantApi.restaurantapi.utils.FuzzyPrefixIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the product searches over the catalog sizes of one location up to a large multi-location menu.
+ * The products are generated from a vocabulary of dishes and ingredients, so the words repeat like in a real menu.
+ * Run with: mvn -Pbenchmark verify -Dbenchmark=ProductSearch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final List<String> DISHES = List.of("pizza", "pasta", "risotto", "salad", "burger", "polenta", "salmon",
+            "tagliatelle", "gnocchi", "lasagna", "focaccia", "carpaccio", "tiramisu", "panna cotta", "bruschetta", "soup");
+    private static final List<String> INGREDIENTS = List.of("tomato", "mozzarella", "basil", "truffle", "almonds", "parmesan",
+            "mushrooms", "asparagus", "pumpkin", "potato", "cream", "garlic", "olive oil", "spinach", "ricotta", "pesto",
+            "anchovies", "capers", "lemon", "chili", "walnuts", "pistachio", "gorgonzola", "prosciutto", "arugula", "eggplant");
+
+    @Param({"100", "1000", "10000"})
+    public int catalogSize;
+
+    private FuzzyPrefixIndex<Integer> nameIndex;
+    private Bm25Index<Integer> descriptionIndex;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        nameIndex = new FuzzyPrefixIndex<>();
+        descriptionIndex = new Bm25Index<>();
+        for (int i = 0; i < catalogSize; i++) {
+            String name = INGREDIENTS.get(random.nextInt(INGREDIENTS.size())) + " " + DISHES.get(random.nextInt(DISHES.size())) + " " + i;
+            StringJoiner description = new StringJoiner(", ");
+            for (int j = 0; j < 6 + random.nextInt(10); j++) {
+                description.add(INGREDIENTS.get(random.nextInt(INGREDIENTS.size())));
+            }
+            nameIndex.add(name, i);
+            descriptionIndex.add(description.toString(), i);
+        }
+    }
+
+    @Benchmark
+    public List<Integer> namePrefix() {
+        return nameIndex.search("tagli", 10);
+    }
+
+    @Benchmark
+    public List<Integer> nameWithTypo() {
+        return nameIndex.search("gnochi", 10);
+    }
+
+    @Benchmark
+    public Bm25Index.Results<Integer> descriptionFirstPage() {
+        return descriptionIndex.search("truffle almonds", 0, 10);
+    }
+
+    @Benchmark
+    public Bm25Index.Results<Integer> descriptionFifthPage() {
+        return descriptionIndex.search("truffle almonds", 40, 10);
+    }
+}
@@ -0,0 +1,108 @@
+package RestaurantApi.restaurantapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the time from starting the application to its first successful request,
+ * like a node the autoscaler adds at rush hour: with the default profile, with the prod profile
+ * and with the prod profile and the CDS archive of the appcds build profile.
+ * The request searches the products in memory, so it doesn't wait for the database.
+ * The default profile creates the indexes before the start, so it needs a Mongo server, by default on localhost.
+ * Another server is set with the BENCHMARK_MONGODB_URI environment variable.
+ * Run with: mvn -Pappcds,benchmark verify -Dbenchmark=Startup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final File TARGET = new File("target");
+    private static final String JAR = "jones_exercise-0.0.1-SNAPSHOT.jar";
+    private static final String CDS_JAR = "jones_exercise-0.0.1-SNAPSHOT-cds.jar";
+    private static final String CDS_ARCHIVE = "jones_exercise.jsa";
+    private static final int PORT = 18181;
+    private static final long START_TIMEOUT_MILLIS = 120_000;
+
+    public enum Variant {DEFAULT, PROD, PROD_CDS}
+
+    @Param({"DEFAULT", "PROD", "PROD_CDS"})
+    public Variant variant;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final HttpRequest firstRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + PORT + "/products/search?q=pizza")).build();
+    private Process process;
+
+    @Benchmark
+    public int timeToFirstRequest() throws IOException, InterruptedException {
+        process = new ProcessBuilder(command())
+                .directory(TARGET)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        long deadline = System.currentTimeMillis() + START_TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The application exited with " + process.exitValue() + " before answering.");
+            }
+            try {
+                HttpResponse<Void> response = client.send(firstRequest, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return response.statusCode();
+                }
+            } catch (IOException notListeningYet) {
+                //The server isn't listening yet.
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("The application didn't answer within " + START_TIMEOUT_MILLIS + " ms.");
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private List<String> command() {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        if (variant == Variant.PROD_CDS) {
+            command.add("-XX:SharedArchiveFile=" + CDS_ARCHIVE);
+            command.add("-Xlog:cds=off");
+        }
+        command.add("-jar");
+        command.add(variant == Variant.PROD_CDS ? CDS_JAR : JAR);
+        if (variant != Variant.DEFAULT) {
+            command.add("--spring.profiles.active=prod");
+        }
+        command.add("--server.port=" + PORT);
+        command.add("--spring.data.mongodb.uri=" + System.getenv().getOrDefault("BENCHMARK_MONGODB_URI", "mongodb://localhost:27017/startup_benchmark"));
+        return command;
+    }
+}
@@ -0,0 +1,48 @@
+package RestaurantApi.restaurantapi.config;
+
+import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.ProductDTO;
+import com.mongodb.WriteConcern;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoAction;
+import org.springframework.data.mongodb.core.MongoActionOperation;
+import org.springframework.data.mongodb.core.WriteConcernResolver;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * This class contains all the tests for MongoConfig class.
+ */
+@Slf4j
+class MongoConfigTest {
+
+    @Test
+    @DisplayName("Should resolve the write concern of every type of write.")
+    void writeConcernResolver() {
+        log.info("Entered writeConcernResolver test in MongoConfigTest class.");
+
+        // Given:
+        MongoClientProperties.WriteConcerns writeConcerns = new MongoClientProperties.WriteConcerns();
+        WriteConcernResolver resolver = MongoConfig.writeConcernResolver(writeConcerns);
+
+        // When:
+        WriteConcern orderSave = resolver.resolve(action(MongoActionOperation.SAVE, "orders", OrderDTO.class));
+        WriteConcern productInsert = resolver.resolve(action(MongoActionOperation.INSERT, "products", ProductDTO.class));
+        WriteConcern productsImport = resolver.resolve(action(MongoActionOperation.INSERT_LIST, "products", ProductDTO.class));
+        WriteConcern otherWrite = resolver.resolve(action(MongoActionOperation.UPDATE, "other", Document.class));
+
+        // Then:
+        log.info("The test checks if orders and products are written with majority and imports with w1.");
+        assertThat(orderSave).isEqualTo(WriteConcern.MAJORITY);
+        assertThat(productInsert).isEqualTo(WriteConcern.MAJORITY);
+        assertThat(productsImport).isEqualTo(WriteConcern.W1);
+        assertThat(otherWrite).isEqualTo(WriteConcern.ACKNOWLEDGED);
+    }
+
+    private MongoAction action(MongoActionOperation operation, String collectionName, Class<?> entityType) {
+        return new MongoAction(WriteConcern.ACKNOWLEDGED, operation, collectionName, entityType, new Document(), null);
+    }
+}
@@ -0,0 +1,56 @@
+package RestaurantApi.restaurantapi.config;
+
+import RestaurantApi.restaurantapi.services.RateLimitService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+import org.springframework.web.util.UrlPathHelper;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * This class contains all the tests for WebConfig class.
+ */
+@Slf4j
+class WebConfigTest {
+
+    @Test
+    @DisplayName("Should check the rate limit on every write endpoint of the orders and the products, not on the quotes.")
+    void addInterceptors() {
+        log.info("Entered addInterceptors test in WebConfigTest class.");
+
+        // Given:
+        Registry registry = new Registry();
+
+        // When:
+        new WebConfig(new RateLimitInterceptor(new RateLimitService(new RateLimitProperties()))).addInterceptors(registry);
+
+        // Then:
+        log.info("The test checks the paths the rate limit interceptor is mapped to.");
+        MappedInterceptor interceptor = (MappedInterceptor) registry.interceptor();
+        assertThat(isMapped(interceptor, "POST", "/orders")).isTrue();
+        assertThat(isMapped(interceptor, "PUT", "/orders/1/status")).isTrue();
+        assertThat(isMapped(interceptor, "POST", "/products")).isTrue();
+        assertThat(isMapped(interceptor, "POST", "/products/Polenta/stock")).isTrue();
+        assertThat(isMapped(interceptor, "POST", "/orders/quote")).isFalse();
+    }
+
+    private static boolean isMapped(MappedInterceptor interceptor, String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        UrlPathHelper.defaultInstance.resolveAndCacheLookupPath(request);
+        return interceptor.matches(request);
+    }
+
+    /**
+     * The registry of the test, which exposes the registered interceptor.
+     */
+    private static class Registry extends InterceptorRegistry {
+
+        Object interceptor() {
+            return getInterceptors().get(0);
+        }
+    }
+}
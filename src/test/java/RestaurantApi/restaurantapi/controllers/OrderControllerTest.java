@@ -1,11 +1,26 @@
 package RestaurantApi.restaurantapi.controllers;
 
 
+import RestaurantApi.restaurantapi.config.MessageFormatsConfig;
+import RestaurantApi.restaurantapi.config.RateLimitInterceptor;
+import RestaurantApi.restaurantapi.config.RateLimitProperties;
+import RestaurantApi.restaurantapi.exceptions.ErrorCode;
+import RestaurantApi.restaurantapi.exceptions.OrderExceptions;
+import RestaurantApi.restaurantapi.exceptions.ProductExceptions;
+import RestaurantApi.restaurantapi.models.ErrorResponse;
 import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.OrderQuote;
+import RestaurantApi.restaurantapi.models.OrderStatus;
 import RestaurantApi.restaurantapi.models.ProductDTO;
 import RestaurantApi.restaurantapi.repositories.OrderRepository;
 import RestaurantApi.restaurantapi.repositories.ProductRepository;
+import RestaurantApi.restaurantapi.services.OrderFeedService;
 import RestaurantApi.restaurantapi.services.OrderService;
+import RestaurantApi.restaurantapi.services.RateLimitService;
+import RestaurantApi.restaurantapi.utils.Tenants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,15 +32,25 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.text.ParseException;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static RestaurantApi.restaurantapi.utils.Utils.*;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 
 @Slf4j
 @ExtendWith(MockitoExtension.class)
@@ -46,13 +71,13 @@ class OrderControllerTest {
 
     @BeforeEach
     public void setUp(){
-        orderService = new OrderService(orderRepository, productRepository);
-        orderController = new OrderController(orderService);
+        orderService = createOrderService(orderRepository, productRepository);
+        orderController = new OrderController(orderService, Mockito.mock(OrderFeedService.class));
     }
 
     @Test
     @DisplayName("Should create a new order.")
-    void createOrder() {
+    void createOrder() throws OrderExceptions, ProductExceptions {
         log.info("Entered createOrder function test in OrderControllerTest class.");
 
         // Given:
@@ -62,14 +87,14 @@ class OrderControllerTest {
         Mockito.when(productRepository.saveAll(any(List.class))).thenReturn(products);
         log.info("Going to save products for the test.");
         for (ProductDTO product:products) {
-            Mockito.when(productRepository.findProductByName(product.getName())).thenReturn(Optional.of(product));
+            Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
         }
 
         log.info("Create order for the test.");
         OrderDTO order = createOrderData();
 
         // When:
-        ResponseEntity<?> responseEntity = orderController.createOrder(order);
+        ResponseEntity<?> responseEntity = orderController.createOrder(null, order, null);
 
         // Then:
         log.info("The test checks if the status code value is 200.");
@@ -78,6 +103,158 @@ class OrderControllerTest {
         assertThat(responseEntity.getBody()).isEqualTo(order);
     }
 
+    @Test
+    @DisplayName("Should return the original order when the request is retried with the same idempotency key.")
+    void createOrderWithIdempotencyKeyReplay() throws OrderExceptions, ProductExceptions {
+        log.info("Entered createOrderWithIdempotencyKeyReplay function test in OrderControllerTest class.");
+
+        // Given:
+        log.info("Going to create products for the test.");
+        List<ProductDTO> products = createProducts();
+        for (ProductDTO product:products) {
+            Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
+        }
+        log.info("Create order for the test.");
+        OrderDTO order = createOrderData();
+        ResponseEntity<?> firstResponse = orderController.createOrder(null, order, "tablet-7-retry-1");
+
+        // When:
+        log.info("Retry the same request with the same idempotency key.");
+        ResponseEntity<?> responseEntity = orderController.createOrder(null, createOrderData(), "tablet-7-retry-1");
+
+        // Then:
+        log.info("The test checks if the status code value is 200.");
+        assertThat(responseEntity.getStatusCodeValue()).isEqualTo(200);
+        log.info("The test checks if the body of the retry is the original order.");
+        assertThat(responseEntity.getBody()).isSameAs(firstResponse.getBody());
+        log.info("The test checks if the order was saved only once.");
+        Mockito.verify(orderRepository, Mockito.times(1)).insertOrder(any(OrderDTO.class));
+    }
+
+    @Test
+    @DisplayName("Should reject an order with an invalid amount before reading the products.")
+    void createOrderWithInvalidAmount() throws Exception {
+        log.info("Entered createOrderWithInvalidAmount function test in OrderControllerTest class.");
+
+        // Given:
+        log.info("Going to create a request with a negative amount of a product.");
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(orderController)
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+        String body = "{\"productsOrdered\": {\"Margherita Pizza\": -3}}";
+
+        // When:
+        MvcResult result = mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(body)).andReturn();
+
+        // Then:
+        log.info("The test checks if the status code value is 422.");
+        assertThat(result.getResponse().getStatus()).isEqualTo(422);
+        assertThat(result.getResponse().getContentAsString()).contains("CONSTRAINT_VIOLATION");
+        log.info("The test checks that the database wasn't called.");
+        Mockito.verifyNoInteractions(productRepository, orderRepository);
+    }
+
+    @Test
+    @DisplayName("Should answer a client over its rate limit with an error response and when to retry.")
+    void createOrderOverTheRateLimit() throws Exception {
+        log.info("Entered createOrderOverTheRateLimit function test in OrderControllerTest class.");
+
+        // Given:
+        log.info("Going to allow a single order of the client.");
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setOrders(new RateLimitProperties.Limit(1, 1));
+        properties.setClientLocations(1);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(orderController)
+                .setMessageConverters(createMessageConverters())
+                .setControllerAdvice(new RestExceptionHandler())
+                .addInterceptors(new RateLimitInterceptor(new RateLimitService(properties)))
+                .build();
+        String body = "{\"productsOrdered\": {\"Margherita Pizza\": -3}}";
+        mockMvc.perform(post("/orders").servletPath("/orders").contentType(MediaType.APPLICATION_JSON).content(body)).andReturn();
+
+        // When:
+        MvcResult result = mockMvc.perform(post("/orders").servletPath("/orders").contentType(MediaType.APPLICATION_JSON).content(body)
+                .accept(MediaType.APPLICATION_CBOR)).andReturn();
+
+        // Then:
+        log.info("The test checks if the status code value is 429, with a Retry-After header and an error response in CBOR.");
+        assertThat(result.getResponse().getStatus()).isEqualTo(429);
+        assertThat(result.getResponse().getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(result.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR_VALUE);
+        ErrorResponse error = new ObjectMapper(new CBORFactory()).readValue(result.getResponse().getContentAsByteArray(), ErrorResponse.class);
+        assertThat(error.getCode()).isEqualTo(ErrorCode.RATE_LIMITED);
+    }
+
+    @Test
+    @DisplayName("Should reject a tenant id that isn't one, before any database work.")
+    void createOrderWithInvalidTenant() throws Exception {
+        log.info("Entered createOrderWithInvalidTenant function test in OrderControllerTest class.");
+
+        // Given:
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(orderController)
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+        String body = "{\"productsOrdered\": {\"Margherita Pizza\": 3}}";
+
+        // When:
+        MvcResult result = mockMvc.perform(post("/orders").header(Tenants.HEADER, "downtown/../uptown")
+                .contentType(MediaType.APPLICATION_JSON).content(body)).andReturn();
+
+        // Then:
+        log.info("The test checks if the status code value is 400.");
+        assertThat(result.getResponse().getStatus()).isEqualTo(400);
+        assertThat(result.getResponse().getContentAsString()).contains("INVALID_REQUEST");
+        Mockito.verifyNoInteractions(productRepository, orderRepository);
+    }
+
+    @Test
+    @DisplayName("Should answer a conflict when an order can't move to the requested status.")
+    void changeOrderStatusConflict() throws Exception {
+        log.info("Entered changeOrderStatusConflict function test in OrderControllerTest class.");
+
+        // Given:
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(orderController)
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+        OrderDTO doneOrder = createOrderData();
+        doneOrder.setStatus(OrderStatus.DONE);
+        Mockito.when(orderRepository.changeStatus(any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+        Mockito.when(orderRepository.findOrder(null, "632a132b8ff1862a12373ed2")).thenReturn(Optional.of(doneOrder));
+
+        // When:
+        MvcResult result = mockMvc.perform(put("/orders/632a132b8ff1862a12373ed2/status")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"status\": \"IN_PROGRESS\"}")).andReturn();
+
+        // Then:
+        log.info("The test checks if the status code value is 409.");
+        assertThat(result.getResponse().getStatus()).isEqualTo(409);
+        assertThat(result.getResponse().getContentAsString()).contains("ORDER_STATUS_CONFLICT");
+    }
+
+    @Test
+    @DisplayName("Should quote an order without saving it.")
+    void quoteOrder() throws ProductExceptions {
+        log.info("Entered quoteOrder function test in OrderControllerTest class.");
+
+        // Given:
+        log.info("Going to create products for the test.");
+        for (ProductDTO product:createProducts()) {
+            Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
+        }
+        OrderDTO order = createOrderData();
+
+        // When:
+        ResponseEntity<?> responseEntity = orderController.quoteOrder(null, order);
+
+        // Then:
+        log.info("The test checks if the status code value is 200, the total and that nothing was saved.");
+        assertThat(responseEntity.getStatusCodeValue()).isEqualTo(200);
+        OrderQuote quote = (OrderQuote) responseEntity.getBody();
+        assertThat(quote.getTotal()).isEqualTo(59 * 2 + 48);
+        assertThat(quote.isMeetsMinimum()).isTrue();
+        Mockito.verifyNoInteractions(orderRepository);
+    }
+
     @Test
     @DisplayName("Should get all the orders from the database.")
     void getAllOrders() {
@@ -95,9 +272,9 @@ class OrderControllerTest {
         Mockito.when(orderRepository.saveAll(any(List.class))).thenReturn(orders);
 
         // When:
-        log.info("Making the findAll function to return the orders we saved.");
-        Mockito.when(orderRepository.findAll()).thenReturn(orders);
-        ResponseEntity<?> responseEntity = orderController.getAllOrders();
+        log.info("Making the findAllForListing function to return the orders we saved.");
+        Mockito.when(orderRepository.findAllForListing(null)).thenReturn(orders);
+        ResponseEntity<?> responseEntity = orderController.getAllOrders(null, null, null, null);
 
         // Then:
         log.info("The test checks if the status code value is 200.");
@@ -125,9 +302,9 @@ class OrderControllerTest {
         // When:
         log.info("Going to remove the order that didn't create in the last 24 hours.");
         orders.remove(orders.get(0));
-        log.info("Making the findAll function to return the orders we saved.");
-        Mockito.when(orderRepository.findAll()).thenReturn(orders);
-        ResponseEntity<?> responseEntity = orderController.getAllOrdersFromTheLastDay();
+        log.info("Making the findOrdersSince function to return the orders we saved.");
+        Mockito.when(orderRepository.findOrdersSince(isNull(), any(Date.class))).thenReturn(orders);
+        ResponseEntity<?> responseEntity = orderController.getAllOrdersFromTheLastDay(null);
 
         // Then:
         log.info("The test checks if the status code value is 200.");
@@ -137,4 +314,59 @@ class OrderControllerTest {
 
     }
 
+
+    @Test
+    @DisplayName("Should create a new order sent in CBOR and answer it in CBOR.")
+    void createOrderInCbor() throws Exception {
+        log.info("Entered createOrderInCbor function test in OrderControllerTest class.");
+
+        // Given:
+        for (ProductDTO product : createProducts()) {
+            Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
+        }
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(orderController)
+                .setMessageConverters(createMessageConverters())
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        byte[] body = cbor.writeValueAsBytes(Map.of("productsOrdered", Map.of("Polenta", 2)));
+
+        // When:
+        MvcResult result = mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_CBOR).accept(MediaType.APPLICATION_CBOR)
+                .content(body)).andReturn();
+
+        // Then:
+        log.info("The test checks if the order was created and answered in CBOR.");
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR_VALUE);
+        OrderDTO order = cbor.readValue(result.getResponse().getContentAsByteArray(), OrderDTO.class);
+        assertThat(order.getPrice()).isEqualTo(96);
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.NEW);
+    }
+
+    @Test
+    @DisplayName("Should validate an order sent in Smile like in JSON, and answer the error in Smile.")
+    void createOrderWithInvalidAmountInSmile() throws Exception {
+        log.info("Entered createOrderWithInvalidAmountInSmile function test in OrderControllerTest class.");
+
+        // Given:
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(orderController)
+                .setMessageConverters(createMessageConverters())
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        byte[] body = smile.writeValueAsBytes(Map.of("productsOrdered", Map.of("Margherita Pizza", -3)));
+
+        // When:
+        MvcResult result = mockMvc.perform(post("/orders").contentType(MessageFormatsConfig.APPLICATION_SMILE)
+                .accept(MessageFormatsConfig.APPLICATION_SMILE).content(body)).andReturn();
+
+        // Then:
+        log.info("The test checks if the status code value is 422, with the error in Smile.");
+        assertThat(result.getResponse().getStatus()).isEqualTo(422);
+        assertThat(result.getResponse().getContentType()).isEqualTo(MessageFormatsConfig.APPLICATION_SMILE.toString());
+        ErrorResponse error = smile.readValue(result.getResponse().getContentAsByteArray(), ErrorResponse.class);
+        assertThat(error.getCode()).isEqualTo(ErrorCode.CONSTRAINT_VIOLATION);
+        Mockito.verifyNoInteractions(productRepository, orderRepository);
+    }
 }
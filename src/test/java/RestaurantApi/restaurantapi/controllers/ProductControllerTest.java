@@ -1,9 +1,15 @@
 package RestaurantApi.restaurantapi.controllers;
 
 
+import RestaurantApi.restaurantapi.exceptions.ErrorCode;
+import RestaurantApi.restaurantapi.exceptions.ProductExceptions;
 import RestaurantApi.restaurantapi.models.ProductDTO;
 import RestaurantApi.restaurantapi.repositories.ProductRepository;
+import RestaurantApi.restaurantapi.services.InventoryService;
 import RestaurantApi.restaurantapi.services.ProductService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,15 +21,22 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.List;
 import java.util.Optional;
 
+import static RestaurantApi.restaurantapi.utils.Utils.createMessageConverters;
 import static RestaurantApi.restaurantapi.utils.Utils.createProductData;
+import static RestaurantApi.restaurantapi.utils.Utils.createProductService;
 import static RestaurantApi.restaurantapi.utils.Utils.createProducts;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 
 @Slf4j
 @ExtendWith(MockitoExtension.class)
@@ -41,13 +54,13 @@ class ProductControllerTest {
 
     @BeforeEach
     public void setUp(){
-        productService = new ProductService(productRepository);
-        productController = new ProductController(productService);
+        productService = createProductService(productRepository);
+        productController = new ProductController(productService, Mockito.mock(InventoryService.class));
     }
 
     @Test
     @DisplayName("Should create a new product.")
-    void createProduct() {
+    void createProduct() throws ProductExceptions {
         log.info("Entered createProduct test in ProductControllerTest class.");
 
         // Given:
@@ -57,7 +70,7 @@ class ProductControllerTest {
         Mockito.when(productRepository.save(any(ProductDTO.class))).thenReturn(product);
 
         // When:
-        ResponseEntity<?> responseEntity = productController.createProduct(product);
+        ResponseEntity<?> responseEntity = productController.createProduct(null, product);
 
         // Then:
         log.info("The test checks if the status code value is 200.");
@@ -78,9 +91,9 @@ class ProductControllerTest {
         Mockito.when(productRepository.saveAll(any(List.class))).thenReturn(products);
 
         // When:
-        log.info("Making the findAll function to return the products we saved.");
-        Mockito.when(productRepository.findAll()).thenReturn(products);
-        ResponseEntity<?> responseEntity = productController.getAllProducts();
+        log.info("Making the findAllByTenantId function to return the products we saved.");
+        Mockito.when(productRepository.findAllByTenantId(null)).thenReturn(products);
+        ResponseEntity<?> responseEntity = productController.getAllProducts(null, null);
 
         // Then:
         log.info("The test checks if the status code value is 200.");
@@ -92,7 +105,7 @@ class ProductControllerTest {
 
     @Test
     @DisplayName("Should find product by name.")
-    void getProductByName() {
+    void getProductByName() throws ProductExceptions {
         log.info("Entered getProductByName test in ProductControllerTest class.");
 
         // Given:
@@ -101,10 +114,10 @@ class ProductControllerTest {
         log.info("Going to save the product for the test.");
         Mockito.when(productRepository.save(any(ProductDTO.class))).thenReturn(product);
         log.info("Making the findProductByName function to return the product we saved.");
-        Mockito.when(productRepository.findProductByName(product.getName())).thenReturn(Optional.of(product));
+        Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
 
         // When:
-        ResponseEntity<?> responseEntity = productController.getProductByName(product.getName());
+        ResponseEntity<?> responseEntity = productController.getProductByName(null, product.getName());
 
         // Then:
         log.info("The test checks if the status code value is 200.");
@@ -113,4 +126,52 @@ class ProductControllerTest {
         assertThat(responseEntity.getBody()).isEqualTo(product);
     }
 
+
+    @Test
+    @DisplayName("Should answer the catalog in CBOR to a client that accepts it.")
+    void getAllProductsInCbor() throws Exception {
+        log.info("Entered getAllProductsInCbor test in ProductControllerTest class.");
+
+        // Given:
+        List<ProductDTO> products = createProducts();
+        Mockito.when(productRepository.findAllByTenantId(null)).thenReturn(products);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(productController)
+                .setMessageConverters(createMessageConverters())
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+
+        // When:
+        MvcResult result = mockMvc.perform(get("/products").accept(MediaType.APPLICATION_CBOR)).andReturn();
+
+        // Then:
+        log.info("The test checks if the products were answered in CBOR.");
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR_VALUE);
+        List<ProductDTO> readProducts = new ObjectMapper(new CBORFactory())
+                .readValue(result.getResponse().getContentAsByteArray(), new TypeReference<List<ProductDTO>>() {});
+        assertThat(readProducts).isEqualTo(products);
+    }
+
+    @Test
+    @DisplayName("Should answer a bad request to a description search of a negative page or an empty page size.")
+    void searchProductsByDescriptionWithInvalidPage() throws Exception {
+        log.info("Entered searchProductsByDescriptionWithInvalidPage test in ProductControllerTest class.");
+
+        // Given:
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(productController)
+                .setMessageConverters(createMessageConverters())
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+
+        // When:
+        MvcResult negativePage = mockMvc.perform(get("/products/search/description").param("q", "truffle").param("page", "-1")).andReturn();
+        MvcResult emptySize = mockMvc.perform(get("/products/search/description").param("q", "truffle").param("size", "0")).andReturn();
+
+        // Then:
+        log.info("The test checks if both requests were answered with 400 and the invalid request code, without a search.");
+        assertThat(negativePage.getResponse().getStatus()).isEqualTo(400);
+        assertThat(negativePage.getResponse().getContentAsString()).contains(ErrorCode.INVALID_REQUEST.name());
+        assertThat(emptySize.getResponse().getStatus()).isEqualTo(400);
+        Mockito.verifyNoInteractions(productRepository);
+    }
 }
@@ -0,0 +1,111 @@
+package RestaurantApi.restaurantapi.controllers;
+
+import RestaurantApi.restaurantapi.config.MessageFormatsConfig;
+import RestaurantApi.restaurantapi.exceptions.DependencyExceptions;
+import RestaurantApi.restaurantapi.exceptions.ErrorCode;
+import RestaurantApi.restaurantapi.exceptions.OrderExceptions;
+import RestaurantApi.restaurantapi.exceptions.ProductExceptions;
+import RestaurantApi.restaurantapi.exceptions.RequestExceptions;
+import RestaurantApi.restaurantapi.models.ErrorResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import javax.validation.ConstraintViolationException;
+import java.util.Set;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@Slf4j
+class RestExceptionHandlerTest {
+
+    private final RestExceptionHandler restExceptionHandler = new RestExceptionHandler();
+
+    @Test
+    @DisplayName("Should map the domain exceptions to the status of their error code.")
+    void handleDomainExceptions() {
+        log.info("Entered handleDomainExceptions test in RestExceptionHandlerTest class.");
+
+        // Given:
+        log.info("Going to create domain exceptions for the test.");
+        ProductExceptions notFound = new ProductExceptions(ErrorCode.PRODUCT_NOT_FOUND, ProductExceptions.NotFoundException("Polenta"));
+        ProductExceptions orderedNotFound = new ProductExceptions(ErrorCode.ORDERED_PRODUCT_NOT_FOUND, ProductExceptions.NotFoundException("Polenta"));
+
+        // When:
+        log.info("Run handleDomainExceptions function.");
+        ResponseEntity<ErrorResponse> notFoundResponse = restExceptionHandler.handleDomainExceptions(notFound);
+        ResponseEntity<ErrorResponse> orderedNotFoundResponse = restExceptionHandler.handleDomainExceptions(orderedNotFound);
+        ResponseEntity<ErrorResponse> emptyOrderResponse = restExceptionHandler.handleDomainExceptions(OrderExceptions.EMPTY_ORDER);
+        ResponseEntity<ErrorResponse> imageResponse = restExceptionHandler.handleDomainExceptions(ProductExceptions.IMAGE_URL_NOT_WORK);
+
+        // Then:
+        log.info("The test checks that every response has the status and the code of its exception.");
+        assertThat(notFoundResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(notFoundResponse.getBody().getCode()).isEqualTo(ErrorCode.PRODUCT_NOT_FOUND);
+        assertThat(notFoundResponse.getBody().getMessage()).isEqualTo("Polenta Product not found!");
+        assertThat(orderedNotFoundResponse.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(emptyOrderResponse.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(emptyOrderResponse.getBody().getCode()).isEqualTo(ErrorCode.EMPTY_ORDER);
+        assertThat(imageResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("Should create the domain exceptions without a stack trace.")
+    void domainExceptionsAreStackless() {
+        log.info("Entered domainExceptionsAreStackless test in RestExceptionHandlerTest class.");
+
+        // When:
+        log.info("Going to create a domain exception.");
+        ProductExceptions productExceptions = new ProductExceptions(ErrorCode.PRODUCT_NOT_FOUND, ProductExceptions.NotFoundException("Polenta"));
+
+        // Then:
+        log.info("The test checks that the exception has no stack trace.");
+        assertThat(productExceptions.getStackTrace().length).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Should map the other exceptions to their statuses.")
+    void handleOtherExceptions() {
+        log.info("Entered handleOtherExceptions test in RestExceptionHandlerTest class.");
+
+        // When:
+        log.info("Run the handlers of the request, validation and dependency exceptions.");
+        ResponseEntity<ErrorResponse> requestResponse = restExceptionHandler.handleRequestExceptions(
+                new RequestExceptions(RequestExceptions.InvalidDateRangeException()));
+        ResponseEntity<ErrorResponse> validationResponse = restExceptionHandler.handleConstraintViolationException(
+                new ConstraintViolationException("price: must be greater than 0", Set.of()));
+        ResponseEntity<ErrorResponse> dependencyResponse = restExceptionHandler.handleDependencyExceptions(
+                new DependencyExceptions(ErrorCode.DEPENDENCY_OVERLOADED, DependencyExceptions.OverloadedException("database"), 1500));
+
+        // Then:
+        log.info("The test checks the statuses, the codes and the Retry-After header.");
+        assertThat(requestResponse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(requestResponse.getBody().getCode()).isEqualTo(ErrorCode.INVALID_REQUEST);
+        assertThat(validationResponse.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(validationResponse.getBody().getCode()).isEqualTo(ErrorCode.CONSTRAINT_VIOLATION);
+        assertThat(dependencyResponse.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(dependencyResponse.getBody().getCode()).isEqualTo(ErrorCode.DEPENDENCY_OVERLOADED);
+        assertThat(dependencyResponse.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+    }
+
+    @Test
+    @DisplayName("Should answer the errors in the binary format the request prefers, and in JSON otherwise.")
+    void errorContentType() {
+        log.info("Entered errorContentType test in RestExceptionHandlerTest class.");
+
+        // Then:
+        log.info("The test checks the type of the error body for every Accept header.");
+        assertThat(RestExceptionHandler.errorContentType(null)).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(RestExceptionHandler.errorContentType("*/*")).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(RestExceptionHandler.errorContentType("application/cbor")).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(RestExceptionHandler.errorContentType("application/x-jackson-smile, application/json;q=0.5"))
+                .isEqualTo(MessageFormatsConfig.APPLICATION_SMILE);
+        assertThat(RestExceptionHandler.errorContentType("application/cbor;q=0.5, application/json")).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(RestExceptionHandler.errorContentType("text/event-stream")).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(RestExceptionHandler.errorContentType("not a type")).isEqualTo(MediaType.APPLICATION_JSON);
+    }
+}
@@ -0,0 +1,170 @@
+package RestaurantApi.restaurantapi.repositories;
+
+import RestaurantApi.restaurantapi.config.MongoConfig;
+import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.OrderEvent;
+import RestaurantApi.restaurantapi.models.OrderLine;
+import RestaurantApi.restaurantapi.models.OrderStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mapping.MappingException;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Date;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+import static RestaurantApi.restaurantapi.utils.Utils.createMongoConverter;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * This class contains all the tests for OrderConverters class.
+ * The converters must write and read exactly what the reflection based mapping converter writes and reads,
+ * so the documents stored before them and after them are the same.
+ */
+@Slf4j
+class OrderConvertersTest {
+
+    final MappingMongoConverter reflection = createMongoConverter(new MongoCustomConversions(List.of()));
+    final MappingMongoConverter converters = createMongoConverter(new MongoConfig().mongoCustomConversions());
+
+    @Test
+    @DisplayName("Should set every field of the full order, so the other tests cover every field of the model.")
+    void fullOrderHasEveryField() throws IllegalAccessException {
+        log.info("Entered fullOrderHasEveryField test in OrderConvertersTest class.");
+
+        // Given:
+        OrderDTO order = fullOrder();
+
+        // Then:
+        log.info("The test checks if no field of the full order was left out.");
+        for (Field field : OrderDTO.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                field.setAccessible(true);
+                assertThat(field.get(order)).as(field.getName()).isNotNull();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should write the document that the mapping converter writes.")
+    void write() {
+        log.info("Entered write test in OrderConvertersTest class.");
+
+        for (OrderDTO order : List.of(fullOrder(), sparseOrder(), orderWithOtherId())) {
+            // When:
+            Document expected = writeWithReflection(order);
+            Document document = new OrderConverters.Write().convert(order);
+
+            // Then:
+            log.info("The test checks if the documents are the same.");
+            assertThat(document).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Should read the order that the mapping converter reads.")
+    void read() {
+        log.info("Entered read test in OrderConvertersTest class.");
+
+        for (OrderDTO order : List.of(fullOrder(), sparseOrder(), orderWithOtherId())) {
+            // Given:
+            Document document = writeWithReflection(order);
+
+            // When:
+            OrderDTO readOrder = new OrderConverters.Read().convert(document);
+
+            // Then:
+            log.info("The test checks if the orders are the same, and the same as the written order.");
+            assertThat(readOrder).isEqualTo(reflection.read(OrderDTO.class, document));
+            assertThat(readOrder).isEqualTo(order);
+        }
+    }
+
+    @Test
+    @DisplayName("Should read the fields of a projection and the numbers of any type, like the mapping converter.")
+    void readPartialDocument() {
+        log.info("Entered readPartialDocument test in OrderConvertersTest class.");
+
+        // Given:
+        Document document = new Document("_id", new ObjectId()).append("price", 80.0).append("menuVersion", 3)
+                .append("productsOrdered", new Document("Polenta", 2L));
+
+        // When:
+        OrderDTO order = new OrderConverters.Read().convert(document);
+
+        // Then:
+        log.info("The test checks if the orders are the same.");
+        assertThat(order).isEqualTo(reflection.read(OrderDTO.class, document));
+        assertThat(order.getPrice()).isEqualTo(80);
+    }
+
+    @Test
+    @DisplayName("Should reject a product name with a dot, like the mapping converter.")
+    void rejectDotInProductName() {
+        log.info("Entered rejectDotInProductName test in OrderConvertersTest class.");
+
+        // Given:
+        OrderDTO order = new OrderDTO(null, Map.of("St. Honore", 1));
+
+        // Then:
+        log.info("The test checks if both converters reject the order.");
+        assertThrows(MappingException.class, () -> writeWithReflection(order));
+        assertThrows(MappingException.class, () -> new OrderConverters.Write().convert(order));
+    }
+
+    @Test
+    @DisplayName("Should convert the orders through the mapping converter, also inside the events of the order feed.")
+    void registered() {
+        log.info("Entered registered test in OrderConvertersTest class.");
+
+        // Given:
+        OrderDTO order = fullOrder();
+        OrderEvent event = OrderEvent.of(order, "node");
+
+        // When:
+        Document orderDocument = new Document();
+        converters.write(order, orderDocument);
+        Document eventDocument = new Document();
+        converters.write(event, eventDocument);
+
+        // Then:
+        log.info("The test checks if the hand written converters were used, and the orders read back the same.");
+        assertThat(orderDocument).isEqualTo(writeWithReflection(order));
+        assertThat(converters.read(OrderDTO.class, orderDocument)).isEqualTo(order);
+        assertThat(converters.read(OrderEvent.class, eventDocument).getOrder()).isEqualTo(order);
+    }
+
+    Document writeWithReflection(OrderDTO order) {
+        Document document = new Document();
+        reflection.write(order, document);
+        document.remove("_class");
+        return document;
+    }
+
+    static OrderDTO fullOrder() {
+        Map<String, Integer> products = new Hashtable<>(Map.of("Polenta", 2, "Tiramisu", 1));
+        OrderDTO order = new OrderDTO(new ObjectId().toHexString(), "downtown", products, new Date(1663496700000L), 180, 7,
+                List.of(new OrderLine("Polenta", 2, 60, 120), new OrderLine("Tiramisu", 1, 60, 60)),
+                "key-1", OrderStatus.IN_PROGRESS, new Date(1663497000000L));
+        return order;
+    }
+
+    static OrderDTO sparseOrder() {
+        return new OrderDTO(null, new Hashtable<>(Map.of("Polenta", 1)));
+    }
+
+    static OrderDTO orderWithOtherId() {
+        OrderDTO order = new OrderDTO("imported-42", new Hashtable<>(Map.of("Polenta", 1)), new Date(1663496700000L));
+        order.setStatus(OrderStatus.CANCELLED);
+        return order;
+    }
+}
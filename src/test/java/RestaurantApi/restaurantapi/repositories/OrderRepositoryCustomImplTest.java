@@ -0,0 +1,575 @@
+package RestaurantApi.restaurantapi.repositories;
+
+import RestaurantApi.restaurantapi.config.OrderArchiveProperties;
+import RestaurantApi.restaurantapi.config.OrderShardsProperties;
+import RestaurantApi.restaurantapi.config.OrderStorageProperties;
+import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.OrderStatus;
+import RestaurantApi.restaurantapi.models.OrderSummary;
+import RestaurantApi.restaurantapi.models.ProductSales;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * This class contains all the tests for OrderRepositoryCustomImpl class.
+ */
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OrderRepositoryCustomImplTest {
+
+    @Mock
+    MongoTemplate listingMongoTemplate;
+
+    @Mock
+    MongoTemplate mongoTemplate;
+
+    @Mock
+    BulkOperations bulkOperations;
+
+    @Mock
+    MongoTemplate secondShardListingMongoTemplate;
+
+    @Mock
+    MongoTemplate secondShardMongoTemplate;
+
+    OrderArchiveProperties properties;
+
+    OrderStorageProperties storageProperties;
+
+    OrderRepositoryCustomImpl orderRepository;
+
+    @BeforeEach
+    public void setUp(){
+        properties = new OrderArchiveProperties();
+        properties.setMaxAge(Duration.ofDays(30));
+        storageProperties = new OrderStorageProperties();
+        orderRepository = new OrderRepositoryCustomImpl(OrderShards.single(mongoTemplate, listingMongoTemplate), properties, storageProperties);
+    }
+
+    @Test
+    @DisplayName("Should read only the orders collection when the range is newer than the archive.")
+    void findRecentOrders() {
+        log.info("Entered findRecentOrders test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        Date from = new Date(System.currentTimeMillis() - Duration.ofDays(7).toMillis());
+
+        // When:
+        orderRepository.findAllForListing(null, from, null);
+
+        // Then:
+        log.info("The test checks if the archive wasn't read.");
+        Mockito.verify(listingMongoTemplate).find(any(Query.class), eq(OrderDTO.class), eq(OrderRepositoryCustomImpl.ORDERS));
+        Mockito.verify(listingMongoTemplate, Mockito.never())
+                .find(any(Query.class), eq(OrderDTO.class), eq(OrderRepositoryCustomImpl.ORDERS_ARCHIVE));
+    }
+
+    @Test
+    @DisplayName("Should read only the orders of the location, with the tenant id first like in the index.")
+    void findOrdersOfTheLocation() {
+        log.info("Entered findOrdersOfTheLocation test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        Date from = new Date(System.currentTimeMillis() - Duration.ofDays(7).toMillis());
+
+        // When:
+        orderRepository.findAllForListing("downtown", from, null);
+
+        // Then:
+        log.info("The test checks if the query is of the tenant id and then of the date.");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        Mockito.verify(listingMongoTemplate).find(query.capture(), eq(OrderDTO.class), eq(OrderRepositoryCustomImpl.ORDERS));
+        Document queryObject = query.getValue().getQueryObject();
+        assertThat(queryObject.keySet().iterator().next()).isEqualTo("tenantId");
+        assertThat(queryObject.get("tenantId")).isEqualTo("downtown");
+        assertThat(queryObject.get("date")).isEqualTo(new Document("$gte", from));
+    }
+
+    @Test
+    @DisplayName("Should return every projected order of a recent range, even without their ids.")
+    void findRecentProjectedOrders() {
+        log.info("Entered findRecentProjectedOrders test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        Date from = new Date(System.currentTimeMillis() - Duration.ofDays(7).toMillis());
+        Mockito.when(listingMongoTemplate.find(any(Query.class), eq(Document.class), eq(OrderRepositoryCustomImpl.ORDERS)))
+                .thenReturn(List.of(new Document("price", 70), new Document("price", 90), new Document("price", 70)));
+
+        // When:
+        List<Map<String, Object>> orders = orderRepository.findAllForListing(null, List.of("price"), from, null);
+
+        // Then:
+        log.info("The test checks if all the orders were returned with the requested field alone.");
+        assertThat(orders.size()).isEqualTo(3);
+        assertThat(orders.get(2)).isEqualTo(Map.of("price", 70));
+    }
+
+    @Test
+    @DisplayName("Should read the archive too when the range reaches it.")
+    void findOldOrders() {
+        log.info("Entered findOldOrders test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        Date from = new Date(System.currentTimeMillis() - Duration.ofDays(60).toMillis());
+        OrderDTO archived = new OrderDTO();
+        archived.setId("archived");
+        OrderDTO recent = new OrderDTO();
+        recent.setId("recent");
+        Mockito.when(listingMongoTemplate.find(any(Query.class), eq(OrderDTO.class), eq(OrderRepositoryCustomImpl.ORDERS_ARCHIVE)))
+                .thenReturn(List.of(archived));
+        Mockito.when(listingMongoTemplate.find(any(Query.class), eq(OrderDTO.class), eq(OrderRepositoryCustomImpl.ORDERS)))
+                .thenReturn(List.of(recent));
+
+        // When:
+        List<OrderDTO> orders = orderRepository.findAllForListing(null, from, null);
+
+        // Then:
+        log.info("The test checks if the orders of both collections were returned, the archived first.");
+        assertThat(orders.size()).isEqualTo(2);
+        assertThat(orders.get(0).getId()).isEqualTo("archived");
+        assertThat(orders.get(1).getId()).isEqualTo("recent");
+    }
+
+    @Test
+    @DisplayName("Should read every collection by date and return the orders of a shard oldest first, with the open old orders among them.")
+    void findOrdersByDate() {
+        log.info("Entered findOrdersByDate test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        log.info("Going to keep an old order that stayed open in the orders collection, older than an archived order.");
+        Date from = new Date(System.currentTimeMillis() - Duration.ofDays(60).toMillis());
+        OrderDTO archived = new OrderDTO();
+        archived.setId("archived");
+        archived.setDate(new Date(from.getTime() + 2000));
+        OrderDTO open = new OrderDTO();
+        open.setId("open");
+        open.setDate(new Date(from.getTime() + 1000));
+        Mockito.when(listingMongoTemplate.find(any(Query.class), eq(OrderDTO.class), eq(OrderRepositoryCustomImpl.ORDERS_ARCHIVE)))
+                .thenReturn(List.of(archived));
+        Mockito.when(listingMongoTemplate.find(any(Query.class), eq(OrderDTO.class), eq(OrderRepositoryCustomImpl.ORDERS)))
+                .thenReturn(List.of(open));
+
+        // When:
+        List<OrderDTO> orders = orderRepository.findAllForListing(null, from, null);
+
+        // Then:
+        log.info("The test checks if the collections were read by date and the orders were returned oldest first.");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        Mockito.verify(listingMongoTemplate).find(query.capture(), eq(OrderDTO.class), eq(OrderRepositoryCustomImpl.ORDERS));
+        assertThat(query.getValue().getSortObject()).isEqualTo(new Document("date", 1));
+        assertThat(orders.get(0).getId()).isEqualTo("open");
+        assertThat(orders.get(1).getId()).isEqualTo("archived");
+    }
+
+    @Test
+    @DisplayName("Should upsert a batch of old orders to the archive and mark them before removing them.")
+    void archiveOrders() {
+        log.info("Entered archiveOrders test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        List<Document> batch = List.of(new Document("_id", "1").append("price", 80), new Document("_id", "2").append("price", 90));
+        Mockito.when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(OrderRepositoryCustomImpl.ORDERS))).thenReturn(batch);
+        Mockito.when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderRepositoryCustomImpl.ORDERS_ARCHIVE))
+                .thenReturn(bulkOperations);
+
+        // When:
+        int moved = orderRepository.archiveOrders(new Date(), 2);
+
+        // Then:
+        log.info("The test checks if the batch was upserted to the archive, then marked as archived and removed from the orders.");
+        assertThat(moved).isEqualTo(2);
+        InOrder inOrder = Mockito.inOrder(bulkOperations, mongoTemplate);
+        inOrder.verify(bulkOperations, Mockito.times(2)).replaceOne(any(Query.class), any(Document.class), any(FindAndReplaceOptions.class));
+        inOrder.verify(bulkOperations).execute();
+        inOrder.verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(OrderRepositoryCustomImpl.ORDERS));
+        inOrder.verify(mongoTemplate).remove(any(Query.class), eq(OrderRepositoryCustomImpl.ORDERS));
+    }
+
+    @Test
+    @DisplayName("Should not touch the archive when there are no old orders.")
+    void archiveNoOrders() {
+        log.info("Entered archiveNoOrders test in OrderRepositoryCustomImplTest class.");
+
+        // When:
+        int moved = orderRepository.archiveOrders(new Date(), 2);
+
+        // Then:
+        log.info("The test checks if nothing was moved.");
+        assertThat(moved).isEqualTo(0);
+        Mockito.verify(mongoTemplate, Mockito.never()).bulkOps(any(BulkOperations.BulkMode.class), any(String.class));
+    }
+
+    @Test
+    @DisplayName("Should push an order to the bucket of its hour and update the bucket totals.")
+    void insertOrderToBucket() {
+        log.info("Entered insertOrderToBucket test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        storageProperties.setMode(OrderStorageProperties.Mode.BUCKETS);
+        Mockito.when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+        OrderDTO order = new OrderDTO(null, Map.of("Polenta", 2), date("2022-09-18T10:25:00Z"));
+        order.setPrice(80);
+
+        // When:
+        orderRepository.insertOrder(order);
+
+        // Then:
+        log.info("The test checks if the order got an id and was upserted to the bucket of 10:00.");
+        assertThat(order.getId()).isNotNull();
+        ArgumentCaptor<Query> bucket = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        Mockito.verify(mongoTemplate).upsert(bucket.capture(), update.capture(), eq(OrderRepositoryCustomImpl.ORDER_BUCKETS));
+        assertThat(bucket.getValue().getQueryObject().get("hour")).isEqualTo(date("2022-09-18T10:00:00Z"));
+        Document updateObject = update.getValue().getUpdateObject();
+        assertThat(updateObject.get("$inc")).isEqualTo(new Document("count", 1).append("revenue", 80));
+        assertThat(((Document) updateObject.get("$push")).get("orders", Document.class).get("price")).isEqualTo(80);
+    }
+
+    @Test
+    @DisplayName("Should claim the idempotency key of an order before its bucket, so a concurrent replay on another node fails.")
+    void insertOrderWithKeyToBucket() {
+        log.info("Entered insertOrderWithKeyToBucket test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        storageProperties.setMode(OrderStorageProperties.Mode.BUCKETS);
+        Mockito.when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+        OrderDTO order = new OrderDTO(null, Map.of("Polenta", 2), date("2022-09-18T10:25:00Z"));
+        order.setIdempotencyKey("key-1");
+        OrderDTO replay = new OrderDTO(null, Map.of("Polenta", 2), date("2022-09-18T10:25:01Z"));
+        replay.setIdempotencyKey("key-1");
+        Mockito.when(mongoTemplate.insert(any(Document.class), eq(OrderRepositoryCustomImpl.ORDER_IDEMPOTENCY)))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+
+        // When:
+        orderRepository.insertOrder(order);
+        assertThrows(DuplicateKeyException.class, () -> orderRepository.insertOrder(replay));
+
+        // Then:
+        log.info("The test checks if the key was claimed before the bucket, and the replay never reached a bucket.");
+        ArgumentCaptor<Document> claim = ArgumentCaptor.forClass(Document.class);
+        InOrder inOrder = Mockito.inOrder(mongoTemplate);
+        inOrder.verify(mongoTemplate).insert(claim.capture(), eq(OrderRepositoryCustomImpl.ORDER_IDEMPOTENCY));
+        inOrder.verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(OrderRepositoryCustomImpl.ORDER_BUCKETS));
+        assertThat(claim.getAllValues().get(0).get("key")).isEqualTo("key-1");
+        Mockito.verify(mongoTemplate, Mockito.times(1)).upsert(any(Query.class), any(Update.class), eq(OrderRepositoryCustomImpl.ORDER_BUCKETS));
+    }
+
+    @Test
+    @DisplayName("Should find the order of a claimed key before it is in its bucket, and give up the claim when the bucket write fails.")
+    void findClaimedOrder() {
+        log.info("Entered findClaimedOrder test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        storageProperties.setMode(OrderStorageProperties.Mode.BUCKETS);
+        Mockito.when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+        Mockito.when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq(OrderRepositoryCustomImpl.ORDER_IDEMPOTENCY)))
+                .thenReturn(new Document("key", "key-1").append("order", new Document("_id", "1").append("price", 80)));
+        Mockito.when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(OrderRepositoryCustomImpl.ORDER_BUCKETS)))
+                .thenThrow(new DataAccessResourceFailureException("timeout"));
+        OrderDTO order = new OrderDTO(null, Map.of("Polenta", 2), date("2022-09-18T10:25:00Z"));
+        order.setIdempotencyKey("key-2");
+
+        // When:
+        Optional<OrderDTO> claimedOrder = orderRepository.findOrderByIdempotencyKey(null, "key-1");
+        assertThrows(DataAccessResourceFailureException.class, () -> orderRepository.insertOrder(order));
+
+        // Then:
+        log.info("The test checks if the copy of the claim was read, and the failed claim was removed.");
+        assertThat(claimedOrder.map(OrderDTO::getPrice).orElse(0)).isEqualTo(80);
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        Mockito.verify(mongoTemplate).remove(removed.capture(), eq(OrderRepositoryCustomImpl.ORDER_IDEMPOTENCY));
+        assertThat(removed.getValue().getQueryObject().get("key")).isEqualTo("key-2");
+    }
+
+    @Test
+    @DisplayName("Should summarize the whole hours from the bucket totals and the partial hours from their orders.")
+    void summarizeBuckets() {
+        log.info("Entered summarizeBuckets test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        storageProperties.setMode(OrderStorageProperties.Mode.BUCKETS);
+        Date from = new Date(System.currentTimeMillis() - Duration.ofDays(2).toMillis());
+        Date to = new Date(from.getTime() + Duration.ofHours(5).toMillis());
+        Mockito.when(listingMongoTemplate.aggregate(any(Aggregation.class), eq(OrderRepositoryCustomImpl.ORDER_BUCKETS), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("count", 10).append("revenue", 1000L)), new Document()));
+        Document inRange = new Document("date", new Date(from.getTime() + 1)).append("price", 70);
+        Document outOfRange = new Document("date", new Date(from.getTime() - 1)).append("price", 90);
+        Mockito.when(listingMongoTemplate.find(any(Query.class), eq(Document.class), eq(OrderRepositoryCustomImpl.ORDER_BUCKETS)))
+                .thenReturn(List.of(new Document("orders", List.of(inRange, outOfRange))));
+
+        // When:
+        OrderSummary summary = orderRepository.summarize(null, from, to);
+
+        // Then:
+        log.info("The test checks if the totals of the whole hours and the orders of the partial hours were added.");
+        assertThat(summary.getCount()).isEqualTo(11L);
+        assertThat(summary.getRevenue()).isEqualTo(1070L);
+        Mockito.verify(listingMongoTemplate, Mockito.never())
+                .aggregate(any(Aggregation.class), eq(OrderRepositoryCustomImpl.ORDERS), eq(Document.class));
+    }
+
+    @Test
+    @DisplayName("Should count once the buckets that an archive pass copied to the archive but has not removed yet.")
+    void summarizeDuringAnArchivePass() {
+        log.info("Entered summarizeDuringAnArchivePass test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        storageProperties.setMode(OrderStorageProperties.Mode.BUCKETS);
+        Date from = new Date(System.currentTimeMillis() - Duration.ofDays(60).toMillis());
+        Date to = new Date(from.getTime() + Duration.ofHours(5).toMillis());
+        Mockito.when(listingMongoTemplate.aggregate(any(Aggregation.class), eq(OrderRepositoryCustomImpl.ORDER_BUCKETS_ARCHIVE), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("count", 10).append("revenue", 1000L)), new Document()));
+        Mockito.when(listingMongoTemplate.aggregate(any(Aggregation.class), eq(OrderRepositoryCustomImpl.ORDER_BUCKETS), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+        Document bucket = new Document("_id", "bucket").append("orders",
+                List.of(new Document("date", new Date(from.getTime() + 1)).append("price", 70)));
+        Mockito.when(listingMongoTemplate.find(any(Query.class), eq(Document.class), eq(OrderRepositoryCustomImpl.ORDER_BUCKETS_ARCHIVE)))
+                .thenReturn(List.of(bucket));
+        Mockito.when(listingMongoTemplate.find(any(Query.class), eq(Document.class), eq(OrderRepositoryCustomImpl.ORDER_BUCKETS)))
+                .thenReturn(List.of(bucket));
+
+        // When:
+        OrderSummary summary = orderRepository.summarize(null, from, to);
+
+        // Then:
+        log.info("The test checks if the bucket of both collections was counted once and the hot totals skip the buckets marked as archived.");
+        assertThat(summary.getCount()).isEqualTo(11L);
+        assertThat(summary.getRevenue()).isEqualTo(1070L);
+        ArgumentCaptor<Aggregation> hot = ArgumentCaptor.forClass(Aggregation.class);
+        Mockito.verify(listingMongoTemplate).aggregate(hot.capture(), eq(OrderRepositoryCustomImpl.ORDER_BUCKETS), eq(Document.class));
+        assertThat(hot.getValue().toString()).contains(OrderRepositoryCustomImpl.ARCHIVED_AT).doesNotContain("$lookup");
+        ArgumentCaptor<Aggregation> archive = ArgumentCaptor.forClass(Aggregation.class);
+        Mockito.verify(listingMongoTemplate).aggregate(archive.capture(), eq(OrderRepositoryCustomImpl.ORDER_BUCKETS_ARCHIVE), eq(Document.class));
+        assertThat(archive.getValue().toString()).doesNotContain(OrderRepositoryCustomImpl.ARCHIVED_AT);
+    }
+
+    @Test
+    @DisplayName("Should add up the sales of every product from its order lines, the best sellers first.")
+    void summarizeProducts() {
+        log.info("Entered summarizeProducts test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        Date from = new Date(System.currentTimeMillis() - Duration.ofDays(2).toMillis());
+        Mockito.when(listingMongoTemplate.aggregate(any(Aggregation.class), eq(OrderRepositoryCustomImpl.ORDERS), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(
+                        new Document("_id", "Polenta").append("quantity", 3).append("revenue", 144L),
+                        new Document("_id", "Margherita Pizza").append("quantity", 4).append("revenue", 236L)), new Document()));
+
+        // When:
+        List<ProductSales> sales = orderRepository.summarizeProducts(null, from, new Date());
+
+        // Then:
+        log.info("The test checks if the products are sorted by their revenue, with the quantities they were sold in.");
+        assertThat(sales.size()).isEqualTo(2);
+        assertThat(sales.get(0)).isEqualTo(new ProductSales("Margherita Pizza", 4, 236));
+        assertThat(sales.get(1)).isEqualTo(new ProductSales("Polenta", 3, 144));
+        Mockito.verify(listingMongoTemplate, Mockito.never())
+                .aggregate(any(Aggregation.class), eq(OrderRepositoryCustomImpl.ORDERS_ARCHIVE), eq(Document.class));
+    }
+
+    @Test
+    @DisplayName("Should move an order to a status with findAndModify, guarded by its expected status.")
+    void changeStatus() {
+        log.info("Entered changeStatus test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        Date date = new Date();
+
+        // When:
+        orderRepository.changeStatus("downtown", "632a132b8ff1862a12373ed2", Set.of(OrderStatus.NEW), OrderStatus.IN_PROGRESS, date);
+
+        // Then:
+        log.info("The test checks if the order is matched by its id, its location and its expected status, and only its status is set.");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        Mockito.verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(OrderDTO.class), eq(OrderRepositoryCustomImpl.ORDERS));
+        Document queryObject = query.getValue().getQueryObject();
+        assertThat(queryObject.get("tenantId")).isEqualTo("downtown");
+        assertThat(queryObject.get("status")).isEqualTo(new Document("$in", List.of("NEW")));
+        assertThat(update.getValue().getUpdateObject().get("$set"))
+                .isEqualTo(new Document("status", "IN_PROGRESS").append("statusDate", date));
+    }
+
+    @Test
+    @DisplayName("Should read the open orders of the location by their status, oldest first.")
+    void findOpenOrders() {
+        log.info("Entered findOpenOrders test in OrderRepositoryCustomImplTest class.");
+
+        // When:
+        orderRepository.findOpenOrders("downtown");
+
+        // Then:
+        log.info("The test checks if the query is of the location and the open statuses, sorted by the date, like the index.");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        Mockito.verify(mongoTemplate).find(query.capture(), eq(OrderDTO.class), eq(OrderRepositoryCustomImpl.ORDERS));
+        assertThat(query.getValue().getQueryObject().get("status"))
+                .isEqualTo(new Document("$in", List.of("IN_PROGRESS", "NEW")));
+        assertThat(query.getValue().getSortObject()).isEqualTo(new Document("date", 1));
+    }
+
+    @Test
+    @DisplayName("Should not archive the open orders.")
+    void archiveSkipsOpenOrders() {
+        log.info("Entered archiveSkipsOpenOrders test in OrderRepositoryCustomImplTest class.");
+
+        // When:
+        orderRepository.archiveOrders(new Date(), 2);
+
+        // Then:
+        log.info("The test checks if the old orders are read without the open statuses.");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        Mockito.verify(mongoTemplate).find(query.capture(), eq(Document.class), eq(OrderRepositoryCustomImpl.ORDERS));
+        assertThat(query.getValue().getQueryObject().get("status"))
+                .isEqualTo(new Document("$nin", List.of("IN_PROGRESS", "NEW")));
+    }
+
+    @Test
+    @DisplayName("Should read the orders of all the shards in parallel and merge them by their date.")
+    void findOrdersOfAllTheShards() {
+        log.info("Entered findOrdersOfAllTheShards test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        OrderRepositoryCustomImpl shardedRepository = shardedRepository(OrderShardsProperties.Key.ORDER);
+        Date from = new Date(System.currentTimeMillis() - Duration.ofDays(1).toMillis());
+        Mockito.when(listingMongoTemplate.find(any(Query.class), eq(OrderDTO.class), eq(OrderRepositoryCustomImpl.ORDERS)))
+                .thenReturn(List.of(order("first", from, 1), order("third", from, 3)));
+        Mockito.when(secondShardListingMongoTemplate.find(any(Query.class), eq(OrderDTO.class), eq(OrderRepositoryCustomImpl.ORDERS)))
+                .thenReturn(List.of(order("second", from, 2), order("fourth", from, 4)));
+
+        // When:
+        List<OrderDTO> orders = shardedRepository.findAllForListing(null, from, null);
+
+        // Then:
+        log.info("The test checks if the orders of both shards were returned, oldest first.");
+        assertThat(orders.size()).isEqualTo(4);
+        assertThat(orders.get(0).getId()).isEqualTo("first");
+        assertThat(orders.get(1).getId()).isEqualTo("second");
+        assertThat(orders.get(2).getId()).isEqualTo("third");
+        assertThat(orders.get(3).getId()).isEqualTo("fourth");
+    }
+
+    @Test
+    @DisplayName("Should add up the summaries of all the shards.")
+    void summarizeTheShards() {
+        log.info("Entered summarizeTheShards test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        OrderRepositoryCustomImpl shardedRepository = shardedRepository(OrderShardsProperties.Key.ORDER);
+        Date from = new Date(System.currentTimeMillis() - Duration.ofDays(1).toMillis());
+        Mockito.when(listingMongoTemplate.aggregate(any(Aggregation.class), eq(OrderRepositoryCustomImpl.ORDERS), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("count", 2).append("revenue", 166L)), new Document()));
+        Mockito.when(secondShardListingMongoTemplate.aggregate(any(Aggregation.class), eq(OrderRepositoryCustomImpl.ORDERS), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("count", 1).append("revenue", 108L)), new Document()));
+
+        // When:
+        OrderSummary summary = shardedRepository.summarize(null, from, new Date());
+
+        // Then:
+        log.info("The test checks if the counts and the revenues of both shards were added.");
+        assertThat(summary.getCount()).isEqualTo(3L);
+        assertThat(summary.getRevenue()).isEqualTo(274L);
+    }
+
+    @Test
+    @DisplayName("Should look up an idempotency key in the shard its order was stored in.")
+    void findOrderByIdempotencyKeyInItsShard() {
+        log.info("Entered findOrderByIdempotencyKeyInItsShard test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        OrderShards shards = twoShards(OrderShardsProperties.Key.ORDER);
+        OrderRepositoryCustomImpl shardedRepository = new OrderRepositoryCustomImpl(shards, properties, storageProperties);
+        MongoTemplate shardOfTheKey = shards.shardOfIdempotencyKey("downtown", "c2a9f4e1").getMongoTemplate();
+        MongoTemplate otherShard = shardOfTheKey == mongoTemplate ? secondShardMongoTemplate : mongoTemplate;
+        OrderDTO order = new OrderDTO(null, Map.of("Polenta", 1), new Date());
+        order.setTenantId("downtown");
+        order.setIdempotencyKey("c2a9f4e1");
+
+        // When:
+        shardedRepository.insertOrder(order);
+        shardedRepository.findOrderByIdempotencyKey("downtown", "c2a9f4e1");
+
+        // Then:
+        log.info("The test checks if the insert and the lookup went to the same shard only.");
+        Mockito.verify(shardOfTheKey).insert(order, OrderRepositoryCustomImpl.ORDERS);
+        Mockito.verify(shardOfTheKey).findOne(any(Query.class), eq(OrderDTO.class), eq(OrderRepositoryCustomImpl.ORDERS));
+        Mockito.verifyNoInteractions(otherShard);
+    }
+
+    @Test
+    @DisplayName("Should read only the shard of the location when the orders are sharded by location.")
+    void findOrdersInTheShardOfTheLocation() {
+        log.info("Entered findOrdersInTheShardOfTheLocation test in OrderRepositoryCustomImplTest class.");
+
+        // Given:
+        OrderRepositoryCustomImpl shardedRepository = shardedRepository(OrderShardsProperties.Key.TENANT);
+        Date from = new Date(System.currentTimeMillis() - Duration.ofDays(7).toMillis());
+
+        // When:
+        shardedRepository.findAllForListing("downtown", from, null);
+
+        // Then:
+        log.info("The test checks if exactly one of the shards was read.");
+        int reads = Mockito.mockingDetails(listingMongoTemplate).getInvocations().size()
+                + Mockito.mockingDetails(secondShardListingMongoTemplate).getInvocations().size();
+        assertThat(reads).isEqualTo(1);
+    }
+
+    private OrderRepositoryCustomImpl shardedRepository(OrderShardsProperties.Key key) {
+        return new OrderRepositoryCustomImpl(twoShards(key), properties, storageProperties);
+    }
+
+    private OrderShards twoShards(OrderShardsProperties.Key key) {
+        return new OrderShards(List.of(new OrderShards.Shard(mongoTemplate, listingMongoTemplate),
+                new OrderShards.Shard(secondShardMongoTemplate, secondShardListingMongoTemplate)), key, 2, List.of());
+    }
+
+    private static OrderDTO order(String id, Date from, int minutes) {
+        OrderDTO order = new OrderDTO(null, Map.of("Polenta", 1), new Date(from.getTime() + Duration.ofMinutes(minutes).toMillis()));
+        order.setId(id);
+        return order;
+    }
+
+    private static Date date(String instant) {
+        return Date.from(Instant.parse(instant));
+    }
+}
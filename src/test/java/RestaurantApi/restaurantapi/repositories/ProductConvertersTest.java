@@ -0,0 +1,95 @@
+package RestaurantApi.restaurantapi.repositories;
+
+import RestaurantApi.restaurantapi.config.MongoConfig;
+import RestaurantApi.restaurantapi.models.ProductDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+import static RestaurantApi.restaurantapi.utils.Utils.createMongoConverter;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * This class contains all the tests for ProductConverters class.
+ */
+@Slf4j
+class ProductConvertersTest {
+
+    final MappingMongoConverter reflection = createMongoConverter(new MongoCustomConversions(List.of()));
+    final MappingMongoConverter converters = createMongoConverter(new MongoConfig().mongoCustomConversions());
+
+    @Test
+    @DisplayName("Should set every field of the full product, so the other tests cover every field of the model.")
+    void fullProductHasEveryField() throws IllegalAccessException {
+        log.info("Entered fullProductHasEveryField test in ProductConvertersTest class.");
+
+        // Given:
+        ProductDTO product = fullProduct();
+
+        // Then:
+        log.info("The test checks if no field of the full product was left out.");
+        for (Field field : ProductDTO.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                field.setAccessible(true);
+                assertThat(field.get(product)).as(field.getName()).isNotNull();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should write and read the documents and the products of the mapping converter.")
+    void roundTrip() {
+        log.info("Entered roundTrip test in ProductConvertersTest class.");
+
+        for (ProductDTO product : List.of(fullProduct(), new ProductDTO("Polenta", null, null, 60))) {
+            // When:
+            Document expected = new Document();
+            reflection.write(product, expected);
+            expected.remove("_class");
+            Document document = new ProductConverters.Write().convert(product);
+            ProductDTO readProduct = new ProductConverters.Read().convert(document);
+
+            // Then:
+            log.info("The test checks if the documents and the products are the same.");
+            assertThat(document).isEqualTo(expected);
+            assertThat(readProduct).isEqualTo(reflection.read(ProductDTO.class, expected));
+            assertThat(readProduct).isEqualTo(product);
+        }
+    }
+
+    @Test
+    @DisplayName("Should convert the products through the mapping converter, and read the documents written with _class.")
+    void registered() {
+        log.info("Entered registered test in ProductConvertersTest class.");
+
+        // Given:
+        ProductDTO product = fullProduct();
+        Document storedBefore = new Document();
+        reflection.write(product, storedBefore);
+
+        // When:
+        Document document = new Document();
+        converters.write(product, document);
+
+        // Then:
+        log.info("The test checks if the hand written converters were used, and the old documents read the same.");
+        assertThat(document.containsKey("_class")).isFalse();
+        assertThat(converters.read(ProductDTO.class, document)).isEqualTo(product);
+        assertThat(converters.read(ProductDTO.class, storedBefore)).isEqualTo(product);
+    }
+
+    static ProductDTO fullProduct() {
+        ProductDTO product = new ProductDTO("Roasted Salmon", "Roasted Salmon on pumpkin cream", "https://example.com/salmon.jpg", 108);
+        product.setId(new ObjectId().toHexString());
+        product.setTenantId("downtown");
+        return product;
+    }
+}
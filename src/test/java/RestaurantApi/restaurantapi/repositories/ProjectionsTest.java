@@ -0,0 +1,79 @@
+package RestaurantApi.restaurantapi.repositories;
+
+import RestaurantApi.restaurantapi.exceptions.RequestExceptions;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class contains all the tests for Projections class.
+ */
+@Slf4j
+class ProjectionsTest {
+
+    @Test
+    @DisplayName("Should read only the requested fields from Mongo.")
+    void query() {
+        log.info("Entered query test in ProjectionsTest class.");
+
+        // When:
+        Query query = Projections.query(List.of("name", "price"), ProductRepositoryCustomImpl.PRODUCT_FIELDS);
+
+        // Then:
+        log.info("The test checks if the projection includes only the requested fields.");
+        assertThat(query.getFieldsObject()).isEqualTo(new Document("name", 1).append("price", 1).append("_id", 0));
+    }
+
+    @Test
+    @DisplayName("Should read the _id field when the id is requested.")
+    void queryWithId() {
+        log.info("Entered queryWithId test in ProjectionsTest class.");
+
+        // When:
+        Query query = Projections.query(List.of("id", "price"), OrderRepositoryCustomImpl.ORDER_FIELDS);
+
+        // Then:
+        log.info("The test checks if the projection includes the _id field.");
+        assertThat(query.getFieldsObject()).isEqualTo(new Document("_id", 1).append("price", 1));
+    }
+
+    @Test
+    @DisplayName("Should throw an exception when a requested field isn't a field of the model.")
+    void queryWithUnknownField() {
+        log.info("Entered queryWithUnknownField test in ProjectionsTest class.");
+
+        // When:
+        RequestExceptions requestExceptions = assertThrows(RequestExceptions.class, () ->
+                Projections.query(List.of("idempotencyKey"), OrderRepositoryCustomImpl.ORDER_FIELDS));
+
+        // Then:
+        log.info("The test checks if the exception names the unknown field.");
+        assertTrue(requestExceptions.getMessage().contains("idempotencyKey"));
+    }
+
+    @Test
+    @DisplayName("Should name the _id field id in the response.")
+    void toResponse() {
+        log.info("Entered toResponse test in ProjectionsTest class.");
+
+        // Given:
+        ObjectId id = new ObjectId();
+
+        // When:
+        Map<String, Object> response = Projections.toResponse(new Document("_id", id).append("price", 166));
+
+        // Then:
+        log.info("The test checks if the id is the hex string of the _id field.");
+        assertThat(response).isEqualTo(Map.of("id", id.toHexString(), "price", 166));
+    }
+}
@@ -0,0 +1,148 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.CatalogEventsProperties;
+import RestaurantApi.restaurantapi.models.CatalogEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * This class contains all the tests for CatalogEventBus class.
+ */
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CatalogEventBusTest {
+
+    @Mock
+    MongoTemplate mongoTemplate;
+
+    CatalogEventBus catalogEventBus;
+
+    List<CatalogEvent> delivered;
+
+    @BeforeEach
+    public void setUp(){
+        catalogEventBus = new CatalogEventBus(mongoTemplate, new CatalogEventsProperties());
+        delivered = new ArrayList<>();
+        catalogEventBus.addListener(delivered::add);
+    }
+
+    @Test
+    @DisplayName("Should deliver a published event locally and write it to the capped collection.")
+    void publishProductChanged() {
+        log.info("Entered publishProductChanged test in CatalogEventBusTest class.");
+
+        // When:
+        catalogEventBus.publishProductChanged(null, "Polenta");
+
+        // Then:
+        log.info("The test checks if the event was delivered and written.");
+        assertThat(delivered.size()).isEqualTo(1);
+        assertThat(delivered.get(0).getProductName()).isEqualTo("Polenta");
+        Mockito.verify(mongoTemplate, Mockito.times(1)).insert(any(CatalogEvent.class), eq(CatalogEventBus.COLLECTION));
+    }
+
+    @Test
+    @DisplayName("Should not fail the saved change when its event can't be written, and publish a whole catalog change later.")
+    void publishProductChangedWhenTheDatabaseFails() {
+        log.info("Entered publishProductChangedWhenTheDatabaseFails test in CatalogEventBusTest class.");
+
+        // Given:
+        Mockito.when(mongoTemplate.insert(any(CatalogEvent.class), eq(CatalogEventBus.COLLECTION)))
+                .thenThrow(new DataAccessResourceFailureException("timeout"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When:
+        catalogEventBus.publishProductChanged(null, "Polenta");
+        catalogEventBus.publishUnpublished();
+        catalogEventBus.publishUnpublished();
+
+        // Then:
+        log.info("The test checks if the change was delivered locally, and the whole catalog change was written once.");
+        assertThat(delivered.size()).isEqualTo(1);
+        ArgumentCaptor<CatalogEvent> written = ArgumentCaptor.forClass(CatalogEvent.class);
+        Mockito.verify(mongoTemplate, Mockito.times(2)).insert(written.capture(), eq(CatalogEventBus.COLLECTION));
+        assertThat(written.getAllValues().get(1).getType()).isEqualTo(CatalogEvent.Type.CATALOG_CHANGED);
+        assertThat(written.getAllValues().get(1).getNodeId()).isEqualTo(catalogEventBus.getNodeId());
+    }
+
+    @Test
+    @DisplayName("Should deliver the events of the other instances and skip the events of this instance.")
+    void onEvent() {
+        log.info("Entered onEvent test in CatalogEventBusTest class.");
+
+        // When:
+        catalogEventBus.onEvent(CatalogEvent.productChanged(null, "Polenta", catalogEventBus.getNodeId()));
+        catalogEventBus.onEvent(CatalogEvent.productChanged(null, "Margherita Pizza", "other-node"));
+
+        // Then:
+        log.info("The test checks if only the event of the other instance was delivered.");
+        assertThat(delivered.size()).isEqualTo(1);
+        assertThat(delivered.get(0).getProductName()).isEqualTo("Margherita Pizza");
+    }
+
+    @Test
+    @DisplayName("Should deliver the polled events when the tail is down.")
+    void poll() {
+        log.info("Entered poll test in CatalogEventBusTest class.");
+
+        // Given:
+        Date now = new Date();
+        CatalogEvent event = new CatalogEvent(new ObjectId(now), CatalogEvent.Type.PRODUCT_CHANGED, null, "Polenta", "other-node", now);
+        Mockito.when(mongoTemplate.findOne(any(Query.class), eq(CatalogEvent.class), eq(CatalogEventBus.COLLECTION)))
+                .thenReturn(new CatalogEvent(new ObjectId(new Date(0)), CatalogEvent.Type.NODE_STARTED, null, null, "other-node", new Date(0)));
+        Mockito.when(mongoTemplate.find(any(Query.class), eq(CatalogEvent.class), eq(CatalogEventBus.COLLECTION)))
+                .thenReturn(List.of(event));
+
+        // When:
+        catalogEventBus.poll();
+
+        // Then:
+        log.info("The test checks if the polled event was delivered.");
+        assertThat(delivered.size()).isEqualTo(1);
+        assertThat(delivered.get(0).getProductName()).isEqualTo("Polenta");
+    }
+
+    @Test
+    @DisplayName("Should tell the listeners that the whole catalog changed when events were lost.")
+    void pollAfterLostEvents() {
+        log.info("Entered pollAfterLostEvents test in CatalogEventBusTest class.");
+
+        // Given:
+        log.info("Making the oldest event in the capped collection newer than the latest delivered event.");
+        Date future = new Date(System.currentTimeMillis() + 60000);
+        Mockito.when(mongoTemplate.findOne(any(Query.class), eq(CatalogEvent.class), eq(CatalogEventBus.COLLECTION)))
+                .thenReturn(new CatalogEvent(new ObjectId(future), CatalogEvent.Type.PRODUCT_CHANGED, null, "Polenta", "other-node", future));
+        Mockito.when(mongoTemplate.find(any(Query.class), eq(CatalogEvent.class), eq(CatalogEventBus.COLLECTION)))
+                .thenReturn(List.of());
+
+        // When:
+        catalogEventBus.poll();
+
+        // Then:
+        log.info("The test checks if a catalog changed event was delivered.");
+        assertThat(delivered.size()).isEqualTo(1);
+        assertThat(delivered.get(0).getType()).isEqualTo(CatalogEvent.Type.CATALOG_CHANGED);
+    }
+}
@@ -0,0 +1,159 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.ResilienceProperties;
+import RestaurantApi.restaurantapi.exceptions.DependencyExceptions;
+import RestaurantApi.restaurantapi.utils.CallGuard;
+import RestaurantApi.restaurantapi.utils.CheckedSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * This class contains the load test scenario of the adaptive concurrency limit of the database calls.
+ * It offers increasing load to a simulated database and logs the goodput curve with and without the limit.
+ * It takes seconds and asserts on timing, so it runs only in the load profile: mvn -Pload test
+ */
+@Slf4j
+@Tag("load")
+class DependencyServiceLoadTest {
+
+    private static final int DATABASE_CAPACITY = 4; //Concurrent calls the simulated database serves at full speed.
+    private static final long SERVICE_TIME_MILLIS = 10;
+    private static final long DEADLINE_MILLIS = 200; //Calls that take longer are useless to the client.
+    private static final long LEVEL_MILLIS = 500;
+    private static final int SERVER_THREADS = 200;
+
+    @Test
+    @DisplayName("Should keep the goodput and the p99 latency stable when the offered load is over the database capacity.")
+    void goodputCurve() throws InterruptedException {
+        log.info("Entered goodputCurve test in DependencyServiceLoadTest class.");
+
+        // Given:
+        int capacityPerSecond = (int) (DATABASE_CAPACITY * 1000 / SERVICE_TIME_MILLIS);
+        int[] offeredLoads = {capacityPerSecond / 2, capacityPerSecond, capacityPerSecond * 2, capacityPerSecond * 3};
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.getMongoConcurrency().setMinLimit(2);
+
+        // When:
+        List<LevelResult> unlimited = new ArrayList<>();
+        List<LevelResult> limited = new ArrayList<>();
+        for (int offeredLoad : offeredLoads) {
+            unlimited.add(runLevel(offeredLoad, new PassThroughGuard()));
+        }
+        DependencyService dependencyService = new DependencyService(properties);
+        for (int offeredLoad : offeredLoads) {
+            limited.add(runLevel(offeredLoad, dependencyService.databaseConcurrencyLimiter()));
+        }
+
+        // Then:
+        log.info(String.format("%-10s | %-28s | %-40s", "offered/s", "no limit: goodput/s  p99 ms", "adaptive limit: goodput/s  p99 ms  shed"));
+        for (int i = 0; i < offeredLoads.length; i++) {
+            log.info(String.format("%-10d | %10d %10d       | %10d %10d %8d", offeredLoads[i],
+                    unlimited.get(i).goodputPerSecond, unlimited.get(i).p99Millis,
+                    limited.get(i).goodputPerSecond, limited.get(i).p99Millis, limited.get(i).shed));
+        }
+        log.info("The final adaptive limit is " + dependencyService.databaseConcurrencyLimiter().getLimit() + ".");
+        log.info("The test checks if nothing is shed while the load is under the capacity.");
+        assertThat(limited.get(0).shed).isEqualTo(0);
+        LevelResult overloadedWithoutLimit = unlimited.get(offeredLoads.length - 1);
+        LevelResult overloadedWithLimit = limited.get(offeredLoads.length - 1);
+        log.info("The test checks if the limit keeps more goodput and a lower p99 latency when the database is overloaded.");
+        assertThat(overloadedWithLimit.goodputPerSecond).isGreaterThan(overloadedWithoutLimit.goodputPerSecond);
+        assertThat(overloadedWithLimit.p99Millis).isLessThan(overloadedWithoutLimit.p99Millis);
+    }
+
+    /**
+     * This function offers a constant load for one level of the scenario.
+     * @param requestsPerSecond - the offered load.
+     * @param guard - the guard of the database calls.
+     * @return the result of the level.
+     */
+    private LevelResult runLevel(int requestsPerSecond, CallGuard guard) throws InterruptedException {
+        SimulatedDatabase database = new SimulatedDatabase();
+        ExecutorService serverThreads = Executors.newFixedThreadPool(SERVER_THREADS);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger shed = new AtomicInteger();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long start = System.nanoTime();
+        long next = start;
+        while (next - start < TimeUnit.MILLISECONDS.toNanos(LEVEL_MILLIS)) {
+            long arrival = next;
+            serverThreads.execute(() -> {
+                try {
+                    guard.execute(database::call);
+                    latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - arrival));
+                } catch (DependencyExceptions e) {
+                    shed.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            next += intervalNanos;
+            long sleepNanos = next - System.nanoTime();
+            if (sleepNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            }
+        }
+        serverThreads.shutdown();
+        serverThreads.awaitTermination(1, TimeUnit.MINUTES);
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long good = sorted.stream().filter(latency -> latency <= DEADLINE_MILLIS).count();
+        long p99 = sorted.isEmpty() ? 0 : sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(sorted.size() * 0.99) - 1));
+        return new LevelResult(good * 1000 / LEVEL_MILLIS, p99, shed.get());
+    }
+
+    /**
+     * A database that serves DATABASE_CAPACITY calls at full speed and shares its time between the calls above it.
+     */
+    private static class SimulatedDatabase {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        Object call() throws InterruptedException {
+            int concurrentCalls = inFlight.incrementAndGet();
+            try {
+                Thread.sleep(SERVICE_TIME_MILLIS * Math.max(DATABASE_CAPACITY, concurrentCalls) / DATABASE_CAPACITY);
+                return null;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * A guard that lets all the calls through, the baseline of the scenario.
+     */
+    private static class PassThroughGuard implements CallGuard {
+
+        @Override
+        public <T, E extends Exception> T execute(CheckedSupplier<T, E> call) throws E {
+            return call.get();
+        }
+    }
+
+    private static class LevelResult {
+
+        final long goodputPerSecond;
+        final long p99Millis;
+        final int shed;
+
+        LevelResult(long goodputPerSecond, long p99Millis, int shed) {
+            this.goodputPerSecond = goodputPerSecond;
+            this.p99Millis = p99Millis;
+            this.shed = shed;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.ResilienceProperties;
+import RestaurantApi.restaurantapi.exceptions.DependencyExceptions;
+import RestaurantApi.restaurantapi.exceptions.RequestExceptions;
+import RestaurantApi.restaurantapi.models.CircuitBreakerStatus;
+import RestaurantApi.restaurantapi.repositories.ProductRepository;
+import RestaurantApi.restaurantapi.utils.FaultInjector;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.FileNotFoundException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * This class contains all the tests for DependencyService class.
+ */
+@Slf4j
+class DependencyServiceTest {
+
+    FaultInjector faultInjector;
+
+    DependencyService dependencyService;
+
+    ProductService productService;
+
+    @BeforeEach
+    public void setUp(){
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.getMongo().setMinimumCalls(4);
+        properties.getMongo().setWindowSize(4);
+        properties.getMongo().setSlowCallThreshold(Duration.ofMillis(20));
+        properties.getMongo().setOpenDuration(Duration.ofMillis(50));
+        properties.getMongo().setHalfOpenProbes(2);
+        faultInjector = new FaultInjector();
+        dependencyService = new DependencyService(properties);
+        ProductRepository productRepository = Mockito.mock(ProductRepository.class, faultInjector);
+        CatalogEventBus catalogEventBus = Mockito.mock(CatalogEventBus.class);
+        ProductCacheService productCacheService = new ProductCacheService(productRepository, dependencyService, catalogEventBus);
+        productService = new ProductService(productRepository, productCacheService,
+                new ProductSearchService(productRepository, productCacheService, catalogEventBus, dependencyService),
+                catalogEventBus, dependencyService);
+    }
+
+    @Test
+    @DisplayName("Should fail fast without calling the database when the circuit is open.")
+    void openOnFailures() {
+        log.info("Entered openOnFailures test in DependencyServiceTest class.");
+
+        // Given:
+        log.info("Going to make the database fail until the circuit opens.");
+        faultInjector.setFailing(true);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(DataAccessResourceFailureException.class, () -> productService.getAllProducts(null));
+        }
+
+        // When:
+        DependencyExceptions dependencyExceptions = assertThrows(DependencyExceptions.class, () -> productService.getAllProducts(null));
+
+        // Then:
+        log.info("The test checks if the database wasn't called once the circuit opened.");
+        assertThat(faultInjector.getCalls()).isEqualTo(4);
+        assertThat(dependencyExceptions.getMessage()).isEqualTo(DependencyExceptions.CircuitOpenException("database"));
+        CircuitBreakerStatus status = dependencyService.databaseCircuitBreaker().getStatus();
+        assertThat(status.getState()).isEqualTo("OPEN");
+        assertThat(status.getFailedCalls()).isEqualTo(4L);
+        assertThat(status.getRejectedCalls()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should open the circuit when the database answers too slowly.")
+    void openOnSlowCalls() {
+        log.info("Entered openOnSlowCalls test in DependencyServiceTest class.");
+
+        // Given:
+        log.info("Going to make the database slow.");
+        faultInjector.setLatencyMillis(30);
+
+        // When:
+        for (int i = 0; i < 4; i++) {
+            productService.getAllProducts(null);
+        }
+
+        // Then:
+        log.info("The test checks if the slow calls opened the circuit.");
+        assertThat(dependencyService.databaseCircuitBreaker().getStatus().getSlowCalls()).isEqualTo(4L);
+        assertThat(dependencyService.databaseCircuitBreaker().getState().name()).isEqualTo("OPEN");
+    }
+
+    @Test
+    @DisplayName("Should close the circuit after successful probes when the database recovers.")
+    void closeAfterProbes() throws InterruptedException {
+        log.info("Entered closeAfterProbes test in DependencyServiceTest class.");
+
+        // Given:
+        log.info("Going to open the circuit.");
+        faultInjector.setFailing(true);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(DataAccessResourceFailureException.class, () -> productService.getAllProducts(null));
+        }
+        log.info("Going to recover the database and wait for the open duration.");
+        faultInjector.setFailing(false);
+        Thread.sleep(60);
+
+        // When:
+        productService.getAllProducts(null);
+        String stateAfterFirstProbe = dependencyService.databaseCircuitBreaker().getState().name();
+        productService.getAllProducts(null);
+
+        // Then:
+        log.info("The test checks if the circuit was half open during the probes and closed after them.");
+        assertThat(stateAfterFirstProbe).isEqualTo("HALF_OPEN");
+        assertThat(dependencyService.databaseCircuitBreaker().getState().name()).isEqualTo("CLOSED");
+    }
+
+    @Test
+    @DisplayName("Should open the circuit again when a probe fails.")
+    void reopenWhenProbeFails() throws InterruptedException {
+        log.info("Entered reopenWhenProbeFails test in DependencyServiceTest class.");
+
+        // Given:
+        faultInjector.setFailing(true);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(DataAccessResourceFailureException.class, () -> productService.getAllProducts(null));
+        }
+        Thread.sleep(60);
+
+        // When:
+        assertThrows(DataAccessResourceFailureException.class, () -> productService.getAllProducts(null));
+
+        // Then:
+        log.info("The test checks if the failed probe opened the circuit again.");
+        assertThat(dependencyService.databaseCircuitBreaker().getState().name()).isEqualTo("OPEN");
+        assertThrows(DependencyExceptions.class, () -> productService.getAllProducts(null));
+    }
+
+    @Test
+    @DisplayName("Should not count the wait for the concurrency limit as a slow database call.")
+    void queuedCallIsNotSlow() throws Exception {
+        log.info("Entered queuedCallIsNotSlow test in DependencyServiceTest class.");
+
+        // Given:
+        log.info("Going to allow a single database call at a time, so the second call waits for the first.");
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.getMongo().setSlowCallThreshold(Duration.ofMillis(50));
+        properties.getMongoConcurrency().setInitialLimit(1);
+        properties.getMongoConcurrency().setMinLimit(1);
+        properties.getMongoConcurrency().setMaxLimit(1);
+        properties.getMongoConcurrency().setMaxQueueWait(Duration.ofSeconds(5));
+        DependencyService dependencies = new DependencyService(properties);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Thread slowCall = new Thread(() -> {
+            try {
+                dependencies.database().execute(() -> {
+                    started.countDown();
+                    finish.await();
+                    return null;
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        slowCall.start();
+        started.await();
+        Thread queuedCall = new Thread(() -> dependencies.database().execute(() -> null));
+        queuedCall.start();
+
+        // When:
+        while (dependencies.databaseConcurrencyLimiter().getStatus().getQueued() == 0) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(100);
+        finish.countDown();
+        slowCall.join();
+        queuedCall.join();
+
+        // Then:
+        log.info("The test checks if only the call that held the database was slow, not the call that waited for it.");
+        CircuitBreakerStatus status = dependencies.databaseCircuitBreaker().getStatus();
+        assertThat(status.getCalls()).isEqualTo(2L);
+        assertThat(status.getSlowCalls()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should keep the circuit closed when clients ask for unknown fields.")
+    void closedOnUnknownFields() {
+        log.info("Entered closedOnUnknownFields test in DependencyServiceTest class.");
+
+        // When:
+        for (int i = 0; i < 8; i++) {
+            assertThrows(RequestExceptions.class, () -> productService.getAllProducts(null, Set.of("bogus")));
+            assertThrows(RequestExceptions.class, () -> dependencyService.database().execute(() -> {
+                throw new RequestExceptions(RequestExceptions.UnknownFieldException("bogus"));
+            }));
+        }
+
+        // Then:
+        log.info("The test checks if the fields were rejected before the database and the errors didn't open the circuit.");
+        assertThat(faultInjector.getCalls()).isEqualTo(0);
+        CircuitBreakerStatus status = dependencyService.databaseCircuitBreaker().getStatus();
+        assertThat(status.getState()).isEqualTo("CLOSED");
+        assertThat(status.getFailedCalls()).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("Should open the circuit of an image host only on its timeouts, not on the bad URLs of clients or on other hosts.")
+    void imageHostCircuits() {
+        log.info("Entered imageHostCircuits test in DependencyServiceTest class.");
+
+        // When:
+        for (int i = 0; i < 10; i++) {
+            assertThrows(FileNotFoundException.class, () -> dependencyService.imageHost("images.example.com").execute(() -> {
+                throw new FileNotFoundException("https://images.example.com/missing.jpg");
+            }));
+            assertThrows(SocketTimeoutException.class, () -> dependencyService.imageHost("slow.example.com").execute(() -> {
+                throw new SocketTimeoutException("Read timed out");
+            }));
+        }
+
+        // Then:
+        log.info("The test checks if only the circuit of the host that timed out opened.");
+        assertThat(dependencyService.imageHost("images.example.com").getState().name()).isEqualTo("CLOSED");
+        assertThat(dependencyService.imageHost("slow.example.com").getState().name()).isEqualTo("OPEN");
+        assertThat(dependencyService.imageHost("other.example.com").getState().name()).isEqualTo("CLOSED");
+        assertThat(dependencyService.getStatuses().size()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,303 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.InventoryProperties;
+import RestaurantApi.restaurantapi.config.ResilienceProperties;
+import RestaurantApi.restaurantapi.exceptions.ErrorCode;
+import RestaurantApi.restaurantapi.exceptions.OrderExceptions;
+import RestaurantApi.restaurantapi.models.OrderLine;
+import RestaurantApi.restaurantapi.models.ProductStock;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * This class contains all the tests for InventoryService class.
+ * The stock in the database is simulated by the answers of the mocked MongoTemplate, which apply the claims atomically like Mongo.
+ */
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InventoryServiceTest {
+
+    static final String TENANT = "downtown";
+
+    @Mock
+    MongoTemplate mongoTemplate;
+
+    @Mock
+    BulkOperations bulkOperations;
+
+    InventoryProperties properties;
+    final Map<String, Long> stockByProduct = new HashMap<>(); //The stock in the database, guarded by itself.
+    final AtomicLong savedSold = new AtomicLong(); //The sold units that the flushes saved.
+    final List<ProductStock> expiredStocks = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp(){
+        properties = new InventoryProperties();
+        Mockito.when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ProductStock.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            Document inc = (Document) ((Update) invocation.getArgument(1)).getUpdateObject().get("$inc");
+            String product = query.getQueryObject().getString("productName");
+            Object minimum = query.getQueryObject().get("stock");
+            long units = ((Number) inc.get("stock")).longValue();
+            synchronized (stockByProduct) {
+                if (product != null && (stockByProduct.get(product) + units < 0
+                        || minimum != null && stockByProduct.get(product) < ((Number) ((Document) minimum).get("$gte")).longValue())) {
+                    return UpdateResult.acknowledged(0, 0L, null);
+                }
+                stockByProduct.merge(product, units, Long::sum);
+                return UpdateResult.acknowledged(1, 1L, null);
+            }
+        });
+        Mockito.when(mongoTemplate.findOne(any(Query.class), eq(ProductStock.class))).thenAnswer(invocation -> {
+            String product = ((Query) invocation.getArgument(0)).getQueryObject().getString("productName");
+            synchronized (stockByProduct) {
+                return new ProductStock(null, TENANT, product, stockByProduct.get(product), new ArrayList<>());
+            }
+        });
+        Mockito.when(mongoTemplate.find(any(Query.class), eq(ProductStock.class))).thenAnswer(invocation -> {
+            if (((Query) invocation.getArgument(0)).getQueryObject().containsKey("leases.date")) {
+                return expiredStocks;
+            }
+            List<ProductStock> tracked = new ArrayList<>();
+            stockByProduct.keySet().forEach(product -> tracked.add(new ProductStock(null, TENANT, product, 0, new ArrayList<>())));
+            return tracked;
+        });
+        Mockito.when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(ProductStock.class))).thenReturn(bulkOperations);
+        Mockito.when(bulkOperations.updateOne(any(Query.class), any(Update.class))).thenAnswer(invocation -> {
+            Document inc = (Document) ((Update) invocation.getArgument(1)).getUpdateObject().get("$inc");
+            if (inc != null) {
+                savedSold.addAndGet(((Number) inc.get("leases.$.sold")).longValue());
+                if (inc.containsKey("stock")) {
+                    synchronized (stockByProduct) {
+                        stockByProduct.merge(((Query) invocation.getArgument(0)).getQueryObject().getString("productName"),
+                                ((Number) inc.get("stock")).longValue(), Long::sum);
+                    }
+                }
+            }
+            return bulkOperations;
+        });
+    }
+
+    @Test
+    @DisplayName("Should sell exactly the stock of a product under concurrent orders, and save every sold unit.")
+    void concurrentOrders() throws InterruptedException {
+        log.info("Entered concurrentOrders test in InventoryServiceTest class.");
+
+        // Given:
+        stockByProduct.put("Pizza", 1000L);
+        InventoryService inventory = inventory();
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        ExecutorService orderThreads = Executors.newFixedThreadPool(16);
+
+        // When:
+        for (int i = 0; i < 1600; i++) {
+            orderThreads.execute(() -> {
+                try {
+                    inventory.reserve(TENANT, List.of(line("Pizza", 1)));
+                    accepted.incrementAndGet();
+                } catch (OrderExceptions e) {
+                    rejected.incrementAndGet();
+                }
+            });
+        }
+        orderThreads.shutdown();
+        orderThreads.awaitTermination(1, TimeUnit.MINUTES);
+        inventory.flush();
+
+        // Then:
+        log.info("The test checks if the stock was sold exactly once and the sold units were saved.");
+        assertThat(accepted.get()).isEqualTo(1000L);
+        assertThat(rejected.get()).isEqualTo(600L);
+        assertThat(stockByProduct.get("Pizza")).isEqualTo(0L);
+        assertThat(savedSold.get()).isEqualTo(1000L);
+    }
+
+    @Test
+    @DisplayName("Should reject an order with a product that ran out and put back the units of its other products.")
+    void outOfStock() throws OrderExceptions {
+        log.info("Entered outOfStock test in InventoryServiceTest class.");
+
+        // Given:
+        stockByProduct.put("Pizza", 5L);
+        stockByProduct.put("Pasta", 1L);
+        InventoryService inventory = inventory();
+
+        // When:
+        OrderExceptions exception = assertThrows(OrderExceptions.class,
+                () -> inventory.reserve(TENANT, List.of(line("Pizza", 5), line("Pasta", 2))));
+        inventory.reserve(TENANT, List.of(line("Pizza", 5)));
+
+        // Then:
+        log.info("The test checks if the order was rejected and the units of the pizza were put back.");
+        assertThat(exception.getCode()).isEqualTo(ErrorCode.OUT_OF_STOCK);
+        assertThat(stockByProduct.get("Pizza")).isEqualTo(0L);
+        assertThrows(OrderExceptions.class, () -> inventory.reserve(TENANT, List.of(line("Pizza", 1))));
+    }
+
+    @Test
+    @DisplayName("Should accept any order of a product whose stock isn't tracked, without the database.")
+    void untrackedProduct() throws OrderExceptions {
+        log.info("Entered untrackedProduct test in InventoryServiceTest class.");
+
+        // Given:
+        InventoryService inventory = inventory();
+
+        // When:
+        inventory.reserve(TENANT, List.of(line("Salad", 100)));
+
+        // Then:
+        log.info("The test checks if the order was accepted without claiming any stock.");
+        Mockito.verify(mongoTemplate, Mockito.never()).updateFirst(any(Query.class), any(Update.class), eq(ProductStock.class));
+    }
+
+    @Test
+    @DisplayName("Should give the unsold units of the leases back to the stock when the instance stops.")
+    void giveBackOnStop() throws OrderExceptions {
+        log.info("Entered giveBackOnStop test in InventoryServiceTest class.");
+
+        // Given:
+        stockByProduct.put("Pizza", 100L);
+        InventoryService inventory = inventory();
+        inventory.reserve(TENANT, List.of(line("Pizza", 3)));
+
+        // When:
+        inventory.stop();
+
+        // Then:
+        log.info("The test checks if only the sold units left the stock.");
+        assertThat(stockByProduct.get("Pizza")).isEqualTo(97L);
+        assertThat(savedSold.get()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Should give the unsold units of an expired lease back to the stock, e.g. of an instance that crashed.")
+    void reconcileExpiredLease() {
+        log.info("Entered reconcileExpiredLease test in InventoryServiceTest class.");
+
+        // Given:
+        stockByProduct.put("Pizza", 10L);
+        Date expired = new Date(System.currentTimeMillis() - Duration.ofMinutes(5).toMillis());
+        Date renewed = new Date();
+        expiredStocks.add(new ProductStock("1", TENANT, "Pizza", 10, new ArrayList<>(List.of(
+                new ProductStock.Lease("crashed:1", 20, 5, expired), new ProductStock.Lease("alive:1", 20, 5, renewed)))));
+        InventoryService inventory = inventory();
+
+        // When:
+        int reclaimed = inventory.reconcile();
+
+        // Then:
+        log.info("The test checks if only the expired lease was reclaimed, guarded by its date.");
+        assertThat(reclaimed).isEqualTo(1);
+        Mockito.verify(mongoTemplate).updateFirst(Mockito.argThat(query -> query.getQueryObject().toJson().contains("crashed:1")),
+                Mockito.argThat(update -> ((Update) update).getUpdateObject().get("$inc", Document.class).get("stock").equals(15L)),
+                eq(ProductStock.class));
+    }
+
+    @Test
+    @DisplayName("Should stop selling from a lease that wasn't renewed, and save its sold units to it later.")
+    void staleLease() throws OrderExceptions, InterruptedException {
+        log.info("Entered staleLease test in InventoryServiceTest class.");
+
+        // Given:
+        properties.setFlushInterval(Duration.ofMillis(10));
+        properties.setLeaseExpiry(Duration.ofMillis(40));
+        stockByProduct.put("Pizza", 100L);
+        InventoryService inventory = inventory();
+        inventory.reserve(TENANT, List.of(line("Pizza", 2)));
+        Thread.sleep(50);
+
+        // When:
+        inventory.reserve(TENANT, List.of(line("Pizza", 1)));
+        inventory.flush();
+
+        // Then:
+        log.info("The test checks if a second lease was taken and the units of both were saved.");
+        assertThat(stockByProduct.get("Pizza")).isEqualTo(60L);
+        assertThat(savedSold.get()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Should leave the last units in the stock, and give back the units of an idle lease, for the other instances.")
+    void lastUnitsAcrossInstances() throws OrderExceptions {
+        log.info("Entered lastUnitsAcrossInstances test in InventoryServiceTest class.");
+
+        // Given:
+        stockByProduct.put("Pizza", 45L);
+        InventoryService first = inventory();
+        InventoryService second = inventory();
+        first.reserve(TENANT, List.of(line("Pizza", 1)));
+
+        // When:
+        second.reserve(TENANT, List.of(line("Pizza", 25)));
+        OrderExceptions exception = assertThrows(OrderExceptions.class, () -> second.reserve(TENANT, List.of(line("Pizza", 1))));
+        first.flush();
+        first.flush();
+        second.reserve(TENANT, List.of(line("Pizza", 19)));
+
+        // Then:
+        log.info("The test checks if the second instance claimed only its units, and sold the idle units of the first one.");
+        assertThat(exception.getCode()).isEqualTo(ErrorCode.OUT_OF_STOCK);
+        assertThat(stockByProduct.get("Pizza")).isEqualTo(0L);
+        assertThrows(OrderExceptions.class, () -> first.reserve(TENANT, List.of(line("Pizza", 1))));
+    }
+
+    @Test
+    @DisplayName("Should put the units of a cancelled order back to the stock in the database.")
+    void restock() throws OrderExceptions {
+        log.info("Entered restock test in InventoryServiceTest class.");
+
+        // Given:
+        stockByProduct.put("Pizza", 50L);
+        InventoryService inventory = inventory();
+        inventory.reserve(TENANT, List.of(line("Pizza", 2)));
+
+        // When:
+        inventory.restock(TENANT, List.of(line("Pizza", 2), line("Salad", 1)));
+
+        // Then:
+        log.info("The test checks if the units of the tracked product went back to the stock.");
+        assertThat(stockByProduct.get("Pizza")).isEqualTo(32L);
+        assertThat(stockByProduct.containsKey("Salad")).isFalse();
+    }
+
+    InventoryService inventory() {
+        return new InventoryService(mongoTemplate, properties, Mockito.mock(ProductCacheService.class),
+                Mockito.mock(CatalogEventBus.class), new DependencyService(new ResilienceProperties()));
+    }
+
+    static OrderLine line(String productName, int quantity) {
+        return new OrderLine(productName, quantity, 10, 10 * quantity);
+    }
+}
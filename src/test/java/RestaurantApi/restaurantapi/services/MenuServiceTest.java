@@ -0,0 +1,165 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.ResilienceProperties;
+import RestaurantApi.restaurantapi.models.CatalogEvent;
+import RestaurantApi.restaurantapi.models.MenuSnapshot;
+import RestaurantApi.restaurantapi.models.ProductDTO;
+import RestaurantApi.restaurantapi.repositories.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static RestaurantApi.restaurantapi.utils.Utils.createProductData;
+import static RestaurantApi.restaurantapi.utils.Utils.createProducts;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * This class contains all the tests for MenuService class.
+ */
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MenuServiceTest {
+
+    @Mock
+    ProductRepository productRepository;
+
+    @Mock
+    CatalogEventBus catalogEventBus;
+
+    MenuService menuService;
+
+    @BeforeEach
+    public void setUp(){
+        menuService = new MenuService(productRepository, new DependencyService(new ResilienceProperties()), catalogEventBus);
+        Mockito.when(productRepository.findAll()).thenReturn(createProducts());
+        menuService.reload();
+    }
+
+    @Test
+    @DisplayName("Should publish a new version on a change and keep the old snapshot unchanged.")
+    void onCatalogEvent() {
+        log.info("Entered onCatalogEvent test in MenuServiceTest class.");
+
+        // Given:
+        log.info("Going to take the current snapshot and change the price of a product.");
+        MenuSnapshot before = menuService.snapshot(null);
+        ProductDTO changed = createProductData();
+        changed.setPrice(200);
+        Mockito.when(productRepository.findProductByTenantIdAndName(null, changed.getName())).thenReturn(Optional.of(changed));
+
+        // When:
+        menuService.onCatalogEvent(CatalogEvent.productChanged(null, changed.getName(), "other-node"));
+        MenuSnapshot after = menuService.snapshot(null);
+
+        // Then:
+        log.info("The test checks that the new version has the new price and the old one the old price.");
+        assertThat(after.getVersion()).isNotEqualTo(before.getVersion());
+        assertThat(after.findProductByName(changed.getName()).get().getPrice()).isEqualTo(200);
+        assertThat(before.findProductByName(changed.getName()).get().getPrice()).isEqualTo(108);
+    }
+
+    @Test
+    @DisplayName("Should give the same menu the same version on every instance, and the menu with its old prices its old version.")
+    void versionOfTheMenu() {
+        log.info("Entered versionOfTheMenu test in MenuServiceTest class.");
+
+        // Given:
+        log.info("Going to load the same menu on another instance, as after a restart.");
+        MenuService otherInstance = new MenuService(productRepository, new DependencyService(new ResilienceProperties()), catalogEventBus);
+        ProductDTO changed = createProductData();
+        changed.setPrice(200);
+        ProductDTO restored = createProductData();
+        Mockito.when(productRepository.findProductByTenantIdAndName(null, changed.getName()))
+                .thenReturn(Optional.of(changed))
+                .thenReturn(Optional.of(restored));
+
+        // When:
+        otherInstance.reload();
+        long version = menuService.snapshot(null).getVersion();
+        menuService.onCatalogEvent(CatalogEvent.productChanged(null, changed.getName(), "other-node"));
+        long changedVersion = menuService.snapshot(null).getVersion();
+        menuService.onCatalogEvent(CatalogEvent.productChanged(null, changed.getName(), "other-node"));
+
+        // Then:
+        log.info("The test checks the versions of the same menus are equal and of the changed menu not.");
+        assertThat(version).isNotEqualTo(0L);
+        assertThat(otherInstance.snapshot(null).getVersion()).isEqualTo(version);
+        assertThat(changedVersion).isNotEqualTo(version);
+        assertThat(menuService.snapshot(null).getVersion()).isEqualTo(version);
+    }
+
+    @Test
+    @DisplayName("Should not let a change of a ProductDTO leak into a published snapshot.")
+    void snapshotIsImmutable() {
+        log.info("Entered snapshotIsImmutable test in MenuServiceTest class.");
+
+        // Given:
+        ProductDTO product = menuService.snapshot(null).findProductByName("Polenta").get();
+
+        // When:
+        product.setPrice(1);
+
+        // Then:
+        log.info("The test checks that the snapshot keeps its own copy.");
+        assertThat(menuService.snapshot(null).findProductByName("Polenta").get().getPrice()).isEqualTo(48);
+    }
+
+    @Test
+    @DisplayName("Should remove a changed product it couldn't read, so it isn't priced with its old version.")
+    void onCatalogEventWhenTheDatabaseIsDown() {
+        log.info("Entered onCatalogEventWhenTheDatabaseIsDown test in MenuServiceTest class.");
+
+        // Given:
+        Mockito.when(productRepository.findProductByTenantIdAndName(null, "Polenta")).thenThrow(new DataAccessResourceFailureException("down"));
+
+        // When:
+        menuService.onCatalogEvent(CatalogEvent.productChanged(null, "Polenta", "other-node"));
+
+        // Then:
+        log.info("The test checks that the product isn't on the menu anymore.");
+        assertThat(menuService.snapshot(null).findProductByName("Polenta").isPresent()).isFalse();
+        assertThat(menuService.snapshot(null).size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep a menu per location and change only the menu of the changed product.")
+    void menusOfTheLocations() {
+        log.info("Entered menusOfTheLocations test in MenuServiceTest class.");
+
+        // Given:
+        log.info("Going to load the menus of the default location and of the downtown location, whose polenta costs more.");
+        ProductDTO downtownPolenta = new ProductDTO("Polenta", "Polenta with almonds", "image", 52);
+        downtownPolenta.setTenantId("downtown");
+        List<ProductDTO> products = new ArrayList<>(createProducts());
+        products.add(downtownPolenta);
+        Mockito.when(productRepository.findAll()).thenReturn(products);
+        menuService.reload();
+        MenuSnapshot defaultMenu = menuService.snapshot(null);
+        downtownPolenta.setPrice(55);
+        Mockito.when(productRepository.findProductByTenantIdAndName("downtown", "Polenta")).thenReturn(Optional.of(downtownPolenta));
+
+        // When:
+        menuService.onCatalogEvent(CatalogEvent.productChanged("downtown", "Polenta", "other-node"));
+
+        // Then:
+        log.info("The test checks that every location prices the polenta with its own price.");
+        assertThat(menuService.snapshot("downtown").size()).isEqualTo(1);
+        assertThat(menuService.snapshot("downtown").findProductByName("Polenta").get().getPrice()).isEqualTo(55);
+        assertThat(menuService.snapshot(null).findProductByName("Polenta").get().getPrice()).isEqualTo(48);
+        assertThat(menuService.snapshot(null)).isSameAs(defaultMenu);
+        assertThat(menuService.snapshot("uptown").size()).isEqualTo(0);
+    }
+}
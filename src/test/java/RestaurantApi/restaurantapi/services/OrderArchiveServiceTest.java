@@ -0,0 +1,97 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.OrderArchiveProperties;
+import RestaurantApi.restaurantapi.config.ResilienceProperties;
+import RestaurantApi.restaurantapi.repositories.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * This class contains all the tests for OrderArchiveService class.
+ */
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OrderArchiveServiceTest {
+
+    @Mock
+    OrderRepository orderRepository;
+
+    OrderArchiveProperties properties;
+
+    @BeforeEach
+    public void setUp(){
+        properties = new OrderArchiveProperties();
+        properties.setBatchSize(2);
+        properties.setBatchPause(Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("Should archive batch after batch until a batch isn't full.")
+    void archive() throws InterruptedException {
+        log.info("Entered archive test in OrderArchiveServiceTest class.");
+
+        // Given:
+        OrderArchiveService orderArchiveService = new OrderArchiveService(orderRepository, properties,
+                new DependencyService(new ResilienceProperties()));
+        Mockito.when(orderRepository.archiveOrders(any(Date.class), eq(2))).thenReturn(2, 2, 1);
+
+        // When:
+        long archived = orderArchiveService.archive();
+
+        // Then:
+        log.info("The test checks if all the batches were archived.");
+        assertThat(archived).isEqualTo(5L);
+        Mockito.verify(orderRepository, Mockito.times(3)).archiveOrders(any(Date.class), eq(2));
+    }
+
+    @Test
+    @DisplayName("Should archive only the orders that are older than the maximal age.")
+    void archiveBeforeMaxAge() throws InterruptedException {
+        log.info("Entered archiveBeforeMaxAge test in OrderArchiveServiceTest class.");
+
+        // Given:
+        properties.setMaxAge(Duration.ofDays(10));
+        OrderArchiveService orderArchiveService = new OrderArchiveService(orderRepository, properties,
+                new DependencyService(new ResilienceProperties()));
+        long expected = System.currentTimeMillis() - Duration.ofDays(10).toMillis();
+
+        // When:
+        orderArchiveService.archive();
+
+        // Then:
+        log.info("The test checks if the archiver used the maximal age as the cutoff.");
+        Mockito.verify(orderRepository).archiveOrders(Mockito.argThat(before ->
+                Math.abs(before.getTime() - expected) < Duration.ofMinutes(1).toMillis()), eq(2));
+    }
+
+    @Test
+    @DisplayName("Should refuse a maximal age shorter than a day.")
+    void maxAgeShorterThanADay() {
+        log.info("Entered maxAgeShorterThanADay test in OrderArchiveServiceTest class.");
+
+        // Given:
+        properties.setMaxAge(Duration.ofHours(12));
+
+        // Then:
+        log.info("The test checks if the archiver can't be created.");
+        assertThrows(IllegalArgumentException.class, () -> new OrderArchiveService(orderRepository, properties,
+                new DependencyService(new ResilienceProperties())));
+    }
+}
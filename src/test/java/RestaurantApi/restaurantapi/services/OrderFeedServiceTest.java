@@ -0,0 +1,195 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.OrderFeedProperties;
+import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.OrderEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * This class contains all the tests for OrderFeedService class.
+ */
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OrderFeedServiceTest {
+
+    @Mock
+    MongoTemplate mongoTemplate;
+
+    OrderFeedProperties properties;
+
+    @BeforeEach
+    public void setUp(){
+        properties = new OrderFeedProperties();
+        properties.setShared(false);
+    }
+
+    @Test
+    @DisplayName("Should push an accepted order to the displays of its location only.")
+    void publish() {
+        log.info("Entered publish test in OrderFeedServiceTest class.");
+
+        // Given:
+        OrderFeedService orderFeed = orderFeed(Runnable::run);
+        RecordingEmitter downtown = (RecordingEmitter) orderFeed.subscribe("downtown", null);
+        RecordingEmitter uptown = (RecordingEmitter) orderFeed.subscribe("uptown", null);
+
+        // When:
+        orderFeed.publish(order("downtown", "1"));
+
+        // Then:
+        log.info("The test checks if only the display of the location got the order.");
+        assertThat(downtown.orders.size()).isEqualTo(1);
+        assertThat(downtown.orders.get(0).getId()).isEqualTo("1");
+        assertThat(uptown.orders.size()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Should replay the orders after the last event of a reconnecting display.")
+    void replayMissedOrders() {
+        log.info("Entered replayMissedOrders test in OrderFeedServiceTest class.");
+
+        // Given:
+        OrderFeedService orderFeed = orderFeed(Runnable::run);
+        long start = System.currentTimeMillis() - Duration.ofMinutes(10).toMillis();
+        OrderEvent first = event("1", new Date(start));
+        orderFeed.onEvent(first);
+        orderFeed.onEvent(event("2", new Date(start + Duration.ofMinutes(1).toMillis())));
+        orderFeed.onEvent(event("3", new Date(start + Duration.ofMinutes(2).toMillis())));
+
+        // When:
+        RecordingEmitter display = (RecordingEmitter) orderFeed.subscribe(null, first.getId().toHexString());
+
+        // Then:
+        log.info("The test checks if the display got the two orders after its last event, in their order.");
+        assertThat(display.orders.size()).isEqualTo(2);
+        assertThat(display.orders.get(0).getId()).isEqualTo("2");
+        assertThat(display.orders.get(1).getId()).isEqualTo("3");
+    }
+
+    @Test
+    @DisplayName("Should tell a display to reset when its last event isn't kept anymore.")
+    void resetUnknownLastEvent() {
+        log.info("Entered resetUnknownLastEvent test in OrderFeedServiceTest class.");
+
+        // Given:
+        OrderFeedService orderFeed = orderFeed(Runnable::run);
+        orderFeed.publish(order(null, "1"));
+
+        // When:
+        RecordingEmitter display = (RecordingEmitter) orderFeed.subscribe(null, new ObjectId().toHexString());
+
+        // Then:
+        log.info("The test checks if the display got a reset event and no orders.");
+        assertThat(display.resets).isEqualTo(1);
+        assertThat(display.orders.size()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Should disconnect a display whose buffer is full, without holding back the others.")
+    void disconnectSlowDisplay() {
+        log.info("Entered disconnectSlowDisplay test in OrderFeedServiceTest class.");
+
+        // Given:
+        properties.setBufferSize(2);
+        List<Runnable> stuckSends = new ArrayList<>();
+        OrderFeedService orderFeed = orderFeed(stuckSends::add);
+        RecordingEmitter display = (RecordingEmitter) orderFeed.subscribe(null, null);
+
+        // When:
+        for (int i = 0; i < 3; i++) {
+            orderFeed.publish(order(null, String.valueOf(i)));
+        }
+
+        // Then:
+        log.info("The test checks if the display was disconnected once it fell behind by more than its buffer.");
+        assertThat(display.completed).isTrue();
+        assertThat(orderFeed.subscribers(null)).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Should push the orders of the other instances once, and skip the orders of this instance.")
+    void onEvent() {
+        log.info("Entered onEvent test in OrderFeedServiceTest class.");
+
+        // Given:
+        OrderFeedService orderFeed = orderFeed(Runnable::run);
+        RecordingEmitter display = (RecordingEmitter) orderFeed.subscribe(null, null);
+        OrderEvent other = event("1", new Date());
+
+        // When:
+        orderFeed.onEvent(OrderEvent.of(order(null, "2"), orderFeed.getNodeId()));
+        orderFeed.onEvent(other);
+        orderFeed.onEvent(other);
+
+        // Then:
+        log.info("The test checks if only the order of the other instance was pushed, once.");
+        assertThat(display.orders.size()).isEqualTo(1);
+        assertThat(display.orders.get(0).getId()).isEqualTo("1");
+    }
+
+    private OrderFeedService orderFeed(Executor sender) {
+        return new OrderFeedService(mongoTemplate, properties, sender) {
+            @Override
+            SseEmitter newEmitter() {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    private static OrderDTO order(String tenantId, String id) {
+        OrderDTO order = new OrderDTO(null, Map.of("Polenta", 2), new Date());
+        order.setId(id);
+        order.setTenantId(tenantId);
+        return order;
+    }
+
+    private static OrderEvent event(String orderId, Date date) {
+        return new OrderEvent(new ObjectId(date), null, "other-node", date, order(null, orderId));
+    }
+
+    /**
+     * An emitter that records what it sends instead of writing to a response.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<OrderDTO> orders = new ArrayList<>();
+        private int resets;
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            for (DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof OrderDTO) {
+                    orders.add((OrderDTO) data.getData());
+                } else if (OrderFeedService.RESET_EVENT.equals(data.getData())) {
+                    resets++;
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package RestaurantApi.restaurantapi.services;
 
 
+import RestaurantApi.restaurantapi.config.ResilienceProperties;
+import RestaurantApi.restaurantapi.exceptions.ErrorCode;
 import RestaurantApi.restaurantapi.exceptions.OrderExceptions;
 import RestaurantApi.restaurantapi.exceptions.ProductExceptions;
+import RestaurantApi.restaurantapi.exceptions.RequestExceptions;
 import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.OrderLine;
+import RestaurantApi.restaurantapi.models.OrderQuote;
+import RestaurantApi.restaurantapi.models.OrderStatus;
+import RestaurantApi.restaurantapi.models.OrderSummary;
 import RestaurantApi.restaurantapi.models.ProductDTO;
 import RestaurantApi.restaurantapi.repositories.OrderRepository;
 import RestaurantApi.restaurantapi.repositories.ProductRepository;
@@ -18,6 +25,7 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.text.ParseException;
 import java.util.*;
@@ -27,6 +35,8 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 
 /**
  * This class contains all the tests for OrderService class.
@@ -49,7 +59,7 @@ class OrderServiceTest {
 
     @BeforeEach
     public void setUp(){
-        orderService = new OrderService(orderRepository, productRepository);
+        orderService = createOrderService(orderRepository, productRepository);
     }
 
     @Test
@@ -64,18 +74,150 @@ class OrderServiceTest {
         Mockito.when(productRepository.saveAll(any(List.class))).thenReturn(products);
         log.info("Making the findProductByName function to return the products we saved.");
         for (ProductDTO product:products) {
-            Mockito.when(productRepository.findProductByName(product.getName())).thenReturn(Optional.of(product));
+            Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
         }
 
         log.info("Going to create an order for the test.");
         OrderDTO order = createOrderData();
 
         // When:
-        orderService.createOrder(order);
+        orderService.createOrder(null, order);
 
         // Then:
-        log.info("The test checks if we run the command 'save' only once.");
-        Mockito.verify(orderRepository, Mockito.times(1)).save(any(OrderDTO.class));
+        log.info("The test checks if we run the command 'insertOrder' only once.");
+        Mockito.verify(orderRepository, Mockito.times(1)).insertOrder(any(OrderDTO.class));
+    }
+
+    @Test
+    @DisplayName("Should price an order with the menu snapshot, without the database, and stamp its version.")
+    void createOrderWithMenuSnapshot() throws OrderExceptions, ProductExceptions {
+        log.info("Entered createOrderWithMenuSnapshot test in OrderServiceTest class.");
+
+        // Given:
+        log.info("Going to load the menu for the test.");
+        Mockito.when(productRepository.findAll()).thenReturn(createProducts());
+        MenuService menuService = new MenuService(productRepository, new DependencyService(new ResilienceProperties()), Mockito.mock(CatalogEventBus.class));
+        menuService.reload();
+        orderService = createOrderService(orderRepository, productRepository, menuService);
+        OrderDTO order = createOrderData();
+
+        // When:
+        orderService.createOrder(null, order);
+
+        // Then:
+        log.info("The test checks if the order was priced with the version of the menu without reading any product.");
+        assertThat(order.getPrice()).isEqualTo(59 * 2 + 48);
+        assertThat(order.getMenuVersion()).isEqualTo(menuService.snapshot(null).getVersion());
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.NEW);
+        Mockito.verify(productRepository, Mockito.never()).findProductByName(any(String.class));
+        log.info("The test checks if the order keeps the unit price of every product it was charged.");
+        assertThat(order.getLines().size()).isEqualTo(2);
+        for (OrderLine line : order.getLines()) {
+            assertThat(line.getTotal()).isEqualTo(line.getUnitPrice() * line.getQuantity());
+            assertThat(line.getUnitPrice()).isEqualTo(line.getProductName().equals("Polenta") ? 48 : 59);
+        }
+    }
+
+    @Test
+    @DisplayName("Should quote a basket line by line without saving it.")
+    void quoteOrder() throws ProductExceptions {
+        log.info("Entered quoteOrder test in OrderServiceTest class.");
+
+        // Given:
+        log.info("Going to load the menu and create a basket under the minimum for the test.");
+        Mockito.when(productRepository.findAll()).thenReturn(createProducts());
+        MenuService menuService = new MenuService(productRepository, new DependencyService(new ResilienceProperties()), Mockito.mock(CatalogEventBus.class));
+        menuService.reload();
+        orderService = createOrderService(orderRepository, productRepository, menuService);
+        Map<String, Integer> basket = new LinkedHashMap<>();
+        basket.put("Polenta", 1);
+
+        // When:
+        OrderQuote quote = orderService.quoteOrder(null, new OrderDTO(null, basket));
+
+        // Then:
+        log.info("The test checks the line, the total and that the basket doesn't meet the minimum.");
+        assertThat(quote.getLines().get(0)).isEqualTo(new OrderLine("Polenta", 1, 48, 48));
+        assertThat(quote.getTotal()).isEqualTo(48);
+        assertThat(quote.isMeetsMinimum()).isFalse();
+        assertThat(quote.getMenuVersion()).isEqualTo(menuService.snapshot(null).getVersion());
+        log.info("The test checks that nothing was read or written.");
+        Mockito.verify(productRepository, Mockito.never()).findProductByName(any(String.class));
+        Mockito.verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    @DisplayName("Should return the original order without pricing or saving it again when the idempotency key was used.")
+    void createOrderWithUsedIdempotencyKey() throws OrderExceptions, ProductExceptions {
+        log.info("Entered createOrderWithUsedIdempotencyKey test in OrderServiceTest class.");
+
+        // Given:
+        log.info("Going to create an order that was already saved with the idempotency key.");
+        OrderDTO originalOrder = createOrderData();
+        originalOrder.setIdempotencyKey("key-1");
+        Mockito.when(orderRepository.findOrderByIdempotencyKey(null, "key-1")).thenReturn(Optional.of(originalOrder));
+
+        // When:
+        OrderDTO result = orderService.createOrder(null, createOrderData(), "key-1");
+
+        // Then:
+        log.info("The test checks if the original order was returned.");
+        assertThat(result).isSameAs(originalOrder);
+        log.info("The test checks if the order wasn't priced or saved again.");
+        Mockito.verify(productRepository, Mockito.never()).findProductByName(any(String.class));
+        Mockito.verify(orderRepository, Mockito.never()).insertOrder(any(OrderDTO.class));
+    }
+
+    @Test
+    @DisplayName("Should return the order of the concurrent request when the idempotency key index rejects the save.")
+    void createOrderWhenIdempotencyKeyWasSavedConcurrently() throws OrderExceptions, ProductExceptions {
+        log.info("Entered createOrderWhenIdempotencyKeyWasSavedConcurrently test in OrderServiceTest class.");
+
+        // Given:
+        log.info("Making the findProductByName function to return the products.");
+        for (ProductDTO product:createProducts()) {
+            Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
+        }
+        log.info("Making the save function fail as if another instance saved the same key first.");
+        OrderDTO concurrentOrder = createOrderData();
+        Mockito.when(orderRepository.findOrderByIdempotencyKey(null, "key-2"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(concurrentOrder));
+        Mockito.when(orderRepository.insertOrder(any(OrderDTO.class))).thenThrow(new DuplicateKeyException("E11000"));
+
+        // When:
+        OrderDTO result = orderService.createOrder(null, createOrderData(), "key-2");
+
+        // Then:
+        log.info("The test checks if the order of the concurrent request was returned.");
+        assertThat(result).isSameAs(concurrentOrder);
+        log.info("The test checks if the next replay is answered from the cache.");
+        assertThat(orderService.createOrder(null, createOrderData(), "key-2")).isSameAs(concurrentOrder);
+        Mockito.verify(orderRepository, Mockito.times(2)).findOrderByIdempotencyKey(null, "key-2");
+    }
+
+    @Test
+    @DisplayName("Should rethrow a duplicate key of an order without an idempotency key and ignore the id sent by the client.")
+    void createOrderWhenDuplicateKeyWithoutIdempotencyKey() {
+        log.info("Entered createOrderWhenDuplicateKeyWithoutIdempotencyKey test in OrderServiceTest class.");
+
+        // Given:
+        log.info("Making the findProductByName function to return the products.");
+        for (ProductDTO product:createProducts()) {
+            Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
+        }
+        log.info("Making the save function fail with a duplicate key.");
+        Mockito.when(orderRepository.insertOrder(any(OrderDTO.class))).thenThrow(new DuplicateKeyException("E11000"));
+        OrderDTO order = createOrderData();
+        order.setId("existing-order");
+
+        // When:
+        assertThrows(DuplicateKeyException.class, () -> orderService.createOrder(null, order, null));
+
+        // Then:
+        log.info("The test checks if no order was looked up by a null key and the id of the client was dropped.");
+        Mockito.verify(orderRepository, Mockito.never()).findOrderByIdempotencyKey(any(), any());
+        assertThat(order.getId()).isNull();
     }
 
     @Test
@@ -91,7 +233,7 @@ class OrderServiceTest {
         // When:
         log.info("Run createOrder function to check if we get the exception.");
         OrderExceptions orderExceptions = assertThrows(OrderExceptions.class, ()-> {
-            orderService.createOrder(order);
+            orderService.createOrder(null, order);
         });
 
         // Then:
@@ -111,7 +253,7 @@ class OrderServiceTest {
         Mockito.when(productRepository.saveAll(any(List.class))).thenReturn(products);
         log.info("Making the findProductByName function to return the products we saved.");
         for (ProductDTO product:products) {
-            Mockito.when(productRepository.findProductByName(product.getName())).thenReturn(Optional.of(product));
+            Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
         }
 
         log.info("Going to create an order for the test.");
@@ -122,7 +264,7 @@ class OrderServiceTest {
         // When:
         log.info("Run createOrder function to check if we get the exception.");
         OrderExceptions orderExceptions = assertThrows(OrderExceptions.class, ()-> {
-            orderService.createOrder(order);
+            orderService.createOrder(null, order);
         });
 
         // Then:
@@ -143,7 +285,7 @@ class OrderServiceTest {
         // When:
         log.info("Run createOrder function to check if we get the exception.");
         ProductExceptions productExceptions = assertThrows(ProductExceptions.class, ()-> {
-            orderService.createOrder(order);
+            orderService.createOrder(null, order);
         });
 
         // Then:
@@ -168,9 +310,9 @@ class OrderServiceTest {
         Mockito.when(orderRepository.saveAll(any(List.class))).thenReturn(orders);
 
         // When:
-        log.info("Making the findAll function to return the orders we saved.");
-        Mockito.when(orderRepository.findAll()).thenReturn(orders);
-        List<OrderDTO> result = orderService.getAllOrders();
+        log.info("Making the findAllForListing function to return the orders we saved.");
+        Mockito.when(orderRepository.findAllForListing(null)).thenReturn(orders);
+        List<OrderDTO> result = orderService.getAllOrders(null);
 
         // Then:
         log.info("The test checks if there are 2 orders in the database.");
@@ -181,6 +323,84 @@ class OrderServiceTest {
         assertThat(result.get(1).getId()).isEqualTo(orders.get(1).getId());
     }
 
+    @Test
+    @DisplayName("Should get only the requested fields of the orders from the database.")
+    void getOrdersWithFields() {
+        log.info("Entered getOrdersWithFields test in OrderServiceTest class.");
+
+        // Given:
+        Set<String> fields = Set.of("id", "price");
+        List<Map<String, Object>> orders = List.of(Map.of("id", "632a132b8ff1862a12373ed2", "price", 166));
+        log.info("Making the findAllForListing function to return the projected orders.");
+        Mockito.when(orderRepository.findAllForListing(null, fields, null, null)).thenReturn(orders);
+
+        // When:
+        List<Map<String, Object>> result = orderService.getOrders(null, fields, null, null);
+
+        // Then:
+        log.info("The test checks if the projected orders were returned.");
+        assertThat(result).isEqualTo(orders);
+        Mockito.verify(orderRepository, Mockito.never()).findAllForListing(null);
+    }
+
+    @Test
+    @DisplayName("Should get the orders of a date range from the database.")
+    void getOrdersOfDateRange() throws ParseException {
+        log.info("Entered getOrdersOfDateRange test in OrderServiceTest class.");
+
+        // Given:
+        Date from = createDate("18-09-2022");
+        Date to = createDate("19-09-2022");
+        List<OrderDTO> orders = createOrders();
+        log.info("Making the findAllForListing function to return the orders of the range.");
+        Mockito.when(orderRepository.findAllForListing(null, from, to)).thenReturn(orders);
+
+        // When:
+        List<OrderDTO> result = orderService.getOrders(null, from, to);
+
+        // Then:
+        log.info("The test checks if the orders of the range were returned.");
+        assertThat(result.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should reject a date range whose start is after its end.")
+    void getOrdersOfInvalidDateRange() throws ParseException {
+        log.info("Entered getOrdersOfInvalidDateRange test in OrderServiceTest class.");
+
+        // Given:
+        Date from = createDate("19-09-2022");
+        Date to = createDate("18-09-2022");
+
+        // When:
+        RequestExceptions requestExceptions = assertThrows(RequestExceptions.class, () -> orderService.getOrdersSummary(null, from, to));
+
+        // Then:
+        log.info("The test checks if the exception contains the message that was created for it in the RequestExceptions class.");
+        assertThat(requestExceptions.getMessage()).isEqualTo(RequestExceptions.InvalidDateRangeException());
+        Mockito.verify(orderRepository, Mockito.never()).summarize(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should get the summary of the orders of a date range from the database.")
+    void getOrdersSummary() throws ParseException {
+        log.info("Entered getOrdersSummary test in OrderServiceTest class.");
+
+        // Given:
+        Date from = createDate("18-09-2022");
+        Date to = createDate("19-09-2022");
+        OrderSummary summary = new OrderSummary(from, to, 2, 250, 125);
+        log.info("Making the summarize function to return the summary of the range.");
+        Mockito.when(orderRepository.summarize(null, from, to)).thenReturn(summary);
+
+        // When:
+        OrderSummary result = orderService.getOrdersSummary(null, from, to);
+
+        // Then:
+        log.info("The test checks if the summary was computed by the database.");
+        assertThat(result).isEqualTo(summary);
+    }
+
     @Test
     @DisplayName("Should get all the orders from the last day from the database.")
     void getAllOrdersFromTheLastDay() throws ParseException {
@@ -200,9 +420,9 @@ class OrderServiceTest {
         // When:
         log.info("Going to remove the order that didn't create in the last 24 hours.");
         orders.remove(orders.get(0));
-        log.info("Making the findAll function return the orders that were created in the last 24 hours.");
-        Mockito.when(orderRepository.findAll()).thenReturn(orders);
-        List<OrderDTO> result = orderService.getAllOrdersFromTheLastDay();
+        log.info("Making the findOrdersSince function return the orders that were created in the last 24 hours.");
+        Mockito.when(orderRepository.findOrdersSince(isNull(), any(Date.class))).thenReturn(orders);
+        List<OrderDTO> result = orderService.getAllOrdersFromTheLastDay(null);
 
         // then
         log.info("The test checks if there is 1 order in the database.");
@@ -223,7 +443,7 @@ class OrderServiceTest {
         Mockito.when(productRepository.saveAll(any(List.class))).thenReturn(products);
         log.info("Making the findProductByName function to return the products we saved.");
         for (ProductDTO product:products) {
-            Mockito.when(productRepository.findProductByName(product.getName())).thenReturn(Optional.of(product));
+            Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
         }
 
         log.info("Going to create an order for the test.");
@@ -238,6 +458,94 @@ class OrderServiceTest {
         assertThat(orderPrice).isEqualTo(finalAmount);
     }
 
+    @Test
+    @DisplayName("Should move a NEW order to IN_PROGRESS only from NEW.")
+    void changeOrderStatus() throws OrderExceptions {
+        log.info("Entered changeOrderStatus test in OrderServiceTest class.");
+
+        // Given:
+        OrderDTO startedOrder = createOrderData();
+        startedOrder.setStatus(OrderStatus.IN_PROGRESS);
+        Mockito.when(orderRepository.changeStatus(isNull(), eq("1"), eq(Set.of(OrderStatus.NEW)), eq(OrderStatus.IN_PROGRESS), any(Date.class)))
+                .thenReturn(Optional.of(startedOrder));
+
+        // When:
+        OrderDTO result = orderService.changeOrderStatus(null, "1", OrderStatus.IN_PROGRESS);
+
+        // Then:
+        log.info("The test checks if the order moved, guarded by its previous status.");
+        assertThat(result.getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
+    }
+
+    @Test
+    @DisplayName("Should put the units of a cancelled order back to the stock, and only of a cancelled one.")
+    void cancelOrderRestocks() throws OrderExceptions {
+        log.info("Entered cancelOrderRestocks test in OrderServiceTest class.");
+
+        // Given:
+        InventoryService inventory = Mockito.mock(InventoryService.class);
+        DependencyService dependencyService = new DependencyService(new ResilienceProperties());
+        orderService = new OrderService(orderRepository,
+                new ProductCacheService(productRepository, dependencyService, Mockito.mock(CatalogEventBus.class)),
+                new MenuService(productRepository, dependencyService, Mockito.mock(CatalogEventBus.class)), dependencyService,
+                Mockito.mock(OrderFeedService.class), inventory);
+        List<OrderLine> lines = List.of(new OrderLine("Polenta", 2, 60, 120));
+        OrderDTO cancelledOrder = createOrderData();
+        cancelledOrder.setLines(lines);
+        cancelledOrder.setStatus(OrderStatus.CANCELLED);
+        Mockito.when(orderRepository.changeStatus(isNull(), eq("1"), eq(OrderStatus.OPEN), eq(OrderStatus.CANCELLED), any(Date.class)))
+                .thenReturn(Optional.of(cancelledOrder));
+        Mockito.when(orderRepository.changeStatus(isNull(), eq("2"), eq(Set.of(OrderStatus.NEW)), eq(OrderStatus.IN_PROGRESS), any(Date.class)))
+                .thenReturn(Optional.of(cancelledOrder));
+
+        // When:
+        orderService.changeOrderStatus(null, "1", OrderStatus.CANCELLED);
+        orderService.changeOrderStatus(null, "2", OrderStatus.IN_PROGRESS);
+
+        // Then:
+        log.info("The test checks if only the cancellation put the units back.");
+        Mockito.verify(inventory, Mockito.times(1)).restock(null, lines);
+    }
+
+    @Test
+    @DisplayName("Should answer a conflict when the order already moved past the previous status.")
+    void changeOrderStatusConflict() {
+        log.info("Entered changeOrderStatusConflict test in OrderServiceTest class.");
+
+        // Given:
+        OrderDTO doneOrder = createOrderData();
+        doneOrder.setStatus(OrderStatus.DONE);
+        Mockito.when(orderRepository.changeStatus(isNull(), eq("1"), any(), any(), any(Date.class))).thenReturn(Optional.empty());
+        Mockito.when(orderRepository.findOrder(null, "1")).thenReturn(Optional.of(doneOrder));
+
+        // When:
+        OrderExceptions exception = assertThrows(OrderExceptions.class,
+                () -> orderService.changeOrderStatus(null, "1", OrderStatus.CANCELLED));
+
+        // Then:
+        log.info("The test checks if the error is a status conflict that names the status of the order.");
+        assertThat(exception.getCode()).isEqualTo(ErrorCode.ORDER_STATUS_CONFLICT);
+        assertThat(exception.getMessage()).isEqualTo(OrderExceptions.OrderStatusConflictException(OrderStatus.DONE, OrderStatus.CANCELLED));
+    }
+
+    @Test
+    @DisplayName("Should answer not found when the location has no such order.")
+    void changeStatusOfMissingOrder() {
+        log.info("Entered changeStatusOfMissingOrder test in OrderServiceTest class.");
+
+        // Given:
+        Mockito.when(orderRepository.changeStatus(isNull(), eq("1"), any(), any(), any(Date.class))).thenReturn(Optional.empty());
+        Mockito.when(orderRepository.findOrder(null, "1")).thenReturn(Optional.empty());
+
+        // When:
+        OrderExceptions exception = assertThrows(OrderExceptions.class,
+                () -> orderService.changeOrderStatus(null, "1", OrderStatus.DONE));
+
+        // Then:
+        log.info("The test checks if the error is order not found.");
+        assertThat(exception.getCode()).isEqualTo(ErrorCode.ORDER_NOT_FOUND);
+    }
+
     @Test
     @DisplayName("Should check if the date is from last 24 hours.")
     void fromTheLastDay() throws ParseException {
@@ -0,0 +1,169 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.ResilienceProperties;
+import RestaurantApi.restaurantapi.models.CatalogEvent;
+import RestaurantApi.restaurantapi.models.ProductDTO;
+import RestaurantApi.restaurantapi.repositories.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.Optional;
+
+import static RestaurantApi.restaurantapi.utils.Utils.createProductData;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * This class contains all the tests for ProductCacheService class.
+ */
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductCacheServiceTest {
+
+    @Mock
+    ProductRepository productRepository;
+
+    @Mock
+    CatalogEventBus catalogEventBus;
+
+    ProductCacheService productCacheService;
+
+    @BeforeEach
+    public void setUp(){
+        productCacheService = new ProductCacheService(productRepository, new DependencyService(new ResilienceProperties()), catalogEventBus);
+    }
+
+    @Test
+    @DisplayName("Should read a product from the database only once.")
+    void findProductByName() {
+        log.info("Entered findProductByName test in ProductCacheServiceTest class.");
+
+        // Given:
+        ProductDTO product = createProductData();
+        Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
+
+        // When:
+        productCacheService.findProductByName(null, product.getName());
+        Optional<ProductDTO> result = productCacheService.findProductByName(null, product.getName());
+
+        // Then:
+        log.info("The test checks if the product was found and the database was called once.");
+        assertThat(result.get()).isEqualTo(product);
+        Mockito.verify(productRepository, Mockito.times(1)).findProductByTenantIdAndName(null, product.getName());
+    }
+
+    @Test
+    @DisplayName("Should cache the products of every location apart.")
+    void findProductByNameOfTheLocations() {
+        log.info("Entered findProductByNameOfTheLocations test in ProductCacheServiceTest class.");
+
+        // Given:
+        ProductDTO product = createProductData();
+        ProductDTO downtownProduct = new ProductDTO(product);
+        downtownProduct.setTenantId("downtown");
+        downtownProduct.setPrice(120);
+        Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
+        Mockito.when(productRepository.findProductByTenantIdAndName("downtown", product.getName())).thenReturn(Optional.of(downtownProduct));
+        productCacheService.findProductByName(null, product.getName());
+
+        // When:
+        Optional<ProductDTO> result = productCacheService.findProductByName("downtown", product.getName());
+
+        // Then:
+        log.info("The test checks that the product of the location was read and not the cached product of the default location.");
+        assertThat(result.get().getPrice()).isEqualTo(120);
+        assertThat(productCacheService.findProductByName(null, product.getName()).get().getPrice()).isEqualTo(108);
+        Mockito.verify(productRepository, Mockito.times(1)).findProductByTenantIdAndName("downtown", product.getName());
+    }
+
+    @Test
+    @DisplayName("Should serve the prewarmed products without reading them again.")
+    void prewarm() {
+        log.info("Entered prewarm test in ProductCacheServiceTest class.");
+
+        // Given:
+        ProductDTO product = createProductData();
+        Mockito.when(productRepository.findAll()).thenReturn(List.of(product));
+
+        // When:
+        List<ProductDTO> products = productCacheService.prewarm();
+        Optional<ProductDTO> result = productCacheService.findProductByName(null, product.getName());
+
+        // Then:
+        log.info("The test checks if the product was served from the cache.");
+        assertThat(products.size()).isEqualTo(1);
+        assertThat(result.get()).isEqualTo(product);
+        Mockito.verify(productRepository, Mockito.never()).findProductByTenantIdAndName(null, product.getName());
+    }
+
+    @Test
+    @DisplayName("Should read a product from the database again after a catalog event about it.")
+    void onCatalogEvent() {
+        log.info("Entered onCatalogEvent test in ProductCacheServiceTest class.");
+
+        // Given:
+        log.info("Going to cache that the product doesn't exist.");
+        ProductDTO product = createProductData();
+        Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.empty());
+        assertThat(productCacheService.findProductByName(null, product.getName()).isPresent()).isFalse();
+        log.info("Another instance creates the product.");
+        Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
+
+        // When:
+        productCacheService.onCatalogEvent(CatalogEvent.productChanged(null, product.getName(), "other-node"));
+
+        // Then:
+        log.info("The test checks if the product is found now.");
+        assertThat(productCacheService.findProductByName(null, product.getName()).get()).isEqualTo(product);
+    }
+
+    @Test
+    @DisplayName("Should clear the whole cache when the catalog changed.")
+    void onCatalogChangedEvent() {
+        log.info("Entered onCatalogChangedEvent test in ProductCacheServiceTest class.");
+
+        // Given:
+        ProductDTO product = createProductData();
+        Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
+        productCacheService.findProductByName(null, product.getName());
+
+        // When:
+        productCacheService.onCatalogEvent(new CatalogEvent(null, CatalogEvent.Type.CATALOG_CHANGED, null, null, null, null));
+        productCacheService.findProductByName(null, product.getName());
+
+        // Then:
+        log.info("The test checks if the product was read from the database again.");
+        Mockito.verify(productRepository, Mockito.times(2)).findProductByTenantIdAndName(null, product.getName());
+    }
+
+    @Test
+    @DisplayName("Should not cache a product that was read while it changed.")
+    void invalidateDuringRead() {
+        log.info("Entered invalidateDuringRead test in ProductCacheServiceTest class.");
+
+        // Given:
+        ProductDTO product = createProductData();
+        log.info("Making the catalog change while the product is read from the database.");
+        Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenAnswer(invocation -> {
+            productCacheService.onCatalogEvent(CatalogEvent.productChanged(null, product.getName(), "other-node"));
+            return Optional.of(product);
+        });
+
+        // When:
+        productCacheService.findProductByName(null, product.getName());
+        productCacheService.findProductByName(null, product.getName());
+
+        // Then:
+        log.info("The test checks if the stale product wasn't cached.");
+        Mockito.verify(productRepository, Mockito.times(2)).findProductByTenantIdAndName(null, product.getName());
+    }
+}
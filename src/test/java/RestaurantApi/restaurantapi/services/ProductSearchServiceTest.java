@@ -0,0 +1,126 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.ResilienceProperties;
+import RestaurantApi.restaurantapi.models.CatalogEvent;
+import RestaurantApi.restaurantapi.models.ProductDTO;
+import RestaurantApi.restaurantapi.repositories.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+import static RestaurantApi.restaurantapi.utils.Utils.createProducts;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * This class contains all the tests for ProductSearchService class.
+ */
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductSearchServiceTest {
+
+    @Mock
+    ProductRepository productRepository;
+
+    @Mock
+    CatalogEventBus catalogEventBus;
+
+    ProductSearchService productSearchService;
+
+    @BeforeEach
+    public void setUp(){
+        DependencyService dependencyService = new DependencyService(new ResilienceProperties());
+        productSearchService = new ProductSearchService(productRepository,
+                new ProductCacheService(productRepository, dependencyService, catalogEventBus), catalogEventBus, dependencyService);
+    }
+
+    @Test
+    @DisplayName("Should search the products of the database after the index was built.")
+    void rebuild() {
+        log.info("Entered rebuild test in ProductSearchServiceTest class.");
+
+        // Given:
+        List<ProductDTO> products = createProducts();
+        Mockito.when(productRepository.findAll()).thenReturn(products);
+
+        // When:
+        productSearchService.rebuild();
+        List<ProductDTO> results = productSearchService.searchByName(null, "salmn", 10);
+
+        // Then:
+        log.info("The test checks if the product was found despite the typo.");
+        assertThat(results.size()).isEqualTo(1);
+        assertThat(results.get(0)).isEqualTo(products.get(2));
+    }
+
+    @Test
+    @DisplayName("Should keep the products that were added while the index was rebuilt.")
+    void rebuildKeepsAddedProducts() {
+        log.info("Entered rebuildKeepsAddedProducts test in ProductSearchServiceTest class.");
+
+        // Given:
+        List<ProductDTO> products = createProducts();
+        Mockito.when(productRepository.findAll()).thenAnswer(invocation -> {
+            productSearchService.add(products.get(0));
+            return products.subList(1, 3);
+        });
+
+        // When:
+        productSearchService.rebuild();
+
+        // Then:
+        log.info("The test checks if the product that was added during the read is still searchable.");
+        assertThat(productSearchService.searchByName(null, "margherita", 10).size()).isEqualTo(1);
+        assertThat(productSearchService.searchByName(null, "polenta", 10).size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should add a product that was created on another instance.")
+    void onCatalogEvent() {
+        log.info("Entered onCatalogEvent test in ProductSearchServiceTest class.");
+
+        // Given:
+        ProductDTO product = createProducts().get(1);
+        Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
+
+        // When:
+        productSearchService.onCatalogEvent(CatalogEvent.productChanged(null, product.getName(), "other-node"));
+        productSearchService.onCatalogEvent(CatalogEvent.productChanged(null, product.getName(), "other-node"));
+
+        // Then:
+        log.info("The test checks if the product is searchable and was read once.");
+        assertThat(productSearchService.searchByName(null, "pol", 10).get(0)).isEqualTo(product);
+        Mockito.verify(productRepository, Mockito.times(1)).findProductByTenantIdAndName(null, product.getName());
+    }
+
+    @Test
+    @DisplayName("Should search the descriptions of the products by page.")
+    void searchByDescription() {
+        log.info("Entered searchByDescription test in ProductSearchServiceTest class.");
+
+        // Given:
+        List<ProductDTO> products = createProducts();
+        products.forEach(productSearchService::add);
+
+        // When:
+        Page<ProductDTO> results = productSearchService.searchByDescription(null, "almonds cream", PageRequest.of(0, 1));
+
+        // Then:
+        log.info("The test checks if the best match is first and all the matches are counted.");
+        assertThat(results.getContent().get(0)).isEqualTo(products.get(2));
+        assertThat(results.getTotalElements()).isEqualTo(2L);
+        assertThat(results.getTotalPages()).isEqualTo(2);
+    }
+}
@@ -6,6 +6,7 @@ import RestaurantApi.restaurantapi.models.ProductDTO;
 import RestaurantApi.restaurantapi.repositories.ProductRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,6 +22,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static RestaurantApi.restaurantapi.utils.Utils.createProductData;
+import static RestaurantApi.restaurantapi.utils.Utils.createProductService;
 import static RestaurantApi.restaurantapi.utils.Utils.createProducts;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -41,6 +43,11 @@ public class ProductServiceTest {
     @InjectMocks
     ProductService productService;
 
+    @BeforeEach
+    public void setUp(){
+        productService = createProductService(productRepository);
+    }
+
     @Test
     @DisplayName("Should create a new product.")
     void createProduct() throws ProductExceptions, IOException {
@@ -51,7 +58,7 @@ public class ProductServiceTest {
         ProductDTO product = createProductData();
 
         // When:
-        productService.createProduct(product);
+        productService.createProduct(null, product);
 
         // Then:
         log.info("The test checks if the command 'save' run only once.");
@@ -69,12 +76,12 @@ public class ProductServiceTest {
         log.info("Going to save the product for the test.");
         Mockito.when(productRepository.save(any(ProductDTO.class))).thenReturn(product);
         log.info("Making the findProductByName function to return the product we saved.");
-        Mockito.when(productRepository.findProductByName(product.getName())).thenReturn(Optional.of(product));
+        Mockito.when(productRepository.findProductByTenantIdAndName(null, product.getName())).thenReturn(Optional.of(product));
 
         // When:
         log.info("Run createProduct function to check if we get the exception.");
         ProductExceptions productExceptions = assertThrows(ProductExceptions.class, ()-> {
-            productService.createProduct(product);
+            productService.createProduct(null, product);
         });
 
         // Then:
@@ -96,7 +103,7 @@ public class ProductServiceTest {
         // When:
         log.info("Run createProduct function to check if we get the exception.");
         IOException productExceptions = assertThrows(IOException.class, ()-> {
-            productService.createProduct(product);
+            productService.createProduct(null, product);
         });
 
         // Then:
@@ -116,9 +123,9 @@ public class ProductServiceTest {
         Mockito.when(productRepository.saveAll(any(List.class))).thenReturn(products);
 
         // When:
-        log.info("Making the findAll function to return the products we saved.");
-        Mockito.when(productRepository.findAll()).thenReturn(products);
-        List<ProductDTO> result = productService.getAllProducts();
+        log.info("Making the findAllByTenantId function to return the products we saved.");
+        Mockito.when(productRepository.findAllByTenantId(null)).thenReturn(products);
+        List<ProductDTO> result = productService.getAllProducts(null);
 
         // Then:
         log.info("The test checks if there are 3 products in the database.");
@@ -138,12 +145,12 @@ public class ProductServiceTest {
         log.info("Going to create a product for the test.");
         ProductDTO newProduct = createProductData();
         log.info("Making the findProductByName function to return Optional.empty() because we didn't safe the newProduct.");
-        Mockito.when(productRepository.findProductByName(newProduct.getName())).thenReturn(Optional.empty());
+        Mockito.when(productRepository.findProductByTenantIdAndName(null, newProduct.getName())).thenReturn(Optional.empty());
 
         // When:
         log.info("Run createProduct function to check if we get the exception.");
         ProductExceptions productExceptions = assertThrows(ProductExceptions.class, ()-> {
-            productService.getProductByName(newProduct.getName());
+            productService.getProductByName(null, newProduct.getName());
         });
 
         // Then:
@@ -160,10 +167,10 @@ public class ProductServiceTest {
         log.info("Going to create a product for the test.");
         ProductDTO newProduct = createProductData();
         log.info("Making the findProductByName function to return the product we saved.");
-        Mockito.when(productRepository.findProductByName(newProduct.getName())).thenReturn(Optional.of(newProduct));
+        Mockito.when(productRepository.findProductByTenantIdAndName(null, newProduct.getName())).thenReturn(Optional.of(newProduct));
 
         // When:
-        ProductDTO product = productService.getProductByName(newProduct.getName());
+        ProductDTO product = productService.getProductByName(null, newProduct.getName());
 
         // Then:
         log.info("The test checks if the name of the product we saved is equal to the product we found.");
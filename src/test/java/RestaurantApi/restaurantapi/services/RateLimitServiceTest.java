@@ -0,0 +1,127 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.config.RateLimitProperties;
+import RestaurantApi.restaurantapi.services.RateLimitService.RateLimitedEndpoint;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * This class contains all the tests for RateLimitService class.
+ */
+@Slf4j
+class RateLimitServiceTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    RateLimitProperties properties;
+
+    RateLimitService rateLimitService;
+
+    @BeforeEach
+    public void setUp(){
+        properties = new RateLimitProperties();
+        properties.setOrders(new RateLimitProperties.Limit(10, 5));
+        properties.setMaxClients(2);
+        rateLimitService = new RateLimitService(properties);
+    }
+
+    @Test
+    @DisplayName("Should allow a burst of requests and then reject the client until a token is added.")
+    void tryAcquire() {
+        log.info("Entered tryAcquire test in RateLimitServiceTest class.");
+
+        // Given:
+        long now = 0;
+        log.info("Going to use the whole burst of the client.");
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimitService.tryAcquire(RateLimitedEndpoint.ORDERS, "pos-1", now)).isEqualTo(0L);
+        }
+
+        // When:
+        long waitNanos = rateLimitService.tryAcquire(RateLimitedEndpoint.ORDERS, "pos-1", now);
+
+        // Then:
+        log.info("The test checks if the client has to wait one token interval.");
+        assertThat(waitNanos).isEqualTo(SECOND / 10);
+        log.info("The test checks if another client is not affected.");
+        assertThat(rateLimitService.tryAcquire(RateLimitedEndpoint.ORDERS, "pos-2", now)).isEqualTo(0L);
+        log.info("The test checks if the client is allowed again after the interval.");
+        assertThat(rateLimitService.tryAcquire(RateLimitedEndpoint.ORDERS, "pos-1", now + SECOND / 10)).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("Should keep the number of tracked clients bounded.")
+    void evictClients() {
+        log.info("Entered evictClients test in RateLimitServiceTest class.");
+
+        // When:
+        rateLimitService.tryAcquire(RateLimitedEndpoint.ORDERS, "pos-1", 0);
+        rateLimitService.tryAcquire(RateLimitedEndpoint.ORDERS, "pos-2", 0);
+        rateLimitService.tryAcquire(RateLimitedEndpoint.ORDERS, "pos-3", SECOND);
+
+        // Then:
+        log.info("The test checks if the idle clients were evicted.");
+        assertThat(rateLimitService.trackedClients()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should never allow more requests than the burst when many threads use the same client.")
+    void tryAcquireConcurrently() throws InterruptedException {
+        log.info("Entered tryAcquireConcurrently test in RateLimitServiceTest class.");
+
+        // Given:
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When:
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> {
+                if (rateLimitService.tryAcquire(RateLimitedEndpoint.ORDERS, "pos-1", 0) == 0) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // Then:
+        log.info("The test checks if exactly the burst was allowed.");
+        assertThat(allowed.get()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should limit a client in all the locations together, so naming new locations gives it no fresh buckets.")
+    void tryAcquireInManyLocations() {
+        log.info("Entered tryAcquireInManyLocations test in RateLimitServiceTest class.");
+
+        // Given:
+        properties.setMaxClients(100);
+        properties.setClientLocations(2);
+        int allowed = 0;
+
+        // When:
+        for (int i = 0; i < 20; i++) {
+            if (rateLimitService.tryAcquire(RateLimitedEndpoint.ORDERS, "pos-1", "location-" + i, 0) == 0) {
+                allowed++;
+            }
+        }
+
+        // Then:
+        log.info("The test checks if the client was allowed twice the burst of one location, and another client wasn't affected.");
+        assertThat(allowed).isEqualTo(10);
+        assertThat(rateLimitService.tryAcquire(RateLimitedEndpoint.ORDERS, "pos-2", "location-0", 0)).isEqualTo(0L);
+        for (int i = 0; i < 4; i++) {
+            rateLimitService.tryAcquire(RateLimitedEndpoint.ORDERS, "pos-2", "location-0", 0);
+        }
+        assertThat(rateLimitService.tryAcquire(RateLimitedEndpoint.ORDERS, "pos-2", "location-0", 0)).isEqualTo(SECOND / 10);
+    }
+}
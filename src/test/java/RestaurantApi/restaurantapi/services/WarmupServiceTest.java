@@ -0,0 +1,103 @@
+package RestaurantApi.restaurantapi.services;
+
+import RestaurantApi.restaurantapi.models.OrderDTO;
+import RestaurantApi.restaurantapi.models.ProductDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+import static RestaurantApi.restaurantapi.utils.Utils.createProducts;
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * This class contains all the tests for WarmupService class.
+ */
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WarmupServiceTest {
+
+    @Mock
+    MongoTemplate mongoTemplate;
+
+    @Mock
+    IndexOperations indexOperations;
+
+    @Mock
+    OrderService orderService;
+
+    @Mock
+    ProductCacheService productCache;
+
+    @Mock
+    ProductSearchService productSearch;
+
+    @Mock
+    MenuService menuService;
+
+    MongoMappingContext mappingContext = new MongoMappingContext();
+
+    WarmupService warmupService;
+
+    @BeforeEach
+    public void setUp(){
+        Mockito.when(mongoTemplate.indexOps(any(Class.class))).thenReturn(indexOperations);
+        warmupService = new WarmupService(mongoTemplate, mappingContext, orderService, productCache, productSearch, menuService);
+    }
+
+    @Test
+    @DisplayName("Should create the indexes and fill the search index with the products of the cache warmup.")
+    void warmUp() {
+        log.info("Entered warmUp test in WarmupServiceTest class.");
+
+        // Given:
+        List<ProductDTO> products = createProducts();
+        Mockito.when(productCache.prewarm()).thenReturn(products);
+        mappingContext.setAutoIndexCreation(false);
+
+        // When:
+        warmupService.warmUp();
+
+        // Then:
+        log.info("The test checks if the indexes of the models were created and the products were read once.");
+        Mockito.verify(mongoTemplate).indexOps(ProductDTO.class);
+        Mockito.verify(mongoTemplate).indexOps(OrderDTO.class);
+        Mockito.verify(indexOperations, Mockito.atLeastOnce()).ensureIndex(any(IndexDefinition.class));
+        Mockito.verify(orderService).createIndexes();
+        Mockito.verify(productSearch).rebuild(products);
+        Mockito.verify(menuService).reload();
+    }
+
+    @Test
+    @DisplayName("Should leave the indexes of the models to the startup when it creates them, and survive a database failure.")
+    void warmUpWhenTheDatabaseIsDown() {
+        log.info("Entered warmUpWhenTheDatabaseIsDown test in WarmupServiceTest class.");
+
+        // Given:
+        mappingContext.setAutoIndexCreation(true);
+        Mockito.when(productCache.prewarm()).thenThrow(new DataAccessResourceFailureException("down"));
+
+        // When:
+        warmupService.warmUp();
+
+        // Then:
+        log.info("The test checks that the indexes of the models weren't created again and nothing was rebuilt.");
+        Mockito.verify(mongoTemplate, Mockito.never()).indexOps(any(Class.class));
+        Mockito.verify(orderService).createIndexes();
+        Mockito.verify(productSearch, Mockito.never()).rebuild(any(List.class));
+    }
+}
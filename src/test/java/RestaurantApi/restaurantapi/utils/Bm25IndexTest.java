@@ -0,0 +1,84 @@
+package RestaurantApi.restaurantapi.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * This class contains all the tests for Bm25Index class.
+ */
+@Slf4j
+class Bm25IndexTest {
+
+    Bm25Index<String> index;
+
+    @BeforeEach
+    public void setUp(){
+        index = new Bm25Index<>();
+        index.add("Tomato sauce, Mozzarella and basil", "Margherita Pizza");
+        index.add("A delicate cream of fresh corn, Parmesan, Champignon, Portobello and King of the wood mushrooms, " +
+                "blanched asparagus, truffle cream and Porcini", "Polenta");
+        index.add("Roasted Salmon on pumpkin cream, bonfire potato and broccomini in cream sauce, white wine, nutmeg and roasted almonds",
+                "Roasted Salmon");
+        index.add("Truffle tagliatelle with almond butter", "Tagliatelle");
+    }
+
+    @Test
+    @DisplayName("Should rank the texts with more of the query words first.")
+    void search() {
+        log.info("Entered search test in Bm25IndexTest class.");
+
+        // When:
+        Bm25Index.Results<String> results = index.search("truffle almonds", 0, 10);
+
+        // Then:
+        log.info("The test checks if the text with both words is first and the singular form matched the plural.");
+        assertThat(results.getTotal()).isEqualTo(3);
+        assertThat(results.getValues().get(0)).isEqualTo("Tagliatelle");
+    }
+
+    @Test
+    @DisplayName("Should rank a short text before a long text with the same match.")
+    void shortTextFirst() {
+        log.info("Entered shortTextFirst test in Bm25IndexTest class.");
+
+        // When:
+        List<String> results = index.search("sauce", 0, 10).getValues();
+
+        // Then:
+        log.info("The test checks if the shorter description is first.");
+        assertThat(results).isEqualTo(List.of("Margherita Pizza", "Roasted Salmon"));
+    }
+
+    @Test
+    @DisplayName("Should return the requested page of the results.")
+    void page() {
+        log.info("Entered page test in Bm25IndexTest class.");
+
+        // When:
+        List<String> all = index.search("cream truffle", 0, 10).getValues();
+        Bm25Index.Results<String> secondPage = index.search("cream truffle", 1, 1);
+
+        // Then:
+        log.info("The test checks if the page is the second result and the total counts all the results.");
+        assertThat(secondPage.getValues()).isEqualTo(List.of(all.get(1)));
+        assertThat(secondPage.getTotal()).isEqualTo(all.size());
+        assertThat(index.search("cream truffle", 10, 1).getValues()).isEqualTo(List.of());
+    }
+
+    @Test
+    @DisplayName("Should ignore the stop words and the case.")
+    void tokenize() {
+        log.info("Entered tokenize test in Bm25IndexTest class.");
+
+        // Then:
+        log.info("The test checks if the terms are normalized.");
+        assertThat(Bm25Index.tokenize("The Roasted Almonds and Basil")).isEqualTo(List.of("roasted", "almond", "basil"));
+        assertThat(index.search("and the", 0, 10).getTotal()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,58 @@
+package RestaurantApi.restaurantapi.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.mockito.Answers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.Optional;
+
+/**
+ * This class is a stand-in for a repository whose database misbehaves.
+ * Use it as the default answer of a repository mock, e.g. Mockito.mock(ProductRepository.class, faultInjector).
+ */
+@Slf4j
+public class FaultInjector implements Answer<Object> {
+
+    private volatile boolean failing;
+    private volatile long latencyMillis;
+    private volatile int calls;
+
+    /**
+     * This function makes the next calls fail as if the database is unreachable.
+     * @param failing - True to fail the calls and false to answer them.
+     */
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    /**
+     * This function makes the next calls slow.
+     * @param latencyMillis - the latency of every call in milliseconds.
+     */
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public int getCalls() {
+        return calls;
+    }
+
+    @Override
+    public Object answer(InvocationOnMock invocation) throws Throwable {
+        calls++;
+        if (latencyMillis > 0) {
+            Thread.sleep(latencyMillis);
+        }
+        if (failing) {
+            log.info("Injecting a database failure into " + invocation.getMethod().getName() + ".");
+            throw new DataAccessResourceFailureException("Timed out while waiting for a server");
+        }
+        Class<?> returnType = invocation.getMethod().getReturnType();
+        if (returnType == Optional.class) {
+            return Optional.empty();
+        }
+        return Answers.RETURNS_DEFAULTS.answer(invocation);
+    }
+}
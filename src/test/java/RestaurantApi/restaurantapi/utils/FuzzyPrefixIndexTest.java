@@ -0,0 +1,88 @@
+package RestaurantApi.restaurantapi.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+/**
+ * This class contains all the tests for FuzzyPrefixIndex class.
+ */
+@Slf4j
+class FuzzyPrefixIndexTest {
+
+    FuzzyPrefixIndex<String> index;
+
+    @BeforeEach
+    public void setUp(){
+        index = new FuzzyPrefixIndex<>();
+        for (String name : List.of("Margherita Pizza", "Polenta", "Pizza Bianca", "Crème Brûlée", "Pasta Carbonara", "Panna Cotta")) {
+            index.add(name, name);
+        }
+    }
+
+    @Test
+    @DisplayName("Should find the keys with a word starting with the query, the shortest first.")
+    void prefixSearch() {
+        log.info("Entered prefixSearch test in FuzzyPrefixIndexTest class.");
+
+        // When:
+        List<String> results = index.search("piz", 10);
+
+        // Then:
+        log.info("The test checks if both pizzas were found, the one whose matching word is followed by less first.");
+        assertThat(results).isEqualTo(List.of("Margherita Pizza", "Pizza Bianca"));
+    }
+
+    @Test
+    @DisplayName("Should ignore case and accents.")
+    void searchWithoutAccents() {
+        log.info("Entered searchWithoutAccents test in FuzzyPrefixIndexTest class.");
+
+        // Then:
+        log.info("The test checks if the query without accents finds the key with accents.");
+        assertThat(index.search("CREME BRU", 10)).isEqualTo(List.of("Crème Brûlée"));
+    }
+
+    @Test
+    @DisplayName("Should find the keys despite a typo.")
+    void fuzzySearch() {
+        log.info("Entered fuzzySearch test in FuzzyPrefixIndexTest class.");
+
+        // Then:
+        log.info("The test checks if a transposition, a missing letter and a wrong letter are tolerated.");
+        assertThat(index.search("plonta", 10)).isEqualTo(List.of("Polenta"));
+        assertThat(index.search("carbnara", 10)).isEqualTo(List.of("Pasta Carbonara"));
+        assertThat(index.search("margarita", 10)).isEqualTo(List.of("Margherita Pizza"));
+        assertThat(index.search("mrag", 10)).isEqualTo(List.of("Margherita Pizza"));
+    }
+
+    @Test
+    @DisplayName("Should not find anything for a query that is too far from every key.")
+    void noMatch() {
+        log.info("Entered noMatch test in FuzzyPrefixIndexTest class.");
+
+        // Then:
+        log.info("The test checks if nothing was found.");
+        assertThat(index.search("sushi", 10)).isEqualTo(List.of());
+        assertThat(index.search("   ", 10)).isEqualTo(List.of());
+    }
+
+    @Test
+    @DisplayName("Should return at most the limit, exact prefixes before typos.")
+    void limit() {
+        log.info("Entered limit test in FuzzyPrefixIndexTest class.");
+
+        // When:
+        index.add("Pita", "Pita");
+        List<String> results = index.search("pit", 1);
+
+        // Then:
+        log.info("The test checks if only the exact prefix match was returned.");
+        assertThat(results).isEqualTo(List.of("Pita"));
+    }
+}
@@ -1,8 +1,29 @@
 package RestaurantApi.restaurantapi.utils;
 
+import RestaurantApi.restaurantapi.config.MessageFormatsConfig;
+import RestaurantApi.restaurantapi.config.ResilienceProperties;
 import RestaurantApi.restaurantapi.models.OrderDTO;
 import RestaurantApi.restaurantapi.models.ProductDTO;
+import RestaurantApi.restaurantapi.repositories.OrderRepository;
+import RestaurantApi.restaurantapi.repositories.ProductRepository;
+import RestaurantApi.restaurantapi.services.CatalogEventBus;
+import RestaurantApi.restaurantapi.services.DependencyService;
+import RestaurantApi.restaurantapi.services.InventoryService;
+import RestaurantApi.restaurantapi.services.MenuService;
+import RestaurantApi.restaurantapi.services.OrderFeedService;
+import RestaurantApi.restaurantapi.services.OrderService;
+import RestaurantApi.restaurantapi.services.ProductCacheService;
+import RestaurantApi.restaurantapi.services.ProductSearchService;
+import RestaurantApi.restaurantapi.services.ProductService;
 import lombok.extern.slf4j.Slf4j;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -141,5 +162,70 @@ public class Utils {
         log.info("Going to parse the given String to Date object.");
         return formatter.parse(date_string);
     }
-}
 
+    /**
+     * This function creates a ProductService over the given repository, with a catalog events bus that publishes nothing.
+     * @param productRepository - the product repository.
+     * @return ProductService.
+     */
+    public static ProductService createProductService(ProductRepository productRepository) {
+        DependencyService dependencyService = new DependencyService(new ResilienceProperties());
+        CatalogEventBus catalogEventBus = Mockito.mock(CatalogEventBus.class);
+        ProductCacheService productCacheService = new ProductCacheService(productRepository, dependencyService, catalogEventBus);
+        return new ProductService(productRepository, productCacheService,
+                new ProductSearchService(productRepository, productCacheService, catalogEventBus, dependencyService),
+                catalogEventBus, dependencyService);
+    }
+
+    /**
+     * This function creates an OrderService over the given repositories.
+     * @param orderRepository - the order repository.
+     * @param productRepository - the product repository.
+     * @return OrderService.
+     */
+    public static OrderService createOrderService(OrderRepository orderRepository, ProductRepository productRepository) {
+        DependencyService dependencyService = new DependencyService(new ResilienceProperties());
+        return createOrderService(orderRepository, productRepository,
+                new MenuService(productRepository, dependencyService, Mockito.mock(CatalogEventBus.class)));
+    }
+
+    /**
+     * This function creates an OrderService over the given repositories that prices the orders with the given menu.
+     * @param orderRepository - the order repository.
+     * @param productRepository - the product repository.
+     * @param menuService - the menu.
+     * @return OrderService.
+     */
+    public static OrderService createOrderService(OrderRepository orderRepository, ProductRepository productRepository, MenuService menuService) {
+        DependencyService dependencyService = new DependencyService(new ResilienceProperties());
+        return new OrderService(orderRepository,
+                new ProductCacheService(productRepository, dependencyService, Mockito.mock(CatalogEventBus.class)), menuService, dependencyService,
+                Mockito.mock(OrderFeedService.class), Mockito.mock(InventoryService.class));
+    }
+
+    /**
+     * This function creates the mapping converter of the documents like Spring Boot does, with the given custom conversions.
+     * @param conversions - the custom conversions, e.g. those of MongoConfig.
+     * @return MappingMongoConverter.
+     */
+    public static MappingMongoConverter createMongoConverter(MongoCustomConversions conversions) {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    /**
+     * This function creates the message converters of the application: JSON, and CBOR and Smile of MessageFormatsConfig.
+     * @return the converters, for MockMvc.
+     */
+    public static HttpMessageConverter<?>[] createMessageConverters() {
+        MessageFormatsConfig messageFormats = new MessageFormatsConfig();
+        return new HttpMessageConverter<?>[]{new MappingJackson2HttpMessageConverter(new Jackson2ObjectMapperBuilder().build()),
+                messageFormats.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder()),
+                messageFormats.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder())};
+    }
+}